@@ -0,0 +1,70 @@
+package com.psychegame.config;
+
+import com.psychegame.service.support.ReplicaDataSource;
+import com.psychegame.service.support.WriteTracker;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * 读写分离数据源配置
+ * <p>
+ * 启用后默认数据源为 {@link LazyConnectionDataSourceProxy}：连接在第一次执行语句时才获取，
+ * 只读事务（{@code @Transactional(readOnly = true)}）从 {@link ReplicaDataSource} 取从库连接，
+ * 读写事务和不在事务中的语句使用主库。主库仍按 spring.datasource 配置。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.routing", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+    
+    @Bean
+    @ConfigurationProperties("datasource.routing")
+    public DataSourceRoutingProperties dataSourceRoutingProperties() {
+        return new DataSourceRoutingProperties();
+    }
+    
+    /**
+     * 主库连接池
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    /**
+     * 记录用户写入，供主库粘滞判断；同时作为MyBatis插件注册
+     */
+    @Bean
+    public WriteTracker writeTracker(DataSourceRoutingProperties properties) {
+        return new WriteTracker(properties.getStickyWindow());
+    }
+    
+    @Bean
+    public ReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource, DataSourceRoutingProperties properties,
+                                               WriteTracker writeTracker, MeterRegistry meterRegistry) {
+        if (properties.getReplicas().isEmpty()) {
+            throw new IllegalStateException("已启用读写分离但未配置从库（datasource.routing.replicas）");
+        }
+        return new ReplicaDataSource(primaryDataSource, properties, writeTracker, meterRegistry);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaryDataSource);
+        proxy.setReadOnlyDataSource(replicaDataSource);
+        return proxy;
+    }
+}
@@ -0,0 +1,66 @@
+package com.psychegame.config;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置（datasource.routing）
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+public class DataSourceRoutingProperties {
+    
+    /**
+     * 是否启用读写分离，未启用时只使用主库
+     */
+    private boolean enabled;
+    
+    /**
+     * 用户写入后，其只读事务继续使用主库的时间
+     */
+    private Duration stickyWindow = Duration.ofSeconds(2);
+    
+    /**
+     * 从库延迟超过此时间时停止使用，降到一半以下时恢复
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+    
+    /**
+     * 从库列表
+     */
+    private List<Replica> replicas = new ArrayList<>();
+    
+    /**
+     * 从库连接配置，未配置的用户名、密码、驱动与主库相同
+     */
+    @Data
+    public static class Replica {
+        
+        /**
+         * 从库名称，用于连接池名称和监控指标
+         */
+        private String name;
+        
+        private String url;
+        
+        private String username;
+        
+        private String password;
+        
+        private String driverClassName;
+        
+        private int maximumPoolSize = 20;
+        
+        private int minimumIdle = 5;
+        
+        /**
+         * 获取连接的超时时间，较短以便从库不可用时尽快改用其他从库或主库
+         */
+        private Duration connectionTimeout = Duration.ofSeconds(1);
+    }
+}
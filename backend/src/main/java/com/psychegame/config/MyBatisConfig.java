@@ -0,0 +1,37 @@
+package com.psychegame.config;
+
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * MyBatis配置
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Configuration
+public class MyBatisConfig {
+    
+    /**
+     * 默认会话模板，供Mapper接口使用
+     */
+    @Bean
+    @Primary
+    public SqlSessionTemplate sqlSessionTemplate(SqlSessionFactory sqlSessionFactory) {
+        return new SqlSessionTemplate(sqlSessionFactory);
+    }
+    
+    /**
+     * 批量会话模板，供后台回写任务使用
+     * <p>
+     * 需在事务中使用，语句在事务提交时以JDBC批处理方式发送。
+     */
+    @Bean
+    public SqlSessionTemplate batchSqlSessionTemplate(SqlSessionFactory sqlSessionFactory) {
+        return new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+    }
+}
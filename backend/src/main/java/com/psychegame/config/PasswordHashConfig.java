@@ -0,0 +1,83 @@
+package com.psychegame.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 密码哈希配置
+ * <p>
+ * BCrypt计算耗时较长，放在独立的有界线程池中执行，队列满时直接拒绝，
+ * 避免登录、注册高峰占满Tomcat请求线程。注册时加密完成后的插入用户在单独的写入线程池中执行，不占用哈希线程。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Configuration
+public class PasswordHashConfig {
+    
+    @Value("${password.hash.strength:10}")
+    private int strength;
+    
+    @Value("${password.hash.pool-size:0}")
+    private int poolSize;
+    
+    @Value("${password.hash.queue-capacity:64}")
+    private int queueCapacity;
+    
+    @Value("${password.hash.write-pool-size:4}")
+    private int writePoolSize;
+    
+    @Bean
+    public BCryptPasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder(strength);
+    }
+    
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashExecutor(MeterRegistry meterRegistry) {
+        // 未配置时按CPU核数设置线程数，BCrypt为纯计算任务
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        Gauge.builder("password.hash.queue", executor, e -> e.getQueue().size())
+                .description("等待执行的密码哈希任务数")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在执行的密码哈希任务数")
+                .register(meterRegistry);
+        return executor;
+    }
+    
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor registerWriteExecutor(MeterRegistry meterRegistry) {
+        // 等待写入的注册数已由哈希队列限制，队列满时由哈希线程直接执行
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                writePoolSize,
+                writePoolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("register-write-"),
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        Gauge.builder("password.hash.write.queue", executor, e -> e.getQueue().size())
+                .description("密码加密完成、等待插入的注册数")
+                .register(meterRegistry);
+        return executor;
+    }
+}
@@ -0,0 +1,39 @@
+package com.psychegame.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Redis配置
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Configuration
+public class RedisConfig {
+    
+    @Value("${redis.monitor.interval:5000}")
+    private long recoveryInterval;
+    
+    /**
+     * 发布/订阅消息监听容器
+     * <p>
+     * 不随应用自动启动，由{@link com.psychegame.service.support.RedisHealthMonitor}在Redis可用后启动，
+     * 启动后连接断开时按检测间隔重试订阅，Redis未运行时不影响应用启动。
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
+            @Override
+            public boolean isAutoStartup() {
+                return false;
+            }
+        };
+        container.setConnectionFactory(connectionFactory);
+        container.setRecoveryInterval(recoveryInterval);
+        return container;
+    }
+}
@@ -0,0 +1,67 @@
+package com.psychegame.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 录像回放校验配置
+ * <p>
+ * 回放为纯计算任务，放在独立的ForkJoin线程池中执行，与Tomcat请求线程、公共ForkJoin线程池隔离。
+ * 使用异步模式（FIFO），先提交的录像先校验。
+ * 校验通过后的记录令牌、写入成绩和推送会访问数据库和Redis，在单独的发布线程池中执行，不占用回放线程。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Configuration
+public class ReplayConfig {
+    
+    @Value("${game.replay.parallelism:0}")
+    private int parallelism;
+    
+    @Value("${game.replay.publish-pool-size:8}")
+    private int publishPoolSize;
+    
+    @Value("${game.replay.max-pending:256}")
+    private int maxPending;
+    
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool replayVerifyPool() {
+        // 未配置时按CPU核数设置并行度
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("replay-verify-" + thread.getPoolIndex());
+            return thread;
+        };
+        return new ForkJoinPool(threads, factory, null, true);
+    }
+    
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor replayPublishExecutor(MeterRegistry meterRegistry) {
+        // 等待校验的录像数已由max-pending限制，队列满时由回放线程直接执行
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                publishPoolSize,
+                publishPoolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxPending),
+                new CustomizableThreadFactory("replay-publish-"),
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        Gauge.builder("game.replay.publish.queue", executor, e -> e.getQueue().size())
+                .description("校验通过、等待发布的成绩数")
+                .register(meterRegistry);
+        return executor;
+    }
+}
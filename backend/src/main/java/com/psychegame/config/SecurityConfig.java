@@ -1,9 +1,11 @@
 package com.psychegame.config;
 
 import com.psychegame.filter.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -34,8 +36,30 @@ public class SecurityConfig {
             
             // 配置授权规则
             .authorizeHttpRequests(authorize -> authorize
+                // 异步结果、错误页的再次分发沿用原请求的鉴权结果
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                 // 允许所有用户访问的路径
-                .requestMatchers("/api/user/register", "/api/user/login", "/doc.html", "/webjars/**", "/swagger-resources/**", "/v3/api-docs/**", "/h2-console/**").permitAll()
+                .requestMatchers("/api/user/register", "/api/user/login", "/api/user/availability", "/doc.html", "/webjars/**", "/swagger-resources/**", "/v3/api-docs/**", "/h2-console/**").permitAll()
+                // 提交成绩、查询个人名次和成绩需要登录
+                .requestMatchers(HttpMethod.POST, "/api/game/*/scores", "/api/game/*/replay-seed", "/api/game/*/replay-seeds").authenticated()
+                // 在线心跳需要登录
+                .requestMatchers(HttpMethod.POST, "/api/presence/heartbeat").authenticated()
+                // 导出全部用户需要管理员角色
+                .requestMatchers("/api/user/export").hasRole("ADMIN")
+                // 离线请求同步需要登录
+                .requestMatchers("/api/sync/**").authenticated()
+                // 数据库备份、恢复、清空需要管理员角色（备份中含全部用户的密码哈希）
+                .requestMatchers("/api/system/backups/**", "/api/system/clear").hasRole("ADMIN")
+                .requestMatchers("/api/game/*/rank/me", "/api/game/*/rank/me/around", "/api/game/*/history", "/api/game/*/history/daily", "/api/game/stats/me").authenticated()
+                // 发布、修改、删除文章及查询自己的文章需要登录
+                .requestMatchers(HttpMethod.POST, "/api/forum/articles").authenticated()
+                .requestMatchers(HttpMethod.PUT, "/api/forum/articles/*").authenticated()
+                .requestMatchers(HttpMethod.DELETE, "/api/forum/articles/*").authenticated()
+                .requestMatchers(HttpMethod.POST, "/api/forum/articles/*/*").authenticated()
+                .requestMatchers(HttpMethod.DELETE, "/api/forum/articles/*/*").authenticated()
+                .requestMatchers(HttpMethod.POST, "/api/forum/comments/**").authenticated()
+                .requestMatchers(HttpMethod.DELETE, "/api/forum/comments/**").authenticated()
+                .requestMatchers("/api/forum/articles/mine").authenticated()
                 // 允许所有请求访问游戏和论坛资源
                 .requestMatchers("/api/game/**", "/api/forum/**").permitAll()
                 // 允许所有请求访问
@@ -0,0 +1,89 @@
+package com.psychegame.config;
+
+import com.psychegame.filter.WebSocketPortFilter;
+import com.psychegame.websocket.JwtHandshakeInterceptor;
+import com.psychegame.websocket.PushWebSocketHandler;
+import com.psychegame.websocket.SnakeWebSocketHandler;
+import org.apache.catalina.connector.Connector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+/**
+ * WebSocket配置
+ * <p>
+ * 在spring.websocket.server.port上增加一个Tomcat连接器，与前端websocketUrl、nginx的/ws代理对应；
+ * 推送端点为/ws，多人贪吃蛇端点为/ws/snake，握手时校验JWT令牌。HTTP端口上同样可以连接。
+ * WebSocket端口上只能访问/ws下的端点（{@link WebSocketPortFilter}）；
+ * 握手只接受 websocket.allowed-origins 中的来源，防止其他网站借用户的浏览器建立连接。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+    
+    @Autowired
+    private PushWebSocketHandler pushWebSocketHandler;
+    
+    @Autowired
+    private SnakeWebSocketHandler snakeWebSocketHandler;
+    
+    @Autowired
+    private JwtHandshakeInterceptor jwtHandshakeInterceptor;
+    
+    @Value("${websocket.max-text-message-size:8192}")
+    private int maxTextMessageSize;
+    
+    @Value("${websocket.idle-timeout:120000}")
+    private long idleTimeout;
+    
+    @Value("${websocket.allowed-origins:http://localhost:5173,http://127.0.0.1:5173,http://localhost,http://127.0.0.1}")
+    private String[] allowedOrigins;
+    
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(pushWebSocketHandler, "/ws")
+                .addInterceptors(jwtHandshakeInterceptor)
+                .setAllowedOriginPatterns(allowedOrigins);
+        registry.addHandler(snakeWebSocketHandler, "/ws/snake")
+                .addInterceptors(jwtHandshakeInterceptor)
+                .setAllowedOriginPatterns(allowedOrigins);
+    }
+    
+    /**
+     * 静态方法，创建Web服务器时不需要先实例化本配置类及其依赖的推送组件
+     */
+    @Bean
+    public static WebServerFactoryCustomizer<TomcatServletWebServerFactory> webSocketConnectorCustomizer(
+            @Value("${spring.websocket.server.enabled:true}") boolean enabled,
+            @Value("${spring.websocket.server.port:8081}") int port,
+            @Value("${server.port:8080}") int serverPort) {
+        return factory -> {
+            // 与HTTP端口相同或为0（随机端口，如测试环境）时不单独监听
+            if (enabled && port > 0 && port != serverPort) {
+                Connector connector = new Connector(TomcatServletWebServerFactory.DEFAULT_PROTOCOL);
+                connector.setPort(port);
+                factory.addAdditionalTomcatConnectors(connector);
+            }
+        };
+    }
+    
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer() {
+        // 客户端只发送订阅请求，限制入站消息大小
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(maxTextMessageSize);
+        container.setMaxBinaryMessageBufferSize(maxTextMessageSize);
+        container.setMaxSessionIdleTimeout(idleTimeout);
+        return container;
+    }
+}
@@ -0,0 +1,269 @@
+package com.psychegame.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psychegame.dto.BackupInfo;
+import com.psychegame.dto.BackupProgress;
+import com.psychegame.service.BackupService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 数据库备份控制器，提供本地部署管理页面的备份、恢复、清空功能
+ * <p>
+ * 备份文件为gzip压缩的SQL脚本。备份在后台执行，通过进度接口查询；下载、上传恢复、清空在请求中执行，
+ * 执行期间可另行查询进度。全部接口需要管理员角色。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@RestController
+@RequestMapping("/api/system")
+@Profile("local")
+public class BackupController {
+    
+    private static final String GZIP_TYPE = "application/gzip";
+    
+    @Autowired
+    private BackupService backupService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    /**
+     * 获取备份目录中的备份
+     *
+     * @return 备份列表，按时间倒序
+     */
+    @GetMapping("/backups")
+    public ResponseEntity<Map<String, Object>> listBackups() {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            List<BackupInfo> backups = backupService.listBackups();
+            result.put("code", 200);
+            result.put("message", "获取成功");
+            result.put("data", backups);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "获取失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 在后台创建备份
+     *
+     * @param incremental 是否增量备份，没有可基于的备份时仍为完整备份
+     * @return 任务进度
+     */
+    @PostMapping("/backups")
+    public ResponseEntity<Map<String, Object>> createBackup(@RequestParam(defaultValue = "false") boolean incremental) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            BackupProgress progress = backupService.startBackup(incremental);
+            result.put("code", 200);
+            result.put("message", "备份已开始");
+            result.put("data", progress);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "备份失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 获取当前或最近一次备份、恢复任务的进度
+     *
+     * @return 任务进度，没有任务时为null
+     */
+    @GetMapping("/backups/progress")
+    public ResponseEntity<Map<String, Object>> getProgress() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 200);
+        result.put("message", "获取成功");
+        result.put("data", backupService.getProgress());
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * 直接下载当前数据库的完整备份，边导出边写入响应，不在服务器上保存
+     *
+     * @param response HTTP响应
+     */
+    @GetMapping("/backups/download")
+    public void downloadBackup(HttpServletResponse response) throws IOException {
+        String filename = "psychegame-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".sql.gz";
+        response.setContentType(GZIP_TYPE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename);
+        try {
+            backupService.streamBackup(response.getOutputStream());
+        } catch (RuntimeException e) {
+            writeError(response, e);
+            return;
+        }
+        response.flushBuffer();
+    }
+    
+    /**
+     * 下载备份目录中的备份文件
+     *
+     * @param name 备份名称
+     * @param response HTTP响应
+     */
+    @GetMapping("/backups/{name}/file")
+    public void downloadBackupFile(@PathVariable String name, HttpServletResponse response) throws IOException {
+        response.setContentType(GZIP_TYPE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + name + ".sql.gz");
+        try {
+            backupService.copyBackup(name, response.getOutputStream());
+        } catch (RuntimeException e) {
+            writeError(response, e);
+            return;
+        }
+        response.flushBuffer();
+    }
+    
+    /**
+     * 在后台从备份目录中的备份恢复，增量备份连同其所基于的备份一起恢复
+     *
+     * @param name 备份名称
+     * @return 任务进度
+     */
+    @PostMapping("/backups/{name}/restore")
+    public ResponseEntity<Map<String, Object>> restoreBackup(@PathVariable String name) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            BackupProgress progress = backupService.startRestore(name);
+            result.put("code", 200);
+            result.put("message", "恢复已开始");
+            result.put("data", progress);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "恢复失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 从上传的完整备份恢复，请求体为备份文件内容，边接收边导入
+     *
+     * @param request HTTP请求
+     * @return 任务进度
+     */
+    @PostMapping("/backups/restore")
+    public ResponseEntity<Map<String, Object>> restoreUpload(HttpServletRequest request) {
+        Map<String, Object> result = new HashMap<>();
+        try (InputStream in = request.getInputStream()) {
+            BackupProgress progress = backupService.restore(in, request.getContentLengthLong());
+            result.put("code", 200);
+            result.put("message", "恢复成功");
+            result.put("data", progress);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "恢复失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 删除备份目录中的备份
+     *
+     * @param name 备份名称
+     * @return 删除结果
+     */
+    @DeleteMapping("/backups/{name}")
+    public ResponseEntity<Map<String, Object>> deleteBackup(@PathVariable String name) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            backupService.deleteBackup(name);
+            result.put("code", 200);
+            result.put("message", "删除成功");
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "删除失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 清空数据库，只保留表结构和初始数据；原数据库文件保留在数据库目录中
+     *
+     * @return 清空结果
+     */
+    @PostMapping("/clear")
+    public ResponseEntity<Map<String, Object>> clearDatabase() {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            BackupProgress progress = backupService.clear();
+            result.put("code", 200);
+            result.put("message", "清空成功");
+            result.put("data", progress);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "清空失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 响应尚未发送时改为返回错误信息；已开始发送时无法更改，客户端收到的文件不完整
+     */
+    private void writeError(HttpServletResponse response, RuntimeException e) throws IOException {
+        if (response.isCommitted()) {
+            throw e;
+        }
+        response.reset();
+        response.setStatus(HttpStatus.BAD_REQUEST.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 400);
+        result.put("message", e.getMessage());
+        objectMapper.writeValue(response.getOutputStream(), result);
+    }
+}
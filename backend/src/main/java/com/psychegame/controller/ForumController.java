@@ -0,0 +1,512 @@
+package com.psychegame.controller;
+
+import com.psychegame.dto.ArticleDetail;
+import com.psychegame.dto.ArticleSummary;
+import com.psychegame.dto.CommentNode;
+import com.psychegame.dto.CursorPage;
+import com.psychegame.entity.Article;
+import com.psychegame.entity.Comment;
+import com.psychegame.enums.ReactionType;
+import com.psychegame.service.ArticleService;
+import com.psychegame.service.CommentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 论坛控制器
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@RestController
+@RequestMapping("/api/forum")
+public class ForumController {
+    
+    @Autowired
+    private ArticleService articleService;
+    
+    @Autowired
+    private CommentService commentService;
+    
+    /**
+     * 获取最新文章（键集分页）
+     *
+     * @param cursor 分页游标，第一页不传
+     * @param size 每页条数
+     * @return 文章列表（不含正文），按发布时间倒序
+     */
+    @GetMapping("/articles")
+    public ResponseEntity<Map<String, Object>> getArticles(@RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "10") int size) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            CursorPage<ArticleSummary> page = articleService.getArticlePage(cursor, size);
+            result.put("code", 200);
+            result.put("message", "获取成功");
+            result.put("data", page);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "获取失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 获取热门文章
+     *
+     * @param cursor 分页游标，第一页不传
+     * @param size 每页条数
+     * @return 文章列表（不含正文），按热门度排列
+     */
+    @GetMapping("/articles/hot")
+    public ResponseEntity<Map<String, Object>> getHotArticles(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "10") int size) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            CursorPage<ArticleSummary> page = articleService.getHotArticles(cursor, size);
+            result.put("code", 200);
+            result.put("message", "获取成功");
+            result.put("data", page);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "获取失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 搜索文章
+     *
+     * @param q 关键词，匹配标题和正文
+     * @param cursor 分页游标，第一页不传
+     * @param size 每页条数
+     * @return 文章列表（不含正文），按相关度排列
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> searchArticles(@RequestParam String q,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "10") int size) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            CursorPage<ArticleSummary> page = articleService.searchArticles(q, cursor, size);
+            result.put("code", 200);
+            result.put("message", "搜索成功");
+            result.put("data", page);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "搜索失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 获取当前用户的文章（需登录，含草稿）
+     *
+     * @param userId 当前用户ID
+     * @param cursor 分页游标，第一页不传
+     * @param size 每页条数
+     * @return 文章列表（不含正文），按创建时间倒序
+     */
+    @GetMapping("/articles/mine")
+    public ResponseEntity<Map<String, Object>> getMyArticles(@RequestAttribute("userId") Long userId,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "10") int size) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            CursorPage<ArticleSummary> page = articleService.getUserArticles(userId, cursor, size);
+            result.put("code", 200);
+            result.put("message", "获取成功");
+            result.put("data", page);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "获取失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 获取文章详情，草稿只有作者本人可见
+     *
+     * @param userId 当前用户ID，未登录时为null
+     * @param id 文章ID
+     * @return 文章详情
+     */
+    @GetMapping("/articles/{id}")
+    public ResponseEntity<Map<String, Object>> getArticle(@RequestAttribute(value = "userId", required = false) Long userId,
+                                                          @PathVariable Long id) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            ArticleDetail article = articleService.getArticle(id, userId);
+            result.put("code", 200);
+            result.put("message", "获取成功");
+            result.put("data", article);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "获取失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 发布文章或保存草稿（需登录）
+     *
+     * @param userId 当前用户ID
+     * @param article 标题、正文、状态（published/draft，默认published）
+     * @return 文章详情
+     */
+    @PostMapping("/articles")
+    public ResponseEntity<Map<String, Object>> createArticle(@RequestAttribute("userId") Long userId,
+                                                             @RequestBody Article article) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            ArticleDetail created = articleService.createArticle(userId, article);
+            result.put("code", 200);
+            result.put("message", "发布成功");
+            result.put("data", created);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "发布失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 修改自己的文章（需登录），只修改传入的字段
+     *
+     * @param userId 当前用户ID
+     * @param id 文章ID
+     * @param patch 标题、正文、状态
+     * @return 修改后的文章详情
+     */
+    @PutMapping("/articles/{id}")
+    public ResponseEntity<Map<String, Object>> updateArticle(@RequestAttribute("userId") Long userId,
+                                                             @PathVariable Long id,
+                                                             @RequestBody Article patch) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            ArticleDetail updated = articleService.updateArticle(userId, id, patch);
+            result.put("code", 200);
+            result.put("message", "修改成功");
+            result.put("data", updated);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "修改失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 删除自己的文章（需登录）
+     *
+     * @param userId 当前用户ID
+     * @param id 文章ID
+     * @return 删除结果
+     */
+    @DeleteMapping("/articles/{id}")
+    public ResponseEntity<Map<String, Object>> deleteArticle(@RequestAttribute("userId") Long userId,
+                                                             @PathVariable Long id) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            articleService.deleteArticle(userId, id);
+            result.put("code", 200);
+            result.put("message", "删除成功");
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "删除失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 点赞或收藏文章（需登录），重复操作不重复计数
+     *
+     * @param userId 当前用户ID
+     * @param id 文章ID
+     * @param kind 互动类型：like点赞，collect收藏
+     * @return 当前状态及本次是否变化
+     */
+    @PostMapping("/articles/{id}/{kind:like|collect}")
+    public ResponseEntity<Map<String, Object>> react(@RequestAttribute("userId") Long userId,
+                                                     @PathVariable Long id,
+                                                     @PathVariable String kind) {
+        return react(userId, id, kind, true);
+    }
+    
+    /**
+     * 取消点赞或收藏（需登录）
+     *
+     * @param userId 当前用户ID
+     * @param id 文章ID
+     * @param kind 互动类型：like点赞，collect收藏
+     * @return 当前状态及本次是否变化
+     */
+    @DeleteMapping("/articles/{id}/{kind:like|collect}")
+    public ResponseEntity<Map<String, Object>> cancelReaction(@RequestAttribute("userId") Long userId,
+                                                              @PathVariable Long id,
+                                                              @PathVariable String kind) {
+        return react(userId, id, kind, false);
+    }
+    
+    /**
+     * 搜索评论
+     *
+     * @param q 关键词，匹配评论内容
+     * @param cursor 分页游标，第一页不传
+     * @param size 每页条数
+     * @return 评论列表，按相关度排列
+     */
+    @GetMapping("/comments/search")
+    public ResponseEntity<Map<String, Object>> searchComments(@RequestParam String q,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "10") int size) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            CursorPage<CommentNode> page = commentService.searchComments(q, cursor, size);
+            result.put("code", 200);
+            result.put("message", "搜索成功");
+            result.put("data", page);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "搜索失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 获取文章的评论（游标分页）
+     *
+     * @param id 文章ID
+     * @param cursor 分页游标，第一页不传
+     * @param size 每页条数（含回复）
+     * @return 评论树，根评论按时间顺序，回复嵌套在被回复的评论下
+     */
+    @GetMapping("/articles/{id}/comments")
+    public ResponseEntity<Map<String, Object>> getComments(@PathVariable Long id,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "20") int size) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            CursorPage<CommentNode> page = commentService.getComments(id, cursor, size);
+            result.put("code", 200);
+            result.put("message", "获取成功");
+            result.put("data", page);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "获取失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 获取某条评论下的更多回复（游标分页）
+     *
+     * @param id 评论ID
+     * @param cursor 分页游标，第一页不传
+     * @param size 每页条数
+     * @return 回复树
+     */
+    @GetMapping("/comments/{id}/replies")
+    public ResponseEntity<Map<String, Object>> getReplies(@PathVariable Long id,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "20") int size) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            CursorPage<CommentNode> page = commentService.getReplies(id, cursor, size);
+            result.put("code", 200);
+            result.put("message", "获取成功");
+            result.put("data", page);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "获取失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 发表评论或回复（需登录）
+     *
+     * @param userId 当前用户ID
+     * @param id 文章ID
+     * @param comment 内容、被回复的评论ID（parentId，发表根评论时不传）
+     * @return 新评论
+     */
+    @PostMapping("/articles/{id}/comments")
+    public ResponseEntity<Map<String, Object>> createComment(@RequestAttribute("userId") Long userId,
+                                                             @PathVariable Long id,
+                                                             @RequestBody Comment comment) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            CommentNode created = commentService.createComment(userId, id, comment.getParentId(), comment.getContent());
+            result.put("code", 200);
+            result.put("message", "评论成功");
+            result.put("data", created);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "评论失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 删除自己的评论（需登录）
+     *
+     * @param userId 当前用户ID
+     * @param id 评论ID
+     * @return 删除结果
+     */
+    @DeleteMapping("/comments/{id}")
+    public ResponseEntity<Map<String, Object>> deleteComment(@RequestAttribute("userId") Long userId,
+                                                             @PathVariable Long id) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            commentService.deleteComment(userId, id);
+            result.put("code", 200);
+            result.put("message", "删除成功");
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "删除失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 点赞评论（需登录），重复操作不重复计数
+     *
+     * @param userId 当前用户ID
+     * @param id 评论ID
+     * @return 当前状态及本次是否变化
+     */
+    @PostMapping("/comments/{id}/like")
+    public ResponseEntity<Map<String, Object>> likeComment(@RequestAttribute("userId") Long userId,
+                                                           @PathVariable Long id) {
+        return likeComment(userId, id, true);
+    }
+    
+    /**
+     * 取消点赞评论（需登录）
+     *
+     * @param userId 当前用户ID
+     * @param id 评论ID
+     * @return 当前状态及本次是否变化
+     */
+    @DeleteMapping("/comments/{id}/like")
+    public ResponseEntity<Map<String, Object>> cancelCommentLike(@RequestAttribute("userId") Long userId,
+                                                                 @PathVariable Long id) {
+        return likeComment(userId, id, false);
+    }
+    
+    private ResponseEntity<Map<String, Object>> react(Long userId, Long id, String kind, boolean active) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            ReactionType type = ReactionType.fromCode(kind);
+            boolean changed = articleService.react(userId, id, type, active);
+            Map<String, Object> data = new HashMap<>();
+            data.put("active", active);
+            data.put("changed", changed);
+            result.put("code", 200);
+            result.put("message", (active ? "" : "取消") + type.getName() + "成功");
+            result.put("data", data);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "操作失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    private ResponseEntity<Map<String, Object>> likeComment(Long userId, Long id, boolean active) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            boolean changed = commentService.likeComment(userId, id, active);
+            Map<String, Object> data = new HashMap<>();
+            data.put("active", active);
+            data.put("changed", changed);
+            result.put("code", 200);
+            result.put("message", (active ? "" : "取消") + ReactionType.LIKE.getName() + "成功");
+            result.put("data", data);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "操作失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+}
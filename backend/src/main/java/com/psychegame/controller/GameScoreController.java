@@ -0,0 +1,375 @@
+package com.psychegame.controller;
+
+import com.psychegame.dto.CursorPage;
+import com.psychegame.dto.GameStatsSummary;
+import com.psychegame.dto.RankEntry;
+import com.psychegame.dto.ReplaySeed;
+import com.psychegame.dto.ScoreSubmitResult;
+import com.psychegame.dto.UserGameStats;
+import com.psychegame.entity.GameScore;
+import com.psychegame.entity.GameScoreDaily;
+import com.psychegame.service.GameScoreService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 游戏成绩与排行榜控制器
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@RestController
+@RequestMapping("/api/game")
+public class GameScoreController {
+    
+    /**
+     * 排行榜单次最多返回条数
+     */
+    private static final int MAX_LEADERBOARD_SIZE = 100;
+    
+    /**
+     * 个人名次前后片段单侧最多条数
+     */
+    private static final int MAX_AROUND_RADIUS = 20;
+    
+    @Autowired
+    private GameScoreService gameScoreService;
+    
+    @Value("${game.replay.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+    
+    /**
+     * 获取新一局的录像种子（需登录）
+     *
+     * @param userId 当前用户ID
+     * @param gameType 游戏编码
+     * @return 种子及令牌，提交成绩时带回令牌
+     */
+    @PostMapping("/{gameType}/replay-seed")
+    public ResponseEntity<Map<String, Object>> issueReplaySeed(@RequestAttribute("userId") Long userId,
+                                                               @PathVariable String gameType) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            ReplaySeed seed = gameScoreService.issueReplaySeed(userId, gameType);
+            result.put("code", 200);
+            result.put("message", "获取成功");
+            result.put("data", seed);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "获取失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 预先获取一批离线游玩用的录像种子（需登录）
+     *
+     * @param userId 当前用户ID
+     * @param gameType 游戏编码
+     * @param count 种子数，每局使用一个
+     * @return 种子及令牌，有效期比在线签发的种子长；离线期间的成绩同步时带回令牌
+     */
+    @PostMapping("/{gameType}/replay-seeds")
+    public ResponseEntity<Map<String, Object>> issueOfflineReplaySeeds(@RequestAttribute("userId") Long userId,
+                                                                       @PathVariable String gameType,
+                                                                       @RequestParam(defaultValue = "10") int count) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            List<ReplaySeed> seeds = gameScoreService.issueOfflineReplaySeeds(userId, gameType, count);
+            result.put("code", 200);
+            result.put("message", "获取成功");
+            result.put("data", seeds);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "获取失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 提交一局成绩（需登录）
+     *
+     * @param userId 当前用户ID
+     * @param gameType 游戏编码
+     * @param body 请求体，score为分数，duration为游戏时长（秒），replayToken为录像种子令牌，moves为操作记录
+     * @return 提交结果，包含个人最高分及名次
+     */
+    @PostMapping("/{gameType}/scores")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> submitScore(@RequestAttribute("userId") Long userId,
+                                                                              @PathVariable String gameType,
+                                                                              @RequestBody Map<String, Object> body) {
+        try {
+            Long score = body.get("score") instanceof Number number ? number.longValue() : null;
+            Integer duration = body.get("duration") instanceof Number number ? number.intValue() : null;
+            String replayToken = body.get("replayToken") instanceof String token ? token : null;
+            String moves = body.get("moves") instanceof String value ? value : null;
+            return gameScoreService.submitScore(userId, gameType, score, duration, replayToken, moves)
+                    .thenApply(submitResult -> {
+                        Map<String, Object> result = new HashMap<>();
+                        result.put("code", 200);
+                        result.put("message", "提交成功");
+                        result.put("data", submitResult);
+                        return ResponseEntity.ok(result);
+                    })
+                    .exceptionally(e -> failure(e, "提交失败"));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(failure(e, "提交失败"));
+        }
+    }
+    
+    /**
+     * 将异常转换为响应
+     * <p>
+     * 录像校验队列已满时返回503并附带Retry-After，业务校验失败返回400。
+     *
+     * @param e 异常
+     * @param defaultMessage 未知异常时的提示信息
+     * @return 失败响应
+     */
+    private ResponseEntity<Map<String, Object>> failure(Throwable e, String defaultMessage) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        Map<String, Object> result = new HashMap<>();
+        if (cause instanceof RejectedExecutionException) {
+            result.put("code", 503);
+            result.put("message", "服务繁忙，请稍后重试");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(result);
+        }
+        if (cause instanceof RuntimeException) {
+            result.put("code", 400);
+            result.put("message", cause.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        }
+        result.put("code", 500);
+        result.put("message", defaultMessage);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+    }
+    
+    /**
+     * 获取排行榜
+     *
+     * @param gameType 游戏编码
+     * @param window 时间范围：all总榜、day今日、week本周
+     * @param limit 条数
+     * @return 按名次排列的排行榜
+     */
+    @GetMapping("/{gameType}/leaderboard")
+    public ResponseEntity<Map<String, Object>> getLeaderboard(@PathVariable String gameType,
+                                                              @RequestParam(defaultValue = "all") String window,
+                                                              @RequestParam(defaultValue = "10") int limit) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            List<RankEntry> entries = gameScoreService.getLeaderboard(gameType, window, Math.min(limit, MAX_LEADERBOARD_SIZE));
+            result.put("code", 200);
+            result.put("message", "获取成功");
+            result.put("data", entries);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "获取失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 获取游戏统计（游戏次数、平均分）
+     *
+     * @param gameType 游戏编码
+     * @return 游戏统计
+     */
+    @GetMapping("/{gameType}/stats")
+    public ResponseEntity<Map<String, Object>> getGameStats(@PathVariable String gameType) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            GameStatsSummary stats = gameScoreService.getGameStats(gameType);
+            result.put("code", 200);
+            result.put("message", "获取成功");
+            result.put("data", stats);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "获取失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 获取当前用户的最高分及名次（需登录）
+     *
+     * @param userId 当前用户ID
+     * @param gameType 游戏编码
+     * @param window 时间范围：all总榜、day今日、week本周
+     * @return 排行榜条目，未上榜时data为null
+     */
+    @GetMapping("/{gameType}/rank/me")
+    public ResponseEntity<Map<String, Object>> getMyRank(@RequestAttribute("userId") Long userId,
+                                                         @PathVariable String gameType,
+                                                         @RequestParam(defaultValue = "all") String window) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            RankEntry entry = gameScoreService.getUserRank(gameType, window, userId);
+            result.put("code", 200);
+            result.put("message", "获取成功");
+            result.put("data", entry);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "获取失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 获取当前用户名次前后的排行榜片段（需登录）
+     *
+     * @param userId 当前用户ID
+     * @param gameType 游戏编码
+     * @param radius 前后各取的条数
+     * @return 按名次排列的条目，未上榜时为空列表
+     */
+    @GetMapping("/{gameType}/rank/me/around")
+    public ResponseEntity<Map<String, Object>> getAroundMe(@RequestAttribute("userId") Long userId,
+                                                           @PathVariable String gameType,
+                                                           @RequestParam(defaultValue = "5") int radius) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            List<RankEntry> entries = gameScoreService.getAroundUser(gameType, userId, Math.min(radius, MAX_AROUND_RADIUS));
+            result.put("code", 200);
+            result.put("message", "获取成功");
+            result.put("data", entries);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "获取失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 获取当前用户某个游戏的成绩明细（需登录，键集分页）
+     *
+     * @param userId 当前用户ID
+     * @param gameType 游戏编码
+     * @param cursor 分页游标，第一页不传
+     * @param size 每页条数
+     * @return 成绩明细，按时间倒序
+     */
+    @GetMapping("/{gameType}/history")
+    public ResponseEntity<Map<String, Object>> getMyHistory(@RequestAttribute("userId") Long userId,
+                                                            @PathVariable String gameType,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "20") int size) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            CursorPage<GameScore> page = gameScoreService.getUserHistory(userId, gameType, cursor, size);
+            result.put("code", 200);
+            result.put("message", "获取成功");
+            result.put("data", page);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "获取失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 获取当前用户某个游戏的日汇总（需登录，键集分页），超过保留天数的成绩只保留日汇总
+     *
+     * @param userId 当前用户ID
+     * @param gameType 游戏编码
+     * @param cursor 分页游标，第一页不传
+     * @param size 每页条数
+     * @return 日汇总，按日期倒序
+     */
+    @GetMapping("/{gameType}/history/daily")
+    public ResponseEntity<Map<String, Object>> getMyDailyHistory(@RequestAttribute("userId") Long userId,
+                                                                 @PathVariable String gameType,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = "20") int size) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            CursorPage<GameScoreDaily> page = gameScoreService.getUserDailyHistory(userId, gameType, cursor, size);
+            result.put("code", 200);
+            result.put("message", "获取成功");
+            result.put("data", page);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "获取失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 获取当前用户在各游戏的游戏次数、最高分（需登录）
+     *
+     * @param userId 当前用户ID
+     * @return 各游戏的统计
+     */
+    @GetMapping("/stats/me")
+    public ResponseEntity<Map<String, Object>> getMyGameStats(@RequestAttribute("userId") Long userId) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            List<UserGameStats> stats = gameScoreService.getUserGameStats(userId);
+            result.put("code", 200);
+            result.put("message", "获取成功");
+            result.put("data", stats);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "获取失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+}
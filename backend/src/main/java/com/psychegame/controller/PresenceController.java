@@ -0,0 +1,78 @@
+package com.psychegame.controller;
+
+import com.psychegame.dto.PresenceStats;
+import com.psychegame.service.PresenceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 在线状态控制器
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@RestController
+@RequestMapping("/api/presence")
+public class PresenceController {
+    
+    @Autowired
+    private PresenceService presenceService;
+    
+    /**
+     * 心跳（需登录），已建立WebSocket连接的客户端无需发送
+     *
+     * @param userId 当前用户ID
+     * @return 下一次心跳的间隔（秒）
+     */
+    @PostMapping("/heartbeat")
+    public ResponseEntity<Map<String, Object>> heartbeat(@RequestAttribute("userId") Long userId) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            Map<String, Object> data = new HashMap<>();
+            data.put("interval", presenceService.heartbeat(userId));
+            result.put("code", 200);
+            result.put("message", "成功");
+            result.put("data", data);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "心跳失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 获取在线人数及全站、各游戏的日活、月活
+     *
+     * @param date 日活统计日期（yyyy-MM-dd），月活为所在月份，不传时为今天
+     * @return 在线状态统计
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats(@RequestParam(required = false) String date) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            PresenceStats stats = presenceService.getStats(date);
+            result.put("code", 200);
+            result.put("message", "获取成功");
+            result.put("data", stats);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "获取失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+}
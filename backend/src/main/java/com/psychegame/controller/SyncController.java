@@ -0,0 +1,66 @@
+package com.psychegame.controller;
+
+import com.psychegame.dto.SyncRequest;
+import com.psychegame.service.SyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 离线同步控制器
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+    
+    @Autowired
+    private SyncService syncService;
+    
+    /**
+     * 批量同步离线请求（需登录），一次往返处理整个离线队列
+     *
+     * @param userId 当前用户ID
+     * @param body 请求体，requests为离线队列（id、url、method、data、params、timestamp）
+     * @return 与请求顺序一致的结果；code小于500的请求已处理完毕，可从队列中移除，其余应稍后重试
+     */
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> syncBatch(@RequestAttribute("userId") Long userId,
+                                                                            @RequestBody Map<String, List<SyncRequest>> body) {
+        try {
+            return syncService.replay(userId, body.get("requests"))
+                    .thenApply(results -> {
+                        Map<String, Object> result = new HashMap<>();
+                        result.put("code", 200);
+                        result.put("message", "同步完成");
+                        result.put("data", results);
+                        return ResponseEntity.ok(result);
+                    })
+                    .exceptionally(this::failure);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(failure(e));
+        }
+    }
+    
+    private ResponseEntity<Map<String, Object>> failure(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        Map<String, Object> result = new HashMap<>();
+        if (cause instanceof RuntimeException) {
+            result.put("code", 400);
+            result.put("message", cause.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        }
+        result.put("code", 500);
+        result.put("message", "同步失败");
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+    }
+}
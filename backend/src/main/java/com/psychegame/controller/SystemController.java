@@ -0,0 +1,61 @@
+package com.psychegame.controller;
+
+import com.psychegame.service.SystemStatusService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 系统控制器，提供本地部署管理页面使用的接口
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@RestController
+@RequestMapping("/api/system")
+public class SystemController {
+    
+    @Autowired
+    private SystemStatusService systemStatusService;
+    
+    /**
+     * 获取服务状态和数据统计，仅本地部署可用
+     *
+     * @return services为各服务的检测结果（status为running/stopped），dataStats为用户、游戏记录、文章、评论数
+     */
+    @GetMapping("/status")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getStatus() {
+        try {
+            return systemStatusService.getStatus()
+                    .thenApply(status -> {
+                        Map<String, Object> result = new HashMap<>();
+                        result.put("code", 200);
+                        result.put("message", "获取成功");
+                        result.put("data", status);
+                        return ResponseEntity.ok(result);
+                    })
+                    .exceptionally(this::failure);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(failure(e));
+        }
+    }
+    
+    private ResponseEntity<Map<String, Object>> failure(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        Map<String, Object> result = new HashMap<>();
+        if (cause instanceof RuntimeException) {
+            result.put("code", 400);
+            result.put("message", cause.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        }
+        result.put("code", 500);
+        result.put("message", "获取服务状态失败");
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+    }
+}
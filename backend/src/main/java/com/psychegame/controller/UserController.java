@@ -1,16 +1,31 @@
 package com.psychegame.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psychegame.dto.CursorPage;
+import com.psychegame.dto.UserSummary;
 import com.psychegame.entity.User;
 import com.psychegame.service.UserService;
 import com.psychegame.util.JwtUtil;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 用户控制器
@@ -22,12 +37,23 @@ import java.util.Map;
 @RequestMapping("/api/user")
 public class UserController {
     
+    /**
+     * 批量查询用户摘要的最大数量
+     */
+    private static final int MAX_BATCH_SIZE = 200;
+    
     @Autowired
     private UserService userService;
     
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${password.hash.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+    
     /**
      * 用户注册
      *
@@ -35,21 +61,48 @@ public class UserController {
      * @return 注册结果
      */
     @PostMapping("/register")
-    public ResponseEntity<Map<String, Object>> register(@RequestBody User user) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> register(@RequestBody User user) {
+        try {
+            return userService.registerAsync(user)
+                    .thenApply(registeredUser -> {
+                        Map<String, Object> result = new HashMap<>();
+                        result.put("code", 200);
+                        result.put("message", "注册成功");
+                        result.put("data", registeredUser);
+                        return ResponseEntity.ok(result);
+                    })
+                    .exceptionally(e -> failure(e, "注册失败"));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(failure(e, "注册失败"));
+        }
+    }
+    
+    /**
+     * 检查用户名、邮箱是否可用，供注册表单实时校验
+     *
+     * @param username 用户名
+     * @param email 邮箱
+     * @return 各字段是否可用，未传入的字段不返回
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<Map<String, Object>> checkAvailability(@RequestParam(required = false) String username,
+                                                                 @RequestParam(required = false) String email) {
         Map<String, Object> result = new HashMap<>();
         try {
-            User registeredUser = userService.register(user);
+            Map<String, Boolean> data = new HashMap<>();
+            if (username != null && !username.isBlank()) {
+                data.put("username", userService.isUsernameAvailable(username));
+            }
+            if (email != null && !email.isBlank()) {
+                data.put("email", userService.isEmailAvailable(email));
+            }
             result.put("code", 200);
-            result.put("message", "注册成功");
-            result.put("data", registeredUser);
+            result.put("message", "查询成功");
+            result.put("data", data);
             return ResponseEntity.ok(result);
-        } catch (RuntimeException e) {
-            result.put("code", 400);
-            result.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(result);
         } catch (Exception e) {
             result.put("code", 500);
-            result.put("message", "注册失败");
+            result.put("message", "查询失败");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
         }
     }
@@ -61,35 +114,64 @@ public class UserController {
      * @return 登录结果
      */
     @PostMapping("/login")
-    public ResponseEntity<Map<String, Object>> login(@RequestBody Map<String, String> loginData) {
-        Map<String, Object> result = new HashMap<>();
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> login(@RequestBody Map<String, String> loginData) {
         try {
             String username = loginData.get("username");
             String password = loginData.get("password");
             
-            User user = userService.login(username, password);
-            
-            // 生成JWT token
-            String token = jwtUtil.generateAccessToken(user.getUsername(), user.getId(), null);
-            
-            // 准备返回数据
-            Map<String, Object> data = new HashMap<>();
-            data.put("token", token);
-            data.put("userInfo", user);
-            
-            result.put("code", 200);
-            result.put("message", "登录成功");
-            result.put("data", data);
-            return ResponseEntity.ok(result);
-        } catch (RuntimeException e) {
+            return userService.loginAsync(username, password)
+                    .thenApply(user -> {
+                        // 生成JWT token，携带角色供管理接口鉴权
+                        Map<String, Object> claims = new HashMap<>();
+                        if (user.getRole() != null) {
+                            claims.put("role", user.getRole());
+                        }
+                        String token = jwtUtil.generateAccessToken(user.getUsername(), user.getId(), claims);
+                        
+                        // 准备返回数据
+                        Map<String, Object> data = new HashMap<>();
+                        data.put("token", token);
+                        data.put("userInfo", user);
+                        
+                        Map<String, Object> result = new HashMap<>();
+                        result.put("code", 200);
+                        result.put("message", "登录成功");
+                        result.put("data", data);
+                        return ResponseEntity.ok(result);
+                    })
+                    .exceptionally(e -> failure(e, "登录失败"));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(failure(e, "登录失败"));
+        }
+    }
+    
+    /**
+     * 将异步登录、注册的异常转换为响应
+     * <p>
+     * 密码哈希线程池饱和时返回503并附带Retry-After，业务校验失败返回400。
+     *
+     * @param e 异常
+     * @param defaultMessage 默认错误信息
+     * @return 错误响应
+     */
+    private ResponseEntity<Map<String, Object>> failure(Throwable e, String defaultMessage) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        Map<String, Object> result = new HashMap<>();
+        if (cause instanceof RejectedExecutionException) {
+            result.put("code", 503);
+            result.put("message", "服务繁忙，请稍后重试");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(result);
+        }
+        if (cause instanceof RuntimeException) {
             result.put("code", 400);
-            result.put("message", e.getMessage());
+            result.put("message", cause.getMessage());
             return ResponseEntity.badRequest().body(result);
-        } catch (Exception e) {
-            result.put("code", 500);
-            result.put("message", "登录失败");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
         }
+        result.put("code", 500);
+        result.put("message", defaultMessage);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
     }
     
     /**
@@ -120,6 +202,40 @@ public class UserController {
         }
     }
     
+    /**
+     * 批量获取用户摘要（昵称、头像），用于排行榜、帖子作者、评论列表
+     *
+     * @param body 请求体，ids为用户ID列表
+     * @return 用户摘要列表
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> getUserSummaries(@RequestBody Map<String, List<Long>> body) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            List<Long> ids = body.get("ids");
+            if (ids == null || ids.isEmpty()) {
+                result.put("code", 400);
+                result.put("message", "用户ID不能为空");
+                return ResponseEntity.badRequest().body(result);
+            }
+            if (ids.size() > MAX_BATCH_SIZE) {
+                result.put("code", 400);
+                result.put("message", "单次最多查询" + MAX_BATCH_SIZE + "个用户");
+                return ResponseEntity.badRequest().body(result);
+            }
+            
+            List<UserSummary> summaries = userService.getUserSummaries(ids);
+            result.put("code", 200);
+            result.put("message", "获取成功");
+            result.put("data", summaries);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "获取失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
     /**
      * 获取当前用户信息
      *
@@ -162,6 +278,44 @@ public class UserController {
             result.put("message", "更新成功");
             result.put("data", updatedUser);
             return ResponseEntity.ok(result);
+        } catch (OptimisticLockingFailureException e) {
+            result.put("code", 409);
+            result.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "更新失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+    
+    /**
+     * 修改当前用户的个人资料，只更新传入的字段
+     * <p>
+     * 请求体可携带version，版本不一致时返回409。
+     *
+     * @param userId 当前用户ID
+     * @param patch 要修改的字段（用户名、邮箱、昵称、头像）
+     * @return 更新后的用户信息
+     */
+    @PatchMapping("/profile")
+    public ResponseEntity<Map<String, Object>> patchProfile(@RequestAttribute("userId") Long userId,
+                                                            @RequestBody User patch) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            User updatedUser = userService.patchUser(userId, patch);
+            result.put("code", 200);
+            result.put("message", "更新成功");
+            result.put("data", updatedUser);
+            return ResponseEntity.ok(result);
+        } catch (OptimisticLockingFailureException e) {
+            result.put("code", 409);
+            result.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
         } catch (RuntimeException e) {
             result.put("code", 400);
             result.put("message", e.getMessage());
@@ -174,19 +328,26 @@ public class UserController {
     }
     
     /**
-     * 获取用户列表
+     * 获取用户列表（键集分页）
      *
+     * @param cursor 分页游标，第一页不传
+     * @param size 每页条数
      * @return 用户列表
      */
     @GetMapping("/list")
-    public ResponseEntity<Map<String, Object>> getUserList() {
+    public ResponseEntity<Map<String, Object>> getUserList(@RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "20") int size) {
         Map<String, Object> result = new HashMap<>();
         try {
-            List<User> users = userService.getAllUsers();
+            CursorPage<User> page = userService.getUserPage(cursor, size);
             result.put("code", 200);
             result.put("message", "获取成功");
-            result.put("data", users);
+            result.put("data", page);
             return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
         } catch (Exception e) {
             result.put("code", 500);
             result.put("message", "获取失败");
@@ -194,6 +355,35 @@ public class UserController {
         }
     }
     
+    /**
+     * 导出全部用户（NDJSON，每行一个用户）
+     * <p>
+     * 通过数据库游标逐行读取并直接写入响应流，内存占用与用户数无关。仅管理员可用（见SecurityConfig）。
+     *
+     * @param response HTTP响应
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users.ndjson");
+        
+        OutputStream out = response.getOutputStream();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.setRootValueSeparator(null);
+            userService.exportUsers(user -> {
+                try {
+                    objectMapper.writeValue(generator, user);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        out.flush();
+    }
+    
     /**
      * 删除用户
      *
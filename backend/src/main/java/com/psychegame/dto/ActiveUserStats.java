@@ -0,0 +1,32 @@
+package com.psychegame.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 活跃用户数（HyperLogLog估计值，误差约1%）
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActiveUserStats {
+    
+    /**
+     * 游戏编码，all表示全站
+     */
+    private String gameCode;
+    
+    /**
+     * 日活跃用户数
+     */
+    private long daily;
+    
+    /**
+     * 月活跃用户数（所在自然月）
+     */
+    private long monthly;
+}
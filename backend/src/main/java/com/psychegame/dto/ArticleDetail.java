@@ -0,0 +1,39 @@
+package com.psychegame.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * 论坛文章详情
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class ArticleDetail extends ArticleSummary {
+    
+    /**
+     * 正文
+     */
+    private String content;
+    
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+    
+    /**
+     * 当前用户是否已点赞，未登录时为false
+     */
+    private boolean liked;
+    
+    /**
+     * 当前用户是否已收藏，未登录时为false
+     */
+    private boolean collected;
+}
@@ -0,0 +1,80 @@
+package com.psychegame.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 论坛文章列表项（不含正文）
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+public class ArticleSummary {
+    
+    /**
+     * 文章ID
+     */
+    private Long id;
+    
+    /**
+     * 作者ID
+     */
+    private Long userId;
+    
+    /**
+     * 作者用户名
+     */
+    private String username;
+    
+    /**
+     * 作者昵称
+     */
+    private String nickname;
+    
+    /**
+     * 作者头像
+     */
+    private String avatar;
+    
+    /**
+     * 标题
+     */
+    private String title;
+    
+    /**
+     * 摘要
+     */
+    private String summary;
+    
+    /**
+     * 状态：published/draft
+     */
+    private String status;
+    
+    /**
+     * 浏览数
+     */
+    private Long viewCount;
+    
+    /**
+     * 点赞数
+     */
+    private Long likeCount;
+    
+    /**
+     * 收藏数
+     */
+    private Long collectCount;
+    
+    /**
+     * 评论数
+     */
+    private Long commentCount;
+    
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+}
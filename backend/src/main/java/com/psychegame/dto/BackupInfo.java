@@ -0,0 +1,50 @@
+package com.psychegame.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 备份信息
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackupInfo {
+    
+    /**
+     * 备份名称
+     */
+    private String name;
+    
+    /**
+     * 类型：full/incremental
+     */
+    private String type;
+    
+    /**
+     * 增量备份所基于的上一个备份
+     */
+    private String parent;
+    
+    /**
+     * 备份中包含的表
+     */
+    private List<String> tables;
+    
+    /**
+     * 压缩后的大小（字节）
+     */
+    private long size;
+    
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+}
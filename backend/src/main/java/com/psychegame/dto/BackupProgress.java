@@ -0,0 +1,86 @@
+package com.psychegame.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 备份、恢复任务进度
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+public class BackupProgress {
+    
+    public static final String RUNNING = "running";
+    
+    public static final String COMPLETED = "completed";
+    
+    public static final String FAILED = "failed";
+    
+    /**
+     * 任务ID
+     */
+    private long id;
+    
+    /**
+     * 任务类型：backup/download/restore/clear
+     */
+    private String type;
+    
+    /**
+     * 状态：running/completed/failed
+     */
+    private String status;
+    
+    /**
+     * 生成或恢复的备份名称
+     */
+    private String name;
+    
+    /**
+     * 正在处理的表
+     */
+    private String table;
+    
+    /**
+     * 已开始处理的表数
+     */
+    private int tableIndex;
+    
+    /**
+     * 表的总数，恢复时未知为0
+     */
+    private int tableCount;
+    
+    /**
+     * 已处理的行数
+     */
+    private long rows;
+    
+    /**
+     * 已写出（备份）或已读取（恢复）的压缩数据大小（字节）
+     */
+    private long bytes;
+    
+    /**
+     * 恢复时压缩数据的总大小（字节），未知为0
+     */
+    private long totalBytes;
+    
+    /**
+     * 说明或失败原因
+     */
+    private String message;
+    
+    /**
+     * 开始时间
+     */
+    private LocalDateTime startedAt;
+    
+    /**
+     * 结束时间
+     */
+    private LocalDateTime finishedAt;
+}
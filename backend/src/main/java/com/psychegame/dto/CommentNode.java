@@ -0,0 +1,92 @@
+package com.psychegame.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 论坛评论树节点
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+public class CommentNode {
+    
+    /**
+     * 评论ID
+     */
+    private Long id;
+    
+    /**
+     * 文章ID
+     */
+    private Long articleId;
+    
+    /**
+     * 上级评论ID，根评论为null
+     */
+    private Long parentId;
+    
+    /**
+     * 评论者ID
+     */
+    private Long userId;
+    
+    /**
+     * 评论者用户名
+     */
+    private String username;
+    
+    /**
+     * 评论者昵称
+     */
+    private String nickname;
+    
+    /**
+     * 评论者头像
+     */
+    private String avatar;
+    
+    /**
+     * 被回复的用户ID，根评论为null
+     */
+    private Long replyToUserId;
+    
+    /**
+     * 被回复的用户昵称
+     */
+    private String replyToNickname;
+    
+    /**
+     * 内容，已删除时为null
+     */
+    private String content;
+    
+    /**
+     * 是否已删除
+     */
+    private boolean deleted;
+    
+    /**
+     * 点赞数
+     */
+    private Long likeCount;
+    
+    /**
+     * 直接回复数，大于children的条数时可通过回复列表接口加载更多
+     */
+    private Long replyCount;
+    
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+    
+    /**
+     * 本页中的回复，按时间顺序
+     */
+    private List<CommentNode> children = new ArrayList<>();
+}
@@ -0,0 +1,37 @@
+package com.psychegame.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 数据统计
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DataStats {
+    
+    /**
+     * 用户数
+     */
+    private long userCount;
+    
+    /**
+     * 游戏记录数
+     */
+    private long gameScoreCount;
+    
+    /**
+     * 文章数
+     */
+    private long articleCount;
+    
+    /**
+     * 评论数
+     */
+    private long commentCount;
+}
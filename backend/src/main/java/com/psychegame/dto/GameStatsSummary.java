@@ -0,0 +1,32 @@
+package com.psychegame.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 游戏统计摘要
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameStatsSummary {
+    
+    /**
+     * 游戏编码
+     */
+    private String gameCode;
+    
+    /**
+     * 游戏次数
+     */
+    private long playCount;
+    
+    /**
+     * 平均分
+     */
+    private long averageScore;
+}
@@ -0,0 +1,40 @@
+package com.psychegame.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 在线人数与活跃用户统计
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceStats {
+    
+    /**
+     * 在线人数，Redis不可用时为本节点在线人数
+     */
+    private long online;
+    
+    /**
+     * 本节点在线人数
+     */
+    private long nodeOnline;
+    
+    /**
+     * 活跃用户统计日期
+     */
+    private LocalDate date;
+    
+    /**
+     * 全站及各游戏的活跃用户数
+     */
+    private List<ActiveUserStats> active;
+}
@@ -0,0 +1,55 @@
+package com.psychegame.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 排行榜条目
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+public class RankEntry {
+    
+    /**
+     * 名次，从1开始
+     */
+    private Long rank;
+    
+    /**
+     * 用户ID
+     */
+    private Long userId;
+    
+    /**
+     * 用户名
+     */
+    private String username;
+    
+    /**
+     * 昵称
+     */
+    private String nickname;
+    
+    /**
+     * 头像
+     */
+    private String avatar;
+    
+    /**
+     * 最高分
+     */
+    private Long score;
+    
+    /**
+     * 取得最高分的那局游戏时长（秒）
+     */
+    private Integer duration;
+    
+    /**
+     * 取得最高分的时间
+     */
+    private LocalDateTime playedAt;
+}
@@ -0,0 +1,32 @@
+package com.psychegame.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 一局游戏的录像种子
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplaySeed {
+    
+    /**
+     * 随机数种子（32位无符号整数），前端以此初始化Mulberry32
+     */
+    private long seed;
+    
+    /**
+     * 签名后的种子令牌，提交成绩时原样带回
+     */
+    private String token;
+    
+    /**
+     * 令牌过期时间（毫秒时间戳）
+     */
+    private long expiresAt;
+}
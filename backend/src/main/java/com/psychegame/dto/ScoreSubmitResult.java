@@ -0,0 +1,37 @@
+package com.psychegame.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 成绩提交结果
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScoreSubmitResult {
+    
+    /**
+     * 本局分数
+     */
+    private Long score;
+    
+    /**
+     * 是否刷新了个人最高分
+     */
+    private boolean newRecord;
+    
+    /**
+     * 是否已通过录像校验
+     */
+    private boolean verified;
+    
+    /**
+     * 提交后的个人最高分及名次，排行榜暂不可用时为null
+     */
+    private RankEntry best;
+}
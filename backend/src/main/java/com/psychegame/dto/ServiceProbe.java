@@ -0,0 +1,41 @@
+package com.psychegame.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 单项服务检测结果
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServiceProbe {
+    
+    public static final String RUNNING = "running";
+    
+    public static final String STOPPED = "stopped";
+    
+    /**
+     * 状态：running/stopped
+     */
+    private String status;
+    
+    /**
+     * 检测的地址
+     */
+    private String address;
+    
+    /**
+     * 检测耗时（毫秒）
+     */
+    private long latency;
+    
+    /**
+     * 说明，如数据库版本、连接池使用情况或失败原因
+     */
+    private String message;
+}
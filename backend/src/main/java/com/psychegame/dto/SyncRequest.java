@@ -0,0 +1,45 @@
+package com.psychegame.dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 离线队列中的一条请求，字段与前端离线存储的格式一致
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+public class SyncRequest {
+    
+    /**
+     * 客户端生成的请求ID，作为幂等键
+     */
+    private String id;
+    
+    /**
+     * 请求路径，可带或不带 /api 前缀
+     */
+    private String url;
+    
+    /**
+     * 请求方法
+     */
+    private String method;
+    
+    /**
+     * 请求体
+     */
+    private Map<String, Object> data;
+    
+    /**
+     * 查询参数
+     */
+    private Map<String, Object> params;
+    
+    /**
+     * 客户端存储请求的时间
+     */
+    private String timestamp;
+}
@@ -0,0 +1,45 @@
+package com.psychegame.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 离线请求的同步结果
+ * <p>
+ * code小于500时请求已处理完毕（成功或不可重试的失败），客户端可从队列中移除；
+ * 大于等于500时未处理，客户端应保留并稍后重试。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResult {
+    
+    /**
+     * 请求ID
+     */
+    private String id;
+    
+    /**
+     * 结果码，与单独调用对应接口时的code一致
+     */
+    private int code;
+    
+    /**
+     * 提示信息
+     */
+    private String message;
+    
+    /**
+     * 返回数据，重复请求不返回
+     */
+    private Object data;
+    
+    /**
+     * 是否为已处理过的重复请求，此时code和message为首次处理的结果
+     */
+    private boolean duplicate;
+}
@@ -0,0 +1,35 @@
+package com.psychegame.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 服务状态
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SystemStatus {
+    
+    /**
+     * 各服务的检测结果：database、redis、nginx、frontend、backend
+     */
+    private Map<String, ServiceProbe> services;
+    
+    /**
+     * 数据统计
+     */
+    private DataStats dataStats;
+    
+    /**
+     * 检测时间
+     */
+    private LocalDateTime checkedAt;
+}
@@ -0,0 +1,28 @@
+package com.psychegame.dto;
+
+import lombok.Data;
+
+/**
+ * 用户在某个游戏的统计
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+public class UserGameStats {
+    
+    /**
+     * 游戏编码
+     */
+    private String gameCode;
+    
+    /**
+     * 游戏次数
+     */
+    private long playCount;
+    
+    /**
+     * 最高分
+     */
+    private long highestScore;
+}
@@ -0,0 +1,33 @@
+package com.psychegame.dto;
+
+import lombok.Data;
+
+/**
+ * 用户摘要，用于排行榜、帖子作者、评论列表等批量展示场景
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+public class UserSummary {
+    
+    /**
+     * 用户ID
+     */
+    private Long id;
+    
+    /**
+     * 用户名
+     */
+    private String username;
+    
+    /**
+     * 昵称
+     */
+    private String nickname;
+    
+    /**
+     * 头像
+     */
+    private String avatar;
+}
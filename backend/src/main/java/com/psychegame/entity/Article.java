@@ -0,0 +1,74 @@
+package com.psychegame.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 论坛文章实体类
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+public class Article {
+    /**
+     * 文章ID
+     */
+    private Long id;
+    
+    /**
+     * 作者ID
+     */
+    private Long userId;
+    
+    /**
+     * 标题
+     */
+    private String title;
+    
+    /**
+     * 摘要，正文的前若干个字符
+     */
+    private String summary;
+    
+    /**
+     * 正文
+     */
+    private String content;
+    
+    /**
+     * 状态：published/draft
+     */
+    private String status;
+    
+    /**
+     * 浏览数
+     */
+    private Long viewCount;
+    
+    /**
+     * 点赞数
+     */
+    private Long likeCount;
+    
+    /**
+     * 收藏数
+     */
+    private Long collectCount;
+    
+    /**
+     * 评论数
+     */
+    private Long commentCount;
+    
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+    
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
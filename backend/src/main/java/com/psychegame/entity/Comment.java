@@ -0,0 +1,74 @@
+package com.psychegame.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 论坛评论实体类
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+public class Comment {
+    /**
+     * 评论ID
+     */
+    private Long id;
+    
+    /**
+     * 文章ID
+     */
+    private Long articleId;
+    
+    /**
+     * 评论者ID
+     */
+    private Long userId;
+    
+    /**
+     * 上级评论ID，根评论为null
+     */
+    private Long parentId;
+    
+    /**
+     * 被回复的用户ID，根评论为null
+     */
+    private Long replyToUserId;
+    
+    /**
+     * 物化路径：从根评论到本评论的各级ID（8位36进制定长）拼接
+     */
+    private String path;
+    
+    /**
+     * 内容，已删除时为空字符串
+     */
+    private String content;
+    
+    /**
+     * 是否已删除，有回复的评论删除后保留位置
+     */
+    private Boolean deleted;
+    
+    /**
+     * 点赞数
+     */
+    private Long likeCount;
+    
+    /**
+     * 直接回复数
+     */
+    private Long replyCount;
+    
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+    
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,44 @@
+package com.psychegame.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 游戏成绩实体类，每局游戏一条记录
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+public class GameScore {
+    /**
+     * 记录ID
+     */
+    private Long id;
+    
+    /**
+     * 用户ID
+     */
+    private Long userId;
+    
+    /**
+     * 游戏编码
+     */
+    private String gameCode;
+    
+    /**
+     * 分数
+     */
+    private Long score;
+    
+    /**
+     * 游戏时长（秒）
+     */
+    private Integer duration;
+    
+    /**
+     * 游戏结束时间
+     */
+    private LocalDateTime playedAt;
+}
@@ -0,0 +1,49 @@
+package com.psychegame.entity;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * 游戏成绩日汇总实体类，每个用户每个游戏每天一条记录
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+public class GameScoreDaily {
+    /**
+     * 用户ID
+     */
+    private Long userId;
+    
+    /**
+     * 游戏编码
+     */
+    private String gameCode;
+    
+    /**
+     * 日期
+     */
+    private LocalDate playDate;
+    
+    /**
+     * 游戏次数
+     */
+    private Integer playCount;
+    
+    /**
+     * 最高分
+     */
+    private Long bestScore;
+    
+    /**
+     * 分数总和
+     */
+    private Long scoreSum;
+    
+    /**
+     * 总时长（秒）
+     */
+    private Long totalDuration;
+}
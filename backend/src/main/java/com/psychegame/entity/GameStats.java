@@ -0,0 +1,34 @@
+package com.psychegame.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 游戏统计实体类，每个游戏一条记录
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+public class GameStats {
+    /**
+     * 游戏编码
+     */
+    private String gameCode;
+    
+    /**
+     * 游戏次数
+     */
+    private Long playCount;
+    
+    /**
+     * 分数总和
+     */
+    private Long scoreSum;
+    
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,29 @@
+package com.psychegame.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 表行数实体类，每张表一条记录
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Data
+public class TableRowCount {
+    /**
+     * 表名
+     */
+    private String tableName;
+    
+    /**
+     * 行数
+     */
+    private Long rowCount;
+    
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
@@ -1,6 +1,6 @@
 package com.psychegame.entity;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import java.time.LocalDateTime;
 
@@ -23,9 +23,9 @@ public class User {
     private String username;
     
     /**
-     * 密码
+     * 密码（只接收，不输出）
      */
-    @JsonIgnore
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
     
     /**
@@ -67,4 +67,9 @@ public class User {
      * 更新时间
      */
     private LocalDateTime updatedAt;
+    
+    /**
+     * 乐观锁版本号，每次更新加1
+     */
+    private Integer version;
 }
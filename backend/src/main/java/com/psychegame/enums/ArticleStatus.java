@@ -0,0 +1,48 @@
+package com.psychegame.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 论坛文章状态
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Getter
+@AllArgsConstructor
+public enum ArticleStatus {
+    
+    PUBLISHED("published", "已发布"),
+    
+    DRAFT("draft", "草稿");
+    
+    /**
+     * 状态编码
+     */
+    private final String code;
+    
+    /**
+     * 状态名称
+     */
+    private final String name;
+    
+    /**
+     * 根据编码获取文章状态，未传入时为已发布
+     *
+     * @param code 状态编码
+     * @return 文章状态
+     * @throws RuntimeException 状态不存在
+     */
+    public static ArticleStatus fromCode(String code) {
+        if (code == null || code.isEmpty()) {
+            return PUBLISHED;
+        }
+        for (ArticleStatus status : values()) {
+            if (status.code.equals(code)) {
+                return status;
+            }
+        }
+        throw new RuntimeException("文章状态不存在");
+    }
+}
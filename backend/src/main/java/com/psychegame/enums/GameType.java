@@ -0,0 +1,49 @@
+package com.psychegame.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 游戏类型
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Getter
+@AllArgsConstructor
+public enum GameType {
+    
+    SWEEPER("sweeper", "扫雷"),
+    
+    SNAKE("snake", "贪吃蛇"),
+    
+    AIRPLANE("airplane", "打飞机"),
+    
+    GAME_2048("2048", "2048");
+    
+    /**
+     * 游戏编码，与前端路由参数一致
+     */
+    private final String code;
+    
+    /**
+     * 游戏名称
+     */
+    private final String name;
+    
+    /**
+     * 根据编码获取游戏类型
+     *
+     * @param code 游戏编码
+     * @return 游戏类型
+     * @throws RuntimeException 游戏不存在
+     */
+    public static GameType fromCode(String code) {
+        for (GameType type : values()) {
+            if (type.code.equals(code)) {
+                return type;
+            }
+        }
+        throw new RuntimeException("游戏不存在");
+    }
+}
@@ -0,0 +1,50 @@
+package com.psychegame.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 排行榜时间范围
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Getter
+@AllArgsConstructor
+public enum LeaderboardWindow {
+    
+    ALL("all", "总榜"),
+    
+    DAY("day", "今日"),
+    
+    WEEK("week", "本周");
+    
+    /**
+     * 时间范围编码
+     */
+    private final String code;
+    
+    /**
+     * 时间范围名称
+     */
+    private final String name;
+    
+    /**
+     * 根据编码获取时间范围，未传入时为总榜
+     *
+     * @param code 时间范围编码
+     * @return 时间范围
+     * @throws RuntimeException 时间范围不存在
+     */
+    public static LeaderboardWindow fromCode(String code) {
+        if (code == null || code.isEmpty()) {
+            return ALL;
+        }
+        for (LeaderboardWindow window : values()) {
+            if (window.code.equals(code)) {
+                return window;
+            }
+        }
+        throw new RuntimeException("排行榜时间范围不存在");
+    }
+}
@@ -0,0 +1,45 @@
+package com.psychegame.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 论坛互动类型
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Getter
+@AllArgsConstructor
+public enum ReactionType {
+    
+    LIKE("like", "点赞"),
+    
+    COLLECT("collect", "收藏");
+    
+    /**
+     * 类型编码
+     */
+    private final String code;
+    
+    /**
+     * 类型名称
+     */
+    private final String name;
+    
+    /**
+     * 根据编码获取互动类型
+     *
+     * @param code 类型编码
+     * @return 互动类型
+     * @throws RuntimeException 类型不存在
+     */
+    public static ReactionType fromCode(String code) {
+        for (ReactionType type : values()) {
+            if (type.code.equals(code)) {
+                return type;
+            }
+        }
+        throw new RuntimeException("互动类型不存在");
+    }
+}
@@ -1,5 +1,6 @@
 package com.psychegame.filter;
 
+import com.psychegame.util.JwtPrincipal;
 import com.psychegame.util.JwtUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -7,6 +8,8 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -14,6 +17,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * JWT认证过滤器
@@ -32,42 +36,34 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // 获取Authorization头
         String authHeader = request.getHeader("Authorization");
         
-        String username = null;
-        String jwtToken = null;
-        
-        // 检查Authorization头格式
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwtToken = authHeader.substring(7);
-            try {
-                username = jwtUtil.extractUsername(jwtToken);
-            } catch (Exception e) {
-                System.err.println("JWT令牌解析失败: " + e.getMessage());
-            }
-        }
-        
-        // 如果令牌有效且用户未认证
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        // 检查Authorization头格式，且用户未认证
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwtToken = authHeader.substring(7);
             try {
-                // 验证令牌
-                if (!jwtUtil.isTokenExpired(jwtToken)) {
-                    // 创建认证令牌
-                    UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                            username,
-                            null,
-                            new ArrayList<>()
-                    );
-                    
-                    // 设置认证详情
-                    authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    
-                    // 将认证信息设置到SecurityContext
-                    SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-                    
-                    // 将用户ID添加到请求属性
-                    Long userId = jwtUtil.extractUserId(jwtToken);
-                    request.setAttribute("userId", userId);
-                    request.setAttribute("username", username);
+                // 一次性验证令牌（签名、过期时间）并获取令牌主体
+                JwtPrincipal principal = jwtUtil.verifyToken(jwtToken);
+                
+                // 创建认证令牌，管理员授予ROLE_ADMIN
+                List<GrantedAuthority> authorities = new ArrayList<>();
+                if (principal.isAdmin()) {
+                    authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
                 }
+                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+                        principal.getUsername(),
+                        null,
+                        authorities
+                );
+                
+                // 设置认证详情
+                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                
+                // 将认证信息设置到SecurityContext
+                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                
+                // 将用户ID添加到请求属性
+                request.setAttribute("userId", principal.getUserId());
+                request.setAttribute("username", principal.getUsername());
             } catch (Exception e) {
                 System.err.println("JWT令牌验证失败: " + e.getMessage());
             }
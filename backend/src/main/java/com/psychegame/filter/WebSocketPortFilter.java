@@ -0,0 +1,52 @@
+package com.psychegame.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * WebSocket端口过滤器
+ * <p>
+ * WebSocket端口上的连接器与HTTP端口共用同一个应用，只允许访问/ws及其下的端点，
+ * 其他请求（包括管理接口）返回404，接口只能从HTTP端口访问。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WebSocketPortFilter extends OncePerRequestFilter {
+    
+    @Value("${spring.websocket.server.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${spring.websocket.server.port:8081}")
+    private int port;
+    
+    @Value("${server.port:8080}")
+    private int serverPort;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // 未单独监听WebSocket端口时（见WebSocketConfig）不过滤
+        return !enabled || port <= 0 || port == serverPort || request.getLocalPort() != port;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if ("/ws".equals(path) || path.startsWith("/ws/")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        response.sendError(HttpServletResponse.SC_NOT_FOUND);
+    }
+}
@@ -0,0 +1,163 @@
+package com.psychegame.game;
+
+import com.psychegame.enums.GameType;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * 2048录像回放引擎
+ * <p>
+ * 操作记录为方向字符序列，U上、D下、L左、R右，每个字符一次按键，例如 "LLUR"。
+ * 移动后立即生成新方块（先随机位置，再以0.9概率生成2、否则生成4），
+ * 合并规则、遍历顺序与 Game2048.vue 一致；未产生移动的按键不生成方块。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Component
+public class Game2048Engine implements ReplayEngine {
+    
+    private static final int SIZE = 4;
+    
+    @Override
+    public GameType getGameType() {
+        return GameType.GAME_2048;
+    }
+    
+    @Override
+    public long replay(long seed, String moves) {
+        ReplayRandom random = new ReplayRandom(seed);
+        int[] grid = new int[SIZE * SIZE];
+        boolean[] merged = new boolean[SIZE * SIZE];
+        addRandomTile(grid, random);
+        addRandomTile(grid, random);
+        
+        long score = 0;
+        boolean over = false;
+        for (int i = 0; i < moves.length(); i++) {
+            if (over) {
+                throw new IllegalArgumentException("游戏结束后仍有操作");
+            }
+            long gained = move(grid, merged, moves.charAt(i));
+            if (gained < 0) {
+                continue;
+            }
+            score += gained;
+            addRandomTile(grid, random);
+            over = !canMove(grid);
+        }
+        return score;
+    }
+    
+    /**
+     * 移动一次
+     *
+     * @return 本次合并得分，没有方块移动时返回-1
+     */
+    private static long move(int[] grid, boolean[] merged, char direction) {
+        int rowStart = 0, rowStep = 1, colStart = 0, colStep = 1, rowDelta = 0, colDelta = 0;
+        switch (direction) {
+            case 'U' -> rowDelta = -1;
+            case 'D' -> {
+                rowDelta = 1;
+                rowStart = SIZE - 1;
+                rowStep = -1;
+            }
+            case 'L' -> colDelta = -1;
+            case 'R' -> {
+                colDelta = 1;
+                colStart = SIZE - 1;
+                colStep = -1;
+            }
+            default -> throw new IllegalArgumentException("无效的方向: " + direction);
+        }
+        
+        Arrays.fill(merged, false);
+        boolean moved = false;
+        long gained = 0;
+        for (int r = 0, row = rowStart; r < SIZE; r++, row += rowStep) {
+            for (int c = 0, col = colStart; c < SIZE; c++, col += colStep) {
+                int value = grid[row * SIZE + col];
+                if (value == 0) {
+                    continue;
+                }
+                int finalRow = row;
+                int finalCol = col;
+                boolean merging = false;
+                int nextRow = row;
+                int nextCol = col;
+                while (true) {
+                    nextRow += rowDelta;
+                    nextCol += colDelta;
+                    if (nextRow < 0 || nextRow >= SIZE || nextCol < 0 || nextCol >= SIZE) {
+                        break;
+                    }
+                    int next = grid[nextRow * SIZE + nextCol];
+                    if (next == 0) {
+                        finalRow = nextRow;
+                        finalCol = nextCol;
+                    } else if (next == value && !merged[nextRow * SIZE + nextCol]) {
+                        finalRow = nextRow;
+                        finalCol = nextCol;
+                        merged[nextRow * SIZE + nextCol] = true;
+                        merging = true;
+                        break;
+                    } else {
+                        break;
+                    }
+                }
+                
+                if (finalRow != row || finalCol != col) {
+                    moved = true;
+                    int target = finalRow * SIZE + finalCol;
+                    if (merging) {
+                        grid[target] *= 2;
+                        gained += grid[target];
+                    } else {
+                        grid[target] = value;
+                    }
+                    grid[row * SIZE + col] = 0;
+                }
+            }
+        }
+        return moved ? gained : -1;
+    }
+    
+    private static void addRandomTile(int[] grid, ReplayRandom random) {
+        int empty = 0;
+        for (int cell : grid) {
+            if (cell == 0) {
+                empty++;
+            }
+        }
+        if (empty == 0) {
+            return;
+        }
+        int index = random.nextInt(empty);
+        for (int i = 0; i < grid.length; i++) {
+            if (grid[i] == 0 && index-- == 0) {
+                grid[i] = random.nextDouble() < 0.9 ? 2 : 4;
+                return;
+            }
+        }
+    }
+    
+    private static boolean canMove(int[] grid) {
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                int current = grid[row * SIZE + col];
+                if (current == 0) {
+                    return true;
+                }
+                if (col < SIZE - 1 && grid[row * SIZE + col + 1] == current) {
+                    return true;
+                }
+                if (row < SIZE - 1 && grid[(row + 1) * SIZE + col] == current) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,31 @@
+package com.psychegame.game;
+
+import com.psychegame.enums.GameType;
+
+/**
+ * 游戏录像回放引擎
+ * <p>
+ * 以种子和操作记录确定性地重放一局游戏并计算分数，规则与前端游戏组件一致。实现必须无状态、线程安全。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public interface ReplayEngine {
+    
+    /**
+     * 支持的游戏
+     *
+     * @return 游戏类型
+     */
+    GameType getGameType();
+    
+    /**
+     * 重放一局游戏
+     *
+     * @param seed 随机数种子
+     * @param moves 操作记录，格式由各游戏定义
+     * @return 重放得到的分数
+     * @throws IllegalArgumentException 操作记录格式错误或包含不可能的操作
+     */
+    long replay(long seed, String moves);
+}
@@ -0,0 +1,50 @@
+package com.psychegame.game;
+
+/**
+ * 录像回放使用的确定性随机数生成器（Mulberry32）
+ * <p>
+ * 32位状态，与前端以下实现逐位一致，前端以服务端下发的种子初始化后替代 Math.random()：
+ * <pre>
+ * function mulberry32(a) {
+ *   return function () {
+ *     a = a + 0x6D2B79F5 | 0
+ *     let t = Math.imul(a ^ a &gt;&gt;&gt; 15, 1 | a)
+ *     t = t + Math.imul(t ^ t &gt;&gt;&gt; 7, 61 | t) ^ t
+ *     return ((t ^ t &gt;&gt;&gt; 14) &gt;&gt;&gt; 0) / 4294967296
+ *   }
+ * }
+ * </pre>
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public final class ReplayRandom {
+    
+    private int state;
+    
+    public ReplayRandom(long seed) {
+        this.state = (int) seed;
+    }
+    
+    /**
+     * 生成[0, 1)之间的随机数，对应前端的 Math.random()
+     *
+     * @return 随机数
+     */
+    public double nextDouble() {
+        state += 0x6D2B79F5;
+        int t = (state ^ (state >>> 15)) * (state | 1);
+        t = (t + (t ^ (t >>> 7)) * (t | 61)) ^ t;
+        return ((t ^ (t >>> 14)) & 0xFFFFFFFFL) / 4294967296.0;
+    }
+    
+    /**
+     * 生成[0, bound)之间的整数，对应前端的 Math.floor(Math.random() * bound)
+     *
+     * @param bound 上界
+     * @return 随机整数
+     */
+    public int nextInt(int bound) {
+        return (int) Math.floor(nextDouble() * bound);
+    }
+}
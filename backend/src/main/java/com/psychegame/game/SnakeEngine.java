@@ -0,0 +1,147 @@
+package com.psychegame.game;
+
+import com.psychegame.enums.GameType;
+import org.springframework.stereotype.Component;
+
+/**
+ * 贪吃蛇录像回放引擎
+ * <p>
+ * 操作记录为逗号分隔的"帧号+方向"，例如 "3U,10L,25D"，表示在第3帧更新前按下上键。
+ * 帧号为已完成的更新次数，单调不减；方向U上、D下、L左、R右，只有与当前方向垂直时才生效。
+ * 30x20格，蛇从(10,10)向右出发，撞墙或撞到自身时结束，每吃一个食物得10分，
+ * 食物位置先随机x再随机y、落在蛇身上时重新随机，与 Snake.vue 一致。
+ * 最后一次操作之后蛇沿直线前进直到撞墙，因此记录中不需要结束帧。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Component
+public class SnakeEngine implements ReplayEngine {
+    
+    public static final int WIDTH = 30;
+    
+    public static final int HEIGHT = 20;
+    
+    private static final int FOOD_SCORE = 10;
+    
+    @Override
+    public GameType getGameType() {
+        return GameType.SNAKE;
+    }
+    
+    @Override
+    public long replay(long seed, String moves) {
+        ReplayRandom random = new ReplayRandom(seed);
+        int capacity = WIDTH * HEIGHT;
+        // 环形数组保存蛇身（头在head处），occupied记录每个格子是否被蛇身占用
+        int[] body = new int[capacity];
+        boolean[] occupied = new boolean[capacity];
+        int head = 0;
+        int length = 1;
+        body[0] = 10 * WIDTH + 10;
+        occupied[body[0]] = true;
+        int dx = 1;
+        int dy = 0;
+        int food = nextFood(random, occupied);
+        
+        long score = 0;
+        long tick = 0;
+        int pos = 0;
+        while (true) {
+            // 应用本帧更新前的按键
+            while (pos < moves.length()) {
+                int end = moves.indexOf(',', pos);
+                if (end < 0) {
+                    end = moves.length();
+                }
+                if (end - pos < 2) {
+                    throw new IllegalArgumentException("录像格式错误");
+                }
+                long inputTick = parseTick(moves, pos, end - 1);
+                if (inputTick < tick) {
+                    throw new IllegalArgumentException("录像帧号必须单调不减");
+                }
+                if (inputTick > tick) {
+                    break;
+                }
+                switch (moves.charAt(end - 1)) {
+                    case 'U' -> {
+                        if (dy == 0) {
+                            dx = 0;
+                            dy = -1;
+                        }
+                    }
+                    case 'D' -> {
+                        if (dy == 0) {
+                            dx = 0;
+                            dy = 1;
+                        }
+                    }
+                    case 'L' -> {
+                        if (dx == 0) {
+                            dx = -1;
+                            dy = 0;
+                        }
+                    }
+                    case 'R' -> {
+                        if (dx == 0) {
+                            dx = 1;
+                            dy = 0;
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("无效的方向: " + moves.charAt(end - 1));
+                }
+                pos = end + 1;
+            }
+            
+            // 移动蛇头，撞墙或撞到自身（含尚未移走的蛇尾）时结束
+            int x = body[head] % WIDTH + dx;
+            int y = body[head] / WIDTH + dy;
+            tick++;
+            if (x < 0 || x >= WIDTH || y < 0 || y >= HEIGHT || occupied[y * WIDTH + x]) {
+                break;
+            }
+            int cell = y * WIDTH + x;
+            head = (head + capacity - 1) % capacity;
+            body[head] = cell;
+            occupied[cell] = true;
+            if (cell == food) {
+                score += FOOD_SCORE;
+                length++;
+                if (length == capacity) {
+                    break;
+                }
+                food = nextFood(random, occupied);
+            } else {
+                occupied[body[(head + length) % capacity]] = false;
+            }
+        }
+        
+        if (pos < moves.length()) {
+            throw new IllegalArgumentException("游戏结束后仍有操作");
+        }
+        return score;
+    }
+    
+    private static long parseTick(String moves, int from, int to) {
+        long tick = 0;
+        for (int i = from; i < to; i++) {
+            char c = moves.charAt(i);
+            if (c < '0' || c > '9' || tick > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("录像格式错误");
+            }
+            tick = tick * 10 + (c - '0');
+        }
+        return tick;
+    }
+    
+    private static int nextFood(ReplayRandom random, boolean[] occupied) {
+        int cell;
+        do {
+            int x = random.nextInt(WIDTH);
+            int y = random.nextInt(HEIGHT);
+            cell = y * WIDTH + x;
+        } while (occupied[cell]);
+        return cell;
+    }
+}
@@ -0,0 +1,405 @@
+package com.psychegame.game;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 多人贪吃蛇房间
+ * <p>
+ * 棋盘、蛇身、分数全部使用基本类型数组，每帧推进不分配对象（编码输出的帧除外）。
+ * 除 {@link #input} 外所有方法只能由房间所在的分片线程调用，房间本身不加锁。
+ * 规则与单人版一致：撞墙、撞到任何蛇身（含尚未移走的蛇尾）死亡，两条蛇头撞到同一格时同时死亡，
+ * 吃到食物得10分并变长；死亡的玩家在若干帧后重生，分数重新计算。
+ * <p>
+ * 帧格式（大端）：
+ * <pre>
+ * 欢迎帧 0: type(1) slot(1) width(2) height(2) tickRate(1)
+ * 关键帧 1: type(1) tick(4) width(2) height(2) board(width*height) players
+ * 增量帧 2: type(1) tick(4) count(2) [cell(2) value(1)]*count players
+ * players: count(1) [slot(1) alive(1) score(4) head(2) length(2)]*count
+ * </pre>
+ * 格子值0为空、-1为食物、slot+1为该玩家的蛇身；head为蛇头格子编号（y*width+x），死亡时为-1。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public final class SnakeRoom {
+    
+    public static final byte FRAME_WELCOME = 0;
+    
+    public static final byte FRAME_KEY = 1;
+    
+    public static final byte FRAME_DELTA = 2;
+    
+    /**
+     * 方向：0上、1右、2下、3左，奇偶相同的方向互为相反或相同方向
+     */
+    private static final int[] DX = {0, 1, 0, -1};
+    
+    private static final int[] DY = {-1, 0, 1, 0};
+    
+    private static final byte EMPTY = 0;
+    
+    private static final byte FOOD = -1;
+    
+    private static final int FOOD_SCORE = 10;
+    
+    private static final int PLAYER_BYTES = 10;
+    
+    private static final int DIE = -1;
+    
+    private static final int STAY = -2;
+    
+    private final int width;
+    
+    private final int height;
+    
+    private final int cells;
+    
+    private final int maxPlayers;
+    
+    private final int foodCount;
+    
+    private final int respawnTicks;
+    
+    private final SplittableRandom random;
+    
+    /**
+     * 棋盘格子值
+     */
+    private final byte[] board;
+    
+    /**
+     * 每个玩家的蛇身环形数组，bodies[slot][head]为蛇头
+     */
+    private final int[][] bodies;
+    
+    private final int[] head;
+    
+    private final int[] length;
+    
+    private final int[] direction;
+    
+    private final int[] score;
+    
+    private final long[] respawnAt;
+    
+    private final boolean[] present;
+    
+    private final boolean[] alive;
+    
+    /**
+     * 本帧蛇头将要进入的格子，DIE表示本帧死亡，STAY表示不在场或刚出生、本帧不移动
+     */
+    private final int[] nextHead;
+    
+    /**
+     * 玩家最近一次按下的方向，由连接线程写入、分片线程读取，-1表示没有新输入
+     */
+    private final AtomicIntegerArray inputs;
+    
+    /**
+     * 上一个增量帧之后变化的格子，changedAt按增量帧序号去重
+     */
+    private final int[] changed;
+    
+    private final long[] changedAt;
+    
+    private int changedCount;
+    
+    private long epoch;
+    
+    private final ByteBuffer out;
+    
+    private int players;
+    
+    private int foodOnBoard;
+    
+    private long tick;
+    
+    public SnakeRoom(int width, int height, int maxPlayers, int foodCount, int respawnTicks, long seed) {
+        this.width = width;
+        this.height = height;
+        this.cells = width * height;
+        this.maxPlayers = maxPlayers;
+        this.foodCount = foodCount;
+        this.respawnTicks = respawnTicks;
+        this.random = new SplittableRandom(seed);
+        this.board = new byte[cells];
+        this.bodies = new int[maxPlayers][cells];
+        this.head = new int[maxPlayers];
+        this.length = new int[maxPlayers];
+        this.direction = new int[maxPlayers];
+        this.score = new int[maxPlayers];
+        this.respawnAt = new long[maxPlayers];
+        this.present = new boolean[maxPlayers];
+        this.alive = new boolean[maxPlayers];
+        this.nextHead = new int[maxPlayers];
+        this.inputs = new AtomicIntegerArray(maxPlayers);
+        this.changed = new int[cells];
+        this.changedAt = new long[cells];
+        Arrays.fill(changedAt, -1);
+        this.out = ByteBuffer.allocate(1 + 4 + 4 + Math.max(cells, 2 + cells * 3) + 1 + maxPlayers * PLAYER_BYTES);
+        // 初始食物由加入时的关键帧下发
+        refillFood();
+        changedCount = 0;
+        epoch++;
+    }
+    
+    /**
+     * 玩家加入，下一帧出生
+     *
+     * @return 座位号，房间已满时返回-1
+     */
+    public int join() {
+        for (int slot = 0; slot < maxPlayers; slot++) {
+            if (!present[slot]) {
+                present[slot] = true;
+                alive[slot] = false;
+                score[slot] = 0;
+                respawnAt[slot] = tick;
+                inputs.set(slot, -1);
+                players++;
+                return slot;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * 玩家离开，清除其蛇身
+     *
+     * @param slot 座位号
+     */
+    public void leave(int slot) {
+        if (!present[slot]) {
+            return;
+        }
+        if (alive[slot]) {
+            kill(slot);
+        }
+        present[slot] = false;
+        players--;
+    }
+    
+    /**
+     * 记录玩家输入，可由任意线程调用，下一帧生效
+     *
+     * @param slot 座位号
+     * @param newDirection 方向：0上、1右、2下、3左
+     */
+    public void input(int slot, int newDirection) {
+        if (slot >= 0 && slot < maxPlayers && newDirection >= 0 && newDirection < 4) {
+            inputs.set(slot, newDirection);
+        }
+    }
+    
+    public int getMaxPlayers() {
+        return maxPlayers;
+    }
+    
+    public int getPlayers() {
+        return players;
+    }
+    
+    public long getTick() {
+        return tick;
+    }
+    
+    /**
+     * 推进一帧
+     */
+    public void tick() {
+        tick++;
+        
+        // 应用输入、计算蛇头的下一个位置，均以上一帧结束时的棋盘判断
+        for (int slot = 0; slot < maxPlayers; slot++) {
+            nextHead[slot] = STAY;
+            if (!present[slot] || !alive[slot]) {
+                continue;
+            }
+            int input = inputs.getAndSet(slot, -1);
+            if (input >= 0 && (input & 1) != (direction[slot] & 1)) {
+                direction[slot] = input;
+            }
+            int cell = bodies[slot][head[slot]];
+            int x = cell % width + DX[direction[slot]];
+            int y = cell / width + DY[direction[slot]];
+            boolean free = x >= 0 && x < width && y >= 0 && y < height && board[y * width + x] <= 0;
+            nextHead[slot] = free ? y * width + x : DIE;
+        }
+        
+        // 两条蛇头进入同一格时同时死亡
+        for (int a = 0; a < maxPlayers; a++) {
+            if (nextHead[a] < 0) {
+                continue;
+            }
+            boolean collided = false;
+            for (int b = a + 1; b < maxPlayers; b++) {
+                if (nextHead[b] == nextHead[a]) {
+                    nextHead[b] = DIE;
+                    collided = true;
+                }
+            }
+            if (collided) {
+                nextHead[a] = DIE;
+            }
+        }
+        
+        // 先处理死亡再移动，本帧的碰撞都以移动前的棋盘判断
+        for (int slot = 0; slot < maxPlayers; slot++) {
+            if (nextHead[slot] == DIE) {
+                kill(slot);
+            }
+        }
+        for (int slot = 0; slot < maxPlayers; slot++) {
+            if (nextHead[slot] >= 0) {
+                move(slot, nextHead[slot]);
+            }
+        }
+        
+        // 移动完成后再出生，出生位置只会选在移动后的空格，不会与本帧进入的蛇头重叠；新出生的蛇下一帧开始移动
+        for (int slot = 0; slot < maxPlayers; slot++) {
+            if (present[slot] && !alive[slot] && tick >= respawnAt[slot]) {
+                spawn(slot);
+            }
+        }
+        refillFood();
+    }
+    
+    /**
+     * 编码上一个增量帧之后的变化，每帧推进后调用一次
+     *
+     * @return 帧数据
+     */
+    public byte[] deltaFrame() {
+        out.clear();
+        out.put(FRAME_DELTA);
+        out.putInt((int) tick);
+        out.putShort((short) changedCount);
+        for (int i = 0; i < changedCount; i++) {
+            out.putShort((short) changed[i]);
+            out.put(board[changed[i]]);
+        }
+        putPlayers();
+        changedCount = 0;
+        epoch++;
+        return Arrays.copyOf(out.array(), out.position());
+    }
+    
+    /**
+     * 编码当前状态的关键帧
+     *
+     * @return 帧数据
+     */
+    public byte[] keyFrame() {
+        out.clear();
+        out.put(FRAME_KEY);
+        out.putInt((int) tick);
+        out.putShort((short) width);
+        out.putShort((short) height);
+        out.put(board);
+        putPlayers();
+        return Arrays.copyOf(out.array(), out.position());
+    }
+    
+    /**
+     * 编码欢迎帧
+     *
+     * @param slot 座位号
+     * @param tickRate 每秒帧数
+     * @return 帧数据
+     */
+    public byte[] welcomeFrame(int slot, int tickRate) {
+        ByteBuffer buffer = ByteBuffer.allocate(7);
+        buffer.put(FRAME_WELCOME);
+        buffer.put((byte) slot);
+        buffer.putShort((short) width);
+        buffer.putShort((short) height);
+        buffer.put((byte) tickRate);
+        return buffer.array();
+    }
+    
+    private void putPlayers() {
+        out.put((byte) players);
+        for (int slot = 0; slot < maxPlayers; slot++) {
+            if (!present[slot]) {
+                continue;
+            }
+            out.put((byte) slot);
+            out.put((byte) (alive[slot] ? 1 : 0));
+            out.putInt(score[slot]);
+            out.putShort((short) (alive[slot] ? bodies[slot][head[slot]] : -1));
+            out.putShort((short) (alive[slot] ? length[slot] : 0));
+        }
+    }
+    
+    private void move(int slot, int cell) {
+        int[] body = bodies[slot];
+        boolean eat = board[cell] == FOOD;
+        head[slot] = (head[slot] + cells - 1) % cells;
+        body[head[slot]] = cell;
+        set(cell, (byte) (slot + 1));
+        if (eat) {
+            length[slot]++;
+            score[slot] += FOOD_SCORE;
+            foodOnBoard--;
+        } else {
+            set(body[(head[slot] + length[slot]) % cells], EMPTY);
+        }
+    }
+    
+    private void kill(int slot) {
+        int[] body = bodies[slot];
+        for (int i = 0; i < length[slot]; i++) {
+            set(body[(head[slot] + i) % cells], EMPTY);
+        }
+        alive[slot] = false;
+        length[slot] = 0;
+        respawnAt[slot] = tick + respawnTicks;
+    }
+    
+    /**
+     * 在随机空位出生，前方两格需为空；找不到时下一帧重试
+     */
+    private void spawn(int slot) {
+        for (int attempt = 0; attempt < 32; attempt++) {
+            int x = 2 + random.nextInt(width - 4);
+            int y = random.nextInt(height);
+            int dir = x < width / 2 ? 1 : 3;
+            int cell = y * width + x;
+            if (board[cell] != EMPTY || board[cell + DX[dir]] > 0 || board[cell + 2 * DX[dir]] > 0) {
+                continue;
+            }
+            head[slot] = 0;
+            length[slot] = 1;
+            direction[slot] = dir;
+            bodies[slot][0] = cell;
+            alive[slot] = true;
+            score[slot] = 0;
+            inputs.set(slot, -1);
+            set(cell, (byte) (slot + 1));
+            return;
+        }
+    }
+    
+    private void refillFood() {
+        for (int attempt = 0; foodOnBoard < foodCount && attempt < foodCount * 8; attempt++) {
+            int cell = random.nextInt(cells);
+            if (board[cell] == EMPTY) {
+                set(cell, FOOD);
+                foodOnBoard++;
+            }
+        }
+    }
+    
+    private void set(int cell, byte value) {
+        board[cell] = value;
+        if (changedAt[cell] != epoch) {
+            changedAt[cell] = epoch;
+            changed[changedCount++] = cell;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.psychegame.game;
+
+import com.psychegame.enums.GameType;
+import org.springframework.stereotype.Component;
+
+/**
+ * 扫雷录像回放引擎
+ * <p>
+ * 操作记录为"难度;操作列表"，难度为easy、medium或hard，操作以逗号分隔，
+ * R表示翻开、F表示切换标记，后接"行:列"，例如 "easy;R4:4,F0:1,R8:2"。
+ * 地雷按先行后列随机放置、重复位置重新随机；每翻开一个格子得1分，翻开空白格时连带翻开周围格子，
+ * 翻到地雷、翻开全部安全格或标对全部地雷时结束，与 SweeperGame.vue 一致。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Component
+public class SweeperEngine implements ReplayEngine {
+    
+    @Override
+    public GameType getGameType() {
+        return GameType.SWEEPER;
+    }
+    
+    @Override
+    public long replay(long seed, String moves) {
+        int separator = moves.indexOf(';');
+        if (separator < 0) {
+            throw new IllegalArgumentException("录像格式错误");
+        }
+        int rows;
+        int cols;
+        int mines;
+        switch (moves.substring(0, separator)) {
+            case "easy" -> {
+                rows = 9;
+                cols = 9;
+                mines = 10;
+            }
+            case "medium" -> {
+                rows = 16;
+                cols = 16;
+                mines = 40;
+            }
+            case "hard" -> {
+                rows = 16;
+                cols = 30;
+                mines = 99;
+            }
+            default -> throw new IllegalArgumentException("难度不存在");
+        }
+        
+        Board board = new Board(rows, cols, mines, new ReplayRandom(seed));
+        int pos = separator + 1;
+        while (pos < moves.length()) {
+            int end = moves.indexOf(',', pos);
+            if (end < 0) {
+                end = moves.length();
+            }
+            if (board.over) {
+                throw new IllegalArgumentException("游戏结束后仍有操作");
+            }
+            int colon = moves.indexOf(':', pos);
+            if (end - pos < 4 || colon < 0 || colon >= end) {
+                throw new IllegalArgumentException("录像格式错误");
+            }
+            int row = parseIndex(moves, pos + 1, colon, rows);
+            int col = parseIndex(moves, colon + 1, end, cols);
+            switch (moves.charAt(pos)) {
+                case 'R' -> board.reveal(row * cols + col);
+                case 'F' -> board.toggleFlag(row * cols + col);
+                default -> throw new IllegalArgumentException("无效的操作: " + moves.charAt(pos));
+            }
+            pos = end + 1;
+        }
+        return board.score;
+    }
+    
+    private static int parseIndex(String moves, int from, int to, int bound) {
+        if (from >= to || to - from > 3) {
+            throw new IllegalArgumentException("录像格式错误");
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = moves.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("录像格式错误");
+            }
+            value = value * 10 + (c - '0');
+        }
+        if (value >= bound) {
+            throw new IllegalArgumentException("格子超出棋盘范围");
+        }
+        return value;
+    }
+    
+    /**
+     * 一局扫雷的棋盘状态，格子按行优先编号
+     */
+    private static final class Board {
+        
+        private final int rows;
+        
+        private final int cols;
+        
+        private final boolean[] mine;
+        
+        private final int[] value;
+        
+        private final boolean[] revealed;
+        
+        private final boolean[] flagged;
+        
+        private final int safeCells;
+        
+        private final int totalMines;
+        
+        private int revealedSafe;
+        
+        private int correctFlags;
+        
+        private long score;
+        
+        private boolean over;
+        
+        Board(int rows, int cols, int mines, ReplayRandom random) {
+            this.rows = rows;
+            this.cols = cols;
+            int cells = rows * cols;
+            this.mine = new boolean[cells];
+            this.value = new int[cells];
+            this.revealed = new boolean[cells];
+            this.flagged = new boolean[cells];
+            this.safeCells = cells - mines;
+            this.totalMines = mines;
+            
+            int placed = 0;
+            while (placed < mines) {
+                int row = random.nextInt(rows);
+                int col = random.nextInt(cols);
+                if (!mine[row * cols + col]) {
+                    mine[row * cols + col] = true;
+                    placed++;
+                }
+            }
+            for (int cell = 0; cell < cells; cell++) {
+                if (mine[cell]) {
+                    continue;
+                }
+                int row = cell / cols;
+                int col = cell % cols;
+                for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+                    for (int c = Math.max(0, col - 1); c <= Math.min(cols - 1, col + 1); c++) {
+                        if (mine[r * cols + c]) {
+                            value[cell]++;
+                        }
+                    }
+                }
+            }
+        }
+        
+        void reveal(int start) {
+            if (revealed[start] || flagged[start]) {
+                return;
+            }
+            if (mine[start]) {
+                revealed[start] = true;
+                score++;
+                over = true;
+                return;
+            }
+            // 用显式栈代替递归翻开空白区域，空白格周围不会有地雷
+            int[] stack = new int[rows * cols];
+            int size = 0;
+            revealed[start] = true;
+            stack[size++] = start;
+            while (size > 0) {
+                int cell = stack[--size];
+                score++;
+                revealedSafe++;
+                if (value[cell] != 0) {
+                    continue;
+                }
+                int row = cell / cols;
+                int col = cell % cols;
+                for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+                    for (int c = Math.max(0, col - 1); c <= Math.min(cols - 1, col + 1); c++) {
+                        int next = r * cols + c;
+                        if (!revealed[next] && !flagged[next]) {
+                            revealed[next] = true;
+                            stack[size++] = next;
+                        }
+                    }
+                }
+            }
+            checkStatus();
+        }
+        
+        void toggleFlag(int cell) {
+            if (revealed[cell]) {
+                return;
+            }
+            flagged[cell] = !flagged[cell];
+            if (mine[cell]) {
+                correctFlags += flagged[cell] ? 1 : -1;
+            }
+            checkStatus();
+        }
+        
+        private void checkStatus() {
+            if (revealedSafe == safeCells || correctFlags == totalMines) {
+                over = true;
+            }
+        }
+    }
+}
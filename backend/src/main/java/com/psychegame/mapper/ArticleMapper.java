@@ -0,0 +1,137 @@
+package com.psychegame.mapper;
+
+import com.psychegame.dto.ArticleDetail;
+import com.psychegame.dto.ArticleSummary;
+import com.psychegame.entity.Article;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 论坛文章Mapper接口
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Mapper
+public interface ArticleMapper {
+    
+    /**
+     * 插入文章
+     *
+     * @param article 文章信息
+     * @return 影响行数
+     */
+    int insert(Article article);
+    
+    /**
+     * 更新作者本人的文章，只写入非空字段
+     *
+     * @param article 文章信息，id、userId必填
+     * @return 影响行数，文章不存在或不是作者时为0
+     */
+    int updateSelective(Article article);
+    
+    /**
+     * 累加浏览、点赞、收藏数
+     *
+     * @param id 文章ID
+     * @param viewDelta 浏览数增量
+     * @param likeDelta 点赞数增量
+     * @param collectDelta 收藏数增量
+     * @return 影响行数
+     */
+    int incrementCounters(@Param("id") Long id,
+                          @Param("viewDelta") long viewDelta,
+                          @Param("likeDelta") long likeDelta,
+                          @Param("collectDelta") long collectDelta);
+    
+    /**
+     * 累加评论数
+     *
+     * @param id 文章ID
+     * @param delta 增量
+     * @return 影响行数
+     */
+    int incrementCommentCount(@Param("id") Long id, @Param("delta") long delta);
+    
+    /**
+     * 查询文章状态
+     *
+     * @param id 文章ID
+     * @return 状态编码，文章不存在时为null
+     */
+    String selectStatusById(@Param("id") Long id);
+    
+    /**
+     * 删除作者本人的文章
+     *
+     * @param id 文章ID
+     * @param userId 作者ID
+     * @return 影响行数
+     */
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+    
+    /**
+     * 根据ID查询文章详情
+     *
+     * @param id 文章ID
+     * @return 文章详情，不含作者信息
+     */
+    ArticleDetail selectById(@Param("id") Long id);
+    
+    /**
+     * 键集分页查询已发布的文章，按时间倒序
+     *
+     * @param cursorCreatedAt 上一页最后一篇的创建时间，第一页为null
+     * @param cursorId 上一页最后一篇的ID
+     * @param limit 条数
+     * @return 文章列表，不含正文和作者信息
+     */
+    List<ArticleSummary> selectPublishedPage(@Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                             @Param("cursorId") Long cursorId,
+                                             @Param("limit") int limit);
+    
+    /**
+     * 键集分页查询作者的文章（含草稿），按时间倒序
+     *
+     * @param userId 作者ID
+     * @param cursorCreatedAt 上一页最后一篇的创建时间，第一页为null
+     * @param cursorId 上一页最后一篇的ID
+     * @param limit 条数
+     * @return 文章列表，不含正文和作者信息
+     */
+    List<ArticleSummary> selectUserPage(@Param("userId") Long userId,
+                                        @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                        @Param("cursorId") Long cursorId,
+                                        @Param("limit") int limit);
+    
+    /**
+     * 查询某时间之后发布的文章，用于计算热门排行
+     *
+     * @param since 开始时间（包含）
+     * @param limit 条数上限
+     * @return 文章列表，按时间倒序，不含正文和作者信息
+     */
+    List<ArticleSummary> selectPublishedSince(@Param("since") LocalDateTime since, @Param("limit") int limit);
+    
+    /**
+     * 根据ID批量查询已发布的文章
+     *
+     * @param ids 文章ID集合，不能为空
+     * @return 文章列表，不含正文和作者信息；不存在或未发布的ID不返回
+     */
+    List<ArticleSummary> selectPublishedByIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 按更新时间顺序流式查询某时间之后修改的文章（含草稿），用于更新搜索索引，需在事务中遍历
+     *
+     * @param since 开始时间（包含），为null时查询全部
+     * @return 文章游标，只填充ID、标题、正文、状态、更新时间
+     */
+    Cursor<Article> selectChangedSinceAsCursor(@Param("since") LocalDateTime since);
+}
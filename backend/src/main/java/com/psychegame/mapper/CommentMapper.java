@@ -0,0 +1,111 @@
+package com.psychegame.mapper;
+
+import com.psychegame.entity.Comment;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 论坛评论Mapper接口
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Mapper
+public interface CommentMapper {
+    
+    /**
+     * 插入评论，路径需插入后按生成的ID更新
+     *
+     * @param comment 评论
+     * @return 影响行数
+     */
+    int insert(Comment comment);
+    
+    /**
+     * 设置评论的物化路径
+     *
+     * @param id 评论ID
+     * @param path 物化路径
+     * @return 影响行数
+     */
+    int updatePath(@Param("id") Long id, @Param("path") String path);
+    
+    /**
+     * 根据ID查询评论
+     *
+     * @param id 评论ID
+     * @return 评论，不存在时为null
+     */
+    Comment selectById(@Param("id") Long id);
+    
+    /**
+     * 按物化路径顺序查询文章的一页评论，为 (article_id, path) 索引上的一次范围扫描
+     *
+     * @param articleId 文章ID
+     * @param prefix 只查询路径以此开头的评论（某条评论的子树），为null时查询整篇文章
+     * @param after 只查询路径大于此值的评论（上一页最后一条的路径），为null时从头查询
+     * @param limit 最多返回条数
+     * @return 按路径排列的评论，上级评论在下级评论之前
+     */
+    List<Comment> selectPage(@Param("articleId") Long articleId,
+                             @Param("prefix") String prefix,
+                             @Param("after") String after,
+                             @Param("limit") int limit);
+    
+    /**
+     * 累加直接回复数
+     *
+     * @param id 评论ID
+     * @param delta 增量
+     * @return 影响行数
+     */
+    int incrementReplyCount(@Param("id") Long id, @Param("delta") long delta);
+    
+    /**
+     * 累加点赞数
+     *
+     * @param id 评论ID
+     * @param delta 增量
+     * @return 影响行数
+     */
+    int incrementLikeCount(@Param("id") Long id, @Param("delta") long delta);
+    
+    /**
+     * 删除评论者本人的评论：清空内容并标记删除，保留位置使回复仍在原处
+     *
+     * @param id 评论ID
+     * @param userId 评论者ID
+     * @param updatedAt 更新时间
+     * @return 影响行数，评论不存在、不属于该用户或已删除时为0
+     */
+    int markDeleted(@Param("id") Long id, @Param("userId") Long userId, @Param("updatedAt") LocalDateTime updatedAt);
+    
+    /**
+     * 删除文章的全部评论
+     *
+     * @param articleId 文章ID
+     * @return 影响行数
+     */
+    int deleteByArticleId(@Param("articleId") Long articleId);
+    
+    /**
+     * 根据ID批量查询评论
+     *
+     * @param ids 评论ID集合，不能为空
+     * @return 评论列表，不存在的ID不返回
+     */
+    List<Comment> selectByIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 按更新时间顺序流式查询某时间之后修改的评论（含已删除的），用于更新搜索索引，需在事务中遍历
+     *
+     * @param since 开始时间（包含），为null时查询全部
+     * @return 评论游标，只填充ID、内容、是否删除、更新时间
+     */
+    Cursor<Comment> selectChangedSinceAsCursor(@Param("since") LocalDateTime since);
+}
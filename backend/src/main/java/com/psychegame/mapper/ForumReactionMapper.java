@@ -0,0 +1,76 @@
+package com.psychegame.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 论坛点赞、收藏记录Mapper接口
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Mapper
+public interface ForumReactionMapper {
+    
+    /**
+     * 查询点赞或收藏了某个对象的用户
+     *
+     * @param kind 互动类型编码
+     * @param targetType 对象类型
+     * @param targetId 对象ID
+     * @return 用户ID列表
+     */
+    List<Long> selectUserIds(@Param("kind") String kind,
+                             @Param("targetType") String targetType,
+                             @Param("targetId") Long targetId);
+    
+    /**
+     * 插入记录，已存在或对象已删除时忽略（对象删除前尚未写入的点赞、收藏不再写入）
+     *
+     * @param kind 互动类型编码
+     * @param targetType 对象类型
+     * @param targetId 对象ID
+     * @param userId 用户ID
+     * @param createdAt 创建时间
+     * @return 影响行数
+     */
+    int insertIgnore(@Param("kind") String kind,
+                     @Param("targetType") String targetType,
+                     @Param("targetId") Long targetId,
+                     @Param("userId") Long userId,
+                     @Param("createdAt") LocalDateTime createdAt);
+    
+    /**
+     * 删除记录
+     *
+     * @param kind 互动类型编码
+     * @param targetType 对象类型
+     * @param targetId 对象ID
+     * @param userId 用户ID
+     * @return 影响行数
+     */
+    int delete(@Param("kind") String kind,
+               @Param("targetType") String targetType,
+               @Param("targetId") Long targetId,
+               @Param("userId") Long userId);
+    
+    /**
+     * 删除某个对象的全部记录
+     *
+     * @param targetType 对象类型
+     * @param targetId 对象ID
+     * @return 影响行数
+     */
+    int deleteByTarget(@Param("targetType") String targetType, @Param("targetId") Long targetId);
+    
+    /**
+     * 删除某篇文章所有评论的点赞记录
+     *
+     * @param articleId 文章ID
+     * @return 影响行数
+     */
+    int deleteByArticleComments(@Param("articleId") Long articleId);
+}
@@ -0,0 +1,59 @@
+package com.psychegame.mapper;
+
+import com.psychegame.dto.UserGameStats;
+import com.psychegame.entity.GameScoreDaily;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 游戏成绩日汇总Mapper接口
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Mapper
+public interface GameScoreDailyMapper {
+    
+    /**
+     * 将时间范围内的成绩按用户、游戏、日期汇总累加到日汇总表
+     *
+     * @param from 开始时间（包含）
+     * @param to 结束时间（不包含）
+     * @return 影响行数
+     */
+    int mergeFromScores(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    /**
+     * 键集分页查询用户某个游戏的日汇总，按日期倒序
+     *
+     * @param userId 用户ID
+     * @param gameCode 游戏编码
+     * @param cursorDate 上一页最后一行的日期，第一页为null
+     * @param limit 条数
+     * @return 日汇总列表
+     */
+    List<GameScoreDaily> selectUserPage(@Param("userId") Long userId,
+                                        @Param("gameCode") String gameCode,
+                                        @Param("cursorDate") LocalDate cursorDate,
+                                        @Param("limit") int limit);
+    
+    /**
+     * 按游戏统计用户日汇总中的游戏次数、最高分
+     *
+     * @param userId 用户ID
+     * @return 各游戏的统计
+     */
+    List<UserGameStats> selectUserTotals(@Param("userId") Long userId);
+    
+    /**
+     * 流式查询所有日汇总，需在事务中遍历
+     *
+     * @return 日汇总游标
+     */
+    Cursor<GameScoreDaily> selectAllAsCursor();
+}
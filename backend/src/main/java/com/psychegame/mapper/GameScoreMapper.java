@@ -0,0 +1,75 @@
+package com.psychegame.mapper;
+
+import com.psychegame.dto.UserGameStats;
+import com.psychegame.entity.GameScore;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 游戏成绩Mapper接口
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Mapper
+public interface GameScoreMapper {
+    
+    /**
+     * 批量插入游戏成绩（单条多值INSERT）
+     *
+     * @param scores 游戏成绩列表，不能为空
+     * @return 影响行数
+     */
+    int insertBatch(@Param("scores") List<GameScore> scores);
+    
+    /**
+     * 流式查询所有游戏成绩，需在事务中遍历
+     *
+     * @return 游戏成绩游标，不填充id
+     */
+    Cursor<GameScore> selectAllAsCursor();
+    
+    /**
+     * 键集分页查询用户某个游戏的成绩，按时间倒序
+     *
+     * @param userId 用户ID
+     * @param gameCode 游戏编码
+     * @param cursorPlayedAt 上一页最后一行的时间，第一页为null
+     * @param cursorId 上一页最后一行的ID
+     * @param limit 条数
+     * @return 游戏成绩列表
+     */
+    List<GameScore> selectUserPage(@Param("userId") Long userId,
+                                   @Param("gameCode") String gameCode,
+                                   @Param("cursorPlayedAt") LocalDateTime cursorPlayedAt,
+                                   @Param("cursorId") Long cursorId,
+                                   @Param("limit") int limit);
+    
+    /**
+     * 按游戏统计用户的游戏次数、最高分
+     *
+     * @param userId 用户ID
+     * @return 各游戏的统计
+     */
+    List<UserGameStats> selectUserTotals(@Param("userId") Long userId);
+    
+    /**
+     * 查询最早的成绩时间
+     *
+     * @return 最早的成绩时间，没有成绩时返回null
+     */
+    LocalDateTime selectMinPlayedAt();
+    
+    /**
+     * 删除时间范围内的成绩
+     *
+     * @param from 开始时间（包含）
+     * @param to 结束时间（不包含）
+     * @return 删除行数
+     */
+    int deleteByPlayedAtRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
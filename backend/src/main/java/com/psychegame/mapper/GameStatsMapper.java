@@ -0,0 +1,32 @@
+package com.psychegame.mapper;
+
+import com.psychegame.entity.GameStats;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 游戏统计Mapper接口
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Mapper
+public interface GameStatsMapper {
+    
+    /**
+     * 查询所有游戏的统计
+     *
+     * @return 游戏统计列表
+     */
+    List<GameStats> selectAll();
+    
+    /**
+     * 批量累加游戏统计，记录不存在时插入
+     *
+     * @param increments 各游戏的增量，不能为空
+     * @return 影响行数
+     */
+    int upsertIncrements(@Param("increments") List<GameStats> increments);
+}
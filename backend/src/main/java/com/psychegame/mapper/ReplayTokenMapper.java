@@ -0,0 +1,39 @@
+package com.psychegame.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 已使用录像种子Mapper接口
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Mapper
+public interface ReplayTokenMapper {
+    
+    /**
+     * 记录已使用的令牌，已存在时由主键冲突抛出 DuplicateKeyException
+     *
+     * @param signature 令牌签名
+     * @param expiresAt 令牌过期时间（毫秒时间戳）
+     * @return 影响行数
+     */
+    int insert(@Param("signature") String signature, @Param("expiresAt") long expiresAt);
+    
+    /**
+     * 删除令牌记录
+     *
+     * @param signature 令牌签名
+     * @return 删除行数
+     */
+    int delete(@Param("signature") String signature);
+    
+    /**
+     * 删除已过期的令牌
+     *
+     * @param now 当前时间（毫秒时间戳）
+     * @return 删除行数
+     */
+    int deleteExpired(@Param("now") long now);
+}
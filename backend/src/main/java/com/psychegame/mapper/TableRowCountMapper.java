@@ -0,0 +1,32 @@
+package com.psychegame.mapper;
+
+import com.psychegame.entity.TableRowCount;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 表行数Mapper接口
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Mapper
+public interface TableRowCountMapper {
+    
+    /**
+     * 查询所有表的行数
+     *
+     * @return 表行数列表
+     */
+    List<TableRowCount> selectAll();
+    
+    /**
+     * 批量累加表行数，记录不存在时插入
+     *
+     * @param increments 各表的增量，不能为空
+     * @return 影响行数
+     */
+    int upsertIncrements(@Param("increments") List<TableRowCount> increments);
+}
@@ -1,9 +1,13 @@
 package com.psychegame.mapper;
 
+import com.psychegame.dto.UserSummary;
 import com.psychegame.entity.User;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -40,11 +44,46 @@ public interface UserMapper {
     User selectByEmail(@Param("email") String email);
     
     /**
-     * 查询所有用户
+     * 按创建时间倒序分页查询用户（键集分页，不含密码）
      *
+     * @param cursorCreatedAt 上一页最后一行的创建时间，第一页为null
+     * @param cursorId 上一页最后一行的ID，第一页为null
+     * @param limit 查询条数
      * @return 用户列表
      */
-    List<User> selectAll();
+    List<User> selectPage(@Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                          @Param("cursorId") Long cursorId,
+                          @Param("limit") int limit);
+    
+    /**
+     * 流式查询所有用户（不含密码），需在事务中遍历
+     *
+     * @return 用户游标
+     */
+    Cursor<User> selectAllAsCursor();
+    
+    /**
+     * 流式查询所有用户的用户名和邮箱，需在事务中遍历
+     *
+     * @return 用户游标，只填充username和email
+     */
+    Cursor<User> selectIdentitiesAsCursor();
+    
+    /**
+     * 查询指定时间之后新增或修改的用户名、邮箱
+     *
+     * @param since 起始时间（含）
+     * @return 用户列表，只包含用户名、邮箱
+     */
+    List<User> selectIdentitiesChangedSince(@Param("since") LocalDateTime since);
+    
+    /**
+     * 根据ID批量查询用户摘要
+     *
+     * @param ids 用户ID集合，不能为空
+     * @return 用户摘要列表，不存在的ID不返回
+     */
+    List<UserSummary> selectSummariesByIds(@Param("ids") Collection<Long> ids);
     
     /**
      * 插入用户
@@ -55,12 +94,12 @@ public interface UserMapper {
     int insert(User user);
     
     /**
-     * 更新用户
+     * 更新用户的非空字段（不修改密码），version非空时按版本号更新
      *
      * @param user 用户信息
-     * @return 影响行数
+     * @return 影响行数，版本号不匹配或用户不存在时为0
      */
-    int update(User user);
+    int updateSelective(User user);
     
     /**
      * 删除用户
@@ -77,4 +116,13 @@ public interface UserMapper {
      * @return 影响行数
      */
     int updateLastLoginTime(@Param("id") Long id);
+    
+    /**
+     * 更新用户最后登录时间为指定时间（仅在时间更新时写入，用于批量回写）
+     *
+     * @param id 用户ID
+     * @param lastLoginTime 最后登录时间
+     * @return 影响行数
+     */
+    int updateLastLoginTimeTo(@Param("id") Long id, @Param("lastLoginTime") LocalDateTime lastLoginTime);
 }
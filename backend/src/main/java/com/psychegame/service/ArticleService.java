@@ -0,0 +1,101 @@
+package com.psychegame.service;
+
+import com.psychegame.dto.ArticleDetail;
+import com.psychegame.dto.ArticleSummary;
+import com.psychegame.dto.CursorPage;
+import com.psychegame.entity.Article;
+import com.psychegame.enums.ReactionType;
+
+/**
+ * 论坛文章服务接口
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public interface ArticleService {
+    
+    /**
+     * 发布文章或保存草稿
+     *
+     * @param userId 作者ID
+     * @param article 标题、正文、状态（默认已发布）
+     * @return 文章详情
+     */
+    ArticleDetail createArticle(Long userId, Article article);
+    
+    /**
+     * 修改作者本人的文章，只修改非空字段
+     *
+     * @param userId 作者ID
+     * @param id 文章ID
+     * @param patch 标题、正文、状态
+     * @return 修改后的文章详情
+     */
+    ArticleDetail updateArticle(Long userId, Long id, Article patch);
+    
+    /**
+     * 删除作者本人的文章
+     *
+     * @param userId 作者ID
+     * @param id 文章ID
+     */
+    void deleteArticle(Long userId, Long id);
+    
+    /**
+     * 获取文章详情，草稿只有作者本人可见。已发布文章的浏览数加一
+     *
+     * @param id 文章ID
+     * @param viewerId 当前用户ID，未登录时为null
+     * @return 文章详情，登录时包含是否已点赞、收藏
+     */
+    ArticleDetail getArticle(Long id, Long viewerId);
+    
+    /**
+     * 点赞、收藏或取消，重复操作不重复计数
+     *
+     * @param userId 用户ID
+     * @param id 文章ID
+     * @param kind 互动类型
+     * @param active true为点赞/收藏，false为取消
+     * @return 状态是否变化
+     */
+    boolean react(Long userId, Long id, ReactionType kind, boolean active);
+    
+    /**
+     * 键集分页获取已发布的文章，按发布时间倒序
+     *
+     * @param cursor 分页游标，第一页不传
+     * @param size 每页条数
+     * @return 文章列表（不含正文）及下一页游标
+     */
+    CursorPage<ArticleSummary> getArticlePage(String cursor, int size);
+    
+    /**
+     * 分页获取热门文章
+     *
+     * @param cursor 分页游标，第一页不传
+     * @param size 每页条数
+     * @return 按热门度排列的文章列表（不含正文）及下一页游标
+     */
+    CursorPage<ArticleSummary> getHotArticles(String cursor, int size);
+    
+    /**
+     * 按关键词搜索已发布的文章（标题、正文），按相关度排列
+     *
+     * @param keyword 关键词
+     * @param cursor 分页游标，第一页不传
+     * @param size 每页条数
+     * @return 文章列表（不含正文）及下一页游标
+     */
+    CursorPage<ArticleSummary> searchArticles(String keyword, String cursor, int size);
+    
+    /**
+     * 键集分页获取作者本人的文章（含草稿）
+     *
+     * @param userId 作者ID
+     * @param cursor 分页游标，第一页不传
+     * @param size 每页条数
+     * @return 文章列表（不含正文）及下一页游标
+     */
+    CursorPage<ArticleSummary> getUserArticles(Long userId, String cursor, int size);
+}
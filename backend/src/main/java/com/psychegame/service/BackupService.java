@@ -0,0 +1,87 @@
+package com.psychegame.service;
+
+import com.psychegame.dto.BackupInfo;
+import com.psychegame.dto.BackupProgress;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * 本地数据库备份服务接口
+ * <p>
+ * 同一时间只执行一个备份、下载或恢复任务，任务进行中再次发起时抛出异常。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public interface BackupService {
+    
+    /**
+     * 在后台创建备份，写入备份目录
+     *
+     * @param incremental 是否增量备份：只导出上次备份以来修改过的表，无法增量时（如重启后的第一次备份）创建完整备份
+     * @return 任务进度
+     */
+    BackupProgress startBackup(boolean incremental);
+    
+    /**
+     * 导出当前数据库的完整快照，gzip压缩后直接写入输出流，不落盘
+     *
+     * @param out 输出流
+     */
+    void streamBackup(OutputStream out);
+    
+    /**
+     * 查询备份目录中的备份
+     *
+     * @return 按创建时间倒序排列的备份
+     */
+    List<BackupInfo> listBackups();
+    
+    /**
+     * 将备份文件写入输出流
+     *
+     * @param name 备份名称
+     * @param out 输出流
+     */
+    void copyBackup(String name, OutputStream out);
+    
+    /**
+     * 删除备份，有增量备份基于它时不能删除
+     *
+     * @param name 备份名称
+     */
+    void deleteBackup(String name);
+    
+    /**
+     * 在后台从备份恢复，增量备份会依次恢复它所基于的完整备份和增量备份
+     *
+     * @param name 备份名称
+     * @return 任务进度
+     */
+    BackupProgress startRestore(String name);
+    
+    /**
+     * 从上传的完整备份恢复，边读取边导入，导入完成后替换当前数据库
+     *
+     * @param in gzip压缩的备份
+     * @param size 压缩数据的大小，未知时为-1
+     * @return 任务进度
+     */
+    BackupProgress restore(InputStream in, long size);
+    
+    /**
+     * 清空数据：用只有表结构的新数据库替换当前数据库
+     *
+     * @return 任务进度
+     */
+    BackupProgress clear();
+    
+    /**
+     * 查询正在执行或最近一次任务的进度
+     *
+     * @return 任务进度，没有任务时为null
+     */
+    BackupProgress getProgress();
+}
@@ -0,0 +1,79 @@
+package com.psychegame.service;
+
+import com.psychegame.dto.CommentNode;
+import com.psychegame.dto.CursorPage;
+
+/**
+ * 论坛评论服务接口
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public interface CommentService {
+    
+    /**
+     * 发表评论或回复
+     *
+     * @param userId 评论者ID
+     * @param articleId 文章ID
+     * @param parentId 被回复的评论ID，为null时发表根评论
+     * @param content 内容
+     * @return 新评论
+     */
+    CommentNode createComment(Long userId, Long articleId, Long parentId, String content);
+    
+    /**
+     * 删除评论者本人的评论，回复保留在原位置
+     *
+     * @param userId 评论者ID
+     * @param id 评论ID
+     */
+    void deleteComment(Long userId, Long id);
+    
+    /**
+     * 获取文章的一页评论，按楼层顺序，回复紧跟在被回复的评论之后
+     *
+     * @param articleId 文章ID
+     * @param cursor 分页游标，第一页为null
+     * @param size 每页条数（含回复）
+     * @return 本页评论组成的树；上级评论在之前页中的回复作为本页的顶层节点
+     */
+    CursorPage<CommentNode> getComments(Long articleId, String cursor, int size);
+    
+    /**
+     * 获取某条评论下的一页回复（含回复的回复）
+     *
+     * @param id 评论ID
+     * @param cursor 分页游标，第一页为null
+     * @param size 每页条数
+     * @return 本页回复组成的树
+     */
+    CursorPage<CommentNode> getReplies(Long id, String cursor, int size);
+    
+    /**
+     * 搜索评论
+     *
+     * @param keyword 关键词
+     * @param cursor 分页游标，第一页为null
+     * @param size 每页条数
+     * @return 按相关度排列的评论，不含回复，只包含已发布文章下未删除的评论
+     */
+    CursorPage<CommentNode> searchComments(String keyword, String cursor, int size);
+    
+    /**
+     * 点赞评论或取消，重复操作不重复计数
+     *
+     * @param userId 用户ID
+     * @param id 评论ID
+     * @param active true为点赞，false为取消
+     * @return 状态是否变化
+     */
+    boolean likeComment(Long userId, Long id, boolean active);
+    
+    /**
+     * 删除文章的全部评论及其点赞记录，文章删除后调用
+     *
+     * @param articleId 文章ID
+     */
+    void deleteArticleComments(Long articleId);
+}
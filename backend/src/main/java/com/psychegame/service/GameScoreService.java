@@ -0,0 +1,125 @@
+package com.psychegame.service;
+
+import com.psychegame.dto.CursorPage;
+import com.psychegame.dto.GameStatsSummary;
+import com.psychegame.dto.RankEntry;
+import com.psychegame.dto.ReplaySeed;
+import com.psychegame.dto.ScoreSubmitResult;
+import com.psychegame.dto.UserGameStats;
+import com.psychegame.entity.GameScore;
+import com.psychegame.entity.GameScoreDaily;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 游戏成绩服务接口
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public interface GameScoreService {
+    
+    /**
+     * 为新开的一局签发录像种子
+     *
+     * @param userId 用户ID
+     * @param gameCode 游戏编码
+     * @return 种子及令牌
+     */
+    ReplaySeed issueReplaySeed(Long userId, String gameCode);
+    
+    /**
+     * 预先签发一批离线游玩用的录像种子，离线期间每局使用一个，联网后随成绩同步提交
+     *
+     * @param userId 用户ID
+     * @param gameCode 游戏编码
+     * @param count 种子数，超过上限时按上限签发
+     * @return 种子及令牌
+     */
+    List<ReplaySeed> issueOfflineReplaySeeds(Long userId, String gameCode, int count);
+    
+    /**
+     * 提交一局成绩
+     * <p>
+     * 有回放引擎的游戏在回放线程池中重放录像，分数一致后才写入成绩和排行榜。
+     *
+     * @param userId 用户ID
+     * @param gameCode 游戏编码
+     * @param score 分数
+     * @param duration 游戏时长（秒）
+     * @param replayToken 录像种子令牌，没有录像时为null
+     * @param moves 操作记录，没有录像时为null
+     * @return 提交结果；校验队列已满时以RejectedExecutionException完成
+     */
+    CompletableFuture<ScoreSubmitResult> submitScore(Long userId, String gameCode, Long score, Integer duration,
+                                                     String replayToken, String moves);
+    
+    /**
+     * 获取排行榜前N名
+     *
+     * @param gameCode 游戏编码
+     * @param window 时间范围编码（all、day、week），为空时为总榜
+     * @param limit 条数
+     * @return 排行榜
+     */
+    List<RankEntry> getLeaderboard(String gameCode, String window, int limit);
+    
+    /**
+     * 获取用户的最高分及名次
+     *
+     * @param gameCode 游戏编码
+     * @param window 时间范围编码（all、day、week），为空时为总榜
+     * @param userId 用户ID
+     * @return 排行榜条目，未上榜时返回null
+     */
+    RankEntry getUserRank(String gameCode, String window, Long userId);
+    
+    /**
+     * 获取用户名次前后的排行榜片段
+     *
+     * @param gameCode 游戏编码
+     * @param userId 用户ID
+     * @param radius 前后各取的条数
+     * @return 按名次排列的条目，未上榜时返回空列表
+     */
+    List<RankEntry> getAroundUser(String gameCode, Long userId, int radius);
+    
+    /**
+     * 获取游戏统计（游戏次数、平均分）
+     *
+     * @param gameCode 游戏编码
+     * @return 游戏统计
+     */
+    GameStatsSummary getGameStats(String gameCode);
+    
+    /**
+     * 键集分页获取用户某个游戏的成绩明细（保留天数内），按时间倒序
+     *
+     * @param userId 用户ID
+     * @param gameCode 游戏编码
+     * @param cursor 分页游标，第一页不传
+     * @param size 每页条数
+     * @return 成绩明细
+     */
+    CursorPage<GameScore> getUserHistory(Long userId, String gameCode, String cursor, int size);
+    
+    /**
+     * 键集分页获取用户某个游戏的日汇总（超过保留天数的成绩），按日期倒序
+     *
+     * @param userId 用户ID
+     * @param gameCode 游戏编码
+     * @param cursor 分页游标，第一页不传
+     * @param size 每页条数
+     * @return 日汇总
+     */
+    CursorPage<GameScoreDaily> getUserDailyHistory(Long userId, String gameCode, String cursor, int size);
+    
+    /**
+     * 获取用户在各游戏的游戏次数、最高分
+     *
+     * @param userId 用户ID
+     * @return 各游戏的统计，按游戏顺序排列，没玩过的游戏次数为0
+     */
+    List<UserGameStats> getUserGameStats(Long userId);
+}
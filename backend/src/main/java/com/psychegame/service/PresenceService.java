@@ -0,0 +1,28 @@
+package com.psychegame.service;
+
+import com.psychegame.dto.PresenceStats;
+
+/**
+ * 在线状态服务接口
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public interface PresenceService {
+    
+    /**
+     * 记录用户心跳
+     *
+     * @param userId 用户ID
+     * @return 心跳间隔（秒），客户端按此间隔发送下一次心跳
+     */
+    long heartbeat(Long userId);
+    
+    /**
+     * 获取在线人数及活跃用户统计
+     *
+     * @param date 活跃用户统计日期（yyyy-MM-dd），为空时为今天
+     * @return 在线人数及全站、各游戏的日活、月活
+     */
+    PresenceStats getStats(String date);
+}
@@ -0,0 +1,28 @@
+package com.psychegame.service;
+
+import com.psychegame.dto.SyncRequest;
+import com.psychegame.dto.SyncResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 离线请求同步服务接口
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public interface SyncService {
+    
+    /**
+     * 批量重放客户端离线期间积累的请求
+     * <p>
+     * 支持提交成绩（POST /game/{gameType}/scores）和修改个人资料（PATCH、PUT /user/profile，PUT /user/info），
+     * 按请求ID去重：已处理过的请求返回首次处理的结果，不会重复执行。
+     *
+     * @param userId 当前用户ID
+     * @param requests 离线队列中的请求
+     * @return 与请求顺序一致的结果
+     */
+    CompletableFuture<List<SyncResult>> replay(Long userId, List<SyncRequest> requests);
+}
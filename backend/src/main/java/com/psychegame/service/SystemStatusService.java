@@ -0,0 +1,23 @@
+package com.psychegame.service;
+
+import com.psychegame.dto.SystemStatus;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 服务状态接口，供本地部署管理页面使用
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public interface SystemStatusService {
+    
+    /**
+     * 获取各服务的状态和数据统计
+     * <p>
+     * 数据库、Redis、Nginx、前端并行检测，每项有独立的超时；结果缓存数秒，期间的请求直接返回缓存。
+     *
+     * @return 服务状态
+     */
+    CompletableFuture<SystemStatus> getStatus();
+}
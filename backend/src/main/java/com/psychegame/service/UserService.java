@@ -1,8 +1,13 @@
 package com.psychegame.service;
 
+import com.psychegame.dto.CursorPage;
+import com.psychegame.dto.UserSummary;
 import com.psychegame.entity.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * 用户服务接口
@@ -37,11 +42,28 @@ public interface UserService {
     User getUserByEmail(String email);
     
     /**
-     * 查询所有用户
+     * 批量查询用户摘要，缓存未命中的用户合并为一次查询
      *
-     * @return 用户列表
+     * @param ids 用户ID集合，null元素忽略
+     * @return 用户摘要列表，按ID集合的迭代顺序排列，不存在的用户不返回
      */
-    List<User> getAllUsers();
+    List<UserSummary> getUserSummaries(Collection<Long> ids);
+    
+    /**
+     * 按创建时间倒序分页查询用户
+     *
+     * @param cursor 分页游标，第一页为空
+     * @param size 每页条数
+     * @return 用户分页结果
+     */
+    CursorPage<User> getUserPage(String cursor, int size);
+    
+    /**
+     * 流式导出所有用户，逐条回调，不在内存中保留完整列表
+     *
+     * @param consumer 用户处理回调
+     */
+    void exportUsers(Consumer<User> consumer);
     
     /**
      * 用户注册
@@ -51,6 +73,31 @@ public interface UserService {
      */
     User register(User user);
     
+    /**
+     * 异步用户注册，密码加密在密码哈希线程池中执行
+     *
+     * @param user 用户信息
+     * @return 注册成功的用户
+     * @throws java.util.concurrent.RejectedExecutionException 密码哈希线程池已饱和
+     */
+    CompletableFuture<User> registerAsync(User user);
+    
+    /**
+     * 判断用户名是否可用，多数情况下由内存中的占用索引直接判定，不查询数据库
+     *
+     * @param username 用户名
+     * @return 是否可用
+     */
+    boolean isUsernameAvailable(String username);
+    
+    /**
+     * 判断邮箱是否可用，多数情况下由内存中的占用索引直接判定，不查询数据库
+     *
+     * @param email 邮箱
+     * @return 是否可用
+     */
+    boolean isEmailAvailable(String email);
+    
     /**
      * 用户登录
      *
@@ -60,6 +107,16 @@ public interface UserService {
      */
     User login(String username, String password);
     
+    /**
+     * 异步用户登录，密码验证在密码哈希线程池中执行
+     *
+     * @param username 用户名
+     * @param password 密码
+     * @return 登录成功的用户
+     * @throws java.util.concurrent.RejectedExecutionException 密码哈希线程池已饱和
+     */
+    CompletableFuture<User> loginAsync(String username, String password);
+    
     /**
      * 更新用户信息
      *
@@ -68,6 +125,18 @@ public interface UserService {
      */
     User updateUser(User user);
     
+    /**
+     * 修改个人资料，只更新传入的非空字段（用户名、邮箱、昵称、头像）
+     * <p>
+     * 传入version时按版本号更新，版本不一致时抛出
+     * {@link org.springframework.dao.OptimisticLockingFailureException}。
+     *
+     * @param id 用户ID
+     * @param patch 要修改的字段
+     * @return 更新后的用户
+     */
+    User patchUser(Long id, User patch);
+    
     /**
      * 删除用户
      *
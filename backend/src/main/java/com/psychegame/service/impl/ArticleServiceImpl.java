@@ -0,0 +1,431 @@
+package com.psychegame.service.impl;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.psychegame.dto.ArticleDetail;
+import com.psychegame.dto.ArticleSummary;
+import com.psychegame.dto.CursorPage;
+import com.psychegame.entity.Article;
+import com.psychegame.enums.ArticleStatus;
+import com.psychegame.enums.ReactionType;
+import com.psychegame.mapper.ArticleMapper;
+import com.psychegame.mapper.ForumReactionMapper;
+import com.psychegame.service.ArticleService;
+import com.psychegame.service.CommentService;
+import com.psychegame.service.support.ArticleListSnapshot;
+import com.psychegame.service.support.ArticleSearchIndex;
+import com.psychegame.service.support.DatabaseRestoredEvent;
+import com.psychegame.service.support.ReactionCounter;
+import com.psychegame.service.support.TableRowCounter;
+import com.psychegame.util.InvertedIndex;
+import com.psychegame.util.KeysetCursor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 论坛文章服务实现类
+ * <p>
+ * 发布、修改为单条语句，不开启事务，写入后即可更新列表快照；
+ * 删除文章时在同一事务中删除文章、点赞收藏记录和评论，任一步失败全部回滚，不会留下无主的评论。
+ * 浏览、点赞、收藏计数由 {@link ReactionCounter} 累加后批量写入，详情和从数据库查询的列表返回时加上待写入的增量；
+ * 快照中的计数在下次加载前不会更新。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Service
+public class ArticleServiceImpl implements ArticleService {
+    
+    /**
+     * 文章列表每页最大条数
+     */
+    private static final int MAX_PAGE_SIZE = 50;
+    
+    /**
+     * 标题最大长度
+     */
+    private static final int MAX_TITLE_LENGTH = 100;
+    
+    /**
+     * 摘要长度
+     */
+    private static final int SUMMARY_LENGTH = 120;
+    
+    /**
+     * 搜索关键词最大长度
+     */
+    private static final int MAX_KEYWORD_LENGTH = 50;
+    
+    /**
+     * 搜索结果最多可翻到的条数
+     */
+    private static final int MAX_SEARCH_RESULTS = 500;
+    
+    /**
+     * 文章状态缓存中表示文章不存在的值
+     */
+    private static final String MISSING = "";
+    
+    @Autowired
+    private ArticleMapper articleMapper;
+    
+    @Autowired
+    private ForumReactionMapper forumReactionMapper;
+    
+    @Autowired
+    private ArticleListSnapshot articleListSnapshot;
+    
+    @Autowired
+    private ArticleSearchIndex articleSearchIndex;
+    
+    @Autowired
+    private ReactionCounter reactionCounter;
+    
+    @Autowired
+    private CommentService commentService;
+    
+    @Autowired
+    private TableRowCounter tableRowCounter;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${forum.article.max-content-length:20000}")
+    private int maxContentLength;
+    
+    @Value("${forum.counter.status-cache-ttl:60s}")
+    private Duration statusCacheTtl;
+    
+    /**
+     * 文章状态：文章ID -> 状态编码，不存在为空字符串。点赞、收藏时检查文章是否已发布，避免每次查询数据库
+     */
+    private LoadingCache<Long, String> articleStatuses;
+    
+    @PostConstruct
+    public void init() {
+        articleStatuses = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(statusCacheTtl)
+                .recordStats()
+                .build(id -> {
+                    String status = articleMapper.selectStatusById(id);
+                    return status == null ? MISSING : status;
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, articleStatuses, "forum.article.status");
+    }
+    
+    /**
+     * 数据库被整体替换后清除文章状态缓存
+     */
+    @EventListener(DatabaseRestoredEvent.class)
+    public void onDatabaseRestored() {
+        articleStatuses.invalidateAll();
+    }
+    
+    @Override
+    public ArticleDetail createArticle(Long userId, Article article) {
+        if (isBlank(article.getTitle()) || isBlank(article.getContent())) {
+            throw new RuntimeException("标题和内容不能为空");
+        }
+        checkContent(article);
+        
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Article record = new Article();
+        record.setUserId(userId);
+        record.setTitle(article.getTitle().trim());
+        record.setContent(article.getContent());
+        record.setSummary(summarize(article.getContent()));
+        record.setStatus(ArticleStatus.fromCode(article.getStatus()).getCode());
+        record.setViewCount(0L);
+        record.setLikeCount(0L);
+        record.setCollectCount(0L);
+        record.setCommentCount(0L);
+        record.setCreatedAt(now);
+        record.setUpdatedAt(now);
+        articleMapper.insert(record);
+        tableRowCounter.add(TableRowCounter.ARTICLE, 1);
+        
+        ArticleDetail detail = new ArticleDetail();
+        BeanUtils.copyProperties(record, detail);
+        articleListSnapshot.fillAuthors(Collections.singletonList(detail));
+        articleListSnapshot.put(toSummary(detail));
+        articleSearchIndex.index(record.getId(), record.getTitle(), record.getContent(),
+                record.getStatus(), record.getUpdatedAt());
+        return detail;
+    }
+    
+    @Override
+    public ArticleDetail updateArticle(Long userId, Long id, Article patch) {
+        if (patch.getTitle() != null && patch.getTitle().isBlank()
+                || patch.getContent() != null && patch.getContent().isBlank()) {
+            throw new RuntimeException("标题和内容不能为空");
+        }
+        checkContent(patch);
+        
+        Article record = new Article();
+        record.setId(id);
+        record.setUserId(userId);
+        record.setTitle(patch.getTitle() == null ? null : patch.getTitle().trim());
+        record.setContent(patch.getContent());
+        record.setSummary(patch.getContent() == null ? null : summarize(patch.getContent()));
+        record.setStatus(patch.getStatus() == null ? null : ArticleStatus.fromCode(patch.getStatus()).getCode());
+        record.setUpdatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        if (articleMapper.updateSelective(record) == 0) {
+            throw new RuntimeException("文章不存在");
+        }
+        
+        articleStatuses.invalidate(id);
+        
+        ArticleDetail detail = articleMapper.selectById(id);
+        if (detail == null) {
+            articleListSnapshot.remove(id);
+            articleSearchIndex.remove(id);
+            throw new RuntimeException("文章不存在");
+        }
+        articleListSnapshot.fillAuthors(Collections.singletonList(detail));
+        articleListSnapshot.put(toSummary(detail));
+        articleSearchIndex.index(id, detail.getTitle(), detail.getContent(), detail.getStatus(), detail.getUpdatedAt());
+        addPendingCounts(Collections.singletonList(detail));
+        return detail;
+    }
+    
+    @Override
+    @Transactional
+    public void deleteArticle(Long userId, Long id) {
+        if (articleMapper.deleteByIdAndUserId(id, userId) == 0) {
+            throw new RuntimeException("文章不存在");
+        }
+        forumReactionMapper.deleteByTarget(ReactionCounter.ARTICLE, id);
+        commentService.deleteArticleComments(id);
+        tableRowCounter.add(TableRowCounter.ARTICLE, -1);
+        // 事务提交后再更新本节点的缓存、快照和索引，回滚时保持不变，也避免提交前的读取重新载入旧状态
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                articleStatuses.invalidate(id);
+                articleListSnapshot.remove(id);
+                articleSearchIndex.remove(id);
+            }
+        });
+    }
+    
+    @Override
+    public ArticleDetail getArticle(Long id, Long viewerId) {
+        ArticleDetail detail = articleMapper.selectById(id);
+        if (detail == null || (ArticleStatus.DRAFT.getCode().equals(detail.getStatus())
+                && !detail.getUserId().equals(viewerId))) {
+            throw new RuntimeException("文章不存在");
+        }
+        articleListSnapshot.fillAuthors(Collections.singletonList(detail));
+        if (ArticleStatus.PUBLISHED.getCode().equals(detail.getStatus())) {
+            reactionCounter.increment(ReactionCounter.ARTICLE, id, ReactionCounter.VIEW);
+        }
+        addPendingCounts(Collections.singletonList(detail));
+        if (viewerId != null) {
+            detail.setLiked(reactionCounter.contains(ReactionType.LIKE, ReactionCounter.ARTICLE, id, viewerId));
+            detail.setCollected(reactionCounter.contains(ReactionType.COLLECT, ReactionCounter.ARTICLE, id, viewerId));
+        }
+        return detail;
+    }
+    
+    @Override
+    public boolean react(Long userId, Long id, ReactionType kind, boolean active) {
+        if (!ArticleStatus.PUBLISHED.getCode().equals(articleStatuses.get(id))) {
+            throw new RuntimeException("文章不存在");
+        }
+        return reactionCounter.set(kind, ReactionCounter.ARTICLE, id, userId, active);
+    }
+    
+    /**
+     * 不开启事务：事务开始时就会占用连接，快照命中的请求不需要连接
+     */
+    @Override
+    public CursorPage<ArticleSummary> getArticlePage(String cursor, int size) {
+        KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        
+        // 游标在快照范围内时不查询数据库
+        CursorPage<ArticleSummary> page = articleListSnapshot.latestPage(keysetCursor, pageSize);
+        if (page != null) {
+            return page;
+        }
+        return toPage(articleMapper.selectPublishedPage(
+                keysetCursor == null ? null : keysetCursor.getTime(),
+                keysetCursor == null ? null : keysetCursor.getId(),
+                pageSize + 1
+        ), pageSize);
+    }
+    
+    @Override
+    public CursorPage<ArticleSummary> getHotArticles(String cursor, int size) {
+        return articleListSnapshot.hotPage(parseOffset(cursor), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+    
+    /**
+     * 不开启事务：只有回表查询需要连接
+     */
+    @Override
+    public CursorPage<ArticleSummary> searchArticles(String keyword, String cursor, int size) {
+        if (isBlank(keyword)) {
+            throw new RuntimeException("搜索关键词不能为空");
+        }
+        if (keyword.length() > MAX_KEYWORD_LENGTH) {
+            throw new RuntimeException("搜索关键词不能超过" + MAX_KEYWORD_LENGTH + "个字符");
+        }
+        int offset = parseOffset(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        if (offset >= MAX_SEARCH_RESULTS) {
+            return new CursorPage<>(Collections.emptyList(), null, false);
+        }
+        int end = Math.min(offset + pageSize, MAX_SEARCH_RESULTS);
+        
+        List<InvertedIndex.Hit> hits = articleSearchIndex.search(keyword, end + 1);
+        boolean hasMore = hits.size() > end && end < MAX_SEARCH_RESULTS;
+        List<InvertedIndex.Hit> pageHits = hits.subList(Math.min(offset, hits.size()), Math.min(end, hits.size()));
+        if (pageHits.isEmpty()) {
+            return new CursorPage<>(Collections.emptyList(), null, false);
+        }
+        
+        List<Long> ids = new ArrayList<>(pageHits.size());
+        for (InvertedIndex.Hit hit : pageHits) {
+            ids.add(hit.getDocId());
+        }
+        Map<Long, ArticleSummary> found = new HashMap<>();
+        for (ArticleSummary article : articleMapper.selectPublishedByIds(ids)) {
+            found.put(article.getId(), article);
+        }
+        List<ArticleSummary> articles = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ArticleSummary article = found.get(id);
+            if (article != null) {
+                articles.add(article);
+            } else {
+                // 已被其他节点删除或改为草稿
+                articleSearchIndex.remove(id);
+            }
+        }
+        articleListSnapshot.fillAuthors(articles);
+        addPendingCounts(articles);
+        return new CursorPage<>(articles, hasMore ? String.valueOf(end) : null, hasMore);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ArticleSummary> getUserArticles(Long userId, String cursor, int size) {
+        KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return toPage(articleMapper.selectUserPage(userId,
+                keysetCursor == null ? null : keysetCursor.getTime(),
+                keysetCursor == null ? null : keysetCursor.getId(),
+                pageSize + 1
+        ), pageSize);
+    }
+    
+    /**
+     * 将多查一条的查询结果转换为分页结果，并补全作者信息
+     *
+     * @param articles 查询结果，最多 pageSize + 1 条
+     * @param pageSize 每页条数
+     * @return 分页结果
+     */
+    private CursorPage<ArticleSummary> toPage(List<ArticleSummary> articles, int pageSize) {
+        boolean hasMore = articles.size() > pageSize;
+        if (hasMore) {
+            articles = articles.subList(0, pageSize);
+        }
+        articleListSnapshot.fillAuthors(articles);
+        addPendingCounts(articles);
+        
+        String nextCursor = null;
+        if (hasMore) {
+            ArticleSummary last = articles.get(articles.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPage<>(articles, nextCursor, hasMore);
+    }
+    
+    /**
+     * 计数加上尚未写入数据库的增量
+     *
+     * @param articles 从数据库查询的文章
+     */
+    private void addPendingCounts(List<? extends ArticleSummary> articles) {
+        List<Long> ids = new ArrayList<>(articles.size());
+        for (ArticleSummary article : articles) {
+            ids.add(article.getId());
+        }
+        Map<Long, Map<String, Long>> pending = reactionCounter.pending(ReactionCounter.ARTICLE, ids);
+        for (ArticleSummary article : articles) {
+            Map<String, Long> deltas = pending.get(article.getId());
+            if (deltas != null) {
+                article.setViewCount(article.getViewCount() + deltas.getOrDefault(ReactionCounter.VIEW, 0L));
+                article.setLikeCount(article.getLikeCount() + deltas.getOrDefault(ReactionType.LIKE.getCode(), 0L));
+                article.setCollectCount(article.getCollectCount()
+                        + deltas.getOrDefault(ReactionType.COLLECT.getCode(), 0L));
+            }
+        }
+    }
+    
+    /**
+     * 解析按位置翻页的游标
+     */
+    private static int parseOffset(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(cursor));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("分页游标无效");
+        }
+    }
+    
+    private void checkContent(Article article) {
+        if (article.getTitle() != null && article.getTitle().trim().length() > MAX_TITLE_LENGTH) {
+            throw new RuntimeException("标题不能超过" + MAX_TITLE_LENGTH + "个字符");
+        }
+        if (article.getContent() != null && article.getContent().length() > maxContentLength) {
+            throw new RuntimeException("内容不能超过" + maxContentLength + "个字符");
+        }
+    }
+    
+    /**
+     * 截取正文开头作为摘要，不截断代理对
+     */
+    private static String summarize(String content) {
+        String text = content.strip().replaceAll("\\s+", " ");
+        if (text.length() <= SUMMARY_LENGTH) {
+            return text;
+        }
+        int end = Character.isHighSurrogate(text.charAt(SUMMARY_LENGTH - 1)) ? SUMMARY_LENGTH - 1 : SUMMARY_LENGTH;
+        return text.substring(0, end);
+    }
+    
+    private static ArticleSummary toSummary(ArticleDetail detail) {
+        ArticleSummary summary = new ArticleSummary();
+        BeanUtils.copyProperties(detail, summary);
+        return summary;
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
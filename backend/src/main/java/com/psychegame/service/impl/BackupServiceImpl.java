@@ -0,0 +1,715 @@
+package com.psychegame.service.impl;
+
+import com.psychegame.dto.BackupInfo;
+import com.psychegame.dto.BackupProgress;
+import com.psychegame.service.BackupService;
+import com.psychegame.service.support.DatabaseRestoredEvent;
+import com.psychegame.service.support.GameScoreWriteBuffer;
+import com.psychegame.service.support.GameStatsCounter;
+import com.psychegame.service.support.H2DatabaseFiles;
+import com.psychegame.service.support.H2Dumper;
+import com.psychegame.service.support.LastLoginTimeBuffer;
+import com.psychegame.service.support.ReactionCounter;
+import com.psychegame.service.support.TableRowCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * 本地数据库备份服务实现类
+ * <p>
+ * 备份为gzip压缩的SQL脚本（{@link H2Dumper}），在快照事务中导出，不阻塞游戏成绩等写入；先写入临时文件，
+ * 完成后重命名，并在同名的 .properties 中记录类型、所基于的备份和包含的表。
+ * 增量备份只导出上次备份以来修改过的表（执行时先删除再重建这些表），恢复时依次执行完整备份和之后的增量备份。
+ * 表的修改版本在数据库重新打开后重新计数，因此重启或恢复后的第一次备份总是完整备份。
+ * <p>
+ * 恢复时把备份导入新的数据库文件，补齐表结构后先写入各写回缓冲中的数据，再替换当前数据库文件
+ * （{@link H2DatabaseFiles}），最后发布 {@link DatabaseRestoredEvent} 使进程内的缓存重新加载。
+ * Redis中的在线状态、幂等键等不属于数据库的数据不在备份范围内。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+@Profile("local")
+public class BackupServiceImpl implements BackupService {
+    
+    private static final String FULL = "full";
+    
+    private static final String INCREMENTAL = "incremental";
+    
+    private static final String FILE_SUFFIX = ".sql.gz";
+    
+    private static final String MANIFEST_SUFFIX = ".properties";
+    
+    private static final String TEMP_SUFFIX = ".tmp";
+    
+    private static final String RESTORE_DIR_PREFIX = "restore-";
+    
+    /**
+     * 备份文件的第一行，导入时据此判断类型
+     */
+    private static final String HEADER = "-- psyche-game backup type=";
+    
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    
+    private static final Pattern NAME_PATTERN = Pattern.compile("\\d{8}-\\d{6}-\\d{3}-(full|incr)");
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    @Autowired
+    private H2Dumper h2Dumper;
+    
+    @Autowired
+    private H2DatabaseFiles h2DatabaseFiles;
+    
+    @Autowired
+    private GameScoreWriteBuffer gameScoreWriteBuffer;
+    
+    @Autowired
+    private LastLoginTimeBuffer lastLoginTimeBuffer;
+    
+    @Autowired
+    private ReactionCounter reactionCounter;
+    
+    @Autowired
+    private GameStatsCounter gameStatsCounter;
+    
+    @Autowired
+    private TableRowCounter tableRowCounter;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${backup.dir:./db/backup}")
+    private String dir;
+    
+    @Value("${backup.retain-full:3}")
+    private int retainFull;
+    
+    @Value("classpath:schema-h2.sql")
+    private Resource schema;
+    
+    private Path backupDir;
+    
+    private ExecutorService executor;
+    
+    private final AtomicLong jobIds = new AtomicLong();
+    
+    /**
+     * 正在执行的任务
+     */
+    private final AtomicReference<Job> current = new AtomicReference<>();
+    
+    /**
+     * 最近一次开始的任务
+     */
+    private volatile Job last;
+    
+    /**
+     * 本次数据库打开期间最近一次备份的名称，下次增量备份基于它；为null时下次为完整备份
+     */
+    private volatile String chainHead;
+    
+    /**
+     * 最近一次备份开始时各表的修改版本
+     */
+    private volatile Map<String, Long> baseline = Collections.emptyMap();
+    
+    @PostConstruct
+    public void init() throws IOException {
+        backupDir = Paths.get(dir);
+        Files.createDirectories(backupDir);
+        // 清理上次中断的备份、恢复留下的临时文件
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(backupDir, "*" + TEMP_SUFFIX)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Path databaseDir = h2DatabaseFiles.databasePath().toAbsolutePath().getParent();
+        if (databaseDir != null && Files.isDirectory(databaseDir)) {
+            try (DirectoryStream<Path> dirs = Files.newDirectoryStream(databaseDir, RESTORE_DIR_PREFIX + "*")) {
+                for (Path path : dirs) {
+                    FileSystemUtils.deleteRecursively(path);
+                }
+            }
+        }
+        executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("backup-"));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * 定时增量备份，未配置时不执行
+     */
+    @Scheduled(cron = "${backup.cron:-}")
+    public void scheduledBackup() {
+        try {
+            startBackup(true);
+        } catch (RuntimeException e) {
+            log.info("跳过定时备份: {}", e.getMessage());
+        }
+    }
+    
+    @Override
+    public BackupProgress startBackup(boolean incremental) {
+        Job job = begin("backup");
+        submit(job, () -> backup(job, incremental));
+        return job.snapshot();
+    }
+    
+    @Override
+    public void streamBackup(OutputStream out) {
+        Job job = begin("download");
+        run(job, () -> {
+            try (Connection connection = h2DatabaseFiles.open()) {
+                List<String> tables = new ArrayList<>(h2Dumper.modifications(connection).keySet());
+                h2Dumper.beginSnapshot(connection, tables);
+                CountingOutputStream counting = new CountingOutputStream(CloseShieldOutputStream.wrap(out));
+                job.bytes = counting::getByteCount;
+                try (Writer writer = writer(counting)) {
+                    writer.write(HEADER + FULL + "\n");
+                    h2Dumper.dump(connection, tables, true, writer, job);
+                } finally {
+                    h2Dumper.endSnapshot(connection);
+                }
+            }
+        });
+        if (BackupProgress.FAILED.equals(job.status)) {
+            throw new RuntimeException("备份失败: " + job.message);
+        }
+    }
+    
+    @Override
+    public List<BackupInfo> listBackups() {
+        List<BackupInfo> backups = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(backupDir, "*" + MANIFEST_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                BackupInfo info = readManifest(name.substring(0, name.length() - MANIFEST_SUFFIX.length()));
+                if (info != null) {
+                    backups.add(info);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("读取备份目录失败", e);
+        }
+        backups.sort(Comparator.comparing(BackupInfo::getName).reversed());
+        return backups;
+    }
+    
+    @Override
+    public void copyBackup(String name, OutputStream out) {
+        Path file = file(checkName(name));
+        if (!Files.exists(file)) {
+            throw new RuntimeException("备份不存在");
+        }
+        try {
+            Files.copy(file, out);
+        } catch (IOException e) {
+            throw new RuntimeException("读取备份失败", e);
+        }
+    }
+    
+    @Override
+    public void deleteBackup(String name) {
+        checkName(name);
+        Job job = begin("delete");
+        try {
+            for (BackupInfo info : listBackups()) {
+                if (name.equals(info.getParent())) {
+                    throw new RuntimeException("有增量备份基于此备份，不能删除");
+                }
+            }
+            if (!deleteFiles(name)) {
+                throw new RuntimeException("备份不存在");
+            }
+            if (name.equals(chainHead)) {
+                chainHead = null;
+            }
+        } finally {
+            current.compareAndSet(job, null);
+        }
+    }
+    
+    @Override
+    public BackupProgress startRestore(String name) {
+        checkName(name);
+        Job job = begin("restore");
+        try {
+            List<String> chain = chain(name);
+            long total = 0;
+            for (String backup : chain) {
+                total += Files.size(file(backup));
+            }
+            job.name = name;
+            job.totalBytes = total;
+            submit(job, () -> replaceDatabase(job, connection -> {
+                for (int i = 0; i < chain.size(); i++) {
+                    try (InputStream in = Files.newInputStream(file(chain.get(i)))) {
+                        load(in, connection, job, i == 0);
+                    }
+                    job.bytes = () -> 0;
+                    job.bytesBase += Files.size(file(chain.get(i)));
+                }
+            }));
+            return job.snapshot();
+        } catch (IOException | RuntimeException e) {
+            job.finish(e);
+            current.compareAndSet(job, null);
+            throw e instanceof RuntimeException runtime ? runtime : new RuntimeException("读取备份失败", e);
+        }
+    }
+    
+    @Override
+    public BackupProgress restore(InputStream in, long size) {
+        Job job = begin("restore");
+        job.totalBytes = Math.max(size, 0);
+        run(job, () -> replaceDatabase(job, connection -> load(in, connection, job, true)));
+        if (BackupProgress.FAILED.equals(job.status)) {
+            throw new RuntimeException("恢复失败: " + job.message);
+        }
+        return job.snapshot();
+    }
+    
+    @Override
+    public BackupProgress clear() {
+        Job job = begin("clear");
+        run(job, () -> replaceDatabase(job, connection -> {
+        }));
+        if (BackupProgress.FAILED.equals(job.status)) {
+            throw new RuntimeException("清空失败: " + job.message);
+        }
+        return job.snapshot();
+    }
+    
+    @Override
+    public BackupProgress getProgress() {
+        Job job = last;
+        return job == null ? null : job.snapshot();
+    }
+    
+    /**
+     * 创建备份
+     * <p>
+     * 在建立快照前后各读取一次表的修改版本：上次备份以来有修改，或在两次读取之间有修改的表都导出；
+     * 基准取快照前的版本，快照后才发生的修改在下次备份时再次导出。
+     */
+    private void backup(Job job, boolean incremental) throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        try (Connection connection = h2DatabaseFiles.open()) {
+            Map<String, Long> before = h2Dumper.modifications(connection);
+            h2Dumper.beginSnapshot(connection, before.keySet());
+            try {
+                Map<String, Long> after = h2Dumper.modifications(connection);
+                String parent = incremental ? chainHead : null;
+                if (parent != null && !Files.exists(file(parent))) {
+                    parent = null;
+                }
+                List<String> tables = new ArrayList<>();
+                for (Map.Entry<String, Long> entry : after.entrySet()) {
+                    String table = entry.getKey();
+                    if (parent == null || !Objects.equals(baseline.get(table), before.get(table))
+                            || !Objects.equals(before.get(table), entry.getValue())) {
+                        tables.add(table);
+                    }
+                }
+                if (parent != null && tables.isEmpty()) {
+                    job.message = "自上次备份以来没有修改";
+                    return;
+                }
+                
+                String type = parent == null ? FULL : INCREMENTAL;
+                String name = NAME_FORMAT.format(now) + (parent == null ? "-full" : "-incr");
+                job.name = name;
+                Path temp = backupDir.resolve(name + FILE_SUFFIX + TEMP_SUFFIX);
+                try (CountingOutputStream counting = new CountingOutputStream(Files.newOutputStream(temp));
+                     Writer writer = writer(counting)) {
+                    job.bytes = counting::getByteCount;
+                    writer.write(HEADER + type + (parent == null ? "" : " parent=" + parent) + "\n");
+                    h2Dumper.dump(connection, tables, parent == null, writer, job);
+                } catch (Exception e) {
+                    Files.deleteIfExists(temp);
+                    throw e;
+                }
+                Files.move(temp, file(name), StandardCopyOption.ATOMIC_MOVE);
+                writeManifest(new BackupInfo(name, type, parent, tables, Files.size(file(name)), now));
+                chainHead = name;
+                baseline = before;
+                if (parent == null) {
+                    prune();
+                }
+            } finally {
+                h2Dumper.endSnapshot(connection);
+            }
+        }
+    }
+    
+    /**
+     * 导入一个备份
+     *
+     * @param requireFull 是否必须是完整备份
+     */
+    private void load(InputStream in, Connection connection, Job job, boolean requireFull) throws Exception {
+        // 不限长度，只用于统计已读取的字节数
+        BoundedInputStream counting = BoundedInputStream.builder().setInputStream(in).get();
+        job.bytes = counting::getCount;
+        GZIPInputStream gzip;
+        try {
+            gzip = new GZIPInputStream(counting, BUFFER_SIZE);
+        } catch (ZipException e) {
+            throw new RuntimeException("不是有效的备份文件");
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+        String header = reader.readLine();
+        if (header == null || !header.startsWith(HEADER)) {
+            throw new RuntimeException("不是有效的备份文件");
+        }
+        String type = header.substring(HEADER.length()).split(" ")[0];
+        if (requireFull && !FULL.equals(type)) {
+            throw new RuntimeException("增量备份不能单独恢复，请从备份目录恢复");
+        }
+        h2Dumper.load(reader, connection, job);
+    }
+    
+    /**
+     * 在新数据库文件中导入数据并补齐表结构，然后替换当前数据库
+     */
+    private void replaceDatabase(Job job, Loader loader) throws Exception {
+        Path databasePath = h2DatabaseFiles.databasePath().toAbsolutePath();
+        Path work = databasePath.resolveSibling(RESTORE_DIR_PREFIX + job.id);
+        Path path = work.resolve(databasePath.getFileName());
+        Files.createDirectories(work);
+        try {
+            try (Connection connection = h2DatabaseFiles.open(path)) {
+                loader.load(connection);
+                // 与启动时执行的脚本相同，补齐旧版本备份中缺少的表、列和索引
+                connection.setAutoCommit(true);
+                ScriptUtils.executeSqlScript(connection, new EncodedResource(schema, StandardCharsets.UTF_8));
+            }
+            job.table = null;
+            // 替换前写入各写回缓冲，避免替换后写入恢复的数据库
+            gameScoreWriteBuffer.flush();
+            lastLoginTimeBuffer.flush();
+            reactionCounter.flush();
+            gameStatsCounter.flush();
+            tableRowCounter.flush();
+            h2DatabaseFiles.replace(path);
+            chainHead = null;
+            baseline = Collections.emptyMap();
+            eventPublisher.publishEvent(new DatabaseRestoredEvent(this));
+        } finally {
+            FileSystemUtils.deleteRecursively(work);
+        }
+    }
+    
+    /**
+     * 从完整备份到指定备份的备份链
+     */
+    private List<String> chain(String name) {
+        LinkedList<String> chain = new LinkedList<>();
+        String next = name;
+        while (next != null) {
+            BackupInfo info = readManifest(next);
+            if (info == null || !Files.exists(file(next))) {
+                throw new RuntimeException(next.equals(name) ? "备份不存在" : "备份链不完整，缺少备份 " + next);
+            }
+            chain.addFirst(next);
+            next = info.getParent();
+            if (chain.size() > 10000) {
+                throw new RuntimeException("备份链无效");
+            }
+        }
+        return chain;
+    }
+    
+    /**
+     * 只保留最近的若干个完整备份及之后的增量备份
+     */
+    private void prune() {
+        if (retainFull <= 0) {
+            return;
+        }
+        List<BackupInfo> backups = listBackups();
+        int fulls = 0;
+        String oldestKept = null;
+        for (BackupInfo info : backups) {
+            if (FULL.equals(info.getType()) && ++fulls == retainFull) {
+                oldestKept = info.getName();
+                break;
+            }
+        }
+        if (oldestKept == null) {
+            return;
+        }
+        for (BackupInfo info : backups) {
+            if (info.getName().compareTo(oldestKept) < 0) {
+                deleteFiles(info.getName());
+                log.info("已删除过期备份 {}", info.getName());
+            }
+        }
+    }
+    
+    private void writeManifest(BackupInfo info) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("type", info.getType());
+        if (info.getParent() != null) {
+            properties.setProperty("parent", info.getParent());
+        }
+        properties.setProperty("tables", String.join(",", info.getTables()));
+        properties.setProperty("size", String.valueOf(info.getSize()));
+        properties.setProperty("createdAt", info.getCreatedAt().toString());
+        Path temp = backupDir.resolve(info.getName() + MANIFEST_SUFFIX + TEMP_SUFFIX);
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+        Files.move(temp, backupDir.resolve(info.getName() + MANIFEST_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private BackupInfo readManifest(String name) {
+        Path file = backupDir.resolve(name + MANIFEST_SUFFIX);
+        if (!NAME_PATTERN.matcher(name).matches() || !Files.exists(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+            String tables = properties.getProperty("tables", "");
+            return new BackupInfo(name, properties.getProperty("type"), properties.getProperty("parent"),
+                    tables.isEmpty() ? Collections.emptyList() : Arrays.asList(tables.split(",")),
+                    Long.parseLong(properties.getProperty("size", "0")),
+                    LocalDateTime.parse(properties.getProperty("createdAt")));
+        } catch (IOException | RuntimeException e) {
+            log.warn("备份清单无法读取: {} {}", name, e.getMessage());
+            return null;
+        }
+    }
+    
+    private boolean deleteFiles(String name) {
+        try {
+            boolean deleted = Files.deleteIfExists(backupDir.resolve(name + MANIFEST_SUFFIX));
+            return Files.deleteIfExists(file(name)) || deleted;
+        } catch (IOException e) {
+            throw new RuntimeException("删除备份失败", e);
+        }
+    }
+    
+    private Path file(String name) {
+        return backupDir.resolve(name + FILE_SUFFIX);
+    }
+    
+    private static String checkName(String name) {
+        if (name == null || !NAME_PATTERN.matcher(name).matches()) {
+            throw new RuntimeException("备份名称无效");
+        }
+        return name;
+    }
+    
+    private static Writer writer(OutputStream out) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(out, BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+    
+    /**
+     * 开始一个任务，已有任务在执行时抛出异常
+     */
+    private Job begin(String type) {
+        Job job = new Job(jobIds.incrementAndGet(), type);
+        if (!current.compareAndSet(null, job)) {
+            throw new RuntimeException("已有备份或恢复任务正在执行，请稍后重试");
+        }
+        last = job;
+        return job;
+    }
+    
+    private void submit(Job job, Task task) {
+        try {
+            executor.execute(() -> run(job, task));
+        } catch (RejectedExecutionException e) {
+            job.finish(e);
+            current.compareAndSet(job, null);
+            throw new RuntimeException("备份服务已关闭");
+        }
+    }
+    
+    /**
+     * 执行任务并记录结果，任务结束后释放
+     */
+    private void run(Job job, Task task) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            task.run();
+            job.finish(null);
+            log.info("{}任务完成: {}，{}行，{}字节", job.type, job.name, job.rows, job.bytes());
+        } catch (Exception e) {
+            job.finish(e);
+            log.warn("{}任务失败: {}", job.type, e.getMessage());
+        } finally {
+            current.compareAndSet(job, null);
+            sample.stop(Timer.builder("backup.duration")
+                    .description("备份、恢复任务耗时")
+                    .tag("type", job.type)
+                    .tag("status", job.status)
+                    .register(meterRegistry));
+        }
+    }
+    
+    @FunctionalInterface
+    private interface Task {
+        
+        void run() throws Exception;
+    }
+    
+    @FunctionalInterface
+    private interface Loader {
+        
+        void load(Connection connection) throws Exception;
+    }
+    
+    /**
+     * 任务状态，由执行线程更新，查询进度的线程读取
+     */
+    private static final class Job implements H2Dumper.Progress {
+        
+        private final long id;
+        
+        private final String type;
+        
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        
+        private volatile String status = BackupProgress.RUNNING;
+        
+        private volatile String name;
+        
+        private volatile String table;
+        
+        private volatile int tableIndex;
+        
+        private volatile int tableCount;
+        
+        private volatile long rows;
+        
+        /**
+         * 已处理完的文件大小，恢复增量备份链时累加
+         */
+        private volatile long bytesBase;
+        
+        private volatile LongSupplier bytes = () -> 0;
+        
+        private volatile long totalBytes;
+        
+        private volatile String message;
+        
+        private volatile LocalDateTime finishedAt;
+        
+        private Job(long id, String type) {
+            this.id = id;
+            this.type = type;
+        }
+        
+        @Override
+        public void table(String table, int index, int count) {
+            this.table = table;
+            this.tableIndex = index;
+            this.tableCount = count;
+        }
+        
+        @Override
+        public void rows(long rows) {
+            this.rows = rows;
+        }
+        
+        private long bytes() {
+            return bytesBase + bytes.getAsLong();
+        }
+        
+        private void finish(Exception e) {
+            if (e == null) {
+                status = BackupProgress.COMPLETED;
+            } else {
+                status = BackupProgress.FAILED;
+                message = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            }
+            finishedAt = LocalDateTime.now();
+        }
+        
+        private BackupProgress snapshot() {
+            BackupProgress progress = new BackupProgress();
+            progress.setId(id);
+            progress.setType(type);
+            progress.setStatus(status);
+            progress.setName(name);
+            progress.setTable(table);
+            progress.setTableIndex(tableIndex);
+            progress.setTableCount(tableCount);
+            progress.setRows(rows);
+            progress.setBytes(bytes());
+            progress.setTotalBytes(totalBytes);
+            progress.setMessage(message);
+            progress.setStartedAt(startedAt);
+            progress.setFinishedAt(finishedAt);
+            return progress;
+        }
+    }
+}
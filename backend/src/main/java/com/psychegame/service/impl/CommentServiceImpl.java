@@ -0,0 +1,512 @@
+package com.psychegame.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.psychegame.dto.CommentNode;
+import com.psychegame.dto.ArticleSummary;
+import com.psychegame.dto.CursorPage;
+import com.psychegame.dto.UserSummary;
+import com.psychegame.entity.Comment;
+import com.psychegame.enums.ArticleStatus;
+import com.psychegame.enums.ReactionType;
+import com.psychegame.mapper.ArticleMapper;
+import com.psychegame.mapper.CommentMapper;
+import com.psychegame.mapper.ForumReactionMapper;
+import com.psychegame.service.CommentService;
+import com.psychegame.service.UserService;
+import com.psychegame.service.support.CommentSearchIndex;
+import com.psychegame.service.support.DatabaseRestoredEvent;
+import com.psychegame.service.support.ReactionCounter;
+import com.psychegame.service.support.TableRowCounter;
+import com.psychegame.util.InvertedIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 论坛评论服务实现类
+ * <p>
+ * 评论按物化路径存储：路径为从根评论到本评论的各级ID（8位36进制定长）拼接，
+ * 按路径排序即为先序遍历顺序（根评论按时间顺序，每条评论之后紧跟它的回复）。
+ * 一页评论或某条评论的子树都是 (article_id, path) 索引上的一次范围扫描，取回后一次遍历组装成树，
+ * 分页游标为上一页最后一条的路径。回复层级超过上限时挂到被回复评论的上级下，并记录被回复的用户。
+ * <p>
+ * 每篇文章评论的第一页缓存在本节点，发表、删除评论后失效；点赞数由 {@link ReactionCounter} 累加后批量写入，
+ * 返回时加上待写入的增量，缓存中的点赞数在写入数据库后到缓存过期前可能偏小。
+ * <p>
+ * 评论内容写入 {@link CommentSearchIndex}，搜索结果不组装成树，按相关度平铺返回。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Service
+public class CommentServiceImpl implements CommentService {
+    
+    /**
+     * 每页最大条数，也是第一页缓存的条数
+     */
+    private static final int MAX_PAGE_SIZE = 50;
+    
+    /**
+     * 路径中每级ID的长度（36进制），可表示的最大ID约为2.8万亿
+     */
+    private static final int PATH_SEGMENT_LENGTH = 8;
+    
+    /**
+     * 路径列的长度
+     */
+    private static final int MAX_PATH_LENGTH = 128;
+    
+    /**
+     * 搜索关键词最大长度
+     */
+    private static final int MAX_KEYWORD_LENGTH = 50;
+    
+    /**
+     * 搜索最多可翻到的结果数
+     */
+    private static final int MAX_SEARCH_RESULTS = 500;
+    
+    private static final String PATH_PADDING = "0".repeat(PATH_SEGMENT_LENGTH);
+    
+    @Autowired
+    private CommentMapper commentMapper;
+    
+    @Autowired
+    private ArticleMapper articleMapper;
+    
+    @Autowired
+    private ForumReactionMapper forumReactionMapper;
+    
+    @Autowired
+    private ReactionCounter reactionCounter;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private TableRowCounter tableRowCounter;
+    
+    @Autowired
+    private CommentSearchIndex commentSearchIndex;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${forum.comment.max-content-length:1000}")
+    private int maxContentLength;
+    
+    @Value("${forum.comment.max-depth:8}")
+    private int maxDepth;
+    
+    @Value("${forum.comment.first-page-cache-size:1000}")
+    private int firstPageCacheSize;
+    
+    @Value("${forum.comment.first-page-ttl:10s}")
+    private Duration firstPageTtl;
+    
+    @Value("${forum.counter.status-cache-ttl:60s}")
+    private Duration statusCacheTtl;
+    
+    /**
+     * 文章评论的第一页：文章ID -> 按路径排列的前 MAX_PAGE_SIZE + 1 条评论，只读
+     */
+    private Cache<Long, List<Comment>> firstPages;
+    
+    /**
+     * 评论是否可点赞（存在且未删除），点赞时避免每次查询数据库
+     */
+    private LoadingCache<Long, Boolean> likeable;
+    
+    @PostConstruct
+    public void init() {
+        maxDepth = Math.max(1, Math.min(maxDepth, MAX_PATH_LENGTH / PATH_SEGMENT_LENGTH));
+        firstPages = Caffeine.newBuilder()
+                .maximumSize(firstPageCacheSize)
+                .expireAfterWrite(firstPageTtl)
+                .recordStats()
+                .build();
+        likeable = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(statusCacheTtl)
+                .recordStats()
+                .build(id -> {
+                    Comment comment = commentMapper.selectById(id);
+                    return comment != null && !Boolean.TRUE.equals(comment.getDeleted());
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, firstPages, "forum.comment.first-page");
+        CaffeineCacheMetrics.monitor(meterRegistry, likeable, "forum.comment.status");
+    }
+    
+    /**
+     * 数据库被整体替换后清除评论缓存
+     */
+    @EventListener(DatabaseRestoredEvent.class)
+    public void onDatabaseRestored() {
+        firstPages.invalidateAll();
+        likeable.invalidateAll();
+    }
+    
+    @Override
+    @Transactional
+    public CommentNode createComment(Long userId, Long articleId, Long parentId, String content) {
+        if (content == null || content.isBlank()) {
+            throw new RuntimeException("评论内容不能为空");
+        }
+        String text = content.strip();
+        if (text.length() > maxContentLength) {
+            throw new RuntimeException("评论不能超过" + maxContentLength + "个字符");
+        }
+        if (!ArticleStatus.PUBLISHED.getCode().equals(articleMapper.selectStatusById(articleId))) {
+            throw new RuntimeException("文章不存在");
+        }
+        
+        String parentPath = "";
+        Long replyToUserId = null;
+        if (parentId != null) {
+            Comment parent = commentMapper.selectById(parentId);
+            if (parent == null || !parent.getArticleId().equals(articleId) || Boolean.TRUE.equals(parent.getDeleted())) {
+                throw new RuntimeException("评论不存在");
+            }
+            replyToUserId = parent.getUserId();
+            parentPath = parent.getPath();
+            // 层级已满时作为被回复评论的同级回复
+            if (parentPath.length() / PATH_SEGMENT_LENGTH >= maxDepth) {
+                parentId = parent.getParentId();
+                parentPath = parentPath.substring(0, parentPath.length() - PATH_SEGMENT_LENGTH);
+            }
+        }
+        
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Comment record = new Comment();
+        record.setArticleId(articleId);
+        record.setUserId(userId);
+        record.setParentId(parentId);
+        record.setReplyToUserId(replyToUserId);
+        record.setPath("");
+        record.setContent(text);
+        record.setDeleted(false);
+        record.setLikeCount(0L);
+        record.setReplyCount(0L);
+        record.setCreatedAt(now);
+        record.setUpdatedAt(now);
+        commentMapper.insert(record);
+        record.setPath(parentPath + pathSegment(record.getId()));
+        commentMapper.updatePath(record.getId(), record.getPath());
+        tableRowCounter.add(TableRowCounter.COMMENT, 1);
+        
+        if (parentId != null) {
+            commentMapper.incrementReplyCount(parentId, 1);
+        }
+        articleMapper.incrementCommentCount(articleId, 1);
+        evictFirstPage(articleId);
+        commentSearchIndex.index(record.getId(), text, false, now);
+        return buildTree(Collections.singletonList(record)).get(0);
+    }
+    
+    @Override
+    @Transactional
+    public void deleteComment(Long userId, Long id) {
+        Comment comment = commentMapper.selectById(id);
+        if (comment == null || commentMapper.markDeleted(id, userId, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("评论不存在");
+        }
+        articleMapper.incrementCommentCount(comment.getArticleId(), -1);
+        forumReactionMapper.deleteByTarget(ReactionCounter.COMMENT, id);
+        likeable.invalidate(id);
+        evictFirstPage(comment.getArticleId());
+        commentSearchIndex.remove(id);
+    }
+    
+    /**
+     * 不开启事务：第一页缓存命中时不需要连接
+     */
+    @Override
+    public CursorPage<CommentNode> getComments(Long articleId, String cursor, int size) {
+        String after = parseCursor(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<Comment> rows;
+        if (after == null) {
+            rows = firstPages.get(articleId, this::loadFirstPage);
+            rows = rows.subList(0, Math.min(rows.size(), pageSize + 1));
+        } else {
+            rows = commentMapper.selectPage(articleId, null, after, pageSize + 1);
+        }
+        return toPage(rows, pageSize);
+    }
+    
+    @Override
+    public CursorPage<CommentNode> getReplies(Long id, String cursor, int size) {
+        Comment comment = commentMapper.selectById(id);
+        if (comment == null) {
+            throw new RuntimeException("评论不存在");
+        }
+        String after = parseCursor(cursor);
+        if (after == null) {
+            after = comment.getPath();
+        } else if (!after.startsWith(comment.getPath())) {
+            throw new RuntimeException("分页游标无效");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return toPage(commentMapper.selectPage(comment.getArticleId(), comment.getPath(), after, pageSize + 1), pageSize);
+    }
+    
+    /**
+     * 不开启事务：只有回表查询需要连接
+     */
+    @Override
+    public CursorPage<CommentNode> searchComments(String keyword, String cursor, int size) {
+        if (keyword == null || keyword.isBlank()) {
+            throw new RuntimeException("搜索关键词不能为空");
+        }
+        if (keyword.length() > MAX_KEYWORD_LENGTH) {
+            throw new RuntimeException("搜索关键词不能超过" + MAX_KEYWORD_LENGTH + "个字符");
+        }
+        int offset = parseOffset(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        if (offset >= MAX_SEARCH_RESULTS) {
+            return new CursorPage<>(Collections.emptyList(), null, false);
+        }
+        int end = Math.min(offset + pageSize, MAX_SEARCH_RESULTS);
+        
+        List<InvertedIndex.Hit> hits = commentSearchIndex.search(keyword, end + 1);
+        boolean hasMore = hits.size() > end && end < MAX_SEARCH_RESULTS;
+        List<InvertedIndex.Hit> pageHits = hits.subList(Math.min(offset, hits.size()), Math.min(end, hits.size()));
+        if (pageHits.isEmpty()) {
+            return new CursorPage<>(Collections.emptyList(), null, false);
+        }
+        
+        List<Long> ids = new ArrayList<>(pageHits.size());
+        for (InvertedIndex.Hit hit : pageHits) {
+            ids.add(hit.getDocId());
+        }
+        Map<Long, Comment> found = new HashMap<>();
+        Set<Long> articleIds = new LinkedHashSet<>();
+        for (Comment comment : commentMapper.selectByIds(ids)) {
+            if (Boolean.TRUE.equals(comment.getDeleted())) {
+                continue;
+            }
+            found.put(comment.getId(), comment);
+            articleIds.add(comment.getArticleId());
+        }
+        Set<Long> visibleArticles = new HashSet<>();
+        if (!articleIds.isEmpty()) {
+            for (ArticleSummary article : articleMapper.selectPublishedByIds(articleIds)) {
+                visibleArticles.add(article.getId());
+            }
+        }
+        List<CommentNode> nodes = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Comment comment = found.get(id);
+            if (comment == null) {
+                // 已被其他节点删除，或随文章一起删除
+                commentSearchIndex.remove(id);
+            } else if (visibleArticles.contains(comment.getArticleId())) {
+                // 所在文章改为草稿时保留在索引中，重新发布后仍可搜到
+                nodes.add(toNode(comment));
+            }
+        }
+        fillDetails(nodes);
+        return new CursorPage<>(nodes, hasMore ? String.valueOf(end) : null, hasMore);
+    }
+    
+    @Override
+    public boolean likeComment(Long userId, Long id, boolean active) {
+        if (!likeable.get(id)) {
+            throw new RuntimeException("评论不存在");
+        }
+        return reactionCounter.set(ReactionType.LIKE, ReactionCounter.COMMENT, id, userId, active);
+    }
+    
+    @Override
+    @Transactional
+    public void deleteArticleComments(Long articleId) {
+        forumReactionMapper.deleteByArticleComments(articleId);
+        tableRowCounter.add(TableRowCounter.COMMENT, -commentMapper.deleteByArticleId(articleId));
+        // 不知道被删除的评论ID，文章删除很少发生，直接全部失效
+        likeable.invalidateAll();
+        evictFirstPage(articleId);
+    }
+    
+    /**
+     * 加载文章评论的第一页，文章未发布时不缓存
+     */
+    private List<Comment> loadFirstPage(Long articleId) {
+        if (!ArticleStatus.PUBLISHED.getCode().equals(articleMapper.selectStatusById(articleId))) {
+            throw new RuntimeException("文章不存在");
+        }
+        return List.copyOf(commentMapper.selectPage(articleId, null, null, MAX_PAGE_SIZE + 1));
+    }
+    
+    /**
+     * 失效文章评论的第一页缓存，事务提交后再失效一次，避免事务期间读入的旧数据留在缓存中
+     */
+    private void evictFirstPage(Long articleId) {
+        firstPages.invalidate(articleId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    firstPages.invalidate(articleId);
+                }
+            });
+        }
+    }
+    
+    /**
+     * 将多查一条的查询结果转换为分页结果
+     *
+     * @param rows 按路径排列的评论，最多 pageSize + 1 条
+     * @param pageSize 每页条数
+     * @return 分页结果，下一页游标为本页最后一条的路径
+     */
+    private CursorPage<CommentNode> toPage(List<Comment> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        String nextCursor = hasMore ? rows.get(rows.size() - 1).getPath() : null;
+        return new CursorPage<>(buildTree(rows), nextCursor, hasMore);
+    }
+    
+    /**
+     * 一次遍历组装评论树：按路径排列时上级评论总在下级评论之前，
+     * 上级评论不在本页中的评论作为顶层节点。同时补全用户信息和待写入的点赞数
+     *
+     * @param rows 按路径排列的评论，不修改
+     * @return 顶层节点
+     */
+    private List<CommentNode> buildTree(List<Comment> rows) {
+        Map<Long, CommentNode> nodes = new HashMap<>(rows.size() * 2);
+        List<CommentNode> roots = new ArrayList<>();
+        for (Comment row : rows) {
+            CommentNode node = toNode(row);
+            nodes.put(row.getId(), node);
+            CommentNode parent = row.getParentId() == null ? null : nodes.get(row.getParentId());
+            if (parent != null) {
+                parent.getChildren().add(node);
+            } else {
+                roots.add(node);
+            }
+        }
+        fillDetails(nodes.values());
+        return roots;
+    }
+    
+    /**
+     * 补全评论节点的用户信息和待写入的点赞数
+     *
+     * @param nodes 评论节点，不含子节点
+     */
+    private void fillDetails(Collection<CommentNode> nodes) {
+        if (nodes.isEmpty()) {
+            return;
+        }
+        Set<Long> userIds = new LinkedHashSet<>();
+        Set<Long> ids = new LinkedHashSet<>();
+        for (CommentNode node : nodes) {
+            ids.add(node.getId());
+            userIds.add(node.getUserId());
+            if (node.getReplyToUserId() != null) {
+                userIds.add(node.getReplyToUserId());
+            }
+        }
+        
+        Map<Long, UserSummary> summaries = new HashMap<>();
+        for (UserSummary summary : userService.getUserSummaries(userIds)) {
+            summaries.put(summary.getId(), summary);
+        }
+        Map<Long, Map<String, Long>> pending = reactionCounter.pending(ReactionCounter.COMMENT, ids);
+        for (CommentNode node : nodes) {
+            UserSummary author = summaries.get(node.getUserId());
+            if (author != null) {
+                node.setUsername(author.getUsername());
+                node.setNickname(author.getNickname());
+                node.setAvatar(author.getAvatar());
+            }
+            UserSummary replyTo = node.getReplyToUserId() == null ? null : summaries.get(node.getReplyToUserId());
+            if (replyTo != null) {
+                node.setReplyToNickname(replyTo.getNickname());
+            }
+            Map<String, Long> deltas = pending.get(node.getId());
+            if (deltas != null) {
+                node.setLikeCount(node.getLikeCount() + deltas.getOrDefault(ReactionType.LIKE.getCode(), 0L));
+            }
+        }
+    }
+    
+    private static CommentNode toNode(Comment row) {
+        CommentNode node = new CommentNode();
+        node.setId(row.getId());
+        node.setArticleId(row.getArticleId());
+        node.setParentId(row.getParentId());
+        node.setUserId(row.getUserId());
+        node.setReplyToUserId(row.getReplyToUserId());
+        node.setDeleted(Boolean.TRUE.equals(row.getDeleted()));
+        node.setContent(node.isDeleted() ? null : row.getContent());
+        node.setLikeCount(row.getLikeCount());
+        node.setReplyCount(row.getReplyCount());
+        node.setCreatedAt(row.getCreatedAt());
+        return node;
+    }
+    
+    /**
+     * 评论ID在路径中的定长表示，36进制字符的字典序与数值顺序一致
+     */
+    private static String pathSegment(Long id) {
+        String digits = Long.toString(id, Character.MAX_RADIX);
+        if (digits.length() > PATH_SEGMENT_LENGTH) {
+            throw new IllegalStateException("评论ID超出路径可表示的范围: " + id);
+        }
+        return PATH_PADDING.substring(digits.length()) + digits;
+    }
+    
+    /**
+     * 解析按位置翻页的游标（搜索结果）
+     */
+    private static int parseOffset(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(cursor));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("分页游标无效");
+        }
+    }
+    
+    /**
+     * 解析分页游标（上一页最后一条的路径）
+     */
+    private static String parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        if (cursor.length() % PATH_SEGMENT_LENGTH != 0 || cursor.length() > MAX_PATH_LENGTH
+                || !cursor.chars().allMatch(c -> (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z'))) {
+            throw new RuntimeException("分页游标无效");
+        }
+        return cursor;
+    }
+}
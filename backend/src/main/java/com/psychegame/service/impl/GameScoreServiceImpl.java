@@ -0,0 +1,416 @@
+package com.psychegame.service.impl;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.psychegame.dto.CursorPage;
+import com.psychegame.dto.GameStatsSummary;
+import com.psychegame.dto.RankEntry;
+import com.psychegame.dto.ReplaySeed;
+import com.psychegame.dto.ScoreSubmitResult;
+import com.psychegame.dto.UserGameStats;
+import com.psychegame.dto.UserSummary;
+import com.psychegame.entity.GameScore;
+import com.psychegame.entity.GameScoreDaily;
+import com.psychegame.enums.GameType;
+import com.psychegame.enums.LeaderboardWindow;
+import com.psychegame.mapper.GameScoreDailyMapper;
+import com.psychegame.mapper.GameScoreMapper;
+import com.psychegame.service.GameScoreService;
+import com.psychegame.service.UserService;
+import com.psychegame.service.support.GameScoreWriteBuffer;
+import com.psychegame.service.support.GameStatsCounter;
+import com.psychegame.service.support.PresenceTracker;
+import com.psychegame.service.support.LeaderboardStore;
+import com.psychegame.service.support.ReplaySeedIssuer;
+import com.psychegame.service.support.ReplayVerifier;
+import com.psychegame.util.KeysetCursor;
+import com.psychegame.websocket.PushHub;
+import com.psychegame.websocket.PushWebSocketHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 游戏成绩服务实现类
+ * <p>
+ * 扫雷、贪吃蛇、2048的成绩须附带录像，在回放线程池中重放校验通过后，由发布线程池记录令牌并发布；
+ * 每局成绩进入写入缓冲异步落库，同时更新排行榜中的个人最高分。
+ * 排行榜前N名从短时快照读取，同一游戏在快照有效期内只访问一次排行榜存储。
+ * 个人成绩明细按（用户、游戏、时间）键集分页，由覆盖索引直接返回；刚提交的成绩在写入缓冲落库后可见。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Service
+public class GameScoreServiceImpl implements GameScoreService {
+    
+    /**
+     * 个人成绩每页最大条数
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    @Autowired
+    private LeaderboardStore leaderboardStore;
+    
+    @Autowired
+    private GameScoreWriteBuffer gameScoreWriteBuffer;
+    
+    @Autowired
+    private GameStatsCounter gameStatsCounter;
+    
+    @Autowired
+    private PresenceTracker presenceTracker;
+    
+    @Autowired
+    private GameScoreMapper gameScoreMapper;
+    
+    @Autowired
+    private GameScoreDailyMapper gameScoreDailyMapper;
+    
+    @Autowired
+    private ReplaySeedIssuer replaySeedIssuer;
+    
+    @Autowired
+    private ReplayVerifier replayVerifier;
+    
+    @Autowired
+    @Qualifier("replayPublishExecutor")
+    private ThreadPoolExecutor replayPublishExecutor;
+    
+    @Autowired
+    private PushHub pushHub;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${game.score.max-score:100000000}")
+    private long maxScore;
+    
+    @Value("${game.replay.enforce:true}")
+    private boolean replayEnforce;
+    
+    @Value("${game.replay.max-moves-length:200000}")
+    private int maxMovesLength;
+    
+    @Value("${game.replay.offline-seed-count:20}")
+    private int offlineSeedCount;
+    
+    @Value("${game.replay.offline-seed-ttl:7d}")
+    private Duration offlineSeedTtl;
+    
+    @Value("${game.leaderboard.snapshot-size:100}")
+    private int snapshotSize;
+    
+    @Value("${game.leaderboard.snapshot-ttl:2s}")
+    private Duration snapshotTtl;
+    
+    @Value("${websocket.push.leaderboard-size:10}")
+    private int pushLeaderboardSize;
+    
+    /**
+     * 排行榜快照：游戏编码:时间范围 -> 前snapshotSize名（已补全用户信息）
+     */
+    private LoadingCache<String, List<RankEntry>> snapshots;
+    
+    @PostConstruct
+    public void init() {
+        snapshots = Caffeine.newBuilder()
+                .maximumSize((long) GameType.values().length * LeaderboardWindow.values().length)
+                .expireAfterWrite(snapshotTtl)
+                .recordStats()
+                .build(key -> {
+                    int separator = key.indexOf(':');
+                    String gameCode = key.substring(0, separator);
+                    LeaderboardWindow window = LeaderboardWindow.fromCode(key.substring(separator + 1));
+                    return fillUserInfo(leaderboardStore.top(gameCode, window, snapshotSize));
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "game.leaderboard.snapshot");
+    }
+    
+    @Override
+    public ReplaySeed issueReplaySeed(Long userId, String gameCode) {
+        GameType gameType = GameType.fromCode(gameCode);
+        if (!replayVerifier.supports(gameType.getCode())) {
+            throw new RuntimeException("该游戏不支持录像校验");
+        }
+        return replaySeedIssuer.issue(userId, gameType.getCode());
+    }
+    
+    @Override
+    public List<ReplaySeed> issueOfflineReplaySeeds(Long userId, String gameCode, int count) {
+        GameType gameType = GameType.fromCode(gameCode);
+        if (!replayVerifier.supports(gameType.getCode())) {
+            throw new RuntimeException("该游戏不支持录像校验");
+        }
+        int n = Math.max(1, Math.min(count, offlineSeedCount));
+        List<ReplaySeed> seeds = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            seeds.add(replaySeedIssuer.issue(userId, gameType.getCode(), offlineSeedTtl));
+        }
+        return seeds;
+    }
+    
+    @Override
+    public CompletableFuture<ScoreSubmitResult> submitScore(Long userId, String gameCode, Long score, Integer duration,
+                                                            String replayToken, String moves) {
+        GameType gameType = GameType.fromCode(gameCode);
+        if (score == null || score < 0 || score > maxScore) {
+            throw new RuntimeException("分数不合法");
+        }
+        if (duration != null && duration < 0) {
+            throw new RuntimeException("游戏时长不合法");
+        }
+        
+        GameScore record = new GameScore();
+        record.setUserId(userId);
+        record.setGameCode(gameType.getCode());
+        record.setScore(score);
+        record.setDuration(duration);
+        
+        // 没有回放引擎的游戏（如打飞机）直接发布
+        if (!replayVerifier.supports(record.getGameCode())) {
+            return CompletableFuture.completedFuture(publish(record, null));
+        }
+        if (moves == null) {
+            if (replayEnforce) {
+                throw new RuntimeException("请提交游戏录像");
+            }
+            return CompletableFuture.completedFuture(publish(record, null));
+        }
+        if (moves.length() > maxMovesLength) {
+            throw new RuntimeException("录像过长");
+        }
+        if (replayToken == null) {
+            // 离线游玩时须使用联网时预先获取的种子
+            throw new RuntimeException("缺少录像种子，离线游玩请在联网时预先获取种子");
+        }
+        
+        long seed = replaySeedIssuer.verify(replayToken, userId, record.getGameCode());
+        // 发布需要访问数据库和Redis，不占用回放线程
+        return replayVerifier.verify(record.getGameCode(), seed, moves, score).thenApplyAsync(ignored -> {
+            // 并发重复提交同一局时只有一次能占用令牌并发布
+            if (!replaySeedIssuer.markUsed(replayToken)) {
+                throw new RuntimeException("该局成绩已提交");
+            }
+            return publish(record, replayToken);
+        }, replayPublishExecutor);
+    }
+    
+    /**
+     * 写入成绩、统计和排行榜
+     *
+     * <p>
+     * 成绩未能写入缓冲时释放已占用的录像种子令牌，玩家可重新提交同一局；
+     * 写入缓冲后成绩终将保存，之后的步骤失败也不再释放，避免同一局保存两次。
+     *
+     * @param record 成绩
+     * @param replayToken 已通过录像校验并占用的种子令牌，未校验录像时为null
+     * @return 提交结果
+     */
+    private ScoreSubmitResult publish(GameScore record, String replayToken) {
+        // 排行榜中时间精度为毫秒，截断后可据此判断是否刷新了最高分
+        record.setPlayedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        
+        try {
+            gameScoreWriteBuffer.add(record);
+        } catch (RuntimeException e) {
+            if (replayToken != null) {
+                replaySeedIssuer.release(replayToken);
+            }
+            throw e;
+        }
+        gameStatsCounter.record(record.getGameCode(), record.getScore());
+        presenceTracker.recordActive(record.getGameCode(), record.getUserId());
+        presenceTracker.recordActive(PresenceTracker.ALL_GAMES, record.getUserId());
+        RankEntry best = leaderboardStore.submit(record);
+        
+        boolean newRecord = best != null && record.getScore().equals(best.getScore())
+                && record.getPlayedAt().equals(best.getPlayedAt());
+        if (best != null) {
+            fillUserInfo(Collections.singletonList(best));
+        }
+        pushChanges(record, newRecord ? best : null);
+        return new ScoreSubmitResult(record.getScore(), newRecord, replayToken != null, best);
+    }
+    
+    /**
+     * 登记排行榜主题更新，并向用户推送新纪录通知
+     * <p>
+     * 只有刷新个人最高分时总榜才会变化；今日榜、本周榜无法在此判断，每次都登记。
+     * 同一推送周期内的多次登记只计算、推送一次。
+     *
+     * @param record 成绩
+     * @param newBest 刷新后的个人最高分，未刷新时为null
+     */
+    private void pushChanges(GameScore record, RankEntry newBest) {
+        String gameCode = record.getGameCode();
+        for (LeaderboardWindow window : LeaderboardWindow.values()) {
+            if (window == LeaderboardWindow.ALL && newBest == null) {
+                continue;
+            }
+            pushHub.publish(PushWebSocketHandler.leaderboardTopic(gameCode, window.getCode()),
+                    () -> fillUserInfo(leaderboardStore.top(gameCode, window, pushLeaderboardSize)));
+        }
+        if (newBest != null) {
+            Map<String, Object> notification = new HashMap<>();
+            notification.put("type", "newRecord");
+            notification.put("gameCode", gameCode);
+            notification.put("score", newBest.getScore());
+            notification.put("rank", newBest.getRank());
+            pushHub.notifyUser(record.getUserId(), notification);
+        }
+    }
+    
+    @Override
+    public List<RankEntry> getLeaderboard(String gameCode, String window, int limit) {
+        GameType gameType = GameType.fromCode(gameCode);
+        LeaderboardWindow leaderboardWindow = LeaderboardWindow.fromCode(window);
+        List<RankEntry> snapshot = snapshots.get(gameType.getCode() + ":" + leaderboardWindow.getCode());
+        int size = Math.max(0, Math.min(limit, snapshot.size()));
+        return new ArrayList<>(snapshot.subList(0, size));
+    }
+    
+    @Override
+    public RankEntry getUserRank(String gameCode, String window, Long userId) {
+        GameType gameType = GameType.fromCode(gameCode);
+        RankEntry entry = leaderboardStore.rankOf(gameType.getCode(), LeaderboardWindow.fromCode(window), userId);
+        if (entry != null) {
+            fillUserInfo(Collections.singletonList(entry));
+        }
+        return entry;
+    }
+    
+    @Override
+    public List<RankEntry> getAroundUser(String gameCode, Long userId, int radius) {
+        GameType gameType = GameType.fromCode(gameCode);
+        return fillUserInfo(leaderboardStore.around(gameType.getCode(), userId, Math.max(0, radius)));
+    }
+    
+    @Override
+    public GameStatsSummary getGameStats(String gameCode) {
+        return gameStatsCounter.get(GameType.fromCode(gameCode).getCode());
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<GameScore> getUserHistory(Long userId, String gameCode, String cursor, int size) {
+        GameType gameType = GameType.fromCode(gameCode);
+        KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        
+        // 多查一条判断是否还有下一页
+        List<GameScore> records = gameScoreMapper.selectUserPage(userId, gameType.getCode(),
+                keysetCursor == null ? null : keysetCursor.getTime(),
+                keysetCursor == null ? null : keysetCursor.getId(),
+                pageSize + 1);
+        boolean hasMore = records.size() > pageSize;
+        if (hasMore) {
+            records = records.subList(0, pageSize);
+        }
+        
+        String nextCursor = null;
+        if (hasMore) {
+            GameScore last = records.get(records.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getPlayedAt(), last.getId());
+        }
+        return new CursorPage<>(records, nextCursor, hasMore);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<GameScoreDaily> getUserDailyHistory(Long userId, String gameCode, String cursor, int size) {
+        GameType gameType = GameType.fromCode(gameCode);
+        KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        
+        List<GameScoreDaily> days = gameScoreDailyMapper.selectUserPage(userId, gameType.getCode(),
+                keysetCursor == null ? null : keysetCursor.getTime().toLocalDate(),
+                pageSize + 1);
+        boolean hasMore = days.size() > pageSize;
+        if (hasMore) {
+            days = days.subList(0, pageSize);
+        }
+        
+        // 日汇总以日期为键，游标中的ID不使用
+        String nextCursor = null;
+        if (hasMore) {
+            nextCursor = KeysetCursor.encode(days.get(days.size() - 1).getPlayDate().atStartOfDay(), 0L);
+        }
+        return new CursorPage<>(days, nextCursor, hasMore);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserGameStats> getUserGameStats(Long userId) {
+        Map<String, UserGameStats> statsByGame = new HashMap<>();
+        for (GameType type : GameType.values()) {
+            UserGameStats stats = new UserGameStats();
+            stats.setGameCode(type.getCode());
+            statsByGame.put(type.getCode(), stats);
+        }
+        
+        List<UserGameStats> totals = new ArrayList<>(gameScoreMapper.selectUserTotals(userId));
+        totals.addAll(gameScoreDailyMapper.selectUserTotals(userId));
+        for (UserGameStats total : totals) {
+            UserGameStats stats = statsByGame.get(total.getGameCode());
+            if (stats != null) {
+                stats.setPlayCount(stats.getPlayCount() + total.getPlayCount());
+                stats.setHighestScore(Math.max(stats.getHighestScore(), total.getHighestScore()));
+            }
+        }
+        
+        List<UserGameStats> result = new ArrayList<>(statsByGame.size());
+        for (GameType type : GameType.values()) {
+            result.add(statsByGame.get(type.getCode()));
+        }
+        return result;
+    }
+    
+    /**
+     * 批量补全用户名、昵称、头像
+     *
+     * @param entries 排行榜条目
+     * @return 传入的条目
+     */
+    private List<RankEntry> fillUserInfo(List<RankEntry> entries) {
+        if (entries.isEmpty()) {
+            return entries;
+        }
+        List<Long> userIds = new ArrayList<>(entries.size());
+        for (RankEntry entry : entries) {
+            userIds.add(entry.getUserId());
+        }
+        Map<Long, UserSummary> summaries = new HashMap<>();
+        for (UserSummary summary : userService.getUserSummaries(userIds)) {
+            summaries.put(summary.getId(), summary);
+        }
+        for (RankEntry entry : entries) {
+            UserSummary summary = summaries.get(entry.getUserId());
+            if (summary != null) {
+                entry.setUsername(summary.getUsername());
+                entry.setNickname(summary.getNickname());
+                entry.setAvatar(summary.getAvatar());
+            }
+        }
+        return entries;
+    }
+}
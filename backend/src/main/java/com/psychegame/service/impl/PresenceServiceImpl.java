@@ -0,0 +1,46 @@
+package com.psychegame.service.impl;
+
+import com.psychegame.dto.PresenceStats;
+import com.psychegame.service.PresenceService;
+import com.psychegame.service.support.PresenceTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 在线状态服务实现类
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Service
+public class PresenceServiceImpl implements PresenceService {
+    
+    @Autowired
+    private PresenceTracker presenceTracker;
+    
+    @Value("${presence.heartbeat-interval:30s}")
+    private Duration heartbeatInterval;
+    
+    @Override
+    public long heartbeat(Long userId) {
+        presenceTracker.heartbeat(userId);
+        return heartbeatInterval.toSeconds();
+    }
+    
+    @Override
+    public PresenceStats getStats(String date) {
+        LocalDate day;
+        try {
+            day = date == null || date.isBlank() ? LocalDate.now() : LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("日期格式错误");
+        }
+        return new PresenceStats(presenceTracker.getOnlineCount(), presenceTracker.getNodeOnlineCount(),
+                day, presenceTracker.countActive(day));
+    }
+}
@@ -0,0 +1,377 @@
+package com.psychegame.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psychegame.dto.SyncRequest;
+import com.psychegame.dto.SyncResult;
+import com.psychegame.entity.User;
+import com.psychegame.service.GameScoreService;
+import com.psychegame.service.SyncService;
+import com.psychegame.service.UserService;
+import com.psychegame.service.support.IdempotencyStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 离线请求同步服务实现类
+ * <p>
+ * 一次请求处理客户端的整个离线队列：
+ * <ul>
+ *     <li>按用户和请求ID占用幂等键（一次往返），已处理过的请求直接返回首次的结果，同一批中重复的ID只处理一次；</li>
+ *     <li>成绩并发提交，录像校验在校验线程池中进行，写入由成绩写缓冲合并为批量插入；</li>
+ *     <li>多条个人资料修改按顺序合并为一次更新，失败时再逐条执行以确定每条的结果；</li>
+ *     <li>处理结果一次写回幂等存储，可重试的失败（code≥500）释放幂等键，客户端可再次提交。</li>
+ * </ul>
+ * 超时未完成的成绩返回503但不释放幂等键，完成后再写入结果，重试时返回实际结果。
+ * <p>
+ * 需要录像校验的游戏（扫雷、贪吃蛇、2048）离线时无法向服务端获取种子，客户端应在联网时通过
+ * {@code POST /api/game/{type}/replay-seeds} 预先获取一批种子，离线每局使用一个并随成绩一起排队；
+ * 没有种子或种子已过期的成绩同步时返回400及原因，不会写入排行榜。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+public class SyncServiceImpl implements SyncService {
+    
+    /**
+     * 请求ID最大长度
+     */
+    private static final int MAX_ID_LENGTH = 64;
+    
+    private static final Pattern SCORE_PATH = Pattern.compile("/game/([^/]+)/scores");
+    
+    @Autowired
+    private GameScoreService gameScoreService;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${sync.batch.max-items:500}")
+    private int maxItems;
+    
+    @Value("${sync.batch.timeout:30s}")
+    private Duration timeout;
+    
+    private DistributionSummary batchSize;
+    
+    private Counter appliedCounter;
+    
+    private Counter duplicateCounter;
+    
+    private Counter failedCounter;
+    
+    @PostConstruct
+    public void init() {
+        batchSize = DistributionSummary.builder("sync.batch.size")
+                .description("每次同步的离线请求数")
+                .register(meterRegistry);
+        appliedCounter = itemCounter("applied");
+        duplicateCounter = itemCounter("duplicate");
+        failedCounter = itemCounter("failed");
+    }
+    
+    private Counter itemCounter(String result) {
+        return Counter.builder("sync.items")
+                .tag("result", result)
+                .description("同步的离线请求数，applied为已执行，duplicate为重复请求，failed为执行失败")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public CompletableFuture<List<SyncResult>> replay(Long userId, List<SyncRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        if (requests.size() > maxItems) {
+            throw new RuntimeException("一次最多同步" + maxItems + "条请求");
+        }
+        batchSize.record(requests.size());
+        
+        SyncResult[] results = new SyncResult[requests.size()];
+        // 请求ID -> 首次出现的位置，重复的ID使用首次的结果
+        Map<String, Integer> firstIndex = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String id = requests.get(i) == null ? null : requests.get(i).getId();
+            if (id == null || id.isBlank() || id.length() > MAX_ID_LENGTH) {
+                results[i] = new SyncResult(id, 400, "请求ID无效", null, false);
+            } else {
+                firstIndex.putIfAbsent(id, i);
+            }
+        }
+        
+        Map<String, String> existing = idempotencyStore.acquire(userId, new ArrayList<>(firstIndex.keySet()));
+        Map<String, CompletableFuture<SyncResult>> scores = new LinkedHashMap<>();
+        List<Integer> profiles = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : firstIndex.entrySet()) {
+            String id = entry.getKey();
+            int index = entry.getValue();
+            String previous = existing.get(id);
+            if (previous != null) {
+                results[index] = decode(id, previous);
+                continue;
+            }
+            SyncRequest request = requests.get(index);
+            String method = request.getMethod() == null ? "" : request.getMethod().toUpperCase(Locale.ROOT);
+            String path = normalizePath(request.getUrl());
+            Matcher scorePath = SCORE_PATH.matcher(path);
+            if ("POST".equals(method) && scorePath.matches()) {
+                scores.put(id, submitScore(userId, id, scorePath.group(1), request.getData()));
+            } else if (("PATCH".equals(method) || "PUT".equals(method)) && "/user/profile".equals(path)
+                    || "PUT".equals(method) && "/user/info".equals(path)) {
+                profiles.add(index);
+            } else {
+                results[index] = new SyncResult(id, 400, "该请求不支持离线同步", null, false);
+            }
+        }
+        applyProfiles(userId, requests, profiles, results);
+        
+        // 等待成绩提交完成，超时的返回503，完成后再写入幂等存储；超时只作用于副本，提交本身继续执行
+        Map<String, CompletableFuture<SyncResult>> views = new HashMap<>();
+        Map<String, SyncResult> placeholders = new HashMap<>();
+        for (Map.Entry<String, CompletableFuture<SyncResult>> entry : scores.entrySet()) {
+            SyncResult timedOut = new SyncResult(entry.getKey(), 503, "处理超时，请稍后重试", null, false);
+            placeholders.put(entry.getKey(), timedOut);
+            views.put(entry.getKey(), entry.getValue().copy()
+                    .completeOnTimeout(timedOut, timeout.toMillis(), TimeUnit.MILLISECONDS));
+        }
+        return CompletableFuture.allOf(views.values().toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            Map<String, CompletableFuture<SyncResult>> timedOut = new HashMap<>();
+            for (Map.Entry<String, CompletableFuture<SyncResult>> entry : views.entrySet()) {
+                String id = entry.getKey();
+                SyncResult result = entry.getValue().join();
+                // 按占位结果判断是否超时：超时后提交可能已完成，但返回给客户端的仍是占位结果
+                if (result == placeholders.get(id)) {
+                    timedOut.put(id, scores.get(id));
+                }
+                results[firstIndex.get(id)] = result;
+            }
+            complete(userId, firstIndex, existing, timedOut, results);
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null) {
+                    SyncResult first = results[firstIndex.get(requests.get(i).getId())];
+                    results[i] = new SyncResult(first.getId(), first.getCode(), first.getMessage(), null, true);
+                }
+            }
+            return Arrays.asList(results);
+        });
+    }
+    
+    /**
+     * 提交一条成绩，录像种子须为联网时预先获取的种子
+     *
+     * @return 提交结果，不会异常完成
+     */
+    private CompletableFuture<SyncResult> submitScore(Long userId, String id, String gameType, Map<String, Object> body) {
+        try {
+            Map<String, Object> data = body == null ? Collections.emptyMap() : body;
+            Long score = data.get("score") instanceof Number number ? number.longValue() : null;
+            Integer duration = data.get("duration") instanceof Number number ? number.intValue() : null;
+            String replayToken = data.get("replayToken") instanceof String token ? token : null;
+            String moves = data.get("moves") instanceof String value ? value : null;
+            return gameScoreService.submitScore(userId, gameType, score, duration, replayToken, moves)
+                    .thenApply(submitResult -> new SyncResult(id, 200, "提交成功", submitResult, false))
+                    .exceptionally(e -> failure(id, e, "提交失败"));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(failure(id, e, "提交失败"));
+        }
+    }
+    
+    /**
+     * 将多条个人资料修改按顺序合并为一次更新；合并后的更新失败时逐条执行，确定每条的结果
+     * <p>
+     * 离线期间的修改基于同一版本，合并时使用第一条携带的版本号；逐条执行时每条改用上一条成功后的版本号，
+     * 避免第一条之后的修改都因版本冲突失败。
+     */
+    private void applyProfiles(Long userId, List<SyncRequest> requests, List<Integer> indexes, SyncResult[] results) {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        if (indexes.size() > 1) {
+            try {
+                User merged = new User();
+                for (int index : indexes) {
+                    mergeProfile(merged, toUser(requests.get(index).getData()));
+                }
+                User updated = userService.patchUser(userId, merged);
+                for (int index : indexes) {
+                    results[index] = new SyncResult(requests.get(index).getId(), 200, "更新成功", updated, false);
+                }
+                return;
+            } catch (Exception e) {
+                log.debug("合并的个人资料修改失败，逐条执行: {}", e.getMessage());
+            }
+        }
+        Integer baseVersion = null;
+        for (int index : indexes) {
+            String id = requests.get(index).getId();
+            try {
+                User patch = toUser(requests.get(index).getData());
+                if (baseVersion != null && patch.getVersion() != null) {
+                    patch.setVersion(baseVersion);
+                }
+                User updated = userService.patchUser(userId, patch);
+                baseVersion = updated.getVersion();
+                results[index] = new SyncResult(id, 200, "更新成功", updated, false);
+            } catch (Exception e) {
+                results[index] = failure(id, e, "更新失败");
+            }
+        }
+    }
+    
+    /**
+     * 将处理结果写入幂等存储：本次占用的键一次写入，超时的成绩不写入占位结果，在提交完成后写入实际结果
+     *
+     * @param timedOut 超时的请求ID -> 成绩提交本身
+     */
+    private void complete(Long userId, Map<String, Integer> firstIndex, Map<String, String> existing,
+                          Map<String, CompletableFuture<SyncResult>> timedOut, SyncResult[] results) {
+        Map<String, String> values = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : firstIndex.entrySet()) {
+            String id = entry.getKey();
+            if (existing.containsKey(id)) {
+                duplicateCounter.increment();
+                continue;
+            }
+            CompletableFuture<SyncResult> score = timedOut.get(id);
+            if (score != null) {
+                score.thenAccept(result -> idempotencyStore.complete(userId,
+                        Collections.singletonMap(id, encode(result))));
+                failedCounter.increment();
+                continue;
+            }
+            SyncResult result = results[entry.getValue()];
+            values.put(id, encode(result));
+            if (result.getCode() == 200) {
+                appliedCounter.increment();
+            } else {
+                failedCounter.increment();
+            }
+        }
+        try {
+            idempotencyStore.complete(userId, values);
+        } catch (Exception e) {
+            log.warn("离线请求的处理结果写入幂等存储失败: {}", e.getMessage());
+        }
+    }
+    
+    private User toUser(Map<String, Object> data) {
+        try {
+            return objectMapper.convertValue(data == null ? Collections.emptyMap() : data, User.class);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("请求数据格式错误");
+        }
+    }
+    
+    private static void mergeProfile(User merged, User patch) {
+        if (patch.getUsername() != null) {
+            merged.setUsername(patch.getUsername());
+        }
+        if (patch.getEmail() != null) {
+            merged.setEmail(patch.getEmail());
+        }
+        if (patch.getNickname() != null) {
+            merged.setNickname(patch.getNickname());
+        }
+        if (patch.getAvatar() != null) {
+            merged.setAvatar(patch.getAvatar());
+        }
+        if (merged.getVersion() == null) {
+            merged.setVersion(patch.getVersion());
+        }
+    }
+    
+    /**
+     * 将异常转换为结果，与单独调用各接口时的返回码一致
+     */
+    private SyncResult failure(String id, Throwable e, String defaultMessage) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RejectedExecutionException) {
+            return new SyncResult(id, 503, "服务繁忙，请稍后重试", null, false);
+        }
+        if (cause instanceof OptimisticLockingFailureException) {
+            return new SyncResult(id, 409, cause.getMessage(), null, false);
+        }
+        if (cause instanceof RuntimeException) {
+            return new SyncResult(id, 400, cause.getMessage(), null, false);
+        }
+        log.warn("离线请求处理失败: {}", cause.getMessage());
+        return new SyncResult(id, 500, defaultMessage, null, false);
+    }
+    
+    /**
+     * 幂等存储中的结果："code:message"；可重试的失败不保存
+     */
+    private static String encode(SyncResult result) {
+        if (result.getCode() >= 500) {
+            return null;
+        }
+        return result.getCode() + ":" + (result.getMessage() == null ? "" : result.getMessage());
+    }
+    
+    private static SyncResult decode(String id, String value) {
+        if (IdempotencyStore.IN_FLIGHT.equals(value)) {
+            return new SyncResult(id, 503, "该请求正在处理中，请稍后重试", null, true);
+        }
+        int separator = value.indexOf(':');
+        try {
+            return new SyncResult(id, Integer.parseInt(value.substring(0, separator)), value.substring(separator + 1),
+                    null, true);
+        } catch (RuntimeException e) {
+            return new SyncResult(id, 200, value, null, true);
+        }
+    }
+    
+    /**
+     * 去掉查询参数、末尾的斜杠和 /api 前缀
+     */
+    private static String normalizePath(String url) {
+        if (url == null) {
+            return "";
+        }
+        String path = url;
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        if (path.startsWith("/api/")) {
+            path = path.substring(4);
+        }
+        while (path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,325 @@
+package com.psychegame.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.psychegame.dto.DataStats;
+import com.psychegame.dto.ServiceProbe;
+import com.psychegame.dto.SystemStatus;
+import com.psychegame.enums.GameType;
+import com.psychegame.service.SystemStatusService;
+import com.psychegame.service.support.GameStatsCounter;
+import com.psychegame.service.support.ReplicaDataSource;
+import com.psychegame.service.support.TableRowCounter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务状态实现类
+ * <p>
+ * 数据库通过连接池取一个连接并校验，Redis发送PING，Nginx和前端检测端口能否连接，各项在独立线程上并行执行，
+ * 超时的一项记为已停止，不影响其他项。检测线程卡住（如连接池已满时等待连接）时，下次检测复用仍在执行的那次，
+ * 不会继续占用线程。结果缓存数秒，页面一直打开时也只按缓存时间访问各服务。
+ * 数据统计读取维护中的计数器，不执行 COUNT(*)。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+public class SystemStatusServiceImpl implements SystemStatusService {
+    
+    private static final String CACHE_KEY = "status";
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired(required = false)
+    private ReplicaDataSource replicaDataSource;
+    
+    @Autowired
+    private GameStatsCounter gameStatsCounter;
+    
+    @Autowired
+    private TableRowCounter tableRowCounter;
+    
+    @Value("${local.deploy.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${local.deploy.service.redis.host:${spring.data.redis.host:localhost}}")
+    private String redisHost;
+    
+    @Value("${local.deploy.service.redis.port:${spring.data.redis.port:6379}}")
+    private int redisPort;
+    
+    @Value("${local.deploy.service.nginx.host:localhost}")
+    private String nginxHost;
+    
+    @Value("${local.deploy.service.nginx.port:80}")
+    private int nginxPort;
+    
+    @Value("${local.deploy.service.frontend.host:localhost}")
+    private String frontendHost;
+    
+    @Value("${local.deploy.service.frontend.port:5173}")
+    private int frontendPort;
+    
+    @Value("${server.port:8080}")
+    private int serverPort;
+    
+    @Value("${status.probe.timeout:1s}")
+    private Duration timeout;
+    
+    @Value("${status.cache-ttl:3s}")
+    private Duration cacheTtl;
+    
+    private ThreadPoolExecutor probeExecutor;
+    
+    private AsyncLoadingCache<String, SystemStatus> cache;
+    
+    private List<Probe> probes;
+    
+    @PostConstruct
+    public void init() {
+        probes = List.of(
+                new Probe("database", jdbcUrl(), this::probeDatabase),
+                new Probe("redis", redisHost + ":" + redisPort, () -> probeRedis(redisHost, redisPort)),
+                new Probe("nginx", nginxHost + ":" + nginxPort, () -> probePort(nginxHost, nginxPort)),
+                new Probe("frontend", frontendHost + ":" + frontendPort, () -> probePort(frontendHost, frontendPort)));
+        probeExecutor = new ThreadPoolExecutor(
+                probes.size(),
+                probes.size(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("status-probe-"));
+        // 异步缓存在加载完成后才开始计时，并发请求共用同一次检测
+        cache = Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtl)
+                .buildAsync((key, executor) -> check());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        probeExecutor.shutdownNow();
+    }
+    
+    @Override
+    public CompletableFuture<SystemStatus> getStatus() {
+        if (!enabled) {
+            throw new RuntimeException("本地部署未启用");
+        }
+        return cache.get(CACHE_KEY);
+    }
+    
+    /**
+     * 并行执行各项检测，全部完成或超时后汇总
+     */
+    private CompletableFuture<SystemStatus> check() {
+        Map<String, CompletableFuture<ServiceProbe>> futures = new LinkedHashMap<>();
+        for (Probe probe : probes) {
+            futures.put(probe.name, probe.start());
+        }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    Map<String, ServiceProbe> services = new LinkedHashMap<>();
+                    futures.forEach((name, future) -> services.put(name, future.join()));
+                    services.put("backend", new ServiceProbe(ServiceProbe.RUNNING, "localhost:" + serverPort, 0,
+                            "已运行" + Duration.ofMillis(ManagementFactory.getRuntimeMXBean().getUptime()).toSeconds() + "秒"));
+                    return new SystemStatus(services, dataStats(), LocalDateTime.now());
+                });
+    }
+    
+    private DataStats dataStats() {
+        long gameScoreCount = 0;
+        for (GameType type : GameType.values()) {
+            gameScoreCount += gameStatsCounter.get(type.getCode()).getPlayCount();
+        }
+        return new DataStats(
+                tableRowCounter.get(TableRowCounter.USER),
+                gameScoreCount,
+                tableRowCounter.get(TableRowCounter.ARTICLE),
+                tableRowCounter.get(TableRowCounter.COMMENT));
+    }
+    
+    /**
+     * 从连接池取一个连接并校验，附带连接池使用情况
+     */
+    private String probeDatabase() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            int seconds = (int) Math.max(1, timeout.toSeconds());
+            if (!connection.isValid(seconds)) {
+                throw new SQLException("连接校验失败");
+            }
+            DatabaseMetaData metaData = connection.getMetaData();
+            String message = metaData.getDatabaseProductName() + " " + metaData.getDatabaseProductVersion();
+            HikariDataSource hikari = primaryPool();
+            if (hikari != null && hikari.getHikariPoolMXBean() != null) {
+                HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+                message += "，连接池 活动" + pool.getActiveConnections() + "/空闲" + pool.getIdleConnections()
+                        + "/等待" + pool.getThreadsAwaitingConnection();
+            }
+            if (replicaDataSource != null) {
+                List<ReplicaDataSource.Replica> replicas = replicaDataSource.getReplicas();
+                long available = replicas.stream().filter(ReplicaDataSource.Replica::isAvailable).count();
+                message += "，从库 可用" + available + "/" + replicas.size();
+            }
+            return message;
+        }
+    }
+    
+    /**
+     * 发送PING，服务端返回PONG或要求认证均说明Redis在运行
+     */
+    private String probeRedis(String host, int port) throws IOException {
+        try (Socket socket = connect(host, port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write("PING\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            String reply = readLine(socket.getInputStream());
+            if (reply.startsWith("+PONG")) {
+                return null;
+            }
+            if (reply.startsWith("-NOAUTH")) {
+                return "需要密码认证";
+            }
+            throw new IOException("响应异常: " + reply);
+        }
+    }
+    
+    private String probePort(String host, int port) throws IOException {
+        try (Socket ignored = connect(host, port)) {
+            return null;
+        }
+    }
+    
+    private Socket connect(String host, int port) throws IOException {
+        int millis = (int) timeout.toMillis();
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), millis);
+            socket.setSoTimeout(millis);
+            return socket;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+    
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) >= 0 && b != '\n' && line.length() < 256) {
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+    
+    /**
+     * 主库连接池，启用读写分离时默认数据源为代理，取其目标
+     */
+    private HikariDataSource primaryPool() {
+        DataSource target = dataSource;
+        while (target instanceof DelegatingDataSource delegating) {
+            target = delegating.getTargetDataSource();
+        }
+        return target instanceof HikariDataSource hikari ? hikari : null;
+    }
+    
+    private String jdbcUrl() {
+        HikariDataSource hikari = primaryPool();
+        if (hikari != null && hikari.getJdbcUrl() != null) {
+            String url = hikari.getJdbcUrl();
+            int params = url.indexOf(';');
+            return params < 0 ? url : url.substring(0, params);
+        }
+        return null;
+    }
+    
+    /**
+     * 检测逻辑，返回说明，失败时抛出异常
+     */
+    @FunctionalInterface
+    private interface Check {
+        
+        String run() throws Exception;
+    }
+    
+    /**
+     * 单项检测，同一时间最多执行一次
+     */
+    private final class Probe {
+        
+        private final String name;
+        
+        private final String address;
+        
+        private final Check check;
+        
+        /**
+         * 最近一次检测，未完成时下次检测直接复用
+         */
+        private CompletableFuture<ServiceProbe> running;
+        
+        private Probe(String name, String address, Check check) {
+            this.name = name;
+            this.address = address;
+            this.check = check;
+        }
+        
+        private synchronized CompletableFuture<ServiceProbe> start() {
+            if (running == null || running.isDone()) {
+                running = CompletableFuture.supplyAsync(this::run, probeExecutor);
+            }
+            return running.copy().completeOnTimeout(
+                    new ServiceProbe(ServiceProbe.STOPPED, address, timeout.toMillis(), "检测超时"),
+                    timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        
+        private ServiceProbe run() {
+            long start = System.nanoTime();
+            try {
+                String message = check.run();
+                return new ServiceProbe(ServiceProbe.RUNNING, address, elapsed(start), message);
+            } catch (Exception e) {
+                log.debug("服务检测失败: {} {}", name, e.getMessage());
+                return new ServiceProbe(ServiceProbe.STOPPED, address, elapsed(start),
+                        e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+            }
+        }
+        
+        private long elapsed(long start) {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+    }
+}
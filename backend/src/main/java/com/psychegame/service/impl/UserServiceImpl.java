@@ -1,15 +1,38 @@
 package com.psychegame.service.impl;
 
+import com.psychegame.dto.CursorPage;
+import com.psychegame.dto.UserSummary;
 import com.psychegame.entity.User;
 import com.psychegame.mapper.UserMapper;
 import com.psychegame.service.UserService;
+import com.psychegame.service.support.LastLoginTimeBuffer;
+import com.psychegame.service.support.PasswordHasher;
+import com.psychegame.service.support.TableRowCounter;
+import com.psychegame.service.support.UserAvailabilityIndex;
+import com.psychegame.service.support.UserCache;
+import com.psychegame.util.KeysetCursor;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Consumer;
 
 /**
  * 用户服务实现类
@@ -21,41 +44,189 @@ import java.util.List;
 @Transactional
 public class UserServiceImpl implements UserService {
     
+    /**
+     * 用户列表每页最大条数
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+    
     @Autowired
     private UserMapper userMapper;
     
+    @Autowired
+    private LastLoginTimeBuffer lastLoginTimeBuffer;
+    
+    @Autowired
+    private PasswordHasher passwordHasher;
+    
+    @Autowired
+    private UserCache userCache;
+    
+    @Autowired
+    private UserAvailabilityIndex userAvailabilityIndex;
+    
+    @Autowired
+    private TableRowCounter tableRowCounter;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    @Qualifier("registerWriteExecutor")
+    private ThreadPoolExecutor registerWriteExecutor;
+    
     // 密码编码器
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private BCryptPasswordEncoder passwordEncoder;
     
     @Override
+    @Transactional(readOnly = true)
     public User getUserById(Long id) {
-        return userMapper.selectById(id);
+        return userCache.getById(id, userMapper::selectById);
     }
     
     @Override
+    @Transactional(readOnly = true)
     public User getUserByUsername(String username) {
-        return userMapper.selectByUsername(username);
+        return userCache.getByUsername(username, userMapper::selectByUsername);
     }
     
     @Override
+    @Transactional(readOnly = true)
     public User getUserByEmail(String email) {
-        return userMapper.selectByEmail(email);
+        return userCache.getByEmail(email, userMapper::selectByEmail);
     }
     
     @Override
-    public List<User> getAllUsers() {
-        return userMapper.selectAll();
+    @Transactional(readOnly = true)
+    public List<UserSummary> getUserSummaries(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // 去重并忽略null元素
+        Set<Long> distinctIds = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id != null) {
+                distinctIds.add(id);
+            }
+        }
+        if (distinctIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(userCache.getSummaries(distinctIds, userMapper::selectSummariesByIds).values());
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<User> getUserPage(String cursor, int size) {
+        KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        
+        // 多查一条判断是否还有下一页
+        List<User> users = userMapper.selectPage(
+                keysetCursor == null ? null : keysetCursor.getTime(),
+                keysetCursor == null ? null : keysetCursor.getId(),
+                pageSize + 1
+        );
+        boolean hasMore = users.size() > pageSize;
+        if (hasMore) {
+            users = users.subList(0, pageSize);
+        }
+        
+        String nextCursor = null;
+        if (hasMore) {
+            User last = users.get(users.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPage<>(users, nextCursor, hasMore);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUsers(Consumer<User> consumer) {
+        try (Cursor<User> cursor = userMapper.selectAllAsCursor()) {
+            cursor.forEach(consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
     
     @Override
     public User register(User user) {
+        checkRegistration(user);
+        
+        // 加密密码
+        user.setPassword(encodePassword(user.getPassword()));
+        
+        // 插入用户
+        insertUser(user);
+        
+        return user;
+    }
+    
+    /**
+     * 不开启事务：加密密码期间不占用连接；加密完成后在写入线程池中开启事务插入用户，不占用哈希线程
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<User> registerAsync(User user) {
+        checkRegistration(user);
+        
+        // 在密码哈希线程池中加密密码，完成后插入用户
+        return passwordHasher.encode(user.getPassword()).thenApplyAsync(encodedPassword ->
+                transactionTemplate.execute(status -> {
+                    user.setPassword(encodedPassword);
+                    insertUser(user);
+                    return user;
+                }), registerWriteExecutor);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isUsernameAvailable(String username) {
+        return !userAvailabilityIndex.mightContainUsername(username) || getUserByUsername(username) == null;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isEmailAvailable(String email) {
+        return !userAvailabilityIndex.mightContainEmail(email) || getUserByEmail(email) == null;
+    }
+    
+    /**
+     * 插入用户，用户名、邮箱唯一性由唯一索引保证
+     *
+     * @param user 用户信息
+     */
+    private void insertUser(User user) {
+        try {
+            userMapper.insert(user);
+        } catch (DuplicateKeyException e) {
+            throw duplicateUserException(e);
+        }
+        userAvailabilityIndex.add(user.getUsername(), user.getEmail());
+        tableRowCounter.add(TableRowCounter.USER, 1);
+    }
+    
+    /**
+     * 校验注册信息并设置默认值
+     * <p>
+     * 占用索引判定一定未占用时不查询数据库；可能已占用时查询确认，在加密密码前快速失败。
+     * 并发注册同一用户名时仍由插入时的唯一索引兜底。
+     *
+     * @param user 用户信息
+     */
+    private void checkRegistration(User user) {
+        if (isBlank(user.getUsername()) || isBlank(user.getPassword()) || isBlank(user.getEmail())) {
+            throw new RuntimeException("用户名、密码和邮箱不能为空");
+        }
+        
         // 验证用户名是否已存在
-        if (getUserByUsername(user.getUsername()) != null) {
+        if (!isUsernameAvailable(user.getUsername())) {
             throw new RuntimeException("用户名已存在");
         }
         
         // 验证邮箱是否已存在
-        if (getUserByEmail(user.getEmail()) != null) {
+        if (!isEmailAvailable(user.getEmail())) {
             throw new RuntimeException("邮箱已被注册");
         }
         
@@ -72,26 +243,45 @@ public class UserServiceImpl implements UserService {
         user.setStatus("active");
         user.setCreatedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
-        
-        // 加密密码
-        user.setPassword(encodePassword(user.getPassword()));
-        
-        // 插入用户
-        userMapper.insert(user);
-        
-        return user;
+        user.setVersion(0);
     }
     
     @Override
+    @Transactional(readOnly = true)
     public User login(String username, String password) {
-        // 根据用户名查询用户
-        User user = getUserByUsername(username);
+        // 根据用户名查询用户（需要密码，不走缓存）
+        User user = userMapper.selectByUsername(username);
         if (user == null) {
             throw new RuntimeException("用户名或密码错误");
         }
         
+        return completeLogin(user, verifyPassword(password, user.getPassword()));
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<User> loginAsync(String username, String password) {
+        // 根据用户名查询用户（需要密码，不走缓存）
+        User user = userMapper.selectByUsername(username);
+        if (user == null) {
+            return CompletableFuture.failedFuture(new RuntimeException("用户名或密码错误"));
+        }
+        
+        // 在密码哈希线程池中验证密码
+        return passwordHasher.matches(password, user.getPassword())
+                .thenApply(matched -> completeLogin(user, matched));
+    }
+    
+    /**
+     * 根据密码验证结果完成登录
+     *
+     * @param user 用户信息
+     * @param passwordMatched 密码是否正确
+     * @return 登录成功的用户
+     */
+    private User completeLogin(User user, boolean passwordMatched) {
         // 验证密码
-        if (!verifyPassword(password, user.getPassword())) {
+        if (!passwordMatched) {
             throw new RuntimeException("用户名或密码错误");
         }
         
@@ -100,42 +290,115 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException("账号已被禁用");
         }
         
-        // 更新最后登录时间
-        updateLastLoginTime(user.getId());
+        // 记录最后登录时间，由写回缓冲批量写入
+        lastLoginTimeBuffer.record(user.getId());
         
         return user;
     }
     
     @Override
     public User updateUser(User user) {
-        // 查询原用户
-        User originalUser = getUserById(user.getId());
-        if (originalUser == null) {
+        if (user.getId() == null) {
             throw new RuntimeException("用户不存在");
         }
+        // 缓存中的当前数据，用于拼装更新结果和清除旧的用户名、邮箱索引
+        User cachedUser = userCache.peek(user.getId());
         
-        // 验证用户名是否已被其他用户使用
-        User existingUser = getUserByUsername(user.getUsername());
-        if (existingUser != null && !existingUser.getId().equals(user.getId())) {
-            throw new RuntimeException("用户名已存在");
+        // 只写入非空字段，用户名、邮箱唯一性由唯一索引保证
+        user.setPassword(null);
+        user.setUpdatedAt(LocalDateTime.now());
+        int rows;
+        try {
+            rows = userMapper.updateSelective(user);
+        } catch (DuplicateKeyException e) {
+            throw duplicateUserException(e);
         }
         
-        // 验证邮箱是否已被其他用户使用
-        existingUser = getUserByEmail(user.getEmail());
-        if (existingUser != null && !existingUser.getId().equals(user.getId())) {
-            throw new RuntimeException("邮箱已被注册");
+        if (rows == 0) {
+            if (user.getVersion() != null && userMapper.selectById(user.getId()) != null) {
+                throw new OptimisticLockingFailureException("用户信息已被修改，请刷新后重试");
+            }
+            throw new RuntimeException("用户不存在");
+        }
+        userCache.evict(cachedUser != null ? cachedUser : user);
+        if (user.getUsername() != null || user.getEmail() != null) {
+            userAvailabilityIndex.add(user.getUsername(), user.getEmail());
         }
         
-        // 更新用户信息
-        user.setUpdatedAt(LocalDateTime.now());
-        userMapper.update(user);
-        
+        // 缓存数据与更新前的版本一致时直接合并出更新后的数据，否则重新查询
+        if (cachedUser != null && user.getVersion() != null && user.getVersion().equals(cachedUser.getVersion())) {
+            return mergeUpdate(cachedUser, user);
+        }
         return getUserById(user.getId());
     }
     
+    @Override
+    public User patchUser(Long id, User patch) {
+        patch.setId(id);
+        // 个人资料修改不允许修改角色和状态
+        patch.setRole(null);
+        patch.setStatus(null);
+        return updateUser(patch);
+    }
+    
+    /**
+     * 将更新的字段合并到更新前的数据上
+     *
+     * @param original 更新前的用户
+     * @param patch 更新的字段
+     * @return 更新后的用户
+     */
+    private static User mergeUpdate(User original, User patch) {
+        if (patch.getUsername() != null) {
+            original.setUsername(patch.getUsername());
+        }
+        if (patch.getEmail() != null) {
+            original.setEmail(patch.getEmail());
+        }
+        if (patch.getNickname() != null) {
+            original.setNickname(patch.getNickname());
+        }
+        if (patch.getAvatar() != null) {
+            original.setAvatar(patch.getAvatar());
+        }
+        if (patch.getRole() != null) {
+            original.setRole(patch.getRole());
+        }
+        if (patch.getStatus() != null) {
+            original.setStatus(patch.getStatus());
+        }
+        original.setUpdatedAt(patch.getUpdatedAt());
+        original.setVersion(patch.getVersion() + 1);
+        return original;
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+    
+    /**
+     * 将唯一索引冲突转换为业务错误信息
+     *
+     * @param e 唯一索引冲突异常
+     * @return 业务异常
+     */
+    private static RuntimeException duplicateUserException(DuplicateKeyException e) {
+        String message = String.valueOf(e.getMessage()).toLowerCase();
+        if (message.contains("uk_user_email")) {
+            return new RuntimeException("邮箱已被注册");
+        }
+        return new RuntimeException("用户名已存在");
+    }
+    
     @Override
     public boolean deleteUser(Long id) {
-        return userMapper.deleteById(id) > 0;
+        User originalUser = getUserById(id);
+        boolean deleted = userMapper.deleteById(id) > 0;
+        userCache.evict(originalUser);
+        if (deleted) {
+            tableRowCounter.add(TableRowCounter.USER, -1);
+        }
+        return deleted;
     }
     
     @Override
@@ -0,0 +1,338 @@
+package com.psychegame.service.support;
+
+import com.psychegame.dto.ArticleSummary;
+import com.psychegame.dto.CursorPage;
+import com.psychegame.dto.UserSummary;
+import com.psychegame.enums.ArticleStatus;
+import com.psychegame.mapper.ArticleMapper;
+import com.psychegame.service.UserService;
+import com.psychegame.util.KeysetCursor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 论坛文章列表的内存快照
+ * <p>
+ * 保存最新发布的前N篇文章和热门排行（均已补全作者信息），定时从数据库重新加载。
+ * 最新列表中游标落在快照范围内的分页请求（包括绝大多数的第一页请求）直接由快照返回，不查询数据库；
+ * 热门排行只由快照提供。本节点发布、修改、删除文章时同步更新快照，其他节点的修改在下次加载后可见。
+ * <p>
+ * 热门度 = (浏览数×0.1 + 点赞数×2 + 评论数×3 + 1) / (发布小时数 + 2)^gravity，
+ * 只计算最近一段时间内发布的文章。快照中的浏览、点赞、评论数在下次加载前不会更新。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class ArticleListSnapshot {
+    
+    private static final double VIEW_WEIGHT = 0.1;
+    
+    private static final double LIKE_WEIGHT = 2;
+    
+    private static final double COMMENT_WEIGHT = 3;
+    
+    /**
+     * 最新列表的排序：创建时间倒序，同一时间按ID倒序
+     */
+    private static final Comparator<ArticleSummary> LATEST_ORDER = Comparator
+            .comparing(ArticleSummary::getCreatedAt)
+            .thenComparing(ArticleSummary::getId)
+            .reversed();
+    
+    @Autowired
+    private ArticleMapper articleMapper;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${forum.list.snapshot-size:100}")
+    private int latestSize;
+    
+    @Value("${forum.hot.size:100}")
+    private int hotSize;
+    
+    @Value("${forum.hot.window:7d}")
+    private Duration hotWindow;
+    
+    @Value("${forum.hot.candidate-limit:2000}")
+    private int candidateLimit;
+    
+    @Value("${forum.hot.gravity:1.5}")
+    private double gravity;
+    
+    /**
+     * 最新发布的文章，首次加载前为null
+     */
+    private volatile Latest latest;
+    
+    /**
+     * 热门排行
+     */
+    private volatile List<ArticleSummary> hot = Collections.emptyList();
+    
+    private Counter hitCounter;
+    
+    private Counter missCounter;
+    
+    private Timer refreshTimer;
+    
+    @PostConstruct
+    public void init() {
+        hitCounter = Counter.builder("forum.article.snapshot.requests")
+                .tag("result", "hit")
+                .description("最新文章列表分页请求次数，hit为由快照返回，miss为查询数据库")
+                .register(meterRegistry);
+        missCounter = Counter.builder("forum.article.snapshot.requests")
+                .tag("result", "miss")
+                .description("最新文章列表分页请求次数，hit为由快照返回，miss为查询数据库")
+                .register(meterRegistry);
+        refreshTimer = Timer.builder("forum.article.snapshot.refresh")
+                .description("文章列表快照加载耗时")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 从快照中取最新文章的一页
+     *
+     * @param cursor 分页游标，第一页为null
+     * @param size 条数
+     * @return 分页结果；快照未加载或游标超出快照范围时返回null，由调用方查询数据库
+     */
+    public CursorPage<ArticleSummary> latestPage(KeysetCursor cursor, int size) {
+        Latest current = latest;
+        if (current == null) {
+            missCounter.increment();
+            return null;
+        }
+        List<ArticleSummary> items = current.items;
+        int from = 0;
+        if (cursor != null) {
+            while (from < items.size() && !isAfter(items.get(from), cursor)) {
+                from++;
+            }
+        }
+        int to = from + size;
+        if (to >= items.size() && !current.complete) {
+            missCounter.increment();
+            return null;
+        }
+        hitCounter.increment();
+        
+        boolean hasMore = to < items.size();
+        List<ArticleSummary> page = new ArrayList<>(items.subList(from, Math.min(to, items.size())));
+        String nextCursor = null;
+        if (hasMore) {
+            ArticleSummary last = page.get(page.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPage<>(page, nextCursor, hasMore);
+    }
+    
+    /**
+     * 从快照中取热门排行的一页
+     *
+     * @param offset 起始位置
+     * @param size 条数
+     * @return 分页结果，下一页游标为下一页的起始位置
+     */
+    public CursorPage<ArticleSummary> hotPage(int offset, int size) {
+        List<ArticleSummary> items = hot;
+        int from = Math.min(Math.max(offset, 0), items.size());
+        int to = Math.min(from + size, items.size());
+        boolean hasMore = to < items.size();
+        return new CursorPage<>(new ArrayList<>(items.subList(from, to)), hasMore ? String.valueOf(to) : null, hasMore);
+    }
+    
+    /**
+     * 文章发布或修改后更新快照：已发布的文章按时间插入最新列表并更新热门排行中的内容，
+     * 草稿从快照中移除。需在数据库写入提交后调用。
+     *
+     * @param article 文章（已补全作者信息，不含正文）
+     */
+    public synchronized void put(ArticleSummary article) {
+        if (!ArticleStatus.PUBLISHED.getCode().equals(article.getStatus())) {
+            remove(article.getId());
+            return;
+        }
+        
+        Latest current = latest;
+        if (current != null) {
+            List<ArticleSummary> items = new ArrayList<>(current.items);
+            items.removeIf(item -> item.getId().equals(article.getId()));
+            int index = 0;
+            while (index < items.size() && LATEST_ORDER.compare(items.get(index), article) < 0) {
+                index++;
+            }
+            boolean complete = current.complete;
+            // 比快照中最早的文章还早且快照不完整时，不知道插入位置，不放入快照
+            if (index < items.size() || complete) {
+                items.add(index, article);
+                if (items.size() > latestSize) {
+                    items = items.subList(0, latestSize);
+                    complete = false;
+                }
+            }
+            latest = new Latest(List.copyOf(items), complete);
+        }
+        
+        List<ArticleSummary> hotItems = new ArrayList<>(hot);
+        hotItems.replaceAll(item -> item.getId().equals(article.getId()) ? article : item);
+        hot = List.copyOf(hotItems);
+    }
+    
+    /**
+     * 文章删除或改为草稿后从快照中移除，需在数据库写入提交后调用
+     *
+     * @param id 文章ID
+     */
+    public synchronized void remove(Long id) {
+        Latest current = latest;
+        if (current != null) {
+            List<ArticleSummary> items = new ArrayList<>(current.items);
+            if (items.removeIf(item -> item.getId().equals(id))) {
+                latest = new Latest(List.copyOf(items), current.complete);
+            }
+        }
+        List<ArticleSummary> hotItems = new ArrayList<>(hot);
+        if (hotItems.removeIf(item -> item.getId().equals(id))) {
+            hot = List.copyOf(hotItems);
+        }
+    }
+    
+    /**
+     * 数据库被整体替换后立即重新加载
+     */
+    @EventListener(DatabaseRestoredEvent.class)
+    public void onDatabaseRestored() {
+        refresh();
+    }
+    
+    /**
+     * 定时重新加载最新列表并计算热门排行，启动后立即加载一次
+     * <p>
+     * 加载期间持有锁，本节点的发布、修改在加载完成后应用到新快照上，不会被覆盖。
+     */
+    @Scheduled(fixedDelayString = "${forum.hot.refresh-interval:60000}")
+    public synchronized void refresh() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            List<ArticleSummary> latestItems = articleMapper.selectPublishedPage(null, null, latestSize + 1);
+            boolean complete = latestItems.size() <= latestSize;
+            if (!complete) {
+                latestItems = latestItems.subList(0, latestSize);
+            }
+            
+            LocalDateTime now = LocalDateTime.now();
+            List<ArticleSummary> candidates = articleMapper.selectPublishedSince(now.minus(hotWindow), candidateLimit);
+            Map<Long, Double> scores = new HashMap<>();
+            for (ArticleSummary candidate : candidates) {
+                scores.put(candidate.getId(), hotScore(candidate, now));
+            }
+            candidates.sort(Comparator.comparingDouble((ArticleSummary item) -> scores.get(item.getId())).reversed());
+            List<ArticleSummary> hotItems = candidates.subList(0, Math.min(hotSize, candidates.size()));
+            
+            List<ArticleSummary> all = new ArrayList<>(latestItems);
+            all.addAll(hotItems);
+            fillAuthors(all);
+            
+            latest = new Latest(List.copyOf(latestItems), complete);
+            hot = List.copyOf(hotItems);
+        } catch (Exception e) {
+            log.warn("文章列表快照加载失败，继续使用旧快照: {}", e.getMessage());
+        } finally {
+            sample.stop(refreshTimer);
+        }
+    }
+    
+    /**
+     * 补全文章的作者用户名、昵称、头像
+     *
+     * @param articles 文章列表
+     * @param <T> 文章类型
+     * @return 传入的文章列表
+     */
+    public <T extends ArticleSummary> List<T> fillAuthors(List<T> articles) {
+        if (articles.isEmpty()) {
+            return articles;
+        }
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (ArticleSummary article : articles) {
+            userIds.add(article.getUserId());
+        }
+        Map<Long, UserSummary> summaries = new HashMap<>();
+        for (UserSummary summary : userService.getUserSummaries(userIds)) {
+            summaries.put(summary.getId(), summary);
+        }
+        for (ArticleSummary article : articles) {
+            UserSummary summary = summaries.get(article.getUserId());
+            if (summary != null) {
+                article.setUsername(summary.getUsername());
+                article.setNickname(summary.getNickname());
+                article.setAvatar(summary.getAvatar());
+            }
+        }
+        return articles;
+    }
+    
+    private double hotScore(ArticleSummary article, LocalDateTime now) {
+        double engagement = article.getViewCount() * VIEW_WEIGHT
+                + article.getLikeCount() * LIKE_WEIGHT
+                + article.getCommentCount() * COMMENT_WEIGHT
+                + 1;
+        double ageHours = Math.max(0, Duration.between(article.getCreatedAt(), now).toMinutes() / 60.0);
+        return engagement / Math.pow(ageHours + 2, gravity);
+    }
+    
+    /**
+     * 文章是否排在游标之后（更早发布）
+     */
+    private static boolean isAfter(ArticleSummary article, KeysetCursor cursor) {
+        int compare = article.getCreatedAt().compareTo(cursor.getTime());
+        return compare < 0 || (compare == 0 && article.getId() < cursor.getId());
+    }
+    
+    /**
+     * 最新文章快照
+     */
+    private static final class Latest {
+        
+        /**
+         * 按时间倒序的文章
+         */
+        private final List<ArticleSummary> items;
+        
+        /**
+         * 是否包含全部已发布文章，为true时快照之后没有更早的文章
+         */
+        private final boolean complete;
+        
+        private Latest(List<ArticleSummary> items, boolean complete) {
+            this.items = items;
+            this.complete = complete;
+        }
+    }
+}
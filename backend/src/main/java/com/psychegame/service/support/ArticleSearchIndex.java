@@ -0,0 +1,75 @@
+package com.psychegame.service.support;
+
+import com.psychegame.entity.Article;
+import com.psychegame.enums.ArticleStatus;
+import com.psychegame.mapper.ArticleMapper;
+import com.psychegame.util.CjkBigramTokenizer;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 论坛文章全文搜索索引
+ * <p>
+ * 标题和正文写入索引，标题中的词按权重重复计数；只有已发布的文章可被搜索，改为草稿时从索引中移除。
+ * 本节点发布、修改、删除文章时同步更新索引，加载、同步和查询见 {@link DocumentSearchIndex}。
+ * <p>
+ * 查询延迟目标：10万篇文章时单次查询p99不超过50ms（forum.search.query）。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Component
+public class ArticleSearchIndex extends DocumentSearchIndex<Article> {
+    
+    @Autowired
+    private ArticleMapper articleMapper;
+    
+    @Value("${forum.search.index-file:./data/search/articles.idx}")
+    private String indexFile;
+    
+    @Value("${forum.search.title-weight:3}")
+    private int titleWeight;
+    
+    public ArticleSearchIndex() {
+        super("文章", "forum.search");
+    }
+    
+    /**
+     * 索引文章，已发布的文章写入索引，草稿从索引中移除
+     *
+     * @param id 文章ID
+     * @param title 标题
+     * @param content 正文
+     * @param status 状态
+     * @param updatedAt 更新时间，作为索引版本
+     */
+    public void index(Long id, String title, String content, String status, LocalDateTime updatedAt) {
+        index(id, ArticleStatus.PUBLISHED.getCode().equals(status), updatedAt, termFreqs -> {
+            for (String token : CjkBigramTokenizer.tokenize(title)) {
+                termFreqs.merge(token, titleWeight, Integer::sum);
+            }
+            for (String token : CjkBigramTokenizer.tokenize(content)) {
+                termFreqs.merge(token, 1, Integer::sum);
+            }
+        });
+    }
+    
+    @Override
+    protected String indexFile() {
+        return indexFile;
+    }
+    
+    @Override
+    protected Cursor<Article> selectChangedSince(LocalDateTime since) {
+        return articleMapper.selectChangedSinceAsCursor(since);
+    }
+    
+    @Override
+    protected void indexRecord(Article article) {
+        index(article.getId(), article.getTitle(), article.getContent(), article.getStatus(), article.getUpdatedAt());
+    }
+}
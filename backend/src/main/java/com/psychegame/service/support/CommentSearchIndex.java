@@ -0,0 +1,65 @@
+package com.psychegame.service.support;
+
+import com.psychegame.entity.Comment;
+import com.psychegame.mapper.CommentMapper;
+import com.psychegame.util.CjkBigramTokenizer;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 论坛评论全文搜索索引
+ * <p>
+ * 评论内容写入索引，段文件与文章索引分开保存；本节点发表、删除评论时同步更新，加载、同步和查询见 {@link DocumentSearchIndex}。
+ * 随文章一起删除的评论、所在文章已不可见的评论在查询结果回表时过滤，前者同时从索引中移除。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Component
+public class CommentSearchIndex extends DocumentSearchIndex<Comment> {
+    
+    @Autowired
+    private CommentMapper commentMapper;
+    
+    @Value("${forum.search.comment-index-file:./data/search/comments.idx}")
+    private String indexFile;
+    
+    public CommentSearchIndex() {
+        super("评论", "forum.search.comment");
+    }
+    
+    /**
+     * 索引评论，已删除的评论从索引中移除
+     *
+     * @param id 评论ID
+     * @param content 内容
+     * @param deleted 是否已删除
+     * @param updatedAt 更新时间，作为索引版本
+     */
+    public void index(Long id, String content, boolean deleted, LocalDateTime updatedAt) {
+        index(id, !deleted, updatedAt, termFreqs -> {
+            for (String token : CjkBigramTokenizer.tokenize(content)) {
+                termFreqs.merge(token, 1, Integer::sum);
+            }
+        });
+    }
+    
+    @Override
+    protected String indexFile() {
+        return indexFile;
+    }
+    
+    @Override
+    protected Cursor<Comment> selectChangedSince(LocalDateTime since) {
+        return commentMapper.selectChangedSinceAsCursor(since);
+    }
+    
+    @Override
+    protected void indexRecord(Comment comment) {
+        index(comment.getId(), comment.getContent(), Boolean.TRUE.equals(comment.getDeleted()), comment.getUpdatedAt());
+    }
+}
@@ -0,0 +1,18 @@
+package com.psychegame.service.support;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 数据库已恢复（或清空）事件
+ * <p>
+ * 数据库文件替换后发布，由数据库加载的进程内状态（缓存、快照、索引、计数器）在收到后重新加载。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public class DatabaseRestoredEvent extends ApplicationEvent {
+    
+    public DatabaseRestoredEvent(Object source) {
+        super(source);
+    }
+}
@@ -0,0 +1,290 @@
+package com.psychegame.service.support;
+
+import com.psychegame.util.CjkBigramTokenizer;
+import com.psychegame.util.InvertedIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 论坛全文搜索索引的公共部分
+ * <p>
+ * 文本按中日韩二元分词后写入本节点的倒排索引（{@link InvertedIndex}），按BM25排序，
+ * 包含任一查询词的文档即可匹配（见 {@link CjkBigramTokenizer}）。
+ * 本节点的修改由子类同步写入索引；其他节点的修改由定时同步按更新时间增量拉取，
+ * 被其他节点删除的文档在查询结果回表时发现并移除。增量积累到一定数量或间隔后合并写入段文件，
+ * 重启时加载段文件并只同步之后修改的文档，段文件不存在或损坏时从数据库全量构建。
+ * <p>
+ * 子类提供段文件路径、增量查询和单个文档的分词，索引的加载、同步、写入段文件和查询在此实现。
+ *
+ * @param <T> 同步时从数据库读取的实体类型
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+public abstract class DocumentSearchIndex<T> {
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${forum.search.max-query-terms:32}")
+    private int maxQueryTerms;
+    
+    @Value("${forum.search.sync-overlap:5s}")
+    private Duration syncOverlap;
+    
+    @Value("${forum.search.commit-threshold:5000}")
+    private int commitThreshold;
+    
+    @Value("${forum.search.commit-interval:10m}")
+    private Duration commitInterval;
+    
+    /**
+     * 文档名称，用于日志和指标说明，如"文章"
+     */
+    private final String name;
+    
+    /**
+     * 指标名前缀
+     */
+    private final String metricPrefix;
+    
+    private InvertedIndex index;
+    
+    private volatile long lastCommitAt = System.currentTimeMillis();
+    
+    private Timer queryTimer;
+    
+    private Timer indexTimer;
+    
+    protected DocumentSearchIndex(String name, String metricPrefix) {
+        this.name = name;
+        this.metricPrefix = metricPrefix;
+    }
+    
+    /**
+     * 段文件路径（不含代号）
+     */
+    protected abstract String indexFile();
+    
+    /**
+     * 按更新时间顺序流式查询某时间之后修改的文档（含应从索引中移除的），在事务中遍历
+     *
+     * @param since 起始时间，为null时查询全部
+     * @return 游标
+     */
+    protected abstract Cursor<T> selectChangedSince(LocalDateTime since);
+    
+    /**
+     * 将同步查询到的一条记录写入索引或从索引中移除，通常调用 {@link #index(Long, boolean, LocalDateTime, Consumer)}
+     *
+     * @param record 记录
+     */
+    protected abstract void indexRecord(T record);
+    
+    @PostConstruct
+    public void init() {
+        Path path = Paths.get(indexFile());
+        index = new InvertedIndex(path);
+        try {
+            long watermark = index.load();
+            if (watermark >= 0) {
+                log.info("{}搜索索引已加载，{}条", name, index.size());
+            }
+        } catch (IOException e) {
+            log.warn("{}搜索索引段文件无法加载，将从数据库重建: {}", name, e.getMessage());
+            index = new InvertedIndex(path);
+            try {
+                index.clear();
+            } catch (IOException ignored) {
+                // 重建后写入新一代段文件，旧文件在提交时再次删除
+            }
+        }
+        
+        Gauge.builder(metricPrefix + ".docs", index, InvertedIndex::size)
+                .description("搜索索引中的" + name + "数")
+                .register(meterRegistry);
+        Gauge.builder(metricPrefix + ".pending", index, InvertedIndex::pendingSize)
+                .description("尚未写入段文件的" + name + "数")
+                .register(meterRegistry);
+        queryTimer = Timer.builder(metricPrefix + ".query")
+                .description(name + "搜索耗时")
+                .register(meterRegistry);
+        indexTimer = Timer.builder(metricPrefix + ".index")
+                .description("单条" + name + "分词并写入索引的耗时")
+                .register(meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        sync();
+    }
+    
+    /**
+     * 数据库被整体替换后清空索引并全量构建
+     */
+    @EventListener(DatabaseRestoredEvent.class)
+    public synchronized void onDatabaseRestored() {
+        try {
+            index.clear();
+        } catch (IOException e) {
+            log.warn("{}搜索索引段文件删除失败: {}", name, e.getMessage());
+        }
+        sync();
+    }
+    
+    /**
+     * 定时同步其他节点的修改
+     */
+    @Scheduled(initialDelayString = "${forum.search.sync-interval:30000}",
+            fixedDelayString = "${forum.search.sync-interval:30000}")
+    public void scheduledSync() {
+        sync();
+    }
+    
+    /**
+     * 应用关闭时写入段文件，下次启动无需重新同步
+     */
+    @PreDestroy
+    public void shutdown() {
+        commit();
+    }
+    
+    /**
+     * 从数据库同步索引中最新版本之后修改的文档，索引为空时全量构建
+     * <p>
+     * 同步起点向前多取一段时间，避免遗漏同步时尚未提交的修改；重复索引同一版本不影响结果。
+     */
+    public synchronized void sync() {
+        long start = System.currentTimeMillis();
+        long watermark = index.maxVersion();
+        LocalDateTime since = watermark < 0 ? null : toTime(watermark).minus(syncOverlap);
+        try {
+            long count = transactionTemplate.execute(status -> {
+                long rows = 0;
+                try (Cursor<T> cursor = selectChangedSince(since)) {
+                    for (T record : cursor) {
+                        indexRecord(record);
+                        rows++;
+                        // 全量构建时分批写入段文件，限制内存中增量的大小；按更新时间顺序遍历，中断后从已写入的最新版本继续
+                        if (index.pendingSize() >= commitThreshold) {
+                            commit();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                return rows;
+            });
+            if (since == null) {
+                log.info("{}搜索索引构建完成，{}条，耗时{}ms", name, count, System.currentTimeMillis() - start);
+            }
+        } catch (Exception e) {
+            log.warn("{}搜索索引同步失败: {}", name, e.getMessage());
+        }
+        
+        int pending = index.pendingSize();
+        if (pending >= commitThreshold
+                || (pending > 0 && System.currentTimeMillis() - lastCommitAt >= commitInterval.toMillis())) {
+            commit();
+        }
+    }
+    
+    /**
+     * 写入或移除一个文档
+     *
+     * @param id 文档ID
+     * @param searchable 是否可被搜索，否则从索引中移除
+     * @param updatedAt 更新时间，作为索引版本
+     * @param tokenizer 向词频表中加入文档的词，只在可被搜索时调用
+     */
+    protected void index(Long id, boolean searchable, LocalDateTime updatedAt,
+                         Consumer<Map<String, Integer>> tokenizer) {
+        long version = toVersion(updatedAt);
+        if (!searchable) {
+            index.remove(id, version);
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Map<String, Integer> termFreqs = new HashMap<>();
+        tokenizer.accept(termFreqs);
+        index.put(id, termFreqs, version);
+        sample.stop(indexTimer);
+    }
+    
+    /**
+     * 从索引中移除文档
+     *
+     * @param id 文档ID
+     */
+    public void remove(Long id) {
+        index.remove(id);
+    }
+    
+    /**
+     * 搜索
+     *
+     * @param keyword 关键词
+     * @param limit 最多返回条数
+     * @return 按相关度排列的文档ID及评分
+     */
+    public List<InvertedIndex.Hit> search(String keyword, int limit) {
+        List<String> terms = CjkBigramTokenizer.tokenizeQuery(keyword);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (terms.size() > maxQueryTerms) {
+            terms = terms.subList(0, maxQueryTerms);
+        }
+        List<String> queryTerms = terms;
+        return queryTimer.record(() -> index.search(queryTerms, limit));
+    }
+    
+    /**
+     * 合并写入段文件，失败时增量保留在内存中，下次重试
+     */
+    private void commit() {
+        long start = System.currentTimeMillis();
+        try {
+            index.commit();
+            lastCommitAt = System.currentTimeMillis();
+            log.debug("{}搜索索引段文件已写入，{}条，耗时{}ms", name, index.size(), lastCommitAt - start);
+        } catch (IOException e) {
+            log.warn("{}搜索索引段文件写入失败: {}", name, e.getMessage());
+        }
+    }
+    
+    private static long toVersion(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    private static LocalDateTime toTime(long version) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(version), ZoneId.systemDefault());
+    }
+}
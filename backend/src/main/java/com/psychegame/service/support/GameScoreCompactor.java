@@ -0,0 +1,96 @@
+package com.psychegame.service.support;
+
+import com.psychegame.mapper.GameScoreDailyMapper;
+import com.psychegame.mapper.GameScoreMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 游戏成绩压缩
+ * <p>
+ * 定时将超过保留天数的成绩按用户、游戏、日期汇总到日汇总表并删除原记录，使成绩表及其索引的大小只与保留天数有关。
+ * 每次处理一天，汇总和删除在同一事务中完成；多个节点同时执行时由行锁冲突使其中一个回滚，不会重复汇总。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class GameScoreCompactor {
+    
+    @Autowired
+    private GameScoreMapper gameScoreMapper;
+    
+    @Autowired
+    private GameScoreDailyMapper gameScoreDailyMapper;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${game.score.retention-days:30}")
+    private int retentionDays;
+    
+    private Counter compactedCounter;
+    
+    @PostConstruct
+    public void init() {
+        compactedCounter = Counter.builder("game.score.compacted")
+                .description("已汇总到日汇总表的成绩条数")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 定时压缩
+     */
+    @Scheduled(cron = "${game.score.compaction-cron:0 15 4 * * *}")
+    public void scheduledCompact() {
+        compact();
+    }
+    
+    /**
+     * 将保留天数以前的成绩逐天汇总到日汇总表
+     *
+     * @return 汇总的成绩条数
+     */
+    public synchronized long compact() {
+        LocalDateTime cutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+        long total = 0;
+        try {
+            LocalDateTime oldest = gameScoreMapper.selectMinPlayedAt();
+            if (oldest == null) {
+                return 0;
+            }
+            for (LocalDateTime from = oldest.toLocalDate().atStartOfDay(); from.isBefore(cutoff); from = from.plusDays(1)) {
+                LocalDateTime dayStart = from;
+                LocalDateTime dayEnd = from.plusDays(1);
+                Integer deleted = transactionTemplate.execute(status -> {
+                    gameScoreDailyMapper.mergeFromScores(dayStart, dayEnd);
+                    return gameScoreMapper.deleteByPlayedAtRange(dayStart, dayEnd);
+                });
+                if (deleted != null && deleted > 0) {
+                    total += deleted;
+                    compactedCounter.increment(deleted);
+                }
+            }
+            if (total > 0) {
+                log.info("游戏成绩压缩完成，{}条成绩汇总到日汇总表", total);
+            }
+        } catch (Exception e) {
+            log.warn("游戏成绩压缩失败，将在下次重试: {}", e.getMessage());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,153 @@
+package com.psychegame.service.support;
+
+import com.psychegame.entity.GameScore;
+import com.psychegame.mapper.GameScoreMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 游戏成绩写入缓冲
+ * <p>
+ * 提交成绩时只放入有界队列，由定时任务以多值INSERT批量写入数据库，应用关闭时再写一次。
+ * 写入失败的一批保留在队列之外，下次写入时最先重试，成功前不再取新的记录。
+ * 队列满时由提交线程先执行一次写入，写入失败时提交失败并返回错误，已接受的成绩不会丢弃
+ * （应用关闭时数据库仍不可用的除外，记录日志和 game.score.dropped 指标）。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class GameScoreWriteBuffer {
+    
+    @Autowired
+    private GameScoreMapper gameScoreMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${game.score.buffer-capacity:10000}")
+    private int capacity;
+    
+    @Value("${game.score.batch-size:500}")
+    private int batchSize;
+    
+    private BlockingQueue<GameScore> pending;
+    
+    /**
+     * 写入失败、等待重试的一批，只在flush()中访问
+     */
+    private final List<GameScore> retrying = new ArrayList<>();
+    
+    private Timer flushTimer;
+    
+    private Counter flushedCounter;
+    
+    private Counter failedCounter;
+    
+    private Counter droppedCounter;
+    
+    @PostConstruct
+    public void init() {
+        pending = new ArrayBlockingQueue<>(capacity);
+        Gauge.builder("game.score.pending", this, buffer -> buffer.pending.size() + buffer.retrying.size())
+                .description("待写入的游戏成绩条数")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("game.score.flush")
+                .description("游戏成绩批量写入耗时")
+                .register(meterRegistry);
+        flushedCounter = Counter.builder("game.score.flushed")
+                .description("已写入的游戏成绩条数")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("game.score.flush.failed")
+                .description("游戏成绩批量写入失败次数")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("game.score.dropped")
+                .description("应用关闭时未能写入而丢弃的游戏成绩条数")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 记录一局成绩
+     *
+     * @param record 游戏成绩
+     */
+    public void add(GameScore record) {
+        while (!pending.offer(record)) {
+            // 队列已满，由提交线程写入一批后重试
+            if (!flush()) {
+                throw new RuntimeException("成绩保存失败，请稍后重试");
+            }
+        }
+    }
+    
+    /**
+     * 定时写入
+     */
+    @Scheduled(fixedDelayString = "${game.score.flush-interval:1000}")
+    public void scheduledFlush() {
+        flush();
+    }
+    
+    /**
+     * 应用关闭时写入剩余记录
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (!flush()) {
+            int dropped = retrying.size() + pending.size();
+            droppedCounter.increment(dropped);
+            log.error("应用关闭时游戏成绩写入失败，丢弃{}条记录", dropped);
+        }
+    }
+    
+    /**
+     * 将队列中的成绩分批写入数据库
+     * <p>
+     * 先重试上次失败的一批；某一批写入失败时保留该批，本次不再继续，下次重试。
+     *
+     * @return 是否全部写入成功
+     */
+    public synchronized boolean flush() {
+        if (!retrying.isEmpty() && !insert(retrying)) {
+            return false;
+        }
+        retrying.clear();
+        while (pending.drainTo(retrying, batchSize) > 0) {
+            if (!insert(retrying)) {
+                return false;
+            }
+            retrying.clear();
+        }
+        return true;
+    }
+    
+    private boolean insert(List<GameScore> batch) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            gameScoreMapper.insertBatch(batch);
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.warn("游戏成绩批量写入失败，{}条记录将在下次重试: {}", batch.size(), e.getMessage());
+            return false;
+        } finally {
+            sample.stop(flushTimer);
+        }
+        flushedCounter.increment(batch.size());
+        return true;
+    }
+}
@@ -0,0 +1,220 @@
+package com.psychegame.service.support;
+
+import com.psychegame.dto.GameStatsSummary;
+import com.psychegame.entity.GameStats;
+import com.psychegame.enums.GameType;
+import com.psychegame.mapper.GameStatsMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 游戏统计计数器（游戏次数、平均分）
+ * <p>
+ * 提交成绩时只累加进程内的分段计数器（LongAdder），读取时用数据库中的统计值加上本节点尚未写入的增量，均为O(1)。
+ * 定时将增量以 INSERT ... ON DUPLICATE KEY UPDATE 累加到统计表，并重新读取统计表，以纳入其他节点写入的增量；
+ * 应用关闭时再写一次。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class GameStatsCounter {
+    
+    @Autowired
+    private GameStatsMapper gameStatsMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    /**
+     * 各游戏的计数器，游戏固定，启动时创建后不再变化
+     */
+    private final Map<String, Stats> stats = new HashMap<>();
+    
+    private Counter failedCounter;
+    
+    @PostConstruct
+    public void init() {
+        for (GameType type : GameType.values()) {
+            stats.put(type.getCode(), new Stats());
+        }
+        failedCounter = Counter.builder("game.stats.flush.failed")
+                .description("游戏统计写入失败次数")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 应用启动完成、数据库被整体替换后读取统计表
+     */
+    @EventListener({ApplicationReadyEvent.class, DatabaseRestoredEvent.class})
+    public void onApplicationReady() {
+        flush();
+    }
+    
+    /**
+     * 记录一局游戏
+     *
+     * @param gameCode 游戏编码
+     * @param score 分数
+     */
+    public void record(String gameCode, long score) {
+        Stats gameStats = stats.get(gameCode);
+        if (gameStats != null) {
+            gameStats.count.increment();
+            gameStats.sum.add(score);
+        }
+    }
+    
+    /**
+     * 获取游戏统计
+     *
+     * @param gameCode 游戏编码
+     * @return 游戏统计
+     */
+    public GameStatsSummary get(String gameCode) {
+        Stats gameStats = stats.get(gameCode);
+        if (gameStats == null) {
+            return new GameStatsSummary(gameCode, 0, 0);
+        }
+        Base base = gameStats.base;
+        long count = base.persistedCount + gameStats.count.sum() - base.flushedCount;
+        long sum = base.persistedSum + gameStats.sum.sum() - base.flushedSum;
+        return new GameStatsSummary(gameCode, count, count == 0 ? 0 : Math.round((double) sum / count));
+    }
+    
+    /**
+     * 定时写入
+     */
+    @Scheduled(fixedDelayString = "${game.stats.flush-interval:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+    
+    /**
+     * 应用关闭时写入剩余增量
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+    
+    /**
+     * 将各游戏自上次写入以来的增量累加到统计表，然后重新读取统计表
+     * <p>
+     * 写入失败时不推进已写入位置，增量在下次写入时一并累加。
+     */
+    public synchronized void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, long[]> snapshots = new HashMap<>();
+        List<GameStats> increments = new ArrayList<>();
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            Stats gameStats = entry.getValue();
+            long count = gameStats.count.sum();
+            long sum = gameStats.sum.sum();
+            snapshots.put(entry.getKey(), new long[]{count, sum});
+            
+            Base base = gameStats.base;
+            if (count != base.flushedCount || sum != base.flushedSum) {
+                GameStats increment = new GameStats();
+                increment.setGameCode(entry.getKey());
+                increment.setPlayCount(count - base.flushedCount);
+                increment.setScoreSum(sum - base.flushedSum);
+                increment.setUpdatedAt(now);
+                increments.add(increment);
+            }
+        }
+        
+        if (!increments.isEmpty()) {
+            try {
+                gameStatsMapper.upsertIncrements(increments);
+            } catch (Exception e) {
+                failedCounter.increment();
+                log.warn("游戏统计写入失败，将在下次重试: {}", e.getMessage());
+                return;
+            }
+        }
+        
+        Map<String, GameStats> persisted = new HashMap<>();
+        try {
+            for (GameStats row : gameStatsMapper.selectAll()) {
+                persisted.put(row.getGameCode(), row);
+            }
+        } catch (Exception e) {
+            // 读取失败时在原统计值上加上本次写入的增量
+            log.warn("游戏统计读取失败: {}", e.getMessage());
+            for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+                Base base = entry.getValue().base;
+                long[] snapshot = snapshots.get(entry.getKey());
+                entry.getValue().base = new Base(
+                        base.persistedCount + snapshot[0] - base.flushedCount,
+                        base.persistedSum + snapshot[1] - base.flushedSum,
+                        snapshot[0], snapshot[1]);
+            }
+            return;
+        }
+        
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            GameStats row = persisted.get(entry.getKey());
+            long[] snapshot = snapshots.get(entry.getKey());
+            entry.getValue().base = new Base(
+                    row == null ? 0 : row.getPlayCount(),
+                    row == null ? 0 : row.getScoreSum(),
+                    snapshot[0], snapshot[1]);
+        }
+    }
+    
+    /**
+     * 单个游戏的计数器
+     */
+    private static final class Stats {
+        
+        /**
+         * 本节点启动以来的游戏次数
+         */
+        private final LongAdder count = new LongAdder();
+        
+        /**
+         * 本节点启动以来的分数总和
+         */
+        private final LongAdder sum = new LongAdder();
+        
+        private volatile Base base = new Base(0, 0, 0, 0);
+    }
+    
+    /**
+     * 最近一次读取的统计值及当时本节点已写入的位置，整体替换保证读取时一致
+     */
+    private static final class Base {
+        
+        private final long persistedCount;
+        
+        private final long persistedSum;
+        
+        private final long flushedCount;
+        
+        private final long flushedSum;
+        
+        private Base(long persistedCount, long persistedSum, long flushedCount, long flushedSum) {
+            this.persistedCount = persistedCount;
+            this.persistedSum = persistedSum;
+            this.flushedCount = flushedCount;
+            this.flushedSum = flushedSum;
+        }
+    }
+}
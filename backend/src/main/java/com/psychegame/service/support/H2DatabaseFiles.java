@@ -0,0 +1,196 @@
+package com.psychegame.service.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 本地H2数据库文件
+ * <p>
+ * 提供不经过连接池的专用连接（备份时的会话设置不影响连接池中的连接），在新文件中创建数据库，
+ * 以及将新数据库文件原子替换为当前数据库：暂停连接池，等待正在执行的操作结束、连接全部关闭
+ * （最后一个连接关闭时H2关闭数据库并释放文件锁），将当前文件保留为 .pre-restore 后重命名新文件，
+ * 再恢复连接池。替换期间获取连接的请求等待，不会失败。启用读写分离时从库连接池一并暂停
+ * （本地的从库替身可能与主库是同一个数据库文件）。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+@Profile("local")
+public class H2DatabaseFiles {
+    
+    private static final String URL_PREFIX = "jdbc:h2:file:";
+    
+    private static final String FILE_SUFFIX = ".mv.db";
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired(required = false)
+    private ReplicaDataSource replicaDataSource;
+    
+    @Value("${spring.datasource.url}")
+    private String url;
+    
+    @Value("${spring.datasource.username:sa}")
+    private String username;
+    
+    @Value("${spring.datasource.password:}")
+    private String password;
+    
+    @Value("${backup.restore.drain-timeout:10s}")
+    private Duration drainTimeout;
+    
+    /**
+     * 当前数据库的路径（不含扩展名）
+     *
+     * @return 路径
+     */
+    public Path databasePath() {
+        if (!url.startsWith(URL_PREFIX)) {
+            throw new RuntimeException("只支持H2文件数据库");
+        }
+        int params = url.indexOf(';');
+        return Paths.get(params < 0 ? url.substring(URL_PREFIX.length()) : url.substring(URL_PREFIX.length(), params));
+    }
+    
+    /**
+     * 打开当前数据库的专用连接
+     *
+     * @return 连接
+     */
+    public Connection open() throws SQLException {
+        return DriverManager.getConnection(url, username, password);
+    }
+    
+    /**
+     * 打开指定路径的数据库，不存在时创建，连接参数与当前数据库相同
+     *
+     * @param path 路径（不含扩展名）
+     * @return 连接
+     */
+    public Connection open(Path path) throws SQLException {
+        int params = url.indexOf(';');
+        String target = URL_PREFIX + path.toAbsolutePath() + (params < 0 ? "" : url.substring(params));
+        return DriverManager.getConnection(target, username, password);
+    }
+    
+    /**
+     * 用指定路径的数据库替换当前数据库，该数据库的连接应已全部关闭
+     *
+     * @param path 新数据库的路径（不含扩展名）
+     */
+    public void replace(Path path) throws IOException, InterruptedException {
+        Path source = file(path);
+        Path target = file(databasePath());
+        if (!Files.exists(source)) {
+            throw new IOException("数据库文件不存在: " + source);
+        }
+        if (!isClosed(source)) {
+            throw new RuntimeException("新数据库尚未关闭");
+        }
+        List<HikariPoolMXBean> pools = pools();
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        pools.forEach(HikariPoolMXBean::suspendPool);
+        try {
+            while (pools.stream().anyMatch(pool -> pool.getActiveConnections() > 0)) {
+                if (System.nanoTime() > deadline) {
+                    throw new RuntimeException("数据库仍有正在执行的操作，请稍后重试");
+                }
+                Thread.sleep(20);
+            }
+            pools.forEach(HikariPoolMXBean::softEvictConnections);
+            while (pools.stream().anyMatch(pool -> pool.getTotalConnections() > 0) || !isClosed(target)) {
+                if (System.nanoTime() > deadline) {
+                    throw new RuntimeException("数据库仍被其他连接占用（如H2控制台），请关闭后重试");
+                }
+                Thread.sleep(20);
+            }
+            
+            Path preRestore = target.resolveSibling(target.getFileName() + ".pre-restore");
+            Files.deleteIfExists(preRestore);
+            try {
+                Files.createLink(preRestore, target);
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(target, preRestore);
+            }
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.info("数据库已替换，原数据库文件保留为 {}", preRestore);
+        } finally {
+            pools.forEach(HikariPoolMXBean::resumePool);
+        }
+    }
+    
+    /**
+     * 需要暂停的连接池：主库，以及启用读写分离时的各从库
+     */
+    private List<HikariPoolMXBean> pools() {
+        DataSource target = dataSource;
+        while (target instanceof DelegatingDataSource delegating) {
+            target = delegating.getTargetDataSource();
+        }
+        if (!(target instanceof HikariDataSource primary)) {
+            throw new RuntimeException("当前数据源不支持替换数据库");
+        }
+        List<HikariDataSource> sources = new ArrayList<>();
+        sources.add(primary);
+        if (replicaDataSource != null) {
+            replicaDataSource.getReplicas().forEach(replica -> sources.add(replica.getPool()));
+        }
+        List<HikariPoolMXBean> pools = new ArrayList<>();
+        for (HikariDataSource source : sources) {
+            if (source.getHikariPoolMXBean() == null) {
+                throw new RuntimeException("当前数据源不支持替换数据库");
+            }
+            pools.add(source.getHikariPoolMXBean());
+        }
+        return pools;
+    }
+    
+    /**
+     * 数据库文件是否已关闭：H2打开数据库期间持有文件锁，本进程内再次加锁会抛出异常，其他进程持有时返回null
+     */
+    private static boolean isClosed(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return true;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                return false;
+            }
+            lock.release();
+            return true;
+        } catch (OverlappingFileLockException e) {
+            return false;
+        }
+    }
+    
+    private static Path file(Path path) {
+        return path.resolveSibling(path.getFileName() + FILE_SUFFIX);
+    }
+}
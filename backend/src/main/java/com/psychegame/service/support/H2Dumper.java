@@ -0,0 +1,325 @@
+package com.psychegame.service.support;
+
+import com.psychegame.util.SqlStatementReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * H2数据库导出、导入
+ * <p>
+ * 导出在快照隔离的事务中逐表游标读取（延迟执行，不在数据库中物化结果集），边读边写出INSERT语句，
+ * 各表数据为同一时刻的一致快照，且不阻塞其他事务的写入。表结构由 SCRIPT NODATA 生成，
+ * 在建立快照之后取得，自增列的起始值不小于快照中的任何ID；索引和唯一约束在数据之后创建。
+ * 导入逐条读取语句执行，定期提交，不把脚本读入内存。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Component
+@Profile("local")
+public class H2Dumper {
+    
+    private static final String INSERT_PREFIX = "INSERT INTO \"PUBLIC\".\"";
+    
+    @Value("${backup.insert-batch-rows:200}")
+    private int insertBatchRows;
+    
+    @Value("${backup.commit-interval:200}")
+    private int commitInterval;
+    
+    /**
+     * 导出、导入进度
+     */
+    public interface Progress {
+        
+        /**
+         * 开始处理一张表
+         *
+         * @param table 表名
+         * @param index 序号，从1开始
+         * @param count 表的总数，未知时为0
+         */
+        void table(String table, int index, int count);
+        
+        /**
+         * 累计处理的行数
+         *
+         * @param rows 行数
+         */
+        void rows(long rows);
+    }
+    
+    /**
+     * 查询各表的最后修改版本
+     * <p>
+     * 版本在数据库每次打开时重新计数，只能与同一次打开期间读取的值比较。
+     *
+     * @param connection 连接
+     * @return 表名 -> 版本
+     */
+    public Map<String, Long> modifications(Connection connection) throws SQLException {
+        Map<String, Long> result = new LinkedHashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT TABLE_NAME, LAST_MODIFICATION FROM INFORMATION_SCHEMA.TABLES "
+                     + "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE' ORDER BY TABLE_NAME")) {
+            while (rs.next()) {
+                result.put(rs.getString(1), rs.getLong(2));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 开启快照事务，之后的读取都基于此刻的数据；连接应为专用连接，结束后关闭
+     *
+     * @param connection 连接
+     * @param tables 数据库中的表
+     */
+    public void beginSnapshot(Connection connection, Collection<String> tables) throws SQLException {
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET SESSION CHARACTERISTICS AS TRANSACTION ISOLATION LEVEL SNAPSHOT");
+            statement.execute("SET LAZY_QUERY_EXECUTION TRUE");
+            // 快照在事务的第一次读取时建立
+            if (!tables.isEmpty()) {
+                statement.executeQuery("SELECT 1 FROM " + qualified(tables.iterator().next()) + " LIMIT 1").close();
+            }
+        }
+    }
+    
+    /**
+     * 在快照事务中导出表结构和数据，执行导出的脚本时先删除同名的表再重建
+     *
+     * @param connection 已开启快照事务的连接
+     * @param tables 要导出的表
+     * @param full 是否导出整个数据库（包括用户、序列等），否则只导出指定的表
+     * @param out 输出
+     * @param progress 进度
+     */
+    public void dump(Connection connection, List<String> tables, boolean full, Writer out, Progress progress)
+            throws SQLException, IOException {
+        List<String> deferred = new ArrayList<>();
+        StringBuilder script = new StringBuilder("SCRIPT NODATA DROP");
+        if (!full) {
+            script.append(" TABLE ");
+            for (int i = 0; i < tables.size(); i++) {
+                script.append(i > 0 ? ", " : "").append(qualified(tables.get(i)));
+            }
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(script.toString())) {
+            while (rs.next()) {
+                String sql = rs.getString(1);
+                if (sql.startsWith("--")) {
+                    continue;
+                }
+                if (isDeferred(sql)) {
+                    deferred.add(sql);
+                } else {
+                    out.write(sql);
+                    out.write('\n');
+                }
+            }
+        }
+        
+        long rows = 0;
+        for (int i = 0; i < tables.size(); i++) {
+            progress.table(tables.get(i), i + 1, tables.size());
+            rows = dumpTable(connection, tables.get(i), out, rows, progress);
+        }
+        
+        for (String sql : deferred) {
+            out.write(sql);
+            out.write('\n');
+        }
+        out.flush();
+    }
+    
+    /**
+     * 结束快照事务
+     *
+     * @param connection 连接
+     */
+    public void endSnapshot(Connection connection) throws SQLException {
+        connection.rollback();
+    }
+    
+    /**
+     * 执行导出的脚本
+     *
+     * @param reader 脚本
+     * @param connection 目标数据库的连接
+     * @param progress 进度，表的总数未知
+     * @return 导入的行数
+     */
+    public long load(Reader reader, Connection connection, Progress progress) throws SQLException, IOException {
+        SqlStatementReader statements = new SqlStatementReader(reader);
+        connection.setAutoCommit(false);
+        long rows = 0;
+        int pending = 0;
+        int tableIndex = 0;
+        String table = null;
+        try (Statement statement = connection.createStatement()) {
+            String sql;
+            while ((sql = statements.next()) != null) {
+                statement.execute(sql);
+                if (sql.startsWith(INSERT_PREFIX)) {
+                    String current = sql.substring(INSERT_PREFIX.length(), sql.indexOf('"', INSERT_PREFIX.length()));
+                    if (!current.equals(table)) {
+                        table = current;
+                        progress.table(table, ++tableIndex, 0);
+                    }
+                    rows += statement.getUpdateCount();
+                    progress.rows(rows);
+                }
+                if (++pending >= commitInterval) {
+                    connection.commit();
+                    pending = 0;
+                }
+            }
+            connection.commit();
+        } catch (SQLException | IOException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        }
+        return rows;
+    }
+    
+    private long dumpTable(Connection connection, String table, Writer out, long rows, Progress progress)
+            throws SQLException, IOException {
+        try (Statement statement = connection.createStatement()) {
+            statement.setFetchSize(insertBatchRows);
+            try (ResultSet rs = statement.executeQuery("SELECT * FROM " + qualified(table))) {
+                ResultSetMetaData meta = rs.getMetaData();
+                int columns = meta.getColumnCount();
+                int[] types = new int[columns + 1];
+                StringBuilder head = new StringBuilder("INSERT INTO ").append(qualified(table)).append('(');
+                for (int i = 1; i <= columns; i++) {
+                    types[i] = meta.getColumnType(i);
+                    head.append(i > 1 ? ", " : "").append(quote(meta.getColumnName(i)));
+                }
+                head.append(") VALUES");
+                
+                StringBuilder sql = new StringBuilder();
+                int batch = 0;
+                while (rs.next()) {
+                    sql.append(batch == 0 ? head : ",").append("\n(");
+                    for (int i = 1; i <= columns; i++) {
+                        if (i > 1) {
+                            sql.append(", ");
+                        }
+                        appendValue(sql, rs, i, types[i]);
+                    }
+                    sql.append(')');
+                    rows++;
+                    if (++batch >= insertBatchRows) {
+                        out.append(sql).append(";\n");
+                        sql.setLength(0);
+                        batch = 0;
+                        progress.rows(rows);
+                    }
+                }
+                if (batch > 0) {
+                    out.append(sql).append(";\n");
+                    progress.rows(rows);
+                }
+            }
+        }
+        return rows;
+    }
+    
+    /**
+     * 写出字段值的SQL字面量
+     */
+    private static void appendValue(StringBuilder sql, ResultSet rs, int column, int type) throws SQLException {
+        switch (type) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT, Types.DECIMAL, Types.NUMERIC -> {
+                String value = rs.getString(column);
+                sql.append(value == null ? "NULL" : value);
+            }
+            case Types.BOOLEAN, Types.BIT -> {
+                boolean value = rs.getBoolean(column);
+                sql.append(rs.wasNull() ? "NULL" : value ? "TRUE" : "FALSE");
+            }
+            case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> {
+                byte[] value = rs.getBytes(column);
+                if (value == null) {
+                    sql.append("NULL");
+                } else {
+                    sql.append("X'");
+                    for (byte b : value) {
+                        sql.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+                    }
+                    sql.append('\'');
+                }
+            }
+            case Types.DATE -> appendTyped(sql, "DATE", rs.getString(column));
+            case Types.TIME -> appendTyped(sql, "TIME", rs.getString(column));
+            case Types.TIMESTAMP -> appendTyped(sql, "TIMESTAMP", rs.getString(column));
+            case Types.TIMESTAMP_WITH_TIMEZONE -> appendTyped(sql, "TIMESTAMP WITH TIME ZONE", rs.getString(column));
+            // 浮点数的NaN、Infinity等以字符串形式写出，由数据库转换
+            default -> appendString(sql, rs.getString(column));
+        }
+    }
+    
+    private static void appendTyped(StringBuilder sql, String type, String value) {
+        if (value == null) {
+            sql.append("NULL");
+        } else {
+            sql.append(type).append(' ');
+            appendString(sql, value);
+        }
+    }
+    
+    private static void appendString(StringBuilder sql, String value) {
+        if (value == null) {
+            sql.append("NULL");
+            return;
+        }
+        sql.append('\'');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\'') {
+                sql.append('\'');
+            }
+            sql.append(c);
+        }
+        sql.append('\'');
+    }
+    
+    /**
+     * 索引、唯一约束在数据写入后创建，导入时不需要逐行维护
+     */
+    private static boolean isDeferred(String sql) {
+        String upper = sql.toUpperCase(Locale.ROOT);
+        if (upper.startsWith("CREATE INDEX") || upper.startsWith("CREATE UNIQUE INDEX")) {
+            return true;
+        }
+        return upper.startsWith("ALTER TABLE") && !upper.contains(" PRIMARY KEY");
+    }
+    
+    private static String qualified(String table) {
+        return "\"PUBLIC\"." + quote(table);
+    }
+    
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+}
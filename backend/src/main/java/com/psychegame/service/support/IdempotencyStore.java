@@ -0,0 +1,216 @@
+package com.psychegame.service.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 幂等键存储
+ * <p>
+ * 每个键保存一个短字符串：处理中为 {@link #IN_FLIGHT}，处理完成后为调用方编码的结果。
+ * Redis可用时保存在Redis中（同一用户的键使用相同的哈希标签，一批键的占用、写入各为一次脚本调用），
+ * 处理中的标记较快过期，避免节点宕机后请求无法重试；否则保存在本节点的过期缓存中。
+ * Redis不可用期间写入本节点的键在Redis恢复后仍会检查，直到过期。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+    
+    /**
+     * 处理中标记
+     */
+    public static final String IN_FLIGHT = "0";
+    
+    private static final String KEY_PREFIX = "sync:idem:";
+    
+    /**
+     * 逐个占用键：不存在时写入处理中标记并返回空字符串，已存在时返回已有的值
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "local result = {} "
+                    + "for i, key in ipairs(KEYS) do "
+                    + "  if redis.call('SET', key, ARGV[1], 'NX', 'PX', ARGV[2]) then result[i] = '' "
+                    + "  else result[i] = redis.call('GET', key) or '' end "
+                    + "end "
+                    + "return result",
+            List.class);
+    
+    /**
+     * 写入处理结果；值为空字符串时释放仍处于处理中的键，允许重试
+     */
+    private static final RedisScript<Long> COMPLETE_SCRIPT = new DefaultRedisScript<>(
+            "for i, key in ipairs(KEYS) do "
+                    + "  if ARGV[i + 2] ~= '' then redis.call('SET', key, ARGV[i + 2], 'PX', ARGV[1]) "
+                    + "  elseif redis.call('GET', key) == ARGV[2] then redis.call('DEL', key) end "
+                    + "end "
+                    + "return 1",
+            Long.class);
+    
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    
+    @Autowired
+    private RedisHealthMonitor redisHealthMonitor;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${sync.idempotency.ttl:7d}")
+    private Duration ttl;
+    
+    @Value("${sync.idempotency.in-flight-ttl:2m}")
+    private Duration inFlightTtl;
+    
+    @Value("${sync.idempotency.local-max-size:100000}")
+    private long localMaxSize;
+    
+    /**
+     * Redis不可用时的幂等键："用户ID:请求ID" -> 值
+     */
+    private Cache<String, String> local;
+    
+    @PostConstruct
+    public void init() {
+        local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "sync.idempotency.local");
+    }
+    
+    /**
+     * 占用一批幂等键
+     *
+     * @param userId 用户ID，不同用户的键互不影响
+     * @param ids 请求ID，不能重复
+     * @return 未能占用的键及其已有的值（处理中或处理结果），成功占用的键不在其中
+     */
+    public Map<String, String> acquire(Long userId, List<String> ids) {
+        Map<String, String> existing = new HashMap<>();
+        List<String> remaining = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            String value = local.getIfPresent(localKey(userId, id));
+            if (value != null) {
+                existing.put(id, value);
+            } else {
+                remaining.add(id);
+            }
+        }
+        if (remaining.isEmpty()) {
+            return existing;
+        }
+        
+        if (redisHealthMonitor.isAvailable()) {
+            try {
+                List<?> values = stringRedisTemplate.execute(ACQUIRE_SCRIPT, redisKeys(userId, remaining),
+                        IN_FLIGHT, String.valueOf(inFlightTtl.toMillis()));
+                for (int i = 0; i < remaining.size(); i++) {
+                    String value = values == null ? "" : String.valueOf(values.get(i));
+                    if (!value.isEmpty()) {
+                        existing.put(remaining.get(i), value);
+                    }
+                }
+                return existing;
+            } catch (Exception e) {
+                redisHealthMonitor.markUnavailable(e);
+            }
+        }
+        
+        Map<String, String> localMap = local.asMap();
+        for (String id : remaining) {
+            String value = localMap.putIfAbsent(localKey(userId, id), IN_FLIGHT);
+            if (value != null) {
+                existing.put(id, value);
+            }
+        }
+        return existing;
+    }
+    
+    /**
+     * 写入一批处理结果
+     *
+     * @param userId 用户ID
+     * @param results 请求ID -> 处理结果，为null时释放该键，之后可重新提交
+     */
+    public void complete(Long userId, Map<String, String> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(results.keySet());
+        Map<String, String> localMap = local.asMap();
+        // Redis不可用期间占用的键保存在本节点
+        List<String> redisIds = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            String key = localKey(userId, id);
+            if (localMap.containsKey(key)) {
+                completeLocal(key, results.get(id));
+            } else {
+                redisIds.add(id);
+            }
+        }
+        if (redisIds.isEmpty()) {
+            return;
+        }
+        
+        if (redisHealthMonitor.isAvailable()) {
+            try {
+                List<String> args = new ArrayList<>(redisIds.size() + 2);
+                args.add(String.valueOf(ttl.toMillis()));
+                args.add(IN_FLIGHT);
+                for (String id : redisIds) {
+                    String value = results.get(id);
+                    args.add(value == null ? "" : value);
+                }
+                stringRedisTemplate.execute(COMPLETE_SCRIPT, redisKeys(userId, redisIds), args.toArray());
+                return;
+            } catch (Exception e) {
+                redisHealthMonitor.markUnavailable(e);
+            }
+        }
+        // Redis中的处理中标记在短时间后过期，结果保存在本节点
+        for (String id : redisIds) {
+            completeLocal(localKey(userId, id), results.get(id));
+        }
+    }
+    
+    private void completeLocal(String key, String value) {
+        if (value == null) {
+            local.asMap().remove(key, IN_FLIGHT);
+        } else {
+            local.put(key, value);
+        }
+    }
+    
+    private static List<String> redisKeys(Long userId, Collection<String> ids) {
+        List<String> keys = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            keys.add(KEY_PREFIX + "{" + userId + "}:" + id);
+        }
+        return keys;
+    }
+    
+    private static String localKey(Long userId, String id) {
+        return userId + ":" + id;
+    }
+}
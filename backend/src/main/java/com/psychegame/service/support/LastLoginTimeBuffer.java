@@ -0,0 +1,136 @@
+package com.psychegame.service.support;
+
+import com.psychegame.mapper.UserMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 最后登录时间写回缓冲
+ * <p>
+ * 登录时只记录内存中的时间戳，同一用户的多次登录合并为一条待写记录，
+ * 由定时任务以批处理方式写入数据库，应用关闭时再写一次，避免登录请求占用写连接和行锁。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class LastLoginTimeBuffer {
+    
+    @Autowired
+    @Qualifier("batchSqlSessionTemplate")
+    private SqlSessionTemplate batchSqlSessionTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    /**
+     * 待写入的最后登录时间：用户ID -> 最新登录时间
+     */
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    
+    private Timer flushTimer;
+    
+    private Counter flushedCounter;
+    
+    private Counter failedCounter;
+    
+    @PostConstruct
+    public void init() {
+        Gauge.builder("user.last_login.pending", pending, Map::size)
+                .description("待写入的最后登录时间条数")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("user.last_login.flush")
+                .description("最后登录时间批量写入耗时")
+                .register(meterRegistry);
+        flushedCounter = Counter.builder("user.last_login.flushed")
+                .description("已写入的最后登录时间条数")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("user.last_login.flush.failed")
+                .description("最后登录时间批量写入失败次数")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 记录用户登录
+     *
+     * @param userId 用户ID
+     */
+    public void record(Long userId) {
+        pending.merge(userId, LocalDateTime.now(), (oldTime, newTime) -> newTime.isAfter(oldTime) ? newTime : oldTime);
+    }
+    
+    /**
+     * 定时写入，间隔即最后登录时间的最大延迟
+     */
+    @Scheduled(fixedDelayString = "${user.last-login.max-staleness:10000}")
+    public void scheduledFlush() {
+        flush();
+    }
+    
+    /**
+     * 应用关闭时写入剩余记录
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+    
+    /**
+     * 将待写记录批量写入数据库
+     * <p>
+     * 写入成功后仅移除未被新登录覆盖的条目；写入失败时保留全部条目，下次重试。
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        List<Map.Entry<Long, LocalDateTime>> batch = new ArrayList<>(pending.size());
+        for (Map.Entry<Long, LocalDateTime> entry : pending.entrySet()) {
+            batch.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+        
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                UserMapper mapper = batchSqlSessionTemplate.getMapper(UserMapper.class);
+                for (Map.Entry<Long, LocalDateTime> entry : batch) {
+                    mapper.updateLastLoginTimeTo(entry.getKey(), entry.getValue());
+                }
+                batchSqlSessionTemplate.flushStatements();
+            });
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.warn("最后登录时间批量写入失败，{}条记录将在下次重试: {}", batch.size(), e.getMessage());
+            return;
+        } finally {
+            sample.stop(flushTimer);
+        }
+        
+        for (Map.Entry<Long, LocalDateTime> entry : batch) {
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+        flushedCounter.increment(batch.size());
+    }
+}
@@ -0,0 +1,60 @@
+package com.psychegame.service.support;
+
+import com.psychegame.dto.RankEntry;
+import com.psychegame.entity.GameScore;
+import com.psychegame.enums.LeaderboardWindow;
+
+import java.util.List;
+
+/**
+ * 排行榜存储
+ * <p>
+ * 每个游戏一个排行榜，每个用户只保留最高分。同分时先取得该分数的用户排在前面（由实现尽量保证）。
+ * 返回的{@link RankEntry}只包含名次、用户ID、分数、时长和时间，用户名、头像由调用方补全。
+ * <p>
+ * 今日榜、本周榜由按小时分桶的最高分合并得到：提交只写当前小时桶，已结束的日期汇总为日桶，
+ * 今日榜合并当天的小时桶，本周榜再加上本周已结束的日桶。时间范围榜不包含时长和时间。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public interface LeaderboardStore {
+    
+    /**
+     * 提交一局成绩，仅当高于该用户的历史最高分时更新排行榜
+     *
+     * @param record 游戏成绩
+     * @return 提交后该用户的最高分及名次，排行榜不可用时返回null
+     */
+    RankEntry submit(GameScore record);
+    
+    /**
+     * 获取排行榜前N名
+     *
+     * @param gameCode 游戏编码
+     * @param window 时间范围
+     * @param limit 条数
+     * @return 按名次排列的条目，排行榜不可用时返回空列表
+     */
+    List<RankEntry> top(String gameCode, LeaderboardWindow window, int limit);
+    
+    /**
+     * 获取用户在排行榜中的最高分及名次
+     *
+     * @param gameCode 游戏编码
+     * @param window 时间范围
+     * @param userId 用户ID
+     * @return 排行榜条目，用户未上榜或排行榜不可用时返回null
+     */
+    RankEntry rankOf(String gameCode, LeaderboardWindow window, Long userId);
+    
+    /**
+     * 获取用户在总榜中名次前后的片段
+     *
+     * @param gameCode 游戏编码
+     * @param userId 用户ID
+     * @param radius 前后各取的条数
+     * @return 按名次排列的条目，包含该用户本身；用户未上榜或排行榜不可用时返回空列表
+     */
+    List<RankEntry> around(String gameCode, Long userId, int radius);
+}
@@ -0,0 +1,494 @@
+package com.psychegame.service.support;
+
+import com.psychegame.dto.RankEntry;
+import com.psychegame.entity.GameScore;
+import com.psychegame.entity.GameScoreDaily;
+import com.psychegame.enums.LeaderboardWindow;
+import com.psychegame.mapper.GameScoreDailyMapper;
+import com.psychegame.mapper.GameScoreMapper;
+import com.psychegame.util.OrderStatisticTree;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * 进程内排行榜，用于本地部署（local）
+ * <p>
+ * 本地部署为单机运行，通常没有Redis。每个游戏维护一棵顺序统计树，按（分数降序、取得时间升序、用户ID升序）排列，
+ * 每个用户只保留最高分；取名次、前N名和前后片段均为O(log n)，不访问网络和数据库。
+ * 启动完成后从成绩表和日汇总表重建，重建与提交按“保留更高分”合并，重建期间的提交不会丢失。
+ * <p>
+ * 今日榜、本周榜使用与Redis实现相同的小时桶、日桶结构，每小时清理一次：
+ * 已结束日期的小时桶汇总为日桶，本周以前的桶删除。当前的今日、本周另各维护一棵顺序统计树，
+ * 提交时与桶一起更新，进入新的一天或一周后首次读取时由桶重建，取名次和前N名同样为O(log n)。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+@Profile("local")
+public class LocalLeaderboardStore implements LeaderboardStore {
+    
+    /**
+     * 时间范围榜的排列顺序：分数高的在前，同分时按用户ID
+     */
+    private static final Comparator<Map.Entry<Long, Long>> WINDOW_ORDER = Comparator
+            .comparingLong((Map.Entry<Long, Long> entry) -> -entry.getValue())
+            .thenComparingLong(Map.Entry::getKey);
+    
+    /**
+     * 排列顺序：分数高的在前，同分时先取得的在前，再按用户ID
+     */
+    private static final Comparator<Best> ORDER = Comparator
+            .comparingLong((Best best) -> -best.score)
+            .thenComparingLong(best -> best.playedAtMillis)
+            .thenComparingLong(best -> best.userId);
+    
+    @Autowired
+    private GameScoreMapper gameScoreMapper;
+    
+    @Autowired
+    private GameScoreDailyMapper gameScoreDailyMapper;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    /**
+     * 各游戏的排行榜：游戏编码 -> 排行榜
+     */
+    private final Map<String, Board> boards = new ConcurrentHashMap<>();
+    
+    /**
+     * 应用启动完成后从成绩表重建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+    
+    /**
+     * 数据库被整体替换后丢弃原有排行榜并重建
+     */
+    @EventListener(DatabaseRestoredEvent.class)
+    public void onDatabaseRestored() {
+        boards.clear();
+        rebuild();
+    }
+    
+    /**
+     * 从成绩表和日汇总表重建排行榜
+     * <p>
+     * 先在内存中求出每个用户在每个游戏的最高分，再逐个合并到排行榜。
+     * 日汇总没有最高分的具体时间和时长，以当天零点作为取得时间。
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            Map<String, Map<Long, Best>> bestsByGame = new HashMap<>();
+            Map<String, List<GameScore>> recentByGame = new HashMap<>();
+            LocalDateTime weekStart = weekStart();
+            long count = transactionTemplate.execute(status -> {
+                long rows = 0;
+                try (Cursor<GameScore> cursor = gameScoreMapper.selectAllAsCursor();
+                     Cursor<GameScoreDaily> dailyCursor = gameScoreDailyMapper.selectAllAsCursor()) {
+                    for (GameScore record : cursor) {
+                        collect(record, weekStart, bestsByGame, recentByGame);
+                        rows++;
+                    }
+                    for (GameScoreDaily daily : dailyCursor) {
+                        GameScore record = new GameScore();
+                        record.setUserId(daily.getUserId());
+                        record.setGameCode(daily.getGameCode());
+                        record.setScore(daily.getBestScore());
+                        record.setPlayedAt(daily.getPlayDate().atStartOfDay());
+                        collect(record, weekStart, bestsByGame, recentByGame);
+                        rows += daily.getPlayCount();
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+                return rows;
+            });
+            
+            for (Map.Entry<String, Map<Long, Best>> entry : bestsByGame.entrySet()) {
+                Board board = board(entry.getKey());
+                board.lock.writeLock().lock();
+                try {
+                    for (Best best : entry.getValue().values()) {
+                        board.offer(best);
+                    }
+                    for (GameScore record : recentByGame.getOrDefault(entry.getKey(), Collections.emptyList())) {
+                        board.offerBucket(record);
+                    }
+                } finally {
+                    board.lock.writeLock().unlock();
+                }
+            }
+            sweep();
+            log.info("本地排行榜构建完成，{}条成绩，{}个游戏，耗时{}ms", count, bestsByGame.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("本地排行榜构建失败，仅包含启动后提交的成绩: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 将一条成绩计入各用户最高分及本周的成绩
+     */
+    private static void collect(GameScore record, LocalDateTime weekStart,
+                                Map<String, Map<Long, Best>> bestsByGame, Map<String, List<GameScore>> recentByGame) {
+        bestsByGame.computeIfAbsent(record.getGameCode(), gameCode -> new HashMap<>())
+                .merge(record.getUserId(), Best.of(record), (oldBest, newBest) -> ORDER.compare(newBest, oldBest) < 0 ? newBest : oldBest);
+        if (!record.getPlayedAt().isBefore(weekStart)) {
+            recentByGame.computeIfAbsent(record.getGameCode(), gameCode -> new ArrayList<>()).add(record);
+        }
+    }
+    
+    @Override
+    public RankEntry submit(GameScore record) {
+        Board board = board(record.getGameCode());
+        board.lock.writeLock().lock();
+        try {
+            Best best = board.offer(Best.of(record));
+            board.offerBucket(record);
+            return toEntry(best, board.tree.rank(best));
+        } finally {
+            board.lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public List<RankEntry> top(String gameCode, LeaderboardWindow window, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        Board board = board(gameCode);
+        if (window != LeaderboardWindow.ALL) {
+            return readWindow(board, window, view -> {
+                List<Map.Entry<Long, Long>> range = view.tree.range(0, limit);
+                List<RankEntry> entries = new ArrayList<>(range.size());
+                for (int i = 0; i < range.size(); i++) {
+                    entries.add(toWindowEntry(range.get(i), i));
+                }
+                return entries;
+            });
+        }
+        board.lock.readLock().lock();
+        try {
+            return toEntries(board.tree.range(0, limit), 0);
+        } finally {
+            board.lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public RankEntry rankOf(String gameCode, LeaderboardWindow window, Long userId) {
+        Board board = board(gameCode);
+        if (window != LeaderboardWindow.ALL) {
+            return readWindow(board, window, view -> {
+                Long score = view.scores.get(userId);
+                if (score == null) {
+                    return null;
+                }
+                Map.Entry<Long, Long> self = Map.entry(userId, score);
+                return toWindowEntry(self, view.tree.rank(self));
+            });
+        }
+        board.lock.readLock().lock();
+        try {
+            Best best = board.bests.get(userId);
+            return best == null ? null : toEntry(best, board.tree.rank(best));
+        } finally {
+            board.lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 读取今日榜或本周榜：视图为当前时间范围时只持有读锁，否则持有写锁由桶重建后读取
+     */
+    private static <R> R readWindow(Board board, LeaderboardWindow window, Function<WindowView, R> reader) {
+        board.lock.readLock().lock();
+        try {
+            WindowView view = board.currentView(window);
+            if (view != null) {
+                return reader.apply(view);
+            }
+        } finally {
+            board.lock.readLock().unlock();
+        }
+        board.lock.writeLock().lock();
+        try {
+            WindowView view = board.currentView(window);
+            return reader.apply(view != null ? view : board.rebuildView(window));
+        } finally {
+            board.lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * 每小时清理时间桶：已结束日期的小时桶汇总为日桶，本周以前的桶删除
+     */
+    @Scheduled(cron = "${game.leaderboard.sweep-cron:0 1 * * * *}")
+    public void sweep() {
+        LocalDateTime todayStart = LocalDate.now().atStartOfDay();
+        LocalDateTime weekStart = weekStart();
+        for (Board board : boards.values()) {
+            board.lock.writeLock().lock();
+            try {
+                Iterator<Map.Entry<LocalDateTime, Map<Long, Long>>> iterator = board.hours.headMap(todayStart).entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<LocalDateTime, Map<Long, Long>> hour = iterator.next();
+                    if (!hour.getKey().isBefore(weekStart)) {
+                        Map<Long, Long> day = board.days.computeIfAbsent(hour.getKey().toLocalDate(), date -> new HashMap<>());
+                        hour.getValue().forEach((userId, score) -> day.merge(userId, score, Math::max));
+                    }
+                    iterator.remove();
+                }
+                board.days.headMap(weekStart.toLocalDate()).clear();
+            } finally {
+                board.lock.writeLock().unlock();
+            }
+        }
+    }
+    
+    private static LocalDateTime weekStart() {
+        return LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+    }
+    
+    @Override
+    public List<RankEntry> around(String gameCode, Long userId, int radius) {
+        Board board = board(gameCode);
+        board.lock.readLock().lock();
+        try {
+            Best best = board.bests.get(userId);
+            if (best == null) {
+                return Collections.emptyList();
+            }
+            int from = Math.max(0, board.tree.rank(best) - radius);
+            int to = board.tree.rank(best) + radius + 1;
+            return toEntries(board.tree.range(from, to - from), from);
+        } finally {
+            board.lock.readLock().unlock();
+        }
+    }
+    
+    private Board board(String gameCode) {
+        return boards.computeIfAbsent(gameCode, code -> new Board());
+    }
+    
+    private static List<RankEntry> toEntries(List<Best> bests, int fromIndex) {
+        List<RankEntry> entries = new ArrayList<>(bests.size());
+        int index = fromIndex;
+        for (Best best : bests) {
+            entries.add(toEntry(best, index++));
+        }
+        return entries;
+    }
+    
+    private static RankEntry toEntry(Best best, int index) {
+        RankEntry entry = new RankEntry();
+        entry.setRank((long) index + 1);
+        entry.setUserId(best.userId);
+        entry.setScore(best.score);
+        entry.setDuration(best.duration);
+        entry.setPlayedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(best.playedAtMillis), ZoneId.systemDefault()));
+        return entry;
+    }
+    
+    private static RankEntry toWindowEntry(Map.Entry<Long, Long> entry, int index) {
+        RankEntry rankEntry = new RankEntry();
+        rankEntry.setRank((long) index + 1);
+        rankEntry.setUserId(entry.getKey());
+        rankEntry.setScore(entry.getValue());
+        return rankEntry;
+    }
+    
+    /**
+     * 单个游戏的排行榜，由读写锁保护
+     */
+    private static final class Board {
+        
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        
+        private final OrderStatisticTree<Best> tree = new OrderStatisticTree<>(ORDER);
+        
+        /**
+         * 用户ID -> 最高分
+         */
+        private final Map<Long, Best> bests = new HashMap<>();
+        
+        /**
+         * 小时桶：小时起始时间 -> (用户ID -> 该小时内最高分)
+         */
+        private final NavigableMap<LocalDateTime, Map<Long, Long>> hours = new TreeMap<>();
+        
+        /**
+         * 日桶：日期 -> (用户ID -> 当天最高分)，只包含已结束的日期
+         */
+        private final NavigableMap<LocalDate, Map<Long, Long>> days = new TreeMap<>();
+        
+        /**
+         * 今日榜、本周榜的排名视图，首次读取时创建
+         */
+        private final Map<LeaderboardWindow, WindowView> views = new EnumMap<>(LeaderboardWindow.class);
+        
+        /**
+         * 将成绩写入所在的小时桶及包含它的排名视图，需持有写锁
+         *
+         * @param record 游戏成绩
+         */
+        private void offerBucket(GameScore record) {
+            hours.computeIfAbsent(record.getPlayedAt().truncatedTo(ChronoUnit.HOURS), hour -> new HashMap<>())
+                    .merge(record.getUserId(), record.getScore(), Math::max);
+            for (WindowView view : views.values()) {
+                if (!record.getPlayedAt().toLocalDate().isBefore(view.from)) {
+                    view.offer(record.getUserId(), record.getScore());
+                }
+            }
+        }
+        
+        /**
+         * 获取当前时间范围的排名视图，需持有读锁
+         *
+         * @param window 今日或本周
+         * @return 排名视图，未创建或已进入新的时间范围时为null
+         */
+        private WindowView currentView(LeaderboardWindow window) {
+            WindowView view = views.get(window);
+            return view != null && view.from.equals(windowStart(window)) ? view : null;
+        }
+        
+        /**
+         * 合并时间范围内的桶，重建排名视图，需持有写锁
+         *
+         * @param window 今日或本周
+         * @return 排名视图
+         */
+        private WindowView rebuildView(LeaderboardWindow window) {
+            WindowView view = new WindowView(windowStart(window));
+            for (Map<Long, Long> bucket : days.tailMap(view.from, true).values()) {
+                bucket.forEach(view::offer);
+            }
+            for (Map<Long, Long> bucket : hours.tailMap(view.from.atStartOfDay(), true).values()) {
+                bucket.forEach(view::offer);
+            }
+            views.put(window, view);
+            return view;
+        }
+        
+        private static LocalDate windowStart(LeaderboardWindow window) {
+            LocalDate today = LocalDate.now();
+            return window == LeaderboardWindow.DAY ? today : today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+        
+        /**
+         * 合并一个成绩，排在原最高分之前时替换，需持有写锁
+         *
+         * @param candidate 成绩
+         * @return 合并后该用户的最高分
+         */
+        private Best offer(Best candidate) {
+            Best current = bests.get(candidate.userId);
+            if (current != null && ORDER.compare(candidate, current) >= 0) {
+                return current;
+            }
+            if (current != null) {
+                tree.remove(current);
+            }
+            tree.insert(candidate);
+            bests.put(candidate.userId, candidate);
+            return candidate;
+        }
+    }
+    
+    /**
+     * 今日榜或本周榜的排名视图：时间范围内各用户的最高分，按分数降序、用户ID升序排列
+     */
+    private static final class WindowView {
+        
+        /**
+         * 时间范围的起始日期
+         */
+        private final LocalDate from;
+        
+        /**
+         * 用户ID -> 时间范围内最高分
+         */
+        private final Map<Long, Long> scores = new HashMap<>();
+        
+        private final OrderStatisticTree<Map.Entry<Long, Long>> tree = new OrderStatisticTree<>(WINDOW_ORDER);
+        
+        private WindowView(LocalDate from) {
+            this.from = from;
+        }
+        
+        /**
+         * 合并一个成绩，高于原最高分时替换
+         */
+        private void offer(Long userId, Long score) {
+            Long current = scores.get(userId);
+            if (current != null && current >= score) {
+                return;
+            }
+            if (current != null) {
+                tree.remove(Map.entry(userId, current));
+            }
+            tree.insert(Map.entry(userId, score));
+            scores.put(userId, score);
+        }
+    }
+    
+    /**
+     * 用户在某个游戏的最高分
+     */
+    private static final class Best {
+        
+        private final long userId;
+        
+        private final long score;
+        
+        private final long playedAtMillis;
+        
+        private final Integer duration;
+        
+        private Best(long userId, long score, long playedAtMillis, Integer duration) {
+            this.userId = userId;
+            this.score = score;
+            this.playedAtMillis = playedAtMillis;
+            this.duration = duration;
+        }
+        
+        private static Best of(GameScore record) {
+            long playedAtMillis = record.getPlayedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            return new Best(record.getUserId(), record.getScore(), playedAtMillis, record.getDuration());
+        }
+    }
+}
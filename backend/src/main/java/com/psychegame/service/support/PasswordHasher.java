@@ -0,0 +1,78 @@
+package com.psychegame.service.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * 异步密码哈希
+ * <p>
+ * 所有BCrypt计算提交到密码哈希线程池执行；线程池饱和时立即抛出
+ * {@link RejectedExecutionException}，由调用方返回503。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Component
+public class PasswordHasher {
+    
+    @Autowired
+    private BCryptPasswordEncoder passwordEncoder;
+    
+    @Autowired
+    @Qualifier("passwordHashExecutor")
+    private ThreadPoolExecutor passwordHashExecutor;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Counter rejectedCounter;
+    
+    @PostConstruct
+    public void init() {
+        rejectedCounter = Counter.builder("password.hash.rejected")
+                .description("因线程池饱和被拒绝的密码哈希任务数")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 异步加密密码
+     *
+     * @param rawPassword 原始密码
+     * @return 加密后的密码
+     * @throws RejectedExecutionException 线程池已饱和
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+    
+    /**
+     * 异步验证密码
+     *
+     * @param rawPassword 原始密码
+     * @param encodedPassword 加密后的密码
+     * @return 验证结果
+     * @throws RejectedExecutionException 线程池已饱和
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+    
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, passwordHashExecutor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,431 @@
+package com.psychegame.service.support;
+
+import com.psychegame.dto.ActiveUserStats;
+import com.psychegame.enums.GameType;
+import com.psychegame.util.HyperLogLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.zset.DefaultTuple;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 在线状态与活跃用户统计
+ * <p>
+ * 心跳和WebSocket连接只写本节点内存：按用户ID分片的最后活跃时间表，以及各游戏当日的活跃用户集合。
+ * 定时任务批量合并到Redis：最后活跃时间写入有序集合 presence:online 并清除超时成员，
+ * 在线人数为集合大小，多节点共享；活跃用户以 PFADD 写入按日、按月的HyperLogLog，
+ * 无论用户多少每个键最多占用12KB，PFCOUNT为常数时间。
+ * <p>
+ * 本节点同时维护相同精度的内存HyperLogLog，Redis不可用（含本地部署）时退化为本节点的统计；
+ * Redis暂时不可用期间未写入的活跃用户保留到恢复后补写，超出上限的不再补写；
+ * 启动以来从未连接上Redis（未启用或本地部署未启动Redis）时不保留，只做本节点统计。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class PresenceTracker {
+    
+    /**
+     * 全站活跃用户使用的游戏编码
+     */
+    public static final String ALL_GAMES = "all";
+    
+    private static final String ONLINE_KEY = "presence:online";
+    
+    private static final String ACTIVE_KEY_PREFIX = "active:";
+    
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    
+    /**
+     * 本地HyperLogLog精度，与Redis相同
+     */
+    private static final int PRECISION = 14;
+    
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    
+    @Autowired
+    private RedisHealthMonitor redisHealthMonitor;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${presence.shards:16}")
+    private int shardCount;
+    
+    @Value("${presence.online-window:90s}")
+    private Duration onlineWindow;
+    
+    @Value("${presence.active.day-ttl:40d}")
+    private Duration dayTtl;
+    
+    @Value("${presence.active.month-ttl:400d}")
+    private Duration monthTtl;
+    
+    @Value("${presence.active.local-days:35}")
+    private int localDays;
+    
+    @Value("${presence.active.max-pending:100000}")
+    private int maxPending;
+    
+    /**
+     * 按用户ID分片的最后活跃时间：用户ID -> 毫秒时间戳
+     */
+    private Map<Long, Long>[] shards;
+    
+    /**
+     * 用户当前打开的WebSocket连接数，有连接的用户始终在线
+     */
+    private final Map<Long, Integer> sessions = new ConcurrentHashMap<>();
+    
+    /**
+     * 待写入Redis的活跃用户："游戏编码:d:日期" -> 用户ID，集合只在compute中修改
+     */
+    private final Map<String, Set<Long>> pendingActive = new ConcurrentHashMap<>();
+    
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    
+    /**
+     * 本节点的活跃用户估计："游戏编码:d:日期"、"游戏编码:m:月份" -> HyperLogLog
+     */
+    private final Map<String, HyperLogLog> localActive = new ConcurrentHashMap<>();
+    
+    /**
+     * 上次成功写入Redis的时间，此后活跃的用户在下次合并时写入
+     */
+    private long syncedAt;
+    
+    private volatile long nodeOnline;
+    
+    /**
+     * 最近一次从Redis读取的在线人数，未读取或Redis不可用时为-1
+     */
+    private volatile long clusterOnline = -1;
+    
+    private Timer flushTimer;
+    
+    private Counter droppedCounter;
+    
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void init() {
+        shards = new Map[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+        Gauge.builder("presence.online", this, PresenceTracker::getOnlineCount)
+                .description("在线人数")
+                .register(meterRegistry);
+        Gauge.builder("presence.online.node", this, PresenceTracker::getNodeOnlineCount)
+                .description("本节点在线人数")
+                .register(meterRegistry);
+        Gauge.builder("presence.active.pending", pendingCount, AtomicInteger::get)
+                .description("待写入Redis的活跃用户数")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("presence.flush")
+                .description("在线状态合并到Redis耗时")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("presence.active.dropped")
+                .description("待写入数超出上限未写入Redis的活跃用户数")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 记录心跳，同时计入全站活跃用户
+     *
+     * @param userId 用户ID
+     */
+    public void heartbeat(Long userId) {
+        shard(userId).put(userId, System.currentTimeMillis());
+        recordActive(ALL_GAMES, userId);
+    }
+    
+    /**
+     * 记录WebSocket连接建立，连接期间用户始终在线
+     *
+     * @param userId 用户ID
+     */
+    public void connect(Long userId) {
+        sessions.merge(userId, 1, Integer::sum);
+        heartbeat(userId);
+    }
+    
+    /**
+     * 记录WebSocket连接关闭，最后一个连接关闭后按心跳超时判断是否在线
+     *
+     * @param userId 用户ID
+     */
+    public void disconnect(Long userId) {
+        sessions.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+        shard(userId).put(userId, System.currentTimeMillis());
+    }
+    
+    /**
+     * 记录用户当日玩过某个游戏
+     *
+     * @param gameCode 游戏编码，全站为{@link #ALL_GAMES}
+     * @param userId 用户ID
+     */
+    public void recordActive(String gameCode, Long userId) {
+        LocalDate today = LocalDate.now();
+        String dayKey = dayKey(gameCode, today);
+        localActive.computeIfAbsent(dayKey, key -> new HyperLogLog(PRECISION)).add(userId);
+        localActive.computeIfAbsent(monthKey(gameCode, today), key -> new HyperLogLog(PRECISION)).add(userId);
+        if (!redisHealthMonitor.hasBeenAvailable()) {
+            // 没有可写入的Redis，不积压待写入的活跃用户
+            return;
+        }
+        if (pendingCount.get() >= maxPending) {
+            droppedCounter.increment();
+            return;
+        }
+        pendingActive.compute(dayKey, (key, userIds) -> {
+            Set<Long> set = userIds != null ? userIds : new HashSet<>();
+            if (set.add(userId)) {
+                pendingCount.incrementAndGet();
+            }
+            return set;
+        });
+    }
+    
+    /**
+     * 在线人数，Redis不可用时为本节点在线人数
+     *
+     * @return 在线人数
+     */
+    public long getOnlineCount() {
+        long online = clusterOnline;
+        return online >= 0 && redisHealthMonitor.isAvailable() ? online : nodeOnline;
+    }
+    
+    /**
+     * 本节点在线人数，每次合并时更新
+     *
+     * @return 本节点在线人数
+     */
+    public long getNodeOnlineCount() {
+        return nodeOnline;
+    }
+    
+    /**
+     * 统计全站及各游戏在指定日期、所在月份的活跃用户数
+     * <p>
+     * Redis可用时为所有节点的合计（不含各节点尚未合并的部分），否则为本节点的统计。
+     *
+     * @param date 日期
+     * @return 全站在前，其后按游戏排列
+     */
+    public List<ActiveUserStats> countActive(LocalDate date) {
+        List<String> gameCodes = new ArrayList<>();
+        gameCodes.add(ALL_GAMES);
+        for (GameType gameType : GameType.values()) {
+            gameCodes.add(gameType.getCode());
+        }
+        
+        List<Object> counts = null;
+        if (redisHealthMonitor.isAvailable()) {
+            try {
+                counts = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (String gameCode : gameCodes) {
+                        connection.hyperLogLogCommands().pfCount(bytes(ACTIVE_KEY_PREFIX + dayKey(gameCode, date)));
+                        connection.hyperLogLogCommands().pfCount(bytes(ACTIVE_KEY_PREFIX + monthKey(gameCode, date)));
+                    }
+                    return null;
+                });
+            } catch (Exception e) {
+                redisHealthMonitor.markUnavailable(e);
+            }
+        }
+        
+        List<ActiveUserStats> stats = new ArrayList<>(gameCodes.size());
+        for (int i = 0; i < gameCodes.size(); i++) {
+            String gameCode = gameCodes.get(i);
+            if (counts != null) {
+                stats.add(new ActiveUserStats(gameCode, (Long) counts.get(2 * i), (Long) counts.get(2 * i + 1)));
+            } else {
+                stats.add(new ActiveUserStats(gameCode, countLocal(dayKey(gameCode, date)),
+                        countLocal(monthKey(gameCode, date))));
+            }
+        }
+        return stats;
+    }
+    
+    /**
+     * 定时清理超时的在线记录并合并到Redis
+     */
+    @Scheduled(fixedDelayString = "${presence.flush-interval:5000}")
+    public synchronized void flush() {
+        long now = System.currentTimeMillis();
+        long cutoff = now - onlineWindow.toMillis();
+        // 有连接的用户每三分之一个超时周期刷新一次，避免每次合并都重写所有连接用户
+        long refreshBefore = now - onlineWindow.toMillis() / 3;
+        for (Long userId : sessions.keySet()) {
+            Map<Long, Long> shard = shard(userId);
+            Long lastSeen = shard.get(userId);
+            if (lastSeen == null || lastSeen < refreshBefore) {
+                shard.put(userId, now);
+            }
+        }
+        
+        long online = 0;
+        Map<Long, Long> changed = new HashMap<>();
+        for (Map<Long, Long> shard : shards) {
+            for (Map.Entry<Long, Long> entry : shard.entrySet()) {
+                long lastSeen = entry.getValue();
+                if (lastSeen < cutoff) {
+                    shard.remove(entry.getKey(), lastSeen);
+                } else {
+                    online++;
+                    if (lastSeen >= syncedAt) {
+                        changed.put(entry.getKey(), lastSeen);
+                    }
+                }
+            }
+        }
+        nodeOnline = online;
+        sweepLocalActive(LocalDate.now());
+        
+        if (!redisHealthMonitor.isAvailable()) {
+            clusterOnline = -1;
+            return;
+        }
+        Map<String, Set<Long>> active = drainPendingActive();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                writeOnline(connection, changed, cutoff);
+                for (Map.Entry<String, Set<Long>> entry : active.entrySet()) {
+                    writeActive(connection, entry.getKey(), entry.getValue());
+                }
+                return null;
+            });
+            Long count = stringRedisTemplate.opsForZSet().count(ONLINE_KEY, cutoff, Double.POSITIVE_INFINITY);
+            clusterOnline = count != null ? count : -1;
+            syncedAt = now;
+        } catch (Exception e) {
+            log.warn("在线状态合并到Redis失败，{}个键的活跃用户将在下次重试: {}", active.size(), e.getMessage());
+            redisHealthMonitor.markUnavailable(e);
+            clusterOnline = -1;
+            restorePendingActive(active);
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+    
+    private void writeOnline(RedisConnection connection, Map<Long, Long> changed, long cutoff) {
+        byte[] key = bytes(ONLINE_KEY);
+        if (!changed.isEmpty()) {
+            Set<Tuple> tuples = new HashSet<>(changed.size() * 2);
+            for (Map.Entry<Long, Long> entry : changed.entrySet()) {
+                tuples.add(new DefaultTuple(bytes(String.valueOf(entry.getKey())), (double) entry.getValue()));
+            }
+            connection.zSetCommands().zAdd(key, tuples);
+        }
+        connection.zSetCommands().zRemRangeByScore(key, Double.NEGATIVE_INFINITY, cutoff - 1);
+    }
+    
+    private void writeActive(RedisConnection connection, String dayKey, Set<Long> userIds) {
+        byte[][] values = new byte[userIds.size()][];
+        int i = 0;
+        for (Long userId : userIds) {
+            values[i++] = bytes(String.valueOf(userId));
+        }
+        byte[] day = bytes(ACTIVE_KEY_PREFIX + dayKey);
+        byte[] month = bytes(ACTIVE_KEY_PREFIX + toMonthKey(dayKey));
+        connection.hyperLogLogCommands().pfAdd(day, values);
+        connection.keyCommands().pExpire(day, dayTtl.toMillis());
+        connection.hyperLogLogCommands().pfAdd(month, values);
+        connection.keyCommands().pExpire(month, monthTtl.toMillis());
+    }
+    
+    private Map<String, Set<Long>> drainPendingActive() {
+        Map<String, Set<Long>> drained = new HashMap<>();
+        for (String key : pendingActive.keySet()) {
+            Set<Long> userIds = pendingActive.remove(key);
+            if (userIds != null) {
+                pendingCount.addAndGet(-userIds.size());
+                drained.put(key, userIds);
+            }
+        }
+        return drained;
+    }
+    
+    private void restorePendingActive(Map<String, Set<Long>> active) {
+        for (Map.Entry<String, Set<Long>> entry : active.entrySet()) {
+            pendingActive.compute(entry.getKey(), (key, userIds) -> {
+                Set<Long> set = userIds != null ? userIds : new HashSet<>();
+                int before = set.size();
+                set.addAll(entry.getValue());
+                pendingCount.addAndGet(set.size() - before);
+                return set;
+            });
+        }
+    }
+    
+    /**
+     * 清除超出保留天数的本地估计器，月份保留到所在月的最后一天超出保留天数
+     */
+    private void sweepLocalActive(LocalDate today) {
+        String oldestDay = today.minusDays(localDays).format(DAY_FORMAT);
+        String oldestMonth = oldestDay.substring(0, 6);
+        localActive.keySet().removeIf(key -> {
+            String period = key.substring(key.lastIndexOf(':') + 1);
+            return period.compareTo(period.length() == 8 ? oldestDay : oldestMonth) < 0;
+        });
+    }
+    
+    private long countLocal(String key) {
+        HyperLogLog sketch = localActive.get(key);
+        return sketch != null ? sketch.count() : 0;
+    }
+    
+    private Map<Long, Long> shard(Long userId) {
+        return shards[Math.floorMod(Long.hashCode(userId * 0x9E3779B97F4A7C15L), shards.length)];
+    }
+    
+    private static String dayKey(String gameCode, LocalDate date) {
+        return gameCode + ":d:" + date.format(DAY_FORMAT);
+    }
+    
+    private static String monthKey(String gameCode, LocalDate date) {
+        return toMonthKey(dayKey(gameCode, date));
+    }
+    
+    /**
+     * "游戏编码:d:yyyyMMdd" 转为 "游戏编码:m:yyyyMM"
+     */
+    private static String toMonthKey(String dayKey) {
+        int split = dayKey.lastIndexOf(":d:");
+        return dayKey.substring(0, split) + ":m:" + dayKey.substring(split + 3, split + 9);
+    }
+    
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,713 @@
+package com.psychegame.service.support;
+
+import com.psychegame.enums.ReactionType;
+import com.psychegame.mapper.ArticleMapper;
+import com.psychegame.mapper.CommentMapper;
+import com.psychegame.mapper.ForumReactionMapper;
+import com.psychegame.util.SortedLongSet;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 论坛浏览、点赞、收藏计数器（文章的浏览、点赞、收藏，评论的点赞）
+ * <p>
+ * 计数不直接更新数据库中的计数列（热门文章的同一行会成为锁竞争热点），而是先累加增量：
+ * Redis可用时以 HINCRBY 累加到共享的待写入哈希表，否则累加到本节点的分段计数器（LongAdder）。
+ * 每个用户的点赞、收藏状态保存在每个对象一个的集合中：Redis中为整数集合（成员为用户ID，元素少时为紧凑的intset编码），
+ * 本节点为有序long数组；集合不存在时由数据库记录加上尚未写入的变更重建。状态变化时才累加计数，重复点赞不会重复计数。
+ * <p>
+ * 定时任务将各对象的增量合并为一条UPDATE、点赞收藏变更写入记录表，批量写入数据库后再从待写入数据中扣除。
+ * 多节点时由Redis锁保证同一时间只有一个节点写入共享的增量。读取计数时用数据库中的值加上待写入的增量，
+ * 用户的点赞立即可见；写入数据库后、扣除增量前的短暂时间内读到的计数会偏大。
+ * 本节点的增量和集合在写入数据库后即移除，内存占用只与两次写入之间被访问的对象数有关。
+ * 对象删除前尚未写入的点赞、收藏在写入时由SQL跳过，不会留下孤立的记录。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class ReactionCounter {
+    
+    /**
+     * 对象类型：文章
+     */
+    public static final String ARTICLE = "article";
+    
+    /**
+     * 对象类型：评论
+     */
+    public static final String COMMENT = "comment";
+    
+    /**
+     * 计数：浏览
+     */
+    public static final String VIEW = "view";
+    
+    /**
+     * 每个对象的计数，点赞、收藏计数与互动类型编码相同
+     */
+    public static final List<String> COUNTERS = List.of(VIEW, ReactionType.LIKE.getCode(), ReactionType.COLLECT.getCode());
+    
+    /**
+     * 键使用相同的哈希标签，集群模式下脚本访问的键在同一节点
+     */
+    private static final String KEY_PREFIX = "forum:{reaction}:";
+    
+    private static final String COUNTERS_KEY = KEY_PREFIX + "counters";
+    
+    private static final String OPS_KEY = KEY_PREFIX + "ops";
+    
+    private static final String LOCK_KEY = KEY_PREFIX + "flush-lock";
+    
+    /**
+     * 集合已加载标记，用户ID从1开始，0不会与用户冲突且保持intset编码
+     */
+    private static final String LOADED_MARKER = "0";
+    
+    /**
+     * 集合已加载时修改状态，状态变化时累加计数并记录变更；集合未加载返回-1
+     */
+    private static final RedisScript<Long> SET_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end "
+                    + "local changed "
+                    + "if ARGV[2] == '1' then changed = redis.call('SADD', KEYS[1], ARGV[1]) "
+                    + "else changed = redis.call('SREM', KEYS[1], ARGV[1]) end "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[5]) "
+                    + "if changed == 1 then "
+                    + "  redis.call('HINCRBY', KEYS[2], ARGV[3], ARGV[2] == '1' and 1 or -1) "
+                    + "  redis.call('HSET', KEYS[3], ARGV[4], ARGV[2]) "
+                    + "end "
+                    + "return changed",
+            Long.class);
+    
+    /**
+     * 集合已加载时返回是否包含成员，未加载返回-1
+     */
+    private static final RedisScript<Long> CONTAINS_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end "
+                    + "return redis.call('SISMEMBER', KEYS[1], ARGV[1])",
+            Long.class);
+    
+    /**
+     * 集合不存在时写入成员（含已加载标记），分批SADD避免参数过多
+     */
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end "
+                    + "for i = 2, #ARGV, 1000 do "
+                    + "  redis.call('SADD', KEYS[1], unpack(ARGV, i, math.min(i + 999, #ARGV))) "
+                    + "end "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[1]) "
+                    + "return 1",
+            Long.class);
+    
+    /**
+     * 写入数据库后扣除已写入的增量，删除未被再次修改的变更。
+     * ARGV[1]为增量个数n，其后n对（字段, 增量），再其后为（变更字段, 值）
+     */
+    private static final RedisScript<Long> SETTLE_SCRIPT = new DefaultRedisScript<>(
+            "local i = 2 "
+                    + "for k = 1, tonumber(ARGV[1]) do "
+                    + "  if redis.call('HINCRBY', KEYS[1], ARGV[i], -tonumber(ARGV[i + 1])) == 0 then "
+                    + "    redis.call('HDEL', KEYS[1], ARGV[i]) "
+                    + "  end "
+                    + "  i = i + 2 "
+                    + "end "
+                    + "while i <= #ARGV do "
+                    + "  if redis.call('HGET', KEYS[2], ARGV[i]) == ARGV[i + 1] then redis.call('HDEL', KEYS[2], ARGV[i]) end "
+                    + "  i = i + 2 "
+                    + "end "
+                    + "return 1",
+            Long.class);
+    
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+    
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    
+    @Autowired
+    private RedisHealthMonitor redisHealthMonitor;
+    
+    @Autowired
+    private ForumReactionMapper forumReactionMapper;
+    
+    @Autowired
+    @Qualifier("batchSqlSessionTemplate")
+    private SqlSessionTemplate batchSqlSessionTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${forum.counter.set-ttl:7d}")
+    private Duration setTtl;
+    
+    @Value("${forum.counter.lock-ttl:30s}")
+    private Duration lockTtl;
+    
+    /**
+     * 本节点持有写入锁时的锁值
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+    
+    /**
+     * Redis不可用时的点赞、收藏状态：集合键 -> 用户ID
+     */
+    private final Map<String, SortedLongSet> localSets = new ConcurrentHashMap<>();
+    
+    /**
+     * Redis不可用时的计数增量："对象类型:对象ID:计数" -> 计数器
+     */
+    private final Map<String, Pending> localCounters = new ConcurrentHashMap<>();
+    
+    /**
+     * Redis不可用时的点赞、收藏变更："类型:对象类型:对象ID:用户ID" -> 最新状态
+     */
+    private final Map<String, Boolean> localOps = new ConcurrentHashMap<>();
+    
+    /**
+     * Redis不可用期间本节点修改过的集合键，Redis中的这些集合已过时，Redis恢复且变更写入数据库后删除
+     */
+    private final Set<String> staleRedisSets = ConcurrentHashMap.newKeySet();
+    
+    private Timer flushTimer;
+    
+    private Counter failedCounter;
+    
+    @PostConstruct
+    public void init() {
+        Gauge.builder("forum.counter.local.pending", localOps, Map::size)
+                .description("本节点待写入的点赞、收藏变更数")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("forum.counter.flush")
+                .description("论坛计数批量写入耗时")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("forum.counter.flush.failed")
+                .description("论坛计数批量写入失败次数")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 计数加一（用于浏览数）
+     *
+     * @param targetType 对象类型
+     * @param targetId 对象ID
+     * @param counter 计数名
+     */
+    public void increment(String targetType, Long targetId, String counter) {
+        String field = counterField(targetType, targetId, counter);
+        if (redisHealthMonitor.isAvailable()) {
+            try {
+                stringRedisTemplate.opsForHash().increment(COUNTERS_KEY, field, 1);
+                return;
+            } catch (Exception e) {
+                redisHealthMonitor.markUnavailable(e);
+            }
+        }
+        addLocal(field, 1);
+    }
+    
+    /**
+     * 设置用户的点赞或收藏状态，状态变化时累加对应计数
+     *
+     * @param kind 互动类型
+     * @param targetType 对象类型
+     * @param targetId 对象ID
+     * @param userId 用户ID
+     * @param active true为点赞/收藏，false为取消
+     * @return 状态是否变化
+     */
+    public boolean set(ReactionType kind, String targetType, Long targetId, Long userId, boolean active) {
+        String setKey = setKey(kind, targetType, targetId);
+        String counterField = counterField(targetType, targetId, kind.getCode());
+        String opField = opPrefix(kind, targetType, targetId) + userId;
+        if (redisHealthMonitor.isAvailable()) {
+            try {
+                List<String> keys = List.of(setKey, COUNTERS_KEY, OPS_KEY);
+                Object[] args = {String.valueOf(userId), active ? "1" : "0", counterField, opField,
+                        String.valueOf(setTtl.toMillis())};
+                Long result = stringRedisTemplate.execute(SET_SCRIPT, keys, args);
+                if (result != null && result < 0) {
+                    loadRedisSet(kind, targetType, targetId, setKey);
+                    result = stringRedisTemplate.execute(SET_SCRIPT, keys, args);
+                }
+                return result != null && result == 1;
+            } catch (Exception e) {
+                redisHealthMonitor.markUnavailable(e);
+            }
+        }
+        
+        while (true) {
+            SortedLongSet set = localSet(kind, targetType, targetId, setKey);
+            synchronized (set) {
+                if (localSets.get(setKey) != set) {
+                    // 集合已在写入后移除，重新获取
+                    continue;
+                }
+                boolean changed = active ? set.add(userId) : set.remove(userId);
+                if (changed) {
+                    addLocal(counterField, active ? 1 : -1);
+                    localOps.put(opField, active);
+                    staleRedisSets.add(setKey);
+                }
+                return changed;
+            }
+        }
+    }
+    
+    /**
+     * 用户是否已点赞或收藏
+     *
+     * @param kind 互动类型
+     * @param targetType 对象类型
+     * @param targetId 对象ID
+     * @param userId 用户ID
+     * @return 是否已点赞或收藏
+     */
+    public boolean contains(ReactionType kind, String targetType, Long targetId, Long userId) {
+        String setKey = setKey(kind, targetType, targetId);
+        if (redisHealthMonitor.isAvailable()) {
+            try {
+                List<String> keys = Collections.singletonList(setKey);
+                Long result = stringRedisTemplate.execute(CONTAINS_SCRIPT, keys, String.valueOf(userId));
+                if (result != null && result < 0) {
+                    loadRedisSet(kind, targetType, targetId, setKey);
+                    result = stringRedisTemplate.execute(CONTAINS_SCRIPT, keys, String.valueOf(userId));
+                }
+                return result != null && result == 1;
+            } catch (Exception e) {
+                redisHealthMonitor.markUnavailable(e);
+            }
+        }
+        SortedLongSet set = localSet(kind, targetType, targetId, setKey);
+        synchronized (set) {
+            // 集合可能刚在写入后移除，其中的状态仍是移除时的最新状态
+            return set.contains(userId);
+        }
+    }
+    
+    /**
+     * 获取尚未写入数据库的计数增量
+     *
+     * @param targetType 对象类型
+     * @param targetIds 对象ID
+     * @return 对象ID -> (计数名 -> 增量)，只包含有增量的对象和计数
+     */
+    public Map<Long, Map<String, Long>> pending(String targetType, Collection<Long> targetIds) {
+        Map<Long, Map<String, Long>> result = new HashMap<>();
+        if (targetIds.isEmpty()) {
+            return result;
+        }
+        List<Long> ids = new ArrayList<>(targetIds);
+        List<Object> fields = new ArrayList<>(ids.size() * COUNTERS.size());
+        for (Long id : ids) {
+            for (String counter : COUNTERS) {
+                String field = counterField(targetType, id, counter);
+                fields.add(field);
+                Pending pending = localCounters.get(field);
+                if (pending != null) {
+                    addPending(result, id, counter, pending.total.sum() - pending.flushed);
+                }
+            }
+        }
+        if (redisHealthMonitor.isAvailable()) {
+            try {
+                List<Object> values = stringRedisTemplate.opsForHash().multiGet(COUNTERS_KEY, fields);
+                for (int i = 0; i < values.size(); i++) {
+                    if (values.get(i) != null) {
+                        addPending(result, ids.get(i / COUNTERS.size()), COUNTERS.get(i % COUNTERS.size()),
+                                Long.parseLong(String.valueOf(values.get(i))));
+                    }
+                }
+            } catch (Exception e) {
+                redisHealthMonitor.markUnavailable(e);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 定时写入
+     */
+    @Scheduled(fixedDelayString = "${forum.counter.flush-interval:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+    
+    /**
+     * 应用关闭时写入剩余增量
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+    
+    /**
+     * 数据库被整体替换后丢弃本节点和Redis中的点赞、收藏集合，下次访问时由数据库重建
+     */
+    @EventListener(DatabaseRestoredEvent.class)
+    public synchronized void onDatabaseRestored() {
+        localSets.clear();
+        if (!redisHealthMonitor.isAvailable()) {
+            return;
+        }
+        try {
+            for (ReactionType kind : ReactionType.values()) {
+                ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + kind.getCode() + ":*").count(1000).build();
+                List<String> setKeys = new ArrayList<>();
+                try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+                    cursor.forEachRemaining(setKeys::add);
+                }
+                if (!setKeys.isEmpty()) {
+                    stringRedisTemplate.delete(setKeys);
+                }
+            }
+        } catch (Exception e) {
+            redisHealthMonitor.markUnavailable(e);
+        }
+    }
+    
+    /**
+     * 将本节点和Redis中的增量、变更合并后批量写入数据库，成功后再扣除
+     * <p>
+     * 写入失败时不扣除，下次一并写入。Redis中的数据只由持有锁的节点写入；
+     * 写入数据库后、扣除前节点宕机或锁过期时，这部分增量会被重复写入。
+     */
+    public synchronized void flush() {
+        Map<String, Long> localTotals = new HashMap<>();
+        Map<String, Long> deltas = new HashMap<>();
+        for (Map.Entry<String, Pending> entry : localCounters.entrySet()) {
+            long total = entry.getValue().total.sum();
+            long delta = total - entry.getValue().flushed;
+            if (delta != 0) {
+                localTotals.put(entry.getKey(), total);
+                deltas.merge(entry.getKey(), delta, Long::sum);
+            }
+        }
+        Map<String, Boolean> localOpSnapshot = new HashMap<>(localOps);
+        Map<String, Boolean> ops = new HashMap<>();
+        
+        boolean locked = false;
+        Map<Object, Object> redisCounters = Collections.emptyMap();
+        Map<Object, Object> redisOps = Collections.emptyMap();
+        if (redisHealthMonitor.isAvailable()) {
+            try {
+                locked = Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(LOCK_KEY, nodeId, lockTtl));
+                if (locked) {
+                    redisCounters = stringRedisTemplate.opsForHash().entries(COUNTERS_KEY);
+                    redisOps = stringRedisTemplate.opsForHash().entries(OPS_KEY);
+                }
+            } catch (Exception e) {
+                redisHealthMonitor.markUnavailable(e);
+            }
+        }
+        for (Map.Entry<Object, Object> entry : redisCounters.entrySet()) {
+            deltas.merge((String) entry.getKey(), Long.parseLong((String) entry.getValue()), Long::sum);
+        }
+        for (Map.Entry<Object, Object> entry : redisOps.entrySet()) {
+            ops.put((String) entry.getKey(), "1".equals(entry.getValue()));
+        }
+        ops.putAll(localOpSnapshot);
+        deltas.values().removeIf(delta -> delta == 0);
+        
+        if (deltas.isEmpty() && ops.isEmpty()) {
+            unlock(locked);
+            invalidateRedisSets();
+            return;
+        }
+        
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(deltas, ops));
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.warn("论坛计数批量写入失败，{}个计数、{}条点赞收藏变更将在下次重试: {}",
+                    deltas.size(), ops.size(), e.getMessage());
+            unlock(locked);
+            return;
+        } finally {
+            sample.stop(flushTimer);
+        }
+        
+        for (Map.Entry<String, Long> entry : localTotals.entrySet()) {
+            localCounters.get(entry.getKey()).flushed = entry.getValue();
+        }
+        for (Map.Entry<String, Boolean> entry : localOpSnapshot.entrySet()) {
+            localOps.remove(entry.getKey(), entry.getValue());
+        }
+        if (locked) {
+            settleRedis(redisCounters, redisOps);
+        }
+        unlock(locked);
+        invalidateRedisSets();
+        pruneLocal();
+    }
+    
+    /**
+     * 移除已全部写入数据库的本节点增量，以及没有待写入变更的集合，集合下次访问时由数据库记录和尚未写入的变更重建
+     */
+    private void pruneLocal() {
+        for (String field : localCounters.keySet()) {
+            localCounters.computeIfPresent(field,
+                    (key, pending) -> pending.total.sum() == pending.flushed ? null : pending);
+        }
+        Set<String> pendingSets = new HashSet<>();
+        for (String opField : localOps.keySet()) {
+            pendingSets.add(KEY_PREFIX + opField.substring(0, opField.lastIndexOf(':')));
+        }
+        for (Map.Entry<String, SortedLongSet> entry : localSets.entrySet()) {
+            if (!pendingSets.contains(entry.getKey())) {
+                // 持有集合的锁时移除，修改集合的线程发现集合已移除时重新获取
+                synchronized (entry.getValue()) {
+                    localSets.remove(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+    
+    /**
+     * 在事务中批量写入增量和变更
+     */
+    private void write(Map<String, Long> deltas, Map<String, Boolean> ops) {
+        // 同一对象的各项计数合并为一条UPDATE
+        Map<String, Map<String, Long>> byTarget = new HashMap<>();
+        for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+            int split = entry.getKey().lastIndexOf(':');
+            byTarget.computeIfAbsent(entry.getKey().substring(0, split), key -> new HashMap<>())
+                    .put(entry.getKey().substring(split + 1), entry.getValue());
+        }
+        ArticleMapper articleMapper = batchSqlSessionTemplate.getMapper(ArticleMapper.class);
+        CommentMapper commentMapper = batchSqlSessionTemplate.getMapper(CommentMapper.class);
+        for (Map.Entry<String, Map<String, Long>> entry : byTarget.entrySet()) {
+            int split = entry.getKey().indexOf(':');
+            String targetType = entry.getKey().substring(0, split);
+            Long targetId = Long.parseLong(entry.getKey().substring(split + 1));
+            Map<String, Long> counters = entry.getValue();
+            if (ARTICLE.equals(targetType)) {
+                articleMapper.incrementCounters(targetId,
+                        counters.getOrDefault(VIEW, 0L),
+                        counters.getOrDefault(ReactionType.LIKE.getCode(), 0L),
+                        counters.getOrDefault(ReactionType.COLLECT.getCode(), 0L));
+            } else if (COMMENT.equals(targetType)) {
+                commentMapper.incrementLikeCount(targetId, counters.getOrDefault(ReactionType.LIKE.getCode(), 0L));
+            }
+        }
+        
+        ForumReactionMapper reactionMapper = batchSqlSessionTemplate.getMapper(ForumReactionMapper.class);
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, Boolean> entry : ops.entrySet()) {
+            String[] parts = entry.getKey().split(":");
+            Long targetId = Long.parseLong(parts[2]);
+            Long userId = Long.parseLong(parts[3]);
+            if (entry.getValue()) {
+                reactionMapper.insertIgnore(parts[0], parts[1], targetId, userId, now);
+            } else {
+                reactionMapper.delete(parts[0], parts[1], targetId, userId);
+            }
+        }
+        batchSqlSessionTemplate.flushStatements();
+    }
+    
+    /**
+     * 从Redis中扣除已写入的增量、删除已写入的变更
+     */
+    private void settleRedis(Map<Object, Object> redisCounters, Map<Object, Object> redisOps) {
+        if (redisCounters.isEmpty() && redisOps.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(1 + 2 * (redisCounters.size() + redisOps.size()));
+        args.add(String.valueOf(redisCounters.size()));
+        for (Map.Entry<Object, Object> entry : redisCounters.entrySet()) {
+            args.add((String) entry.getKey());
+            args.add((String) entry.getValue());
+        }
+        for (Map.Entry<Object, Object> entry : redisOps.entrySet()) {
+            args.add((String) entry.getKey());
+            args.add((String) entry.getValue());
+        }
+        try {
+            stringRedisTemplate.execute(SETTLE_SCRIPT, List.of(COUNTERS_KEY, OPS_KEY), args.toArray());
+        } catch (Exception e) {
+            // 已写入数据库的增量未扣除，下次会重复写入
+            log.error("论坛计数已写入数据库但从Redis扣除失败: {}", e.getMessage());
+            redisHealthMonitor.markUnavailable(e);
+        }
+    }
+    
+    /**
+     * Redis恢复且本节点的变更已写入数据库后，删除Redis中过时的集合（下次访问时由数据库重建），
+     * 并丢弃本节点的集合，下次Redis不可用时由数据库重建
+     */
+    private void invalidateRedisSets() {
+        if (!localOps.isEmpty() || !redisHealthMonitor.isAvailable()) {
+            return;
+        }
+        if (!staleRedisSets.isEmpty()) {
+            Set<String> setKeys = new HashSet<>(staleRedisSets);
+            try {
+                stringRedisTemplate.delete(setKeys);
+                staleRedisSets.removeAll(setKeys);
+            } catch (Exception e) {
+                redisHealthMonitor.markUnavailable(e);
+                return;
+            }
+        }
+        localSets.clear();
+    }
+    
+    private void unlock(boolean locked) {
+        if (!locked) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(LOCK_KEY), nodeId);
+        } catch (Exception e) {
+            redisHealthMonitor.markUnavailable(e);
+        }
+    }
+    
+    /**
+     * 由数据库记录和尚未写入的变更重建Redis中的集合
+     */
+    private void loadRedisSet(ReactionType kind, String targetType, Long targetId, String setKey) {
+        Set<Long> userIds = new HashSet<>(forumReactionMapper.selectUserIds(kind.getCode(), targetType, targetId));
+        String prefix = opPrefix(kind, targetType, targetId);
+        ScanOptions options = ScanOptions.scanOptions().match(prefix + "*").count(1000).build();
+        try (Cursor<Map.Entry<Object, Object>> cursor = stringRedisTemplate.opsForHash().scan(OPS_KEY, options)) {
+            while (cursor.hasNext()) {
+                Map.Entry<Object, Object> entry = cursor.next();
+                Long userId = Long.parseLong(((String) entry.getKey()).substring(prefix.length()));
+                if ("1".equals(entry.getValue())) {
+                    userIds.add(userId);
+                } else {
+                    userIds.remove(userId);
+                }
+            }
+        }
+        
+        List<String> args = new ArrayList<>(userIds.size() + 2);
+        args.add(String.valueOf(setTtl.toMillis()));
+        args.add(LOADED_MARKER);
+        for (Long userId : userIds) {
+            args.add(String.valueOf(userId));
+        }
+        stringRedisTemplate.execute(LOAD_SCRIPT, Collections.singletonList(setKey), args.toArray());
+    }
+    
+    /**
+     * 获取本节点的集合，不存在时由数据库记录和本节点尚未写入的变更重建
+     */
+    private SortedLongSet localSet(ReactionType kind, String targetType, Long targetId, String setKey) {
+        SortedLongSet set = localSets.get(setKey);
+        if (set != null) {
+            return set;
+        }
+        // 查询前后各取一次变更：查询期间写入数据库并移除的变更由查询前的一次补上
+        String prefix = opPrefix(kind, targetType, targetId);
+        Map<Long, Boolean> ops = localOps(prefix);
+        List<Long> persisted = forumReactionMapper.selectUserIds(kind.getCode(), targetType, targetId);
+        ops.putAll(localOps(prefix));
+        long[] values = new long[persisted.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = persisted.get(i);
+        }
+        SortedLongSet loaded = new SortedLongSet(values);
+        for (Map.Entry<Long, Boolean> entry : ops.entrySet()) {
+            if (entry.getValue()) {
+                loaded.add(entry.getKey());
+            } else {
+                loaded.remove(entry.getKey());
+            }
+        }
+        set = localSets.putIfAbsent(setKey, loaded);
+        return set != null ? set : loaded;
+    }
+    
+    /**
+     * 本节点尚未写入的某个对象的变更：用户ID -> 最新状态
+     */
+    private Map<Long, Boolean> localOps(String prefix) {
+        Map<Long, Boolean> ops = new HashMap<>();
+        for (Map.Entry<String, Boolean> entry : localOps.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                ops.put(Long.parseLong(entry.getKey().substring(prefix.length())), entry.getValue());
+            }
+        }
+        return ops;
+    }
+    
+    /**
+     * 累加本节点的增量，与写入后的移除互斥，避免累加到已移除的计数器
+     */
+    private void addLocal(String field, long delta) {
+        localCounters.compute(field, (key, pending) -> {
+            Pending result = pending == null ? new Pending() : pending;
+            result.total.add(delta);
+            return result;
+        });
+    }
+    
+    private static void addPending(Map<Long, Map<String, Long>> result, Long id, String counter, long delta) {
+        if (delta != 0) {
+            result.computeIfAbsent(id, key -> new HashMap<>()).merge(counter, delta, Long::sum);
+        }
+    }
+    
+    private static String setKey(ReactionType kind, String targetType, Long targetId) {
+        return KEY_PREFIX + kind.getCode() + ":" + targetType + ":" + targetId;
+    }
+    
+    private static String opPrefix(ReactionType kind, String targetType, Long targetId) {
+        return kind.getCode() + ":" + targetType + ":" + targetId + ":";
+    }
+    
+    private static String counterField(String targetType, Long targetId, String counter) {
+        return targetType + ":" + targetId + ":" + counter;
+    }
+    
+    /**
+     * 本节点的计数增量：创建以来的累计值与已写入的累计值之差为待写入的增量
+     */
+    private static final class Pending {
+        
+        private final LongAdder total = new LongAdder();
+        
+        private volatile long flushed;
+    }
+}
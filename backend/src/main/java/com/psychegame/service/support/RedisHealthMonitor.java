@@ -0,0 +1,116 @@
+package com.psychegame.service.support;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Redis可用性监测
+ * <p>
+ * 后台定时PING Redis，业务代码在访问Redis前先检查{@link #isAvailable()}，
+ * Redis未启动（常见于本地部署）时直接走本地逻辑，不在请求线程上等待连接超时。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class RedisHealthMonitor {
+    
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${redis.monitor.enabled:true}")
+    private boolean enabled;
+    
+    private volatile boolean available;
+    
+    /**
+     * 启动以来是否连接成功过
+     */
+    private volatile boolean everAvailable;
+    
+    @PostConstruct
+    public void init() {
+        Gauge.builder("redis.available", this, monitor -> monitor.isAvailable() ? 1 : 0)
+                .description("Redis是否可用")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Redis当前是否可用
+     *
+     * @return 是否可用
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+    
+    /**
+     * 启动以来Redis是否可用过，未启用检测或从未连接成功（如本地部署未启动Redis）时为false
+     *
+     * @return 是否可用过
+     */
+    public boolean hasBeenAvailable() {
+        return everAvailable;
+    }
+    
+    /**
+     * 业务代码访问Redis失败时调用，在下次检测成功前不再访问Redis
+     *
+     * @param e 访问异常
+     */
+    public void markUnavailable(Exception e) {
+        if (available) {
+            log.warn("Redis访问失败，暂时切换为本地模式: {}", e.getMessage());
+        }
+        available = false;
+    }
+    
+    /**
+     * 定时检测Redis连接
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${redis.monitor.interval:5000}")
+    public void check() {
+        if (!enabled) {
+            available = false;
+            return;
+        }
+        boolean reachable;
+        try {
+            String pong = stringRedisTemplate.execute((RedisCallback<String>) RedisConnection::ping);
+            reachable = pong != null;
+        } catch (Exception e) {
+            reachable = false;
+        }
+        if (reachable != available) {
+            log.info("Redis状态变更: {}", reachable ? "可用" : "不可用");
+        }
+        if (reachable && !redisMessageListenerContainer.isRunning()) {
+            try {
+                redisMessageListenerContainer.start();
+            } catch (Exception e) {
+                log.warn("Redis消息订阅启动失败: {}", e.getMessage());
+            }
+        }
+        available = reachable;
+        if (reachable) {
+            everAvailable = true;
+        }
+    }
+}
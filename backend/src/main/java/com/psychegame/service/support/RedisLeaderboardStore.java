@@ -0,0 +1,519 @@
+package com.psychegame.service.support;
+
+import com.psychegame.dto.RankEntry;
+import com.psychegame.entity.GameScore;
+import com.psychegame.entity.GameScoreDaily;
+import com.psychegame.enums.LeaderboardWindow;
+import com.psychegame.mapper.GameScoreDailyMapper;
+import com.psychegame.mapper.GameScoreMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 基于Redis有序集合的排行榜
+ * <p>
+ * 每个游戏一个有序集合（成员为用户ID，分值为最高分），取名次和前N名均为O(log n)；
+ * 最高分对应的时长和时间存放在同一哈希标签下的哈希表中。比较和更新在Lua脚本中原子完成。
+ * 同分用户按Redis成员字典序逆序排列。本地部署（local）使用{@link LocalLeaderboardStore}。
+ * <p>
+ * 小时桶、日桶带过期时间，由Redis自动删除。今日榜、本周榜以 ZUNIONSTORE ... AGGREGATE MAX 合并到结果键，
+ * 结果键短时间缓存；已结束的日期在首次用到时由小时桶汇总为日桶。同一游戏的键使用相同的哈希标签，集群模式下可合并。
+ * <p>
+ * Redis不可用时提交的成绩只写入数据库。之后Redis可用时，先写入成绩缓冲中的记录，
+ * 再从成绩表和日汇总表重建排行榜：各用户最高分及仍在有效期内的小时桶按"更高才更新"合并，并删除可能不完整的日桶。
+ * 重建完成后写入标记键；定时检查发现标记键不存在（Redis数据丢失或从未重建）时同样重建，
+ * 排行榜完整时重启不会重建。多个节点同时需要重建时由锁键保证只有一个节点执行，其余节点稍后再检查。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+@Profile("!local")
+public class RedisLeaderboardStore implements LeaderboardStore {
+    
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHH");
+    
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    
+    /**
+     * 仅当新分数更高时更新最高分及其详情，同时更新当前小时桶，返回 [最高分, 名次(从0开始), 详情]
+     */
+    private static final RedisScript<List> SUBMIT_SCRIPT = new DefaultRedisScript<>(
+            "local cur = redis.call('ZSCORE', KEYS[1], ARGV[1]) "
+                    + "if (not cur) or tonumber(ARGV[2]) > tonumber(cur) then "
+                    + "  redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1]) "
+                    + "  redis.call('HSET', KEYS[2], ARGV[1], ARGV[3]) "
+                    + "  cur = ARGV[2] "
+                    + "end "
+                    + "local hour = redis.call('ZSCORE', KEYS[3], ARGV[1]) "
+                    + "if (not hour) or tonumber(ARGV[2]) > tonumber(hour) then "
+                    + "  redis.call('ZADD', KEYS[3], ARGV[2], ARGV[1]) "
+                    + "end "
+                    + "redis.call('PEXPIRE', KEYS[3], ARGV[4]) "
+                    + "local rank = redis.call('ZREVRANK', KEYS[1], ARGV[1]) "
+                    + "local detail = redis.call('HGET', KEYS[2], ARGV[1]) "
+                    + "return {tostring(cur), tostring(rank), detail or ''}",
+            List.class);
+    
+    /**
+     * 重建时批量合并：KEYS[1]为有序集合，KEYS[2]（可选）为详情哈希表；ARGV[1]为过期时间（毫秒，0表示不过期），
+     * 之后每三个参数为 成员、分数、详情，仅当分数更高时更新
+     */
+    private static final RedisScript<Long> MERGE_SCRIPT = new DefaultRedisScript<>(
+            "for i = 2, #ARGV, 3 do "
+                    + "  local cur = redis.call('ZSCORE', KEYS[1], ARGV[i]) "
+                    + "  if (not cur) or tonumber(ARGV[i + 1]) > tonumber(cur) then "
+                    + "    redis.call('ZADD', KEYS[1], ARGV[i + 1], ARGV[i]) "
+                    + "    if #KEYS > 1 then redis.call('HSET', KEYS[2], ARGV[i], ARGV[i + 2]) end "
+                    + "  end "
+                    + "end "
+                    + "if tonumber(ARGV[1]) > 0 then redis.call('PEXPIRE', KEYS[1], ARGV[1]) end "
+                    + "return 0",
+            Long.class);
+    
+    /**
+     * 重建时每次脚本调用合并的成员数
+     */
+    private static final int MERGE_BATCH = 500;
+    
+    /**
+     * 重建完成标记，不过期；不存在说明Redis中的排行榜不完整
+     */
+    private static final String BUILT_KEY = "leaderboard:built";
+    
+    /**
+     * 重建锁，过期时间足够一次重建完成，节点在重建中途退出时自动释放
+     */
+    private static final String REBUILD_LOCK_KEY = "leaderboard:rebuilding";
+    
+    private static final Duration REBUILD_LOCK_TTL = Duration.ofMinutes(10);
+    
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    
+    @Autowired
+    private GameScoreMapper gameScoreMapper;
+    
+    @Autowired
+    private GameScoreDailyMapper gameScoreDailyMapper;
+    
+    @Autowired
+    private GameScoreWriteBuffer gameScoreWriteBuffer;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private RedisHealthMonitor redisHealthMonitor;
+    
+    @Value("${game.leaderboard.bucket-ttl:8d}")
+    private Duration bucketTtl;
+    
+    @Value("${game.leaderboard.window-ttl:5s}")
+    private Duration windowTtl;
+    
+    /**
+     * 本节点是否有成绩未写入Redis，需要从数据库重建
+     */
+    private final AtomicBoolean stale = new AtomicBoolean(false);
+    
+    @Override
+    public RankEntry submit(GameScore record) {
+        if (!redisHealthMonitor.isAvailable()) {
+            stale.set(true);
+            return null;
+        }
+        String member = String.valueOf(record.getUserId());
+        try {
+            List<?> result = stringRedisTemplate.execute(SUBMIT_SCRIPT,
+                    List.of(rankingKey(record.getGameCode()), detailKey(record.getGameCode()),
+                            hourKey(record.getGameCode(), record.getPlayedAt())),
+                    member,
+                    String.valueOf(record.getScore()),
+                    encodeDetail(record.getDuration(), record.getPlayedAt()),
+                    String.valueOf(bucketTtl.toMillis()));
+            if (result == null || result.size() < 3) {
+                return null;
+            }
+            RankEntry entry = new RankEntry();
+            entry.setUserId(record.getUserId());
+            entry.setScore((long) Double.parseDouble(String.valueOf(result.get(0))));
+            entry.setRank(Long.parseLong(String.valueOf(result.get(1))) + 1);
+            decodeDetail(String.valueOf(result.get(2)), entry);
+            return entry;
+        } catch (Exception e) {
+            stale.set(true);
+            redisHealthMonitor.markUnavailable(e);
+            return null;
+        }
+    }
+    
+    /**
+     * 定时检查，Redis可用且本节点有成绩未写入Redis、或Redis中的排行榜不完整时从数据库重建
+     */
+    @Scheduled(initialDelayString = "${game.leaderboard.repair-interval:30000}",
+            fixedDelayString = "${game.leaderboard.repair-interval:30000}")
+    public synchronized void repair() {
+        if (!redisHealthMonitor.isAvailable()) {
+            return;
+        }
+        try {
+            if (!stale.get() && Boolean.TRUE.equals(stringRedisTemplate.hasKey(BUILT_KEY))) {
+                return;
+            }
+            if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                    .setIfAbsent(REBUILD_LOCK_KEY, "1", REBUILD_LOCK_TTL))) {
+                // 其他节点正在重建，完成后本节点仍有未写入的成绩时再重建一次
+                return;
+            }
+        } catch (Exception e) {
+            redisHealthMonitor.markUnavailable(e);
+            return;
+        }
+        // 先清除标记：重建期间再有提交失败会重新标记，下次再重建
+        stale.set(false);
+        try {
+            // 缓冲中的成绩写入数据库后，数据库才包含所有已接受的成绩
+            if (!gameScoreWriteBuffer.flush()) {
+                stale.set(true);
+                return;
+            }
+            rebuild();
+            stringRedisTemplate.opsForValue().set(BUILT_KEY, String.valueOf(System.currentTimeMillis()));
+        } catch (Exception e) {
+            stale.set(true);
+            log.warn("Redis排行榜重建失败，稍后重试: {}", e.getMessage());
+        } finally {
+            try {
+                stringRedisTemplate.delete(REBUILD_LOCK_KEY);
+            } catch (Exception e) {
+                log.debug("Redis排行榜重建锁释放失败，到期后自动释放: {}", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * 从成绩表和日汇总表重建排行榜
+     * <p>
+     * 在内存中求出每个用户在每个游戏的最高分（同分取较早的一局），以及有效期内每个小时桶中各用户的最高分，
+     * 按"更高才更新"合并到Redis，与重建期间的正常提交互不覆盖。日汇总没有具体时间和时长，以当天零点作为取得时间。
+     */
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        LocalDateTime bucketStart = LocalDateTime.now().minus(bucketTtl);
+        Map<String, Map<Long, GameScore>> bests = new HashMap<>();
+        Map<String, Map<Long, GameScore>> hours = new HashMap<>();
+        long count = transactionTemplate.execute(status -> {
+            long rows = 0;
+            try (Cursor<GameScore> cursor = gameScoreMapper.selectAllAsCursor();
+                 Cursor<GameScoreDaily> dailyCursor = gameScoreDailyMapper.selectAllAsCursor()) {
+                for (GameScore record : cursor) {
+                    collect(record, bests, rankingKey(record.getGameCode()));
+                    if (record.getPlayedAt().isAfter(bucketStart)) {
+                        collect(record, hours, hourKey(record.getGameCode(), record.getPlayedAt()));
+                    }
+                    rows++;
+                }
+                for (GameScoreDaily daily : dailyCursor) {
+                    GameScore record = new GameScore();
+                    record.setUserId(daily.getUserId());
+                    record.setGameCode(daily.getGameCode());
+                    record.setScore(daily.getBestScore());
+                    record.setPlayedAt(daily.getPlayDate().atStartOfDay());
+                    collect(record, bests, rankingKey(record.getGameCode()));
+                    rows += daily.getPlayCount();
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            return rows;
+        });
+        
+        for (Map.Entry<String, Map<Long, GameScore>> entry : bests.entrySet()) {
+            String gameCode = entry.getValue().values().iterator().next().getGameCode();
+            merge(List.of(entry.getKey(), detailKey(gameCode)), entry.getValue().values(), 0);
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Map<Long, GameScore>> entry : hours.entrySet()) {
+            GameScore any = entry.getValue().values().iterator().next();
+            long hourStart = any.getPlayedAt().withMinute(0).withSecond(0).withNano(0)
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            long ttl = hourStart + bucketTtl.toMillis() - now;
+            if (ttl > 0) {
+                merge(List.of(entry.getKey()), entry.getValue().values(), ttl);
+            }
+        }
+        
+        // 已汇总的日桶可能缺少Redis不可用期间的成绩，删除后在下次用到时由小时桶重新汇总
+        List<String> dayKeys = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (String gameCode : gameCodes(bests)) {
+            for (LocalDate day = bucketStart.toLocalDate(); day.isBefore(today); day = day.plusDays(1)) {
+                dayKeys.add("leaderboard:{" + gameCode + "}:d:" + day.format(DAY_FORMAT));
+            }
+        }
+        for (String key : dayKeys) {
+            stringRedisTemplate.delete(key);
+        }
+        log.info("Redis排行榜重建完成，{}条成绩，{}个游戏，耗时{}ms", count, bests.size(), System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * 将一条成绩计入分组中该用户的最高分，同分取较早的一局
+     */
+    private static void collect(GameScore record, Map<String, Map<Long, GameScore>> groups, String key) {
+        groups.computeIfAbsent(key, k -> new HashMap<>()).merge(record.getUserId(), record, (oldRecord, newRecord) ->
+                newRecord.getScore() > oldRecord.getScore()
+                        || (newRecord.getScore().equals(oldRecord.getScore()) && newRecord.getPlayedAt().isBefore(oldRecord.getPlayedAt()))
+                        ? newRecord : oldRecord);
+    }
+    
+    private static List<String> gameCodes(Map<String, Map<Long, GameScore>> bests) {
+        List<String> gameCodes = new ArrayList<>(bests.size());
+        for (Map<Long, GameScore> records : bests.values()) {
+            gameCodes.add(records.values().iterator().next().getGameCode());
+        }
+        return gameCodes;
+    }
+    
+    /**
+     * 分批执行合并脚本
+     */
+    private void merge(List<String> keys, Iterable<GameScore> records, long ttl) {
+        List<String> args = new ArrayList<>(MERGE_BATCH * 3 + 1);
+        args.add(String.valueOf(ttl));
+        for (GameScore record : records) {
+            args.add(String.valueOf(record.getUserId()));
+            args.add(String.valueOf(record.getScore()));
+            args.add(encodeDetail(record.getDuration(), record.getPlayedAt()));
+            if (args.size() > MERGE_BATCH * 3) {
+                stringRedisTemplate.execute(MERGE_SCRIPT, keys, args.toArray());
+                args.subList(1, args.size()).clear();
+            }
+        }
+        if (args.size() > 1) {
+            stringRedisTemplate.execute(MERGE_SCRIPT, keys, args.toArray());
+        }
+    }
+    
+    @Override
+    public List<RankEntry> top(String gameCode, LeaderboardWindow window, int limit) {
+        if (!redisHealthMonitor.isAvailable() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        try {
+            return range(gameCode, windowKey(gameCode, window), 0, limit - 1);
+        } catch (Exception e) {
+            redisHealthMonitor.markUnavailable(e);
+            return Collections.emptyList();
+        }
+    }
+    
+    @Override
+    public List<RankEntry> around(String gameCode, Long userId, int radius) {
+        if (!redisHealthMonitor.isAvailable()) {
+            return Collections.emptyList();
+        }
+        try {
+            String key = rankingKey(gameCode);
+            Long rank = stringRedisTemplate.opsForZSet().reverseRank(key, String.valueOf(userId));
+            if (rank == null) {
+                return Collections.emptyList();
+            }
+            return range(gameCode, key, Math.max(0, rank - radius), rank + radius);
+        } catch (Exception e) {
+            redisHealthMonitor.markUnavailable(e);
+            return Collections.emptyList();
+        }
+    }
+    
+    /**
+     * 按名次区间读取排行榜，总榜附带最高分详情
+     *
+     * @param gameCode 游戏编码
+     * @param key 排行榜键
+     * @param start 起始名次（从0开始，包含）
+     * @param end 结束名次（包含）
+     * @return 按名次排列的条目
+     */
+    private List<RankEntry> range(String gameCode, String key, long start, long end) {
+        Set<ZSetOperations.TypedTuple<String>> tuples = stringRedisTemplate.opsForZSet()
+                .reverseRangeWithScores(key, start, end);
+        if (tuples == null || tuples.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        List<Object> details = null;
+        if (key.equals(rankingKey(gameCode))) {
+            List<Object> members = new ArrayList<>(tuples.size());
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                members.add(tuple.getValue());
+            }
+            details = stringRedisTemplate.opsForHash().multiGet(detailKey(gameCode), members);
+        }
+        
+        List<RankEntry> entries = new ArrayList<>(tuples.size());
+        long rank = start + 1;
+        int index = 0;
+        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+            RankEntry entry = new RankEntry();
+            entry.setRank(rank++);
+            entry.setUserId(Long.valueOf(tuple.getValue()));
+            entry.setScore(tuple.getScore() == null ? 0L : tuple.getScore().longValue());
+            if (details != null) {
+                decodeDetail((String) details.get(index++), entry);
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+    
+    @Override
+    public RankEntry rankOf(String gameCode, LeaderboardWindow window, Long userId) {
+        if (!redisHealthMonitor.isAvailable()) {
+            return null;
+        }
+        String member = String.valueOf(userId);
+        try {
+            String key = windowKey(gameCode, window);
+            Long rank = stringRedisTemplate.opsForZSet().reverseRank(key, member);
+            Double score = stringRedisTemplate.opsForZSet().score(key, member);
+            if (rank == null || score == null) {
+                return null;
+            }
+            RankEntry entry = new RankEntry();
+            entry.setRank(rank + 1);
+            entry.setUserId(userId);
+            entry.setScore(score.longValue());
+            if (window == LeaderboardWindow.ALL) {
+                decodeDetail((String) stringRedisTemplate.opsForHash().get(detailKey(gameCode), member), entry);
+            }
+            return entry;
+        } catch (Exception e) {
+            redisHealthMonitor.markUnavailable(e);
+            return null;
+        }
+    }
+    
+    /**
+     * 获取时间范围对应的排行榜键，今日榜、本周榜的结果键不存在时合并生成
+     *
+     * @param gameCode 游戏编码
+     * @param window 时间范围
+     * @return 排行榜键
+     */
+    private String windowKey(String gameCode, LeaderboardWindow window) {
+        if (window == LeaderboardWindow.ALL) {
+            return rankingKey(gameCode);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        LocalDate monday = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        String resultKey = window == LeaderboardWindow.DAY
+                ? "leaderboard:{" + gameCode + "}:day:" + today.format(DAY_FORMAT)
+                : "leaderboard:{" + gameCode + "}:week:" + monday.format(DAY_FORMAT);
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(resultKey))) {
+            return resultKey;
+        }
+        
+        List<String> sources = hourKeys(gameCode, today, now.getHour());
+        if (window == LeaderboardWindow.WEEK) {
+            for (LocalDate day = monday; day.isBefore(today); day = day.plusDays(1)) {
+                sources.add(dayKey(gameCode, day));
+            }
+        }
+        union(sources, resultKey, windowTtl);
+        return resultKey;
+    }
+    
+    /**
+     * 获取已结束日期的日桶键，日桶不存在时由当天的小时桶汇总生成
+     *
+     * @param gameCode 游戏编码
+     * @param day 日期
+     * @return 日桶键
+     */
+    private String dayKey(String gameCode, LocalDate day) {
+        String key = "leaderboard:{" + gameCode + "}:d:" + day.format(DAY_FORMAT);
+        if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(key))) {
+            union(hourKeys(gameCode, day, 23), key, bucketTtl);
+        }
+        return key;
+    }
+    
+    private void union(List<String> sources, String destination, Duration ttl) {
+        stringRedisTemplate.opsForZSet().unionAndStore(sources.get(0), sources.subList(1, sources.size()), destination, Aggregate.MAX);
+        stringRedisTemplate.expire(destination, ttl);
+    }
+    
+    private static List<String> hourKeys(String gameCode, LocalDate day, int lastHour) {
+        List<String> keys = new ArrayList<>(lastHour + 1);
+        for (int hour = 0; hour <= lastHour; hour++) {
+            keys.add(hourKey(gameCode, day.atTime(hour, 0)));
+        }
+        return keys;
+    }
+    
+    private static String rankingKey(String gameCode) {
+        return "leaderboard:{" + gameCode + "}";
+    }
+    
+    private static String detailKey(String gameCode) {
+        return "leaderboard:{" + gameCode + "}:detail";
+    }
+    
+    private static String hourKey(String gameCode, LocalDateTime time) {
+        return "leaderboard:{" + gameCode + "}:h:" + time.format(HOUR_FORMAT);
+    }
+    
+    /**
+     * 最高分详情编码为 "时长:时间戳(毫秒)"
+     */
+    private static String encodeDetail(Integer duration, LocalDateTime playedAt) {
+        long millis = playedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return (duration == null ? "" : duration.toString()) + ":" + millis;
+    }
+    
+    private static void decodeDetail(String detail, RankEntry entry) {
+        if (detail == null || detail.isEmpty()) {
+            return;
+        }
+        int separator = detail.indexOf(':');
+        if (separator < 0) {
+            return;
+        }
+        if (separator > 0) {
+            entry.setDuration(Integer.valueOf(detail.substring(0, separator)));
+        }
+        long millis = Long.parseLong(detail.substring(separator + 1));
+        entry.setPlayedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()));
+    }
+}
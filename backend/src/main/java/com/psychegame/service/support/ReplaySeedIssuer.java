@@ -0,0 +1,168 @@
+package com.psychegame.service.support;
+
+import com.psychegame.dto.ReplaySeed;
+import com.psychegame.mapper.ReplayTokenMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * 录像种子签发
+ * <p>
+ * 种子令牌为"游戏.用户ID.种子.过期时间.签名"，签名为HMAC-SHA256，服务端不保存未使用的种子。
+ * 离线游玩的种子在联网时预先签发，有效期更长，离线期间的成绩同步时照常校验。
+ * 成绩校验通过后令牌记为已使用，同一局不能重复提交：已使用令牌的签名写入 replay_token_used 表，
+ * 由主键保证多个节点并发提交同一局时只有一次成功；成绩未能保存时删除记录以释放令牌，
+ * 记录保留到令牌过期后定时删除。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class ReplaySeedIssuer {
+    
+    private static final String ALGORITHM = "HmacSHA256";
+    
+    private final SecureRandom secureRandom = new SecureRandom();
+    
+    @Value("${game.replay.secret:${jwt.secret}}")
+    private String secret;
+    
+    @Value("${game.replay.seed-ttl:2h}")
+    private Duration seedTtl;
+    
+    @Autowired
+    private ReplayTokenMapper replayTokenMapper;
+    
+    private SecretKeySpec key;
+    
+    @PostConstruct
+    public void init() {
+        key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+    
+    /**
+     * 签发种子
+     *
+     * @param userId 用户ID
+     * @param gameCode 游戏编码
+     * @return 种子及令牌
+     */
+    public ReplaySeed issue(Long userId, String gameCode) {
+        return issue(userId, gameCode, seedTtl);
+    }
+    
+    /**
+     * 按指定有效期签发种子
+     *
+     * @param userId 用户ID
+     * @param gameCode 游戏编码
+     * @param ttl 有效期
+     * @return 种子及令牌
+     */
+    public ReplaySeed issue(Long userId, String gameCode, Duration ttl) {
+        long seed = secureRandom.nextInt() & 0xFFFFFFFFL;
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+        String payload = gameCode + "." + userId + "." + seed + "." + expiresAt;
+        return new ReplaySeed(seed, payload + "." + sign(payload), expiresAt);
+    }
+    
+    /**
+     * 校验令牌并取出种子
+     *
+     * @param token 种子令牌
+     * @param userId 当前用户ID
+     * @param gameCode 游戏编码
+     * @return 种子
+     * @throws RuntimeException 令牌无效、已过期或不属于当前用户和游戏
+     */
+    public long verify(String token, Long userId, String gameCode) {
+        int separator = token == null ? -1 : token.lastIndexOf('.');
+        if (separator < 0) {
+            throw new RuntimeException("录像种子无效");
+        }
+        String payload = token.substring(0, separator);
+        byte[] expected = sign(payload).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = token.substring(separator + 1).getBytes(StandardCharsets.US_ASCII);
+        String[] parts = payload.split("\\.");
+        if (!MessageDigest.isEqual(expected, actual) || parts.length != 4
+                || !parts[0].equals(gameCode) || !parts[1].equals(String.valueOf(userId))) {
+            throw new RuntimeException("录像种子无效");
+        }
+        if (System.currentTimeMillis() >= Long.parseLong(parts[3])) {
+            throw new RuntimeException("录像种子已过期");
+        }
+        return Long.parseLong(parts[2]);
+    }
+    
+    /**
+     * 将令牌记为已使用，令牌须已通过 {@link #verify} 校验
+     *
+     * @param token 种子令牌
+     * @return 之前未使用时返回true
+     */
+    public boolean markUsed(String token) {
+        // 签名唯一确定一个令牌，只保存签名
+        int separator = token.lastIndexOf('.');
+        long expiresAt = Long.parseLong(token.substring(token.lastIndexOf('.', separator - 1) + 1, separator));
+        try {
+            replayTokenMapper.insert(token.substring(separator + 1), expiresAt);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * 释放由 {@link #markUsed} 占用的令牌，用于成绩未能保存时允许重新提交
+     *
+     * @param token 种子令牌
+     */
+    public void release(String token) {
+        try {
+            replayTokenMapper.delete(token.substring(token.lastIndexOf('.') + 1));
+        } catch (Exception e) {
+            log.warn("释放录像种子失败: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 定时删除已过期的令牌，过期的令牌在校验时即被拒绝，无需保留
+     */
+    @Scheduled(fixedDelayString = "${game.replay.cleanup-interval:600000}")
+    public void cleanup() {
+        try {
+            int deleted = replayTokenMapper.deleteExpired(System.currentTimeMillis());
+            if (deleted > 0) {
+                log.debug("删除{}条已过期的录像种子记录", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("删除已过期的录像种子记录失败: {}", e.getMessage());
+        }
+    }
+    
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] signature = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
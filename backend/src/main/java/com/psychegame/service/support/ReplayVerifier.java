@@ -0,0 +1,164 @@
+package com.psychegame.service.support;
+
+import com.psychegame.game.ReplayEngine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 成绩录像校验
+ * <p>
+ * 录像在回放线程池中重放，重放分数与提交分数一致才算通过。等待及正在校验的录像数有上限，
+ * 超出时立即抛出 {@link RejectedExecutionException}，由调用方返回503。
+ * 每个游戏记录回放耗时，并按累计回放次数与累计回放CPU时间导出单核每秒回放数。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class ReplayVerifier {
+    
+    @Autowired
+    private List<ReplayEngine> engines;
+    
+    @Autowired
+    @Qualifier("replayVerifyPool")
+    private ForkJoinPool replayVerifyPool;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${game.replay.max-pending:256}")
+    private int maxPending;
+    
+    /**
+     * 游戏编码 -> 回放引擎
+     */
+    private final Map<String, ReplayEngine> engineByGame = new HashMap<>();
+    
+    private final Map<String, Timer> timers = new HashMap<>();
+    
+    private final LongAdder replayCount = new LongAdder();
+    
+    private final LongAdder replayNanos = new LongAdder();
+    
+    private Semaphore permits;
+    
+    private Counter rejectedCounter;
+    
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(maxPending);
+        for (ReplayEngine engine : engines) {
+            String gameCode = engine.getGameType().getCode();
+            engineByGame.put(gameCode, engine);
+            timers.put(gameCode, Timer.builder("game.replay")
+                    .description("录像回放耗时")
+                    .tag("game", gameCode)
+                    .register(meterRegistry));
+        }
+        rejectedCounter = Counter.builder("game.replay.rejected")
+                .description("因校验队列已满被拒绝的录像数")
+                .register(meterRegistry);
+        Gauge.builder("game.replay.pending", permits, p -> maxPending - p.availablePermits())
+                .description("等待及正在校验的录像数")
+                .register(meterRegistry);
+        Gauge.builder("game.replay.throughput", this, ReplayVerifier::replaysPerCoreSecond)
+                .description("单核每秒回放局数")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 游戏是否有回放引擎
+     *
+     * @param gameCode 游戏编码
+     * @return 是否支持录像校验
+     */
+    public boolean supports(String gameCode) {
+        return engineByGame.containsKey(gameCode);
+    }
+    
+    /**
+     * 异步校验录像
+     *
+     * @param gameCode 游戏编码
+     * @param seed 随机数种子
+     * @param moves 操作记录
+     * @param claimedScore 提交的分数
+     * @return 校验通过时正常完成；录像无效或分数不一致时以RuntimeException完成
+     * @throws RejectedExecutionException 校验队列已满
+     */
+    public CompletableFuture<Void> verify(String gameCode, long seed, String moves, long claimedScore) {
+        ReplayEngine engine = engineByGame.get(gameCode);
+        if (engine == null) {
+            throw new RuntimeException("该游戏不支持录像校验");
+        }
+        if (!permits.tryAcquire()) {
+            rejectedCounter.increment();
+            throw new RejectedExecutionException("录像校验队列已满");
+        }
+        try {
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    check(engine, seed, moves, claimedScore);
+                } finally {
+                    permits.release();
+                }
+            }, replayVerifyPool);
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            rejectedCounter.increment();
+            throw e;
+        }
+    }
+    
+    private void check(ReplayEngine engine, long seed, String moves, long claimedScore) {
+        String gameCode = engine.getGameType().getCode();
+        long start = System.nanoTime();
+        long replayedScore;
+        try {
+            replayedScore = engine.replay(seed, moves);
+        } catch (IllegalArgumentException e) {
+            countResult(gameCode, "invalid");
+            throw new RuntimeException("录像无效：" + e.getMessage());
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            timers.get(gameCode).record(elapsed, TimeUnit.NANOSECONDS);
+            replayCount.increment();
+            replayNanos.add(elapsed);
+        }
+        if (replayedScore != claimedScore) {
+            countResult(gameCode, "mismatch");
+            log.warn("成绩与录像不一致: game={}, claimed={}, replayed={}", gameCode, claimedScore, replayedScore);
+            throw new RuntimeException("成绩与录像不一致");
+        }
+        countResult(gameCode, "verified");
+    }
+    
+    private void countResult(String gameCode, String result) {
+        meterRegistry.counter("game.replay.result", "game", gameCode, "result", result).increment();
+    }
+    
+    private double replaysPerCoreSecond() {
+        long nanos = replayNanos.sum();
+        return nanos == 0 ? 0 : replayCount.sum() * 1e9 / nanos;
+    }
+}
@@ -0,0 +1,206 @@
+package com.psychegame.service.support;
+
+import com.psychegame.config.DataSourceRoutingProperties;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 只读数据源，在可用的从库之间轮询
+ * <p>
+ * 作为 {@code LazyConnectionDataSourceProxy} 的只读目标，只读事务第一次执行语句时由此取连接。
+ * 当前用户在粘滞时间内写入过、没有可用从库、或所有从库取连接失败时改用主库。
+ * 取连接失败的从库立即停止使用，由 {@link ReplicaHealthMonitor} 检测恢复。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource implements Closeable {
+    
+    private final HikariDataSource primary;
+    
+    private final List<Replica> replicas;
+    
+    private final WriteTracker writeTracker;
+    
+    private final AtomicInteger next = new AtomicInteger();
+    
+    private final Counter primaryStickyCounter;
+    
+    private final Counter primaryFallbackCounter;
+    
+    public ReplicaDataSource(HikariDataSource primary, DataSourceRoutingProperties properties,
+                             WriteTracker writeTracker, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.writeTracker = writeTracker;
+        List<Replica> list = new ArrayList<>();
+        for (DataSourceRoutingProperties.Replica config : properties.getReplicas()) {
+            list.add(new Replica(config, primary, meterRegistry));
+        }
+        this.replicas = Collections.unmodifiableList(list);
+        this.primaryStickyCounter = routeCounter(meterRegistry, "primary", "sticky");
+        this.primaryFallbackCounter = routeCounter(meterRegistry, "primary", "fallback");
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (writeTracker.isSticky()) {
+            primaryStickyCounter.increment();
+            return primary.getConnection();
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.isAvailable()) {
+                continue;
+            }
+            try {
+                Connection connection = replica.getPool().getConnection();
+                replica.routed.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.markUnavailable("取连接失败: " + e.getMessage());
+            }
+        }
+        primaryFallbackCounter.increment();
+        return primary.getConnection();
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("不支持指定用户名获取连接");
+    }
+    
+    /**
+     * 主库连接池
+     *
+     * @return 主库连接池
+     */
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+    
+    /**
+     * 所有从库，包括暂停使用的
+     *
+     * @return 从库列表
+     */
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+    
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            replica.getPool().close();
+        }
+    }
+    
+    private static Counter routeCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.read.route")
+                .description("只读事务使用的数据库")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 从库连接池及其状态
+     */
+    public static class Replica {
+        
+        private final String name;
+        
+        private final HikariDataSource pool;
+        
+        private final Counter routed;
+        
+        private volatile boolean available;
+        
+        private volatile boolean checked;
+        
+        private volatile long lagMillis;
+        
+        Replica(DataSourceRoutingProperties.Replica config, HikariDataSource primary, MeterRegistry meterRegistry) {
+            this.name = config.getName();
+            HikariConfig hikariConfig = new HikariConfig();
+            hikariConfig.setPoolName(name);
+            hikariConfig.setJdbcUrl(config.getUrl());
+            hikariConfig.setUsername(config.getUsername() != null ? config.getUsername() : primary.getUsername());
+            hikariConfig.setPassword(config.getPassword() != null ? config.getPassword() : primary.getPassword());
+            hikariConfig.setDriverClassName(config.getDriverClassName() != null
+                    ? config.getDriverClassName() : primary.getDriverClassName());
+            hikariConfig.setMaximumPoolSize(config.getMaximumPoolSize());
+            hikariConfig.setMinimumIdle(config.getMinimumIdle());
+            hikariConfig.setConnectionTimeout(config.getConnectionTimeout().toMillis());
+            hikariConfig.setReadOnly(true);
+            // 从库暂时不可达时不阻止启动，由健康检测决定是否使用
+            hikariConfig.setInitializationFailTimeout(-1);
+            hikariConfig.setAllowPoolSuspension(primary.isAllowPoolSuspension());
+            // 连接池指标：hikaricp.connections.*{pool=<从库名称>}
+            hikariConfig.setMetricRegistry(meterRegistry);
+            this.pool = new HikariDataSource(hikariConfig);
+            
+            this.routed = routeCounter(meterRegistry, name, "readonly");
+            Gauge.builder("datasource.replica.available", this, replica -> replica.isAvailable() ? 1 : 0)
+                    .description("从库是否在使用中")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.lag", this, Replica::getLagMillis)
+                    .description("从库复制延迟")
+                    .tag("replica", name)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public HikariDataSource getPool() {
+            return pool;
+        }
+        
+        public boolean isAvailable() {
+            return available;
+        }
+        
+        public long getLagMillis() {
+            return lagMillis;
+        }
+        
+        void setLagMillis(long lagMillis) {
+            this.lagMillis = lagMillis;
+        }
+        
+        void markAvailable() {
+            if (!available) {
+                log.info("从库 {} 恢复使用，延迟 {}ms", name, lagMillis);
+            }
+            available = true;
+            checked = true;
+        }
+        
+        void markUnavailable(String reason) {
+            if (available || !checked) {
+                log.warn("从库 {} 暂停使用: {}", name, reason);
+            }
+            available = false;
+            checked = true;
+        }
+    }
+}
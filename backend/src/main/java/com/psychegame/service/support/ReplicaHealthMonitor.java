@@ -0,0 +1,138 @@
+package com.psychegame.service.support;
+
+import com.psychegame.config.DataSourceRoutingProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+
+/**
+ * 从库健康与延迟检测
+ * <p>
+ * 本节点定时向主库 replica_heartbeat 表写入心跳时间，并从各从库读回本节点的心跳：
+ * 从库已有最近一次写入的心跳时延迟为0，否则延迟为其尚未同步的最早一次心跳距今的时间。
+ * 连接校验失败或延迟超过上限的从库停止使用，延迟降到上限的一半以下后恢复，避免在临界值附近反复切换。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "datasource.routing", name = "enabled", havingValue = "true")
+public class ReplicaHealthMonitor {
+    
+    private static final String SELECT_SQL = "SELECT beat_at FROM replica_heartbeat WHERE node_id = ?";
+    
+    private static final String UPSERT_SQL = "INSERT INTO replica_heartbeat (node_id, beat_at) VALUES (?, ?) "
+            + "ON DUPLICATE KEY UPDATE beat_at = VALUES(beat_at)";
+    
+    private static final String CLEANUP_SQL = "DELETE FROM replica_heartbeat WHERE beat_at < ?";
+    
+    private static final int VALID_TIMEOUT_SECONDS = 1;
+    
+    @Autowired
+    private ReplicaDataSource replicaDataSource;
+    
+    @Autowired
+    private DataSourceRoutingProperties properties;
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    
+    /**
+     * 已写入主库、尚在延迟上限两倍时间内的心跳，按时间升序
+     */
+    private final Deque<Long> beats = new ArrayDeque<>();
+    
+    /**
+     * 清理已停止节点留下的心跳记录
+     */
+    @PostConstruct
+    public void init() {
+        long before = System.currentTimeMillis() - Duration.ofDays(1).toMillis();
+        try (Connection connection = replicaDataSource.getPrimary().getConnection();
+             PreparedStatement statement = connection.prepareStatement(CLEANUP_SQL)) {
+            statement.setLong(1, before);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            log.warn("清理从库心跳记录失败: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 数据库被整体替换后心跳记录回到备份时的值，之前写入的心跳不再用于计算延迟
+     */
+    @EventListener(DatabaseRestoredEvent.class)
+    public synchronized void onDatabaseRestored() {
+        beats.clear();
+    }
+    
+    /**
+     * 定时检测各从库，先读取从库再写入新的心跳，读到的是上一轮及更早写入的心跳
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${datasource.routing.health-check-interval:5000}")
+    public synchronized void check() {
+        long now = System.currentTimeMillis();
+        long maxLag = properties.getMaxLag().toMillis();
+        for (ReplicaDataSource.Replica replica : replicaDataSource.getReplicas()) {
+            checkReplica(replica, now, maxLag);
+        }
+        
+        try (Connection connection = replicaDataSource.getPrimary().getConnection();
+             PreparedStatement statement = connection.prepareStatement(UPSERT_SQL)) {
+            statement.setString(1, nodeId);
+            statement.setLong(2, now);
+            statement.executeUpdate();
+            beats.addLast(now);
+        } catch (SQLException e) {
+            log.warn("写入从库心跳失败: {}", e.getMessage());
+        }
+        while (beats.size() > 1 && beats.peekFirst() < now - 2 * maxLag) {
+            beats.removeFirst();
+        }
+    }
+    
+    private void checkReplica(ReplicaDataSource.Replica replica, long now, long maxLag) {
+        long replicated;
+        try (Connection connection = replica.getPool().getConnection()) {
+            if (!connection.isValid(VALID_TIMEOUT_SECONDS)) {
+                replica.markUnavailable("连接校验失败");
+                return;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_SQL)) {
+                statement.setString(1, nodeId);
+                try (ResultSet rs = statement.executeQuery()) {
+                    replicated = rs.next() ? rs.getLong(1) : 0;
+                }
+            }
+        } catch (SQLException e) {
+            replica.markUnavailable(e.getMessage());
+            return;
+        }
+        
+        long lag = 0;
+        for (long beat : beats) {
+            if (beat > replicated) {
+                lag = now - beat;
+                break;
+            }
+        }
+        replica.setLagMillis(lag);
+        if (lag > maxLag) {
+            replica.markUnavailable("延迟 " + lag + "ms");
+        } else if (lag <= maxLag / 2) {
+            replica.markAvailable();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.psychegame.service.support;
+
+import com.psychegame.entity.TableRowCount;
+import com.psychegame.mapper.TableRowCountMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 表行数计数器（用户、文章、评论）
+ * <p>
+ * 插入、删除记录时累加进程内的计数器，事务中的修改在提交后才计入；读取时用统计表中的行数加上本节点尚未写入的增量。
+ * 定时将增量累加到统计表并重新读取，以纳入其他节点的修改；应用关闭时再写一次。
+ * 统计表在建表时按已有数据初始化，之后不再执行 COUNT(*)。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class TableRowCounter {
+    
+    public static final String USER = "user";
+    
+    public static final String ARTICLE = "forum_article";
+    
+    public static final String COMMENT = "forum_comment";
+    
+    private static final String[] TABLES = {USER, ARTICLE, COMMENT};
+    
+    @Autowired
+    private TableRowCountMapper tableRowCountMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    /**
+     * 各表的计数器，表固定，启动时创建后不再变化
+     */
+    private final Map<String, Count> counts = new HashMap<>();
+    
+    private Counter failedCounter;
+    
+    @PostConstruct
+    public void init() {
+        for (String table : TABLES) {
+            counts.put(table, new Count());
+        }
+        failedCounter = Counter.builder("table.row-count.flush.failed")
+                .description("表行数写入失败次数")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 应用启动完成、数据库被整体替换后读取统计表
+     */
+    @EventListener({ApplicationReadyEvent.class, DatabaseRestoredEvent.class})
+    public void onApplicationReady() {
+        flush();
+    }
+    
+    /**
+     * 记录表行数变化，当前事务提交后生效，回滚时不计入
+     *
+     * @param table 表名
+     * @param delta 增加的行数，删除时为负数
+     */
+    public void add(String table, long delta) {
+        Count count = counts.get(table);
+        if (count == null || delta == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    count.delta.add(delta);
+                }
+            });
+        } else {
+            count.delta.add(delta);
+        }
+    }
+    
+    /**
+     * 获取表行数
+     *
+     * @param table 表名
+     * @return 行数
+     */
+    public long get(String table) {
+        Count count = counts.get(table);
+        if (count == null) {
+            return 0;
+        }
+        Base base = count.base;
+        return Math.max(0, base.persisted + count.delta.sum() - base.flushed);
+    }
+    
+    /**
+     * 定时写入
+     */
+    @Scheduled(fixedDelayString = "${status.row-count.flush-interval:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+    
+    /**
+     * 应用关闭时写入剩余增量
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+    
+    /**
+     * 将各表自上次写入以来的增量累加到统计表，然后重新读取统计表
+     * <p>
+     * 写入失败时不推进已写入位置，增量在下次写入时一并累加。
+     */
+    public synchronized void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Long> snapshots = new HashMap<>();
+        List<TableRowCount> increments = new ArrayList<>();
+        for (Map.Entry<String, Count> entry : counts.entrySet()) {
+            long delta = entry.getValue().delta.sum();
+            snapshots.put(entry.getKey(), delta);
+            if (delta != entry.getValue().base.flushed) {
+                TableRowCount increment = new TableRowCount();
+                increment.setTableName(entry.getKey());
+                increment.setRowCount(delta - entry.getValue().base.flushed);
+                increment.setUpdatedAt(now);
+                increments.add(increment);
+            }
+        }
+        
+        if (!increments.isEmpty()) {
+            try {
+                tableRowCountMapper.upsertIncrements(increments);
+            } catch (Exception e) {
+                failedCounter.increment();
+                log.warn("表行数写入失败，将在下次重试: {}", e.getMessage());
+                return;
+            }
+        }
+        
+        Map<String, Long> persisted = new HashMap<>();
+        try {
+            for (TableRowCount row : tableRowCountMapper.selectAll()) {
+                persisted.put(row.getTableName(), row.getRowCount());
+            }
+        } catch (Exception e) {
+            // 读取失败时在原行数上加上本次写入的增量
+            log.warn("表行数读取失败: {}", e.getMessage());
+            for (Map.Entry<String, Count> entry : counts.entrySet()) {
+                Base base = entry.getValue().base;
+                long snapshot = snapshots.get(entry.getKey());
+                entry.getValue().base = new Base(base.persisted + snapshot - base.flushed, snapshot);
+            }
+            return;
+        }
+        
+        for (Map.Entry<String, Count> entry : counts.entrySet()) {
+            Long row = persisted.get(entry.getKey());
+            entry.getValue().base = new Base(row == null ? 0 : row, snapshots.get(entry.getKey()));
+        }
+    }
+    
+    /**
+     * 单张表的计数器
+     */
+    private static final class Count {
+        
+        /**
+         * 本节点启动以来的行数变化
+         */
+        private final LongAdder delta = new LongAdder();
+        
+        private volatile Base base = new Base(0, 0);
+    }
+    
+    /**
+     * 最近一次读取的行数及当时本节点已写入的位置，整体替换保证读取时一致
+     */
+    private static final class Base {
+        
+        private final long persisted;
+        
+        private final long flushed;
+        
+        private Base(long persisted, long flushed) {
+            this.persisted = persisted;
+            this.flushed = flushed;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.psychegame.service.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psychegame.entity.User;
+import com.psychegame.mapper.UserMapper;
+import com.psychegame.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 用户名、邮箱占用索引
+ * <p>
+ * 用两个布隆过滤器记录已被占用的用户名和邮箱，启动时从用户表构建，注册或修改用户名、邮箱后追加。
+ * 过滤器判定"一定未占用"时无需查询数据库；判定"可能已占用"时再由调用方查询确认。
+ * 布隆过滤器不支持删除，删除用户后由定时重建回收。
+ * <p>
+ * 各节点的过滤器通过Redis发布/订阅互相追加；Redis不可用时按修改时间定时从用户表同步，
+ * 同步间隔内其他节点刚占用的名称可能被判定为未占用，注册时仍由唯一索引兜底。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class UserAvailabilityIndex {
+    
+    private static final String ADD_CHANNEL = "user:availability:add";
+    
+    @Autowired
+    private UserMapper userMapper;
+    
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+    
+    @Autowired
+    private RedisHealthMonitor redisHealthMonitor;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${user.availability.expected-insertions:1000000}")
+    private long expectedInsertions;
+    
+    @Value("${user.availability.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    
+    @Value("${user.availability.sync-overlap:5s}")
+    private Duration syncOverlap;
+    
+    private volatile BloomFilter usernames;
+    
+    private volatile BloomFilter emails;
+    
+    /**
+     * 重建期间新注册的用户，重建完成后补充到新过滤器中
+     */
+    private volatile List<String[]> pendingDuringRebuild;
+    
+    /**
+     * 上次从用户表构建或同步的起始时间，未构建时为null
+     */
+    private volatile LocalDateTime syncedAt;
+    
+    private Counter filterAnswers;
+    
+    private Counter databaseFallbacks;
+    
+    @PostConstruct
+    public void init() {
+        filterAnswers = Counter.builder("user.availability.check")
+                .tag("source", "bloom")
+                .description("由布隆过滤器直接判定可用的次数")
+                .register(meterRegistry);
+        databaseFallbacks = Counter.builder("user.availability.check")
+                .tag("source", "database")
+                .description("需要查询数据库确认的次数")
+                .register(meterRegistry);
+        
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                String[] identity = objectMapper.readValue(message.getBody(), String[].class);
+                addLocal(identity[0], identity[1]);
+            } catch (Exception e) {
+                log.warn("用户名、邮箱占用通知解析失败: {}", e.getMessage());
+            }
+        }, new ChannelTopic(ADD_CHANNEL));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+    
+    /**
+     * 数据库被整体替换后重建
+     */
+    @EventListener(DatabaseRestoredEvent.class)
+    public void onDatabaseRestored() {
+        rebuild();
+    }
+    
+    /**
+     * 每天重建一次，回收已删除用户占用的位
+     */
+    @Scheduled(cron = "${user.availability.rebuild-cron:0 30 4 * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+    
+    /**
+     * 定时从用户表同步上次同步之后新增或修改的用户名、邮箱，补上Redis不可用期间其他节点的注册和修改
+     */
+    @Scheduled(initialDelayString = "${user.availability.sync-interval:30000}",
+            fixedDelayString = "${user.availability.sync-interval:30000}")
+    public synchronized void sync() {
+        LocalDateTime since = syncedAt;
+        if (since == null || usernames == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            List<User> changed = userMapper.selectIdentitiesChangedSince(since.minus(syncOverlap));
+            for (User user : changed) {
+                addLocal(user.getUsername(), user.getEmail());
+            }
+            syncedAt = now;
+        } catch (Exception e) {
+            log.warn("用户名、邮箱占用索引同步失败: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 从用户表重建过滤器
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<String[]> pending = new CopyOnWriteArrayList<>();
+        pendingDuringRebuild = pending;
+        try {
+            BloomFilter newUsernames = new BloomFilter(expectedInsertions, falsePositiveRate);
+            BloomFilter newEmails = new BloomFilter(expectedInsertions, falsePositiveRate);
+            long count = transactionTemplate.execute(status -> {
+                long rows = 0;
+                try (Cursor<User> cursor = userMapper.selectIdentitiesAsCursor()) {
+                    for (User user : cursor) {
+                        putIfPresent(newUsernames, user.getUsername());
+                        putIfPresent(newEmails, user.getEmail());
+                        rows++;
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+                return rows;
+            });
+            
+            // 先切换到新过滤器，再补充重建期间的注册；add()先登记再写过滤器，两次补充保证不遗漏
+            usernames = newUsernames;
+            emails = newEmails;
+            replay(pending, newUsernames, newEmails);
+            pendingDuringRebuild = null;
+            replay(pending, newUsernames, newEmails);
+            syncedAt = startedAt;
+            if (count > expectedInsertions / 2) {
+                log.warn("用户数{}已接近布隆过滤器容量{}，请调大user.availability.expected-insertions", count, expectedInsertions);
+            }
+            log.info("用户名、邮箱占用索引构建完成，{}个用户，耗时{}ms", count, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            pendingDuringRebuild = null;
+            log.warn("用户名、邮箱占用索引构建失败，将直接查询数据库: {}", e.getMessage());
+        }
+    }
+    
+    private static void replay(List<String[]> pending, BloomFilter newUsernames, BloomFilter newEmails) {
+        for (String[] identity : pending) {
+            putIfPresent(newUsernames, identity[0]);
+            putIfPresent(newEmails, identity[1]);
+        }
+    }
+    
+    /**
+     * 记录新注册的用户或修改后的用户名、邮箱，并通知其他节点
+     *
+     * @param username 用户名，为null时不记录
+     * @param email 邮箱，为null时不记录
+     */
+    public void add(String username, String email) {
+        addLocal(username, email);
+        if (!redisHealthMonitor.isAvailable()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(ADD_CHANNEL, objectMapper.writeValueAsString(new String[]{username, email}));
+        } catch (Exception e) {
+            redisHealthMonitor.markUnavailable(e);
+        }
+    }
+    
+    private void addLocal(String username, String email) {
+        List<String[]> pending = pendingDuringRebuild;
+        if (pending != null) {
+            pending.add(new String[]{username, email});
+        }
+        BloomFilter currentUsernames = usernames;
+        BloomFilter currentEmails = emails;
+        if (currentUsernames != null && currentEmails != null) {
+            putIfPresent(currentUsernames, username);
+            putIfPresent(currentEmails, email);
+        }
+    }
+    
+    /**
+     * 判断用户名是否可能已被占用
+     *
+     * @param username 用户名
+     * @return false表示一定未被占用；true表示可能已被占用，需要查询确认
+     */
+    public boolean mightContainUsername(String username) {
+        return mightContain(usernames, username);
+    }
+    
+    /**
+     * 判断邮箱是否可能已被占用
+     *
+     * @param email 邮箱
+     * @return false表示一定未被占用；true表示可能已被占用，需要查询确认
+     */
+    public boolean mightContainEmail(String email) {
+        return mightContain(emails, email);
+    }
+    
+    private boolean mightContain(BloomFilter filter, String value) {
+        // 尚未构建完成时视为可能已占用，由调用方查询数据库
+        if (filter == null || filter.mightContain(normalize(value))) {
+            databaseFallbacks.increment();
+            return true;
+        }
+        filterAnswers.increment();
+        return false;
+    }
+    
+    private static void putIfPresent(BloomFilter filter, String value) {
+        if (value != null) {
+            filter.put(normalize(value));
+        }
+    }
+    
+    /**
+     * 统一转为小写，大小写不敏感的排序规则下只会增加误判，不会漏判
+     */
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
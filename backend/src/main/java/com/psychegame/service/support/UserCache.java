@@ -0,0 +1,554 @@
+package com.psychegame.service.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.psychegame.config.DataSourceRoutingProperties;
+import com.psychegame.dto.UserSummary;
+import com.psychegame.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 用户两级缓存
+ * <p>
+ * 第一级为进程内有界缓存（Caffeine），第二级为Redis。用户更新或删除时删除Redis中的条目，
+ * 并通过Redis发布/订阅通知所有节点清除本地缓存。Redis不可用时只使用本地缓存，
+ * 此时其他节点的本地缓存依靠过期时间收敛。
+ * <p>
+ * 缓存中的用户不包含密码，需要密码的场景（登录）应直接查询数据库。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class UserCache {
+    
+    private static final String USER_KEY_PREFIX = "user:id:";
+    
+    private static final String USERNAME_KEY_PREFIX = "user:username:";
+    
+    private static final String EMAIL_KEY_PREFIX = "user:email:";
+    
+    private static final String SUMMARY_KEY_PREFIX = "user:summary:";
+    
+    private static final String INVALIDATE_CHANNEL = "user:cache:invalidate";
+    
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+    
+    @Autowired
+    private RedisHealthMonitor redisHealthMonitor;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired(required = false)
+    private DataSourceRoutingProperties routingProperties;
+    
+    @Value("${user.cache.local.max-size:10000}")
+    private long localMaxSize;
+    
+    @Value("${user.cache.local.ttl:60s}")
+    private Duration localTtl;
+    
+    @Value("${user.cache.redis.ttl:30m}")
+    private Duration redisTtl;
+    
+    /**
+     * 本地缓存：用户ID -> 用户
+     */
+    private Cache<Long, User> users;
+    
+    /**
+     * 本地索引：用户名 -> 用户ID
+     */
+    private Cache<String, Long> usernameIds;
+    
+    /**
+     * 本地索引：邮箱 -> 用户ID
+     */
+    private Cache<String, Long> emailIds;
+    
+    /**
+     * 本地缓存：用户ID -> 用户摘要
+     */
+    private Cache<Long, UserSummary> summaries;
+    
+    private Counter redisHits;
+    
+    private Counter redisMisses;
+    
+    @PostConstruct
+    public void init() {
+        users = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        usernameIds = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .build();
+        emailIds = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .build();
+        summaries = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "user.local");
+        CaffeineCacheMetrics.monitor(meterRegistry, summaries, "user.summary.local");
+        redisHits = Counter.builder("user.cache.redis")
+                .tag("result", "hit")
+                .description("用户Redis缓存命中次数")
+                .register(meterRegistry);
+        redisMisses = Counter.builder("user.cache.redis")
+                .tag("result", "miss")
+                .description("用户Redis缓存未命中次数")
+                .register(meterRegistry);
+        
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> evictLocal(Long.valueOf(new String(message.getBody()))),
+                new ChannelTopic(INVALIDATE_CHANNEL)
+        );
+    }
+    
+    /**
+     * 根据ID获取用户
+     *
+     * @param id 用户ID
+     * @param loader 缓存未命中时的加载方法
+     * @return 用户信息，不存在时返回null
+     */
+    public User getById(Long id, Function<Long, User> loader) {
+        if (id == null) {
+            return null;
+        }
+        User user = users.getIfPresent(id);
+        if (user == null) {
+            user = readRedis(USER_KEY_PREFIX + id);
+            if (user == null) {
+                user = loader.apply(id);
+                if (user == null) {
+                    return null;
+                }
+                user = withoutPassword(user);
+                writeRedis(user);
+            }
+            putLocal(user);
+        }
+        return copy(user);
+    }
+    
+    /**
+     * 获取已缓存的用户（本地或Redis），未缓存时不查询数据库
+     *
+     * @param id 用户ID
+     * @return 缓存中的用户，未缓存时返回null
+     */
+    public User peek(Long id) {
+        return getById(id, ignored -> null);
+    }
+    
+    /**
+     * 根据用户名获取用户
+     *
+     * @param username 用户名
+     * @param loader 缓存未命中时的加载方法
+     * @return 用户信息，不存在时返回null
+     */
+    public User getByUsername(String username, Function<String, User> loader) {
+        return getByKey(username, usernameIds, USERNAME_KEY_PREFIX, User::getUsername, loader);
+    }
+    
+    /**
+     * 根据邮箱获取用户
+     *
+     * @param email 邮箱
+     * @param loader 缓存未命中时的加载方法
+     * @return 用户信息，不存在时返回null
+     */
+    public User getByEmail(String email, Function<String, User> loader) {
+        return getByKey(email, emailIds, EMAIL_KEY_PREFIX, User::getEmail, loader);
+    }
+    
+    /**
+     * 按唯一键查找：先通过索引找到用户ID，再按ID读取用户
+     * <p>
+     * 索引不随用户更新主动清除，读取后校验用户当前的键值，不一致时视为未命中。
+     */
+    private User getByKey(String key, Cache<String, Long> localIndex, String redisPrefix,
+                          Function<User, String> keyExtractor, Function<String, User> loader) {
+        if (key == null) {
+            return null;
+        }
+        Long id = localIndex.getIfPresent(key);
+        if (id == null) {
+            id = readRedisId(redisPrefix + key);
+        }
+        if (id != null) {
+            User user = peek(id);
+            if (user != null && key.equals(keyExtractor.apply(user))) {
+                localIndex.put(key, id);
+                return user;
+            }
+        }
+        
+        User user = loader.apply(key);
+        if (user == null) {
+            return null;
+        }
+        user = withoutPassword(user);
+        writeRedis(user);
+        putLocal(user);
+        return copy(user);
+    }
+    
+    /**
+     * 批量获取用户摘要
+     * <p>
+     * 依次查找本地缓存、Redis（一次MGET），剩余未命中的ID交给加载方法一次性查询。
+     *
+     * @param ids 用户ID集合
+     * @param loader 批量加载方法，参数为未命中的ID
+     * @return 用户ID -> 用户摘要，按ID集合的迭代顺序排列，不存在的用户不包含在内
+     */
+    public Map<Long, UserSummary> getSummaries(Collection<Long> ids,
+                                               Function<Collection<Long>, List<UserSummary>> loader) {
+        Map<Long, UserSummary> found = new HashMap<>(ids.size() * 2);
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            UserSummary summary = summaries.getIfPresent(id);
+            if (summary == null) {
+                User user = users.getIfPresent(id);
+                if (user != null) {
+                    summary = toSummary(user);
+                    summaries.put(id, summary);
+                }
+            }
+            if (summary != null) {
+                found.put(id, summary);
+            } else {
+                misses.add(id);
+            }
+        }
+        
+        if (!misses.isEmpty()) {
+            misses = readRedisSummaries(misses, found);
+        }
+        
+        if (!misses.isEmpty()) {
+            List<UserSummary> loaded = loader.apply(misses);
+            for (UserSummary summary : loaded) {
+                summaries.put(summary.getId(), summary);
+                found.put(summary.getId(), summary);
+            }
+            writeRedisSummaries(loaded);
+        }
+        
+        Map<Long, UserSummary> result = new LinkedHashMap<>(found.size() * 2);
+        for (Long id : ids) {
+            UserSummary summary = found.get(id);
+            if (summary != null) {
+                result.put(id, summary);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 从Redis批量读取用户摘要
+     *
+     * @param ids 待查询的ID
+     * @param found 命中的结果写入此Map，同时写入本地缓存
+     * @return 仍未命中的ID
+     */
+    private List<Long> readRedisSummaries(List<Long> ids, Map<Long, UserSummary> found) {
+        if (!redisHealthMonitor.isAvailable()) {
+            return ids;
+        }
+        try {
+            List<String> keys = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                keys.add(SUMMARY_KEY_PREFIX + id);
+            }
+            List<String> values = stringRedisTemplate.opsForValue().multiGet(keys);
+            if (values == null) {
+                return ids;
+            }
+            List<Long> misses = new ArrayList<>();
+            for (int i = 0; i < ids.size(); i++) {
+                String json = values.get(i);
+                if (json == null) {
+                    misses.add(ids.get(i));
+                    continue;
+                }
+                UserSummary summary = objectMapper.readValue(json, UserSummary.class);
+                summaries.put(summary.getId(), summary);
+                found.put(summary.getId(), summary);
+            }
+            redisHits.increment(ids.size() - misses.size());
+            redisMisses.increment(misses.size());
+            return misses;
+        } catch (Exception e) {
+            redisHealthMonitor.markUnavailable(e);
+            return ids;
+        }
+    }
+    
+    /**
+     * 以管道方式批量写入用户摘要
+     *
+     * @param loaded 用户摘要
+     */
+    private void writeRedisSummaries(List<UserSummary> loaded) {
+        if (loaded.isEmpty() || !redisHealthMonitor.isAvailable()) {
+            return;
+        }
+        try {
+            List<String> jsons = new ArrayList<>(loaded.size());
+            for (UserSummary summary : loaded) {
+                jsons.add(objectMapper.writeValueAsString(summary));
+            }
+            stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    for (int i = 0; i < loaded.size(); i++) {
+                        ops.opsForValue().set(SUMMARY_KEY_PREFIX + loaded.get(i).getId(), jsons.get(i), redisTtl);
+                    }
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            redisHealthMonitor.markUnavailable(e);
+        }
+    }
+    
+    /**
+     * 失效用户缓存，并通知其他节点
+     * <p>
+     * 在事务中调用时，事务提交后会再失效一次，避免事务期间读入的旧数据留在缓存中。
+     * 启用读写分离时，在从库延迟上限之后再失效一次，避免期间从从库读入的旧数据留在缓存中。
+     *
+     * @param user 更新或删除前的用户信息，用于清除用户名、邮箱索引
+     */
+    public void evict(User user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        evictNow(user);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(user);
+                    evictAfterReplicaLag(user);
+                }
+            });
+        } else {
+            evictAfterReplicaLag(user);
+        }
+    }
+    
+    private void evictAfterReplicaLag(User user) {
+        if (routingProperties == null) {
+            return;
+        }
+        long delay = routingProperties.getMaxLag().toMillis();
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> evictNow(user));
+    }
+    
+    private void evictNow(User user) {
+        evictLocal(user.getId());
+        if (!redisHealthMonitor.isAvailable()) {
+            return;
+        }
+        try {
+            List<String> keys = new ArrayList<>(4);
+            keys.add(USER_KEY_PREFIX + user.getId());
+            keys.add(SUMMARY_KEY_PREFIX + user.getId());
+            if (user.getUsername() != null) {
+                keys.add(USERNAME_KEY_PREFIX + user.getUsername());
+            }
+            if (user.getEmail() != null) {
+                keys.add(EMAIL_KEY_PREFIX + user.getEmail());
+            }
+            stringRedisTemplate.delete(keys);
+            stringRedisTemplate.convertAndSend(INVALIDATE_CHANNEL, user.getId().toString());
+        } catch (Exception e) {
+            redisHealthMonitor.markUnavailable(e);
+        }
+    }
+    
+    /**
+     * 清除本节点的用户缓存
+     *
+     * @param id 用户ID
+     */
+    public void evictLocal(Long id) {
+        users.invalidate(id);
+        summaries.invalidate(id);
+    }
+    
+    /**
+     * 数据库被整体替换后清除全部用户缓存，Redis不可用时其中的条目在过期后失效
+     */
+    @EventListener(DatabaseRestoredEvent.class)
+    public void onDatabaseRestored() {
+        users.invalidateAll();
+        usernameIds.invalidateAll();
+        emailIds.invalidateAll();
+        summaries.invalidateAll();
+        if (!redisHealthMonitor.isAvailable()) {
+            return;
+        }
+        try {
+            for (String prefix : List.of(USER_KEY_PREFIX, USERNAME_KEY_PREFIX, EMAIL_KEY_PREFIX, SUMMARY_KEY_PREFIX)) {
+                deleteRedisKeys(prefix + "*");
+            }
+        } catch (Exception e) {
+            redisHealthMonitor.markUnavailable(e);
+        }
+    }
+    
+    /**
+     * 用SCAN分批删除匹配的键，不阻塞Redis
+     */
+    private void deleteRedisKeys(String pattern) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(1000).build();
+        List<String> keys = new ArrayList<>();
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                keys.add(cursor.next());
+                if (keys.size() >= 1000) {
+                    stringRedisTemplate.delete(keys);
+                    keys.clear();
+                }
+            }
+        }
+        if (!keys.isEmpty()) {
+            stringRedisTemplate.delete(keys);
+        }
+    }
+    
+    private void putLocal(User user) {
+        users.put(user.getId(), user);
+        if (user.getUsername() != null) {
+            usernameIds.put(user.getUsername(), user.getId());
+        }
+        if (user.getEmail() != null) {
+            emailIds.put(user.getEmail(), user.getId());
+        }
+    }
+    
+    private User readRedis(String key) {
+        if (!redisHealthMonitor.isAvailable()) {
+            return null;
+        }
+        try {
+            String json = stringRedisTemplate.opsForValue().get(key);
+            if (json == null) {
+                redisMisses.increment();
+                return null;
+            }
+            redisHits.increment();
+            return objectMapper.readValue(json, User.class);
+        } catch (Exception e) {
+            redisHealthMonitor.markUnavailable(e);
+            return null;
+        }
+    }
+    
+    private Long readRedisId(String key) {
+        if (!redisHealthMonitor.isAvailable()) {
+            return null;
+        }
+        try {
+            String id = stringRedisTemplate.opsForValue().get(key);
+            return id == null ? null : Long.valueOf(id);
+        } catch (Exception e) {
+            redisHealthMonitor.markUnavailable(e);
+            return null;
+        }
+    }
+    
+    private void writeRedis(User user) {
+        if (!redisHealthMonitor.isAvailable()) {
+            return;
+        }
+        try {
+            String id = user.getId().toString();
+            stringRedisTemplate.opsForValue().set(USER_KEY_PREFIX + id, objectMapper.writeValueAsString(user), redisTtl);
+            if (user.getUsername() != null) {
+                stringRedisTemplate.opsForValue().set(USERNAME_KEY_PREFIX + user.getUsername(), id, redisTtl);
+            }
+            if (user.getEmail() != null) {
+                stringRedisTemplate.opsForValue().set(EMAIL_KEY_PREFIX + user.getEmail(), id, redisTtl);
+            }
+        } catch (Exception e) {
+            redisHealthMonitor.markUnavailable(e);
+        }
+    }
+    
+    private static UserSummary toSummary(User user) {
+        UserSummary summary = new UserSummary();
+        summary.setId(user.getId());
+        summary.setUsername(user.getUsername());
+        summary.setNickname(user.getNickname());
+        summary.setAvatar(user.getAvatar());
+        return summary;
+    }
+    
+    private static User withoutPassword(User user) {
+        User copy = copy(user);
+        copy.setPassword(null);
+        return copy;
+    }
+    
+    private static User copy(User user) {
+        User copy = new User();
+        BeanUtils.copyProperties(user, copy);
+        return copy;
+    }
+}
@@ -0,0 +1,77 @@
+package com.psychegame.service.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * 用户写入记录，用于读写分离时的主库粘滞
+ * <p>
+ * 作为MyBatis插件拦截所有写语句，记录当前登录用户的写入时间（在事务中时于提交后记录），
+ * 粘滞时间内该用户的只读事务仍使用主库，避免从库延迟导致读不到自己刚写入的数据。
+ * 记录只保存在本节点，多节点部署时依赖负载均衡按用户保持会话。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+public class WriteTracker implements Interceptor {
+    
+    private final Cache<String, Boolean> recentWriters;
+    
+    public WriteTracker(Duration stickyWindow) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .build();
+    }
+    
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        String username = currentUsername();
+        if (username != null) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        recentWriters.put(username, Boolean.TRUE);
+                    }
+                });
+            } else {
+                recentWriters.put(username, Boolean.TRUE);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 当前用户是否在粘滞时间内写入过
+     *
+     * @return 是否应使用主库
+     */
+    public boolean isSticky() {
+        String username = currentUsername();
+        return username != null && recentWriters.getIfPresent(username) != null;
+    }
+    
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,145 @@
+package com.psychegame.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 中日韩二元分词器
+ * <p>
+ * 全角字母、数字、符号先转为半角并转小写，然后：
+ * 连续的中日韩字符按相邻两字切分（"论坛游戏" -> "论坛"、"坛游"、"游戏"），索引时同时保留每个单字，
+ * 查询时只在片段只有一个字时使用单字，单字查询也能匹配；
+ * 连续的其他字母、数字作为一个词；其余字符为分隔符。不需要词典。
+ * <p>
+ * 查询的词之间为"或"关系：文档包含任一查询词即可匹配，按BM25评分排序，包含的词越多、越少见，排名越靠前。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public final class CjkBigramTokenizer {
+    
+    /**
+     * 单个词的最大长度（字符），超出部分截断
+     */
+    public static final int MAX_WORD_LENGTH = 32;
+    
+    private CjkBigramTokenizer() {
+    }
+    
+    /**
+     * 索引分词，中日韩字符同时输出单字和二元组
+     *
+     * @param text 文本，可为null
+     * @return 按出现顺序排列的词，可能重复
+     */
+    public static List<String> tokenize(String text) {
+        return tokenize(text, true);
+    }
+    
+    /**
+     * 查询分词，中日韩片段只有一个字时输出单字，否则只输出二元组
+     *
+     * @param text 查询文本，可为null
+     * @return 按出现顺序排列的词，可能重复
+     */
+    public static List<String> tokenizeQuery(String text) {
+        return tokenize(text, false);
+    }
+    
+    private static List<String> tokenize(String text, boolean unigrams) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        StringBuilder word = new StringBuilder();
+        int previousCjk = -1;
+        boolean cjkEmitted = false;
+        int i = 0;
+        while (i < text.length()) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            codePoint = normalize(codePoint);
+            if (isCjk(codePoint)) {
+                flushWord(word, tokens);
+                if (previousCjk >= 0) {
+                    tokens.add(bigram(previousCjk, codePoint));
+                    cjkEmitted = true;
+                }
+                if (unigrams) {
+                    tokens.add(new String(Character.toChars(codePoint)));
+                    cjkEmitted = true;
+                }
+                previousCjk = codePoint;
+                continue;
+            }
+            flushSingle(previousCjk, cjkEmitted, tokens);
+            previousCjk = -1;
+            cjkEmitted = false;
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (word.length() < MAX_WORD_LENGTH) {
+                    word.appendCodePoint(codePoint);
+                }
+            } else {
+                flushWord(word, tokens);
+            }
+        }
+        flushSingle(previousCjk, cjkEmitted, tokens);
+        flushWord(word, tokens);
+        return tokens;
+    }
+    
+    /**
+     * 全角字符转半角，字母转小写
+     */
+    private static int normalize(int codePoint) {
+        if (codePoint >= 0xFF01 && codePoint <= 0xFF5E) {
+            codePoint -= 0xFEE0;
+        } else if (codePoint == 0x3000) {
+            return ' ';
+        }
+        if (codePoint < 0x80) {
+            return codePoint >= 'A' && codePoint <= 'Z' ? codePoint + ('a' - 'A') : codePoint;
+        }
+        return Character.toLowerCase(codePoint);
+    }
+    
+    /**
+     * 是否为中日韩字符（汉字、假名、谚文），常用汉字区间直接判断
+     */
+    private static boolean isCjk(int codePoint) {
+        if (codePoint < 0x1100) {
+            return false;
+        }
+        if (codePoint >= 0x4E00 && codePoint <= 0x9FFF) {
+            return true;
+        }
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+    
+    /**
+     * 查询时只有一个字的中日韩片段保留单字
+     */
+    private static void flushSingle(int previousCjk, boolean cjkEmitted, List<String> tokens) {
+        if (previousCjk >= 0 && !cjkEmitted) {
+            tokens.add(new String(Character.toChars(previousCjk)));
+        }
+    }
+    
+    private static String bigram(int first, int second) {
+        if (first < Character.MIN_SUPPLEMENTARY_CODE_POINT && second < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            return new String(new char[]{(char) first, (char) second});
+        }
+        return new StringBuilder(4).appendCodePoint(first).appendCodePoint(second).toString();
+    }
+    
+    private static void flushWord(StringBuilder word, List<String> tokens) {
+        if (word.length() > 0) {
+            tokens.add(word.toString());
+            word.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.psychegame.util;
+
+/**
+ * 线程安全的HyperLogLog基数估计
+ * <p>
+ * 以2^precision个6位寄存器（按字节存放）估计不同元素个数，内存固定，添加和估计与元素数无关。
+ * 标准误差约为 1.04 / sqrt(2^precision)，precision为14时约0.81%、占用16KB，与Redis一致。
+ * 元素为long，使用64位哈希，不需要大基数修正；小基数时使用线性计数。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public class HyperLogLog {
+    
+    private final int precision;
+    
+    private final byte[] registers;
+    
+    private final double alpha;
+    
+    /**
+     * 创建基数估计器
+     *
+     * @param precision 寄存器数量的以2为底的对数，4~18
+     */
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("precision must be between 4 and 18");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+        int m = registers.length;
+        this.alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+    }
+    
+    /**
+     * 添加元素
+     *
+     * @param value 元素
+     * @return 寄存器是否变化（估计值可能变化）
+     */
+    public synchronized boolean add(long value) {
+        long hash = mix(value);
+        int index = (int) (hash >>> (64 - precision));
+        // 低位补1，保证前导零个数不超过 64 - precision
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * 估计不同元素个数
+     *
+     * @return 基数估计值
+     */
+    public synchronized long count() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Double.longBitsToDouble((1023L - register) << 52);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+    
+    /**
+     * SplitMix64终结函数，使连续的ID也均匀分布
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,1151 @@
+package com.psychegame.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 可增量更新的BM25倒排索引
+ * <p>
+ * 索引由一个只读的段文件和内存中的增量组成。段文件以内存映射方式打开，启动时无需重建，也不占用堆内存：
+ * 文档表按文档ID排序（ID、版本、长度），词典按UTF-8字节序排序、可二分查找，
+ * 倒排表为变长整数编码的（文档序号差值, 词频）序列。
+ * 新增、修改、删除的文档记录在内存增量中，同一文档在增量中的记录覆盖段文件中的记录；
+ * {@link #commit()}将段文件与增量合并写入新一代的段文件，合并期间仍可查询和更新。
+ * <p>
+ * 段文件按代编号（"索引文件名.代号"），加载时使用代号最大的一个。新一代先写入临时文件，
+ * 刷盘后改名为新的代号（目标文件不存在，不替换正在映射的文件，Windows上同样可行），
+ * 切换后解除旧段文件的映射并删除；删除失败（如仍被其他进程打开）的旧文件在下次提交或加载时重试。
+ * <p>
+ * 每个文档带有版本号（如更新时间），旧版本的更新会被忽略。文档频率包含已被覆盖的旧记录，
+ * 与常见实现一样只影响评分的精度。段文件大小不超过2GB。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public class InvertedIndex {
+    
+    private static final int MAGIC = 0x50475358;
+    
+    /**
+     * 格式版本，分词规则变化时同样递增，旧段文件加载失败后从数据库重建（2：索引中日韩单字）
+     */
+    private static final int FORMAT_VERSION = 2;
+    
+    /**
+     * 文件头：魔数、格式版本、最大文档版本、文档数、词数、文档总长度、倒排表起始位置
+     */
+    private static final int HEADER_SIZE = 36;
+    
+    /**
+     * 文档表每项：文档ID、版本、长度
+     */
+    private static final int DOC_ENTRY_SIZE = 20;
+    
+    private static final double K1 = 1.2;
+    
+    private static final double B = 0.75;
+    
+    private final Path file;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private final Object commitLock = new Object();
+    
+    private Segment base = Segment.EMPTY;
+    
+    /**
+     * 当前段文件的代号，没有段文件时为-1
+     */
+    private long generation = -1;
+    
+    /**
+     * 已使用的最大代号，新一代段文件的代号在此基础上递增
+     */
+    private long lastGeneration = -1;
+    
+    /**
+     * 正在写入段文件的增量，合并期间仍参与查询
+     */
+    private MemoryLayer frozen;
+    
+    private MemoryLayer delta = new MemoryLayer();
+    
+    private long liveDocs;
+    
+    private long liveLength;
+    
+    private long maxVersion = -1;
+    
+    /**
+     * 创建索引，需调用{@link #load()}加载已有的段文件
+     *
+     * @param file 段文件路径，各代段文件为此路径加代号后缀
+     */
+    public InvertedIndex(Path file) {
+        this.file = file;
+    }
+    
+    /**
+     * 加载段文件，不存在时为空索引
+     *
+     * @return 段文件中文档的最大版本，没有段文件时返回-1
+     * @throws IOException 读取失败或文件损坏
+     */
+    public long load() throws IOException {
+        synchronized (commitLock) {
+            List<Long> generations = listGenerations();
+            if (generations.isEmpty()) {
+                return -1;
+            }
+            long newest = generations.get(generations.size() - 1);
+            lastGeneration = Math.max(lastGeneration, newest);
+            Segment segment = Segment.open(generationFile(newest));
+            Segment old;
+            lock.writeLock().lock();
+            try {
+                old = base;
+                base = segment;
+                generation = newest;
+                frozen = null;
+                delta = new MemoryLayer();
+                liveDocs = segment.docCount;
+                liveLength = segment.totalLength;
+                maxVersion = segment.watermark;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            old.close();
+            deleteStaleGenerations();
+            return segment.watermark;
+        }
+    }
+    
+    /**
+     * 清空索引并删除段文件，用于数据被整体替换后重新构建
+     *
+     * @throws IOException 删除段文件失败
+     */
+    public void clear() throws IOException {
+        synchronized (commitLock) {
+            Segment old;
+            lock.writeLock().lock();
+            try {
+                old = base;
+                base = Segment.EMPTY;
+                generation = -1;
+                frozen = null;
+                delta = new MemoryLayer();
+                liveDocs = 0;
+                liveLength = 0;
+                maxVersion = -1;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            old.close();
+            Files.deleteIfExists(file);
+            for (long g : listGenerations()) {
+                Files.deleteIfExists(generationFile(g));
+            }
+        }
+    }
+    
+    /**
+     * 添加或更新文档
+     *
+     * @param docId 文档ID
+     * @param termFreqs 词 -> 词频（可加权）
+     * @param version 文档版本，低于已有版本时忽略
+     * @return 是否已更新
+     */
+    public boolean put(long docId, Map<String, Integer> termFreqs, long version) {
+        int length = 0;
+        for (int freq : termFreqs.values()) {
+            length += freq;
+        }
+        lock.writeLock().lock();
+        try {
+            Doc current = find(docId);
+            if (current != null && current.version > version) {
+                return false;
+            }
+            String[] terms = new String[termFreqs.size()];
+            int[] freqs = new int[terms.length];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : termFreqs.entrySet()) {
+                terms[i] = entry.getKey();
+                freqs[i++] = entry.getValue();
+            }
+            replace(current, docId, new Doc(version, length, terms, freqs));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * 删除文档
+     *
+     * @param docId 文档ID
+     * @param version 删除时的版本，低于已有版本时忽略
+     * @return 是否已删除
+     */
+    public boolean remove(long docId, long version) {
+        lock.writeLock().lock();
+        try {
+            Doc current = find(docId);
+            if (current == null || current.terms == null || current.version > version) {
+                return false;
+            }
+            replace(current, docId, Doc.removed(version));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * 删除文档，不比较版本
+     *
+     * @param docId 文档ID
+     * @return 是否已删除
+     */
+    public boolean remove(long docId) {
+        lock.writeLock().lock();
+        try {
+            Doc current = find(docId);
+            if (current == null || current.terms == null) {
+                return false;
+            }
+            replace(current, docId, Doc.removed(current.version));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * 按BM25评分查询包含任一查询词的文档
+     *
+     * @param terms 查询词，重复的词只计一次
+     * @param limit 最多返回条数
+     * @return 按评分从高到低排列的文档
+     */
+    public List<Hit> search(Collection<String> terms, int limit) {
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            double docs = Math.max(liveDocs, 1);
+            double averageLength = Math.max((double) liveLength / docs, 1);
+            for (String term : new LinkedHashSet<>(terms)) {
+                int baseTerm = base.findTerm(term.getBytes(StandardCharsets.UTF_8));
+                TermKey key = new TermKey(term);
+                TermPostings frozenPostings = frozen == null ? null : frozen.postings.get(key);
+                TermPostings deltaPostings = delta.postings.get(key);
+                long df = (baseTerm < 0 ? 0 : base.documentFrequency(baseTerm))
+                        + (frozenPostings == null ? 0 : frozenPostings.live)
+                        + (deltaPostings == null ? 0 : deltaPostings.live);
+                if (df == 0) {
+                    continue;
+                }
+                double idf = Math.log(1 + (docs - df + 0.5) / (df + 0.5));
+                
+                if (baseTerm >= 0) {
+                    PostingsReader reader = base.postings(baseTerm);
+                    while (reader.next()) {
+                        long docId = base.docId(reader.docIndex);
+                        if (!isOverridden(docId, true)) {
+                            addScore(scores, docId, idf, reader.freq, base.docLength(reader.docIndex), averageLength);
+                        }
+                    }
+                }
+                if (frozenPostings != null) {
+                    for (int i = 0; i < frozenPostings.size; i++) {
+                        Doc doc = frozenPostings.docs[i];
+                        if (!doc.superseded && !isOverridden(doc.id, false)) {
+                            addScore(scores, doc.id, idf, frozenPostings.freqs[i], doc.length, averageLength);
+                        }
+                    }
+                }
+                if (deltaPostings != null) {
+                    for (int i = 0; i < deltaPostings.size; i++) {
+                        Doc doc = deltaPostings.docs[i];
+                        if (!doc.superseded) {
+                            addScore(scores, doc.id, idf, deltaPostings.freqs[i], doc.length, averageLength);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        Comparator<Hit> order = Comparator.comparingDouble(Hit::getScore).thenComparingLong(Hit::getDocId);
+        PriorityQueue<Hit> top = new PriorityQueue<>(Math.max(limit, 1), order);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            Hit hit = new Hit(entry.getKey(), entry.getValue());
+            if (top.size() < limit) {
+                top.add(hit);
+            } else if (limit > 0 && order.compare(hit, top.peek()) > 0) {
+                top.poll();
+                top.add(hit);
+            }
+        }
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(order.reversed());
+        return hits;
+    }
+    
+    /**
+     * 将内存增量与段文件合并写入新的段文件，没有增量时不写入
+     *
+     * @throws IOException 写入失败，增量保留在内存中
+     */
+    public void commit() throws IOException {
+        synchronized (commitLock) {
+            Segment oldBase;
+            MemoryLayer layer;
+            long watermark;
+            lock.writeLock().lock();
+            try {
+                if (delta.docs.isEmpty()) {
+                    return;
+                }
+                oldBase = base;
+                layer = delta;
+                frozen = delta;
+                delta = new MemoryLayer();
+                watermark = maxVersion;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            
+            Segment merged;
+            long newGeneration = lastGeneration + 1;
+            try {
+                merged = writeSegment(oldBase, layer, watermark, generationFile(newGeneration));
+                lastGeneration = newGeneration;
+            } catch (IOException | RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    // 合并期间的更新覆盖在冻结的增量之上
+                    MemoryLayer newer = delta;
+                    delta = frozen;
+                    frozen = null;
+                    for (Map.Entry<Long, Doc> entry : newer.docs.entrySet()) {
+                        delta.apply(entry.getKey(), entry.getValue());
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+            
+            lock.writeLock().lock();
+            try {
+                base = merged;
+                generation = newGeneration;
+                frozen = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // 查询只在读锁内访问段文件，切换后旧段文件不再被访问
+            oldBase.close();
+            deleteStaleGenerations();
+        }
+    }
+    
+    /**
+     * 代号为g的段文件路径
+     */
+    private Path generationFile(long g) {
+        return file.resolveSibling(file.getFileName() + "." + g);
+    }
+    
+    /**
+     * 已有的段文件代号，按升序排列
+     */
+    private List<Long> listGenerations() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        Path dir = file.toAbsolutePath().getParent();
+        if (!Files.isDirectory(dir)) {
+            return generations;
+        }
+        String prefix = file.getFileName() + ".";
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, prefix + "*")) {
+            for (Path path : stream) {
+                String suffix = path.getFileName().toString().substring(prefix.length());
+                if (!suffix.isEmpty() && suffix.length() < 19 && suffix.chars().allMatch(Character::isDigit)) {
+                    generations.add(Long.parseLong(suffix));
+                }
+            }
+        }
+        generations.sort(null);
+        return generations;
+    }
+    
+    /**
+     * 删除当前代以外的段文件（含不带代号的旧格式文件），删除失败的留到下次
+     */
+    private void deleteStaleGenerations() {
+        List<Path> stale = new ArrayList<>();
+        stale.add(file);
+        try {
+            for (long g : listGenerations()) {
+                if (g != generation) {
+                    stale.add(generationFile(g));
+                }
+            }
+        } catch (IOException ignored) {
+            // 下次提交或加载时重试
+        }
+        for (Path path : stale) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // 仍被打开，下次提交或加载时重试
+            }
+        }
+    }
+    
+    /**
+     * 当前文档数
+     *
+     * @return 未删除的文档数
+     */
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 尚未写入段文件的文档数（含删除）
+     *
+     * @return 内存增量中的文档数
+     */
+    public int pendingSize() {
+        lock.readLock().lock();
+        try {
+            return delta.docs.size() + (frozen == null ? 0 : frozen.docs.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 已索引文档的最大版本
+     *
+     * @return 最大版本，空索引返回-1
+     */
+    public long maxVersion() {
+        lock.readLock().lock();
+        try {
+            return maxVersion;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 查找文档的最新记录，段文件中的文档返回不含词频的记录
+     */
+    private Doc find(long docId) {
+        Doc doc = delta.docs.get(docId);
+        if (doc == null && frozen != null) {
+            doc = frozen.docs.get(docId);
+        }
+        if (doc == null) {
+            int index = base.findDoc(docId);
+            if (index >= 0) {
+                doc = new Doc(base.docVersion(index), base.docLength(index), new String[0], new int[0]);
+            }
+        }
+        return doc;
+    }
+    
+    private void replace(Doc current, long docId, Doc doc) {
+        if (current != null && current.terms != null) {
+            liveDocs--;
+            liveLength -= current.length;
+        }
+        if (doc.terms != null) {
+            liveDocs++;
+            liveLength += doc.length;
+        }
+        maxVersion = Math.max(maxVersion, doc.version);
+        delta.apply(docId, doc);
+    }
+    
+    /**
+     * 文档是否被更新的层覆盖
+     *
+     * @param fromBase 记录来自段文件（否则来自冻结的增量）
+     */
+    private boolean isOverridden(long docId, boolean fromBase) {
+        return delta.docs.containsKey(docId) || (fromBase && frozen != null && frozen.docs.containsKey(docId));
+    }
+    
+    private static void addScore(Map<Long, Double> scores, long docId, double idf, int freq,
+                                 int length, double averageLength) {
+        double score = idf * freq * (K1 + 1) / (freq + K1 * (1 - B + B * length / averageLength));
+        scores.merge(docId, score, Double::sum);
+    }
+    
+    /**
+     * 合并段文件和增量，写入临时文件后改名为新一代的段文件
+     */
+    private Segment writeSegment(Segment oldBase, MemoryLayer layer, long watermark, Path target) throws IOException {
+        // 文档表：段文件中未被覆盖的文档与增量中的文档按ID归并
+        long[] layerIds = layer.docs.entrySet().stream()
+                .filter(entry -> entry.getValue().terms != null)
+                .mapToLong(Map.Entry::getKey)
+                .sorted()
+                .toArray();
+        int capacity = oldBase.docCount + layerIds.length;
+        long[] ids = new long[capacity];
+        long[] versions = new long[capacity];
+        int[] lengths = new int[capacity];
+        int[] baseToNew = new int[oldBase.docCount];
+        Map<Long, Integer> layerToNew = new HashMap<>();
+        int count = 0;
+        long totalLength = 0;
+        int i = 0;
+        int j = 0;
+        while (i < oldBase.docCount || j < layerIds.length) {
+            long baseId = i < oldBase.docCount ? oldBase.docId(i) : Long.MAX_VALUE;
+            if (i < oldBase.docCount && layer.docs.containsKey(baseId)) {
+                baseToNew[i++] = -1;
+                continue;
+            }
+            if (j < layerIds.length && (i >= oldBase.docCount || layerIds[j] < baseId)) {
+                Doc doc = layer.docs.get(layerIds[j]);
+                ids[count] = layerIds[j];
+                versions[count] = doc.version;
+                lengths[count] = doc.length;
+                layerToNew.put(layerIds[j], count);
+                j++;
+            } else {
+                ids[count] = baseId;
+                versions[count] = oldBase.docVersion(i);
+                lengths[count] = oldBase.docLength(i);
+                baseToNew[i++] = count;
+            }
+            totalLength += lengths[count];
+            count++;
+        }
+        
+        // 词典和倒排表：按字节序归并两边的词，倒排表写入临时文件
+        List<Map.Entry<byte[], TermPostings>> layerTerms = new ArrayList<>(layer.postings.size());
+        for (TermPostings termPostings : layer.postings.values()) {
+            layerTerms.add(Map.entry(termPostings.key.term.getBytes(StandardCharsets.UTF_8), termPostings));
+        }
+        layerTerms.sort((a, b) -> Arrays.compareUnsigned(a.getKey(), b.getKey()));
+        
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path postingsFile = file.resolveSibling(file.getFileName() + ".postings.tmp");
+        Path segmentFile = file.resolveSibling(file.getFileName() + ".tmp");
+        ByteArrayOutputStream dictionary = new ByteArrayOutputStream();
+        DataOutputStream dictionaryOut = new DataOutputStream(dictionary);
+        IntList entryOffsets = new IntList();
+        try {
+            long postingsLength;
+            try (CountingOutputStream postingsOut = new CountingOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(postingsFile)))) {
+                int t = 0;
+                int u = 0;
+                LongList entries = new LongList();
+                ByteList encoded = new ByteList();
+                while (t < oldBase.termCount || u < layerTerms.size()) {
+                    byte[] baseTerm = t < oldBase.termCount ? oldBase.termBytes(t) : null;
+                    byte[] layerTerm = u < layerTerms.size() ? layerTerms.get(u).getKey() : null;
+                    int compare = baseTerm == null ? 1 : layerTerm == null ? -1 : Arrays.compareUnsigned(baseTerm, layerTerm);
+                    entries.clear();
+                    if (compare <= 0) {
+                        PostingsReader reader = oldBase.postings(t);
+                        while (reader.next()) {
+                            int newIndex = baseToNew[reader.docIndex];
+                            if (newIndex >= 0) {
+                                entries.add(posting(newIndex, reader.freq));
+                            }
+                        }
+                        t++;
+                    }
+                    if (compare >= 0) {
+                        TermPostings postings = layerTerms.get(u).getValue();
+                        for (int p = 0; p < postings.size; p++) {
+                            if (!postings.docs[p].superseded) {
+                                entries.add(posting(layerToNew.get(postings.docs[p].id), postings.freqs[p]));
+                            }
+                        }
+                        u++;
+                    }
+                    if (entries.size == 0) {
+                        continue;
+                    }
+                    entries.sort();
+                    long start = postingsOut.count;
+                    encoded.clear();
+                    int previous = 0;
+                    for (int e = 0; e < entries.size; e++) {
+                        int docIndex = (int) (entries.values[e] >>> 32);
+                        encoded.addVarint(docIndex - previous);
+                        encoded.addVarint((int) entries.values[e]);
+                        previous = docIndex;
+                    }
+                    postingsOut.write(encoded.values, 0, encoded.size);
+                    byte[] term = compare <= 0 ? baseTerm : layerTerm;
+                    entryOffsets.add(dictionaryOut.size());
+                    dictionaryOut.writeShort(term.length);
+                    dictionaryOut.write(term);
+                    dictionaryOut.writeInt(entries.size);
+                    dictionaryOut.writeInt(checkedInt(start));
+                }
+                postingsLength = postingsOut.count;
+            }
+            
+            long termIndexOffset = HEADER_SIZE + (long) count * DOC_ENTRY_SIZE;
+            long dictionaryOffset = termIndexOffset + 4L * entryOffsets.size;
+            long postingsOffset = dictionaryOffset + dictionary.size();
+            checkedInt(postingsOffset + postingsLength);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(segmentFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(watermark);
+                out.writeInt(count);
+                out.writeInt(entryOffsets.size);
+                out.writeLong(totalLength);
+                out.writeInt((int) postingsOffset);
+                for (int d = 0; d < count; d++) {
+                    out.writeLong(ids[d]);
+                    out.writeLong(versions[d]);
+                    out.writeInt(lengths[d]);
+                }
+                for (int e = 0; e < entryOffsets.size; e++) {
+                    out.writeInt((int) dictionaryOffset + entryOffsets.values[e]);
+                }
+                dictionary.writeTo(out);
+                Files.copy(postingsFile, out);
+            }
+            try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            // 目标为新文件，不替换正在映射的段文件
+            Files.move(segmentFile, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(postingsFile);
+            Files.deleteIfExists(segmentFile);
+        }
+        return Segment.open(target);
+    }
+    
+    /**
+     * 倒排项编码为long，高32位为文档序号、低32位为词频，按值排序即按文档序号排序
+     */
+    private static long posting(int docIndex, int freq) {
+        return ((long) docIndex << 32) | (freq & 0xFFFFFFFFL);
+    }
+    
+    private static int checkedInt(long value) throws IOException {
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("索引段超过2GB");
+        }
+        return (int) value;
+    }
+    
+    /**
+     * 查询结果
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Hit {
+        
+        /**
+         * 文档ID
+         */
+        private final long docId;
+        
+        /**
+         * BM25评分
+         */
+        private final double score;
+    }
+    
+    /**
+     * 文档记录，词为null表示已删除
+     */
+    private static final class Doc {
+        
+        private long id;
+        
+        private final long version;
+        
+        private final int length;
+        
+        private final String[] terms;
+        
+        private final int[] freqs;
+        
+        /**
+         * 加入内存增量后各词所在的倒排表
+         */
+        private TermPostings[] postings;
+        
+        /**
+         * 已被同一层中的新记录替换，倒排表中指向该记录的项作废
+         */
+        private boolean superseded;
+        
+        private Doc(long version, int length, String[] terms, int[] freqs) {
+            this.version = version;
+            this.length = length;
+            this.terms = terms;
+            this.freqs = freqs;
+        }
+        
+        private static Doc removed(long version) {
+            return new Doc(version, 0, null, null);
+        }
+    }
+    
+    /**
+     * 内存增量中倒排表的键
+     * <p>
+     * 两个汉字组成的字符串的{@link String#hashCode()}为 c1 * 31 + c2，相邻汉字之间大量冲突，
+     * 这里对字符做FNV-1a哈希后再混合。
+     */
+    private static final class TermKey {
+        
+        private final String term;
+        
+        private final int hash;
+        
+        private TermKey(String term) {
+            this.term = term;
+            int h = 0x811C9DC5;
+            for (int i = 0; i < term.length(); i++) {
+                h = (h ^ term.charAt(i)) * 0x01000193;
+            }
+            h ^= h >>> 16;
+            h *= 0x85EBCA6B;
+            h ^= h >>> 13;
+            this.hash = h;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TermKey && ((TermKey) o).term.equals(term);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+    
+    /**
+     * 内存增量中一个词的倒排表，项按添加顺序排列，作废的项在读取时跳过
+     */
+    private static final class TermPostings {
+        
+        private final TermKey key;
+        
+        private Doc[] docs = new Doc[4];
+        
+        private int[] freqs = new int[4];
+        
+        private int size;
+        
+        /**
+         * 未作废的项数，即文档频率
+         */
+        private int live;
+        
+        private TermPostings(TermKey key) {
+            this.key = key;
+        }
+        
+        private void add(Doc doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size++] = freq;
+            live++;
+        }
+    }
+    
+    /**
+     * 内存增量：文档记录（含删除）和倒排表
+     * <p>
+     * 倒排项直接引用文档记录，每项只占一个引用和一个int；文档被替换时只标记旧记录，不从倒排表中删除。
+     */
+    private static final class MemoryLayer {
+        
+        private final Map<Long, Doc> docs = new HashMap<>();
+        
+        private final Map<TermKey, TermPostings> postings = new HashMap<>();
+        
+        private void apply(long docId, Doc doc) {
+            Doc added = new Doc(doc.version, doc.length, doc.terms, doc.freqs);
+            added.id = docId;
+            Doc previous = docs.put(docId, added);
+            if (previous != null && previous.postings != null) {
+                previous.superseded = true;
+                for (TermPostings termPostings : previous.postings) {
+                    if (--termPostings.live == 0) {
+                        postings.remove(termPostings.key);
+                    }
+                }
+            }
+            if (added.terms != null) {
+                added.postings = new TermPostings[added.terms.length];
+                for (int i = 0; i < added.terms.length; i++) {
+                    TermPostings termPostings = postings.computeIfAbsent(new TermKey(added.terms[i]), TermPostings::new);
+                    termPostings.add(added, added.freqs[i]);
+                    added.postings[i] = termPostings;
+                }
+            }
+        }
+    }
+    
+    /**
+     * 内存映射的只读段文件
+     */
+    private static final class Segment {
+        
+        private static final Segment EMPTY = new Segment(null, -1, 0, 0, 0, 0);
+        
+        /**
+         * 解除映射的方法（sun.misc.Unsafe#invokeCleaner），不可用时为null，映射由GC回收时解除
+         */
+        private static final Object UNSAFE;
+        
+        private static final Method INVOKE_CLEANER;
+        
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field field = unsafeClass.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                unsafe = field.get(null);
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                unsafe = null;
+                invokeCleaner = null;
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+        }
+        
+        private final ByteBuffer buffer;
+        
+        private final long watermark;
+        
+        private final int docCount;
+        
+        private final int termCount;
+        
+        private final long totalLength;
+        
+        private final int postingsOffset;
+        
+        private final int termIndexOffset;
+        
+        private Segment(ByteBuffer buffer, long watermark, int docCount, int termCount,
+                        long totalLength, int postingsOffset) {
+            this.buffer = buffer;
+            this.watermark = watermark;
+            this.docCount = docCount;
+            this.termCount = termCount;
+            this.totalLength = totalLength;
+            this.postingsOffset = postingsOffset;
+            this.termIndexOffset = HEADER_SIZE + docCount * DOC_ENTRY_SIZE;
+        }
+        
+        private static Segment open(Path file) throws IOException {
+            ByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                    throw new IOException("索引段文件损坏: " + file);
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("索引段文件格式不支持: " + file);
+            }
+            int docCount = buffer.getInt(16);
+            int termCount = buffer.getInt(20);
+            int postingsOffset = buffer.getInt(32);
+            long dictionaryOffset = HEADER_SIZE + (long) docCount * DOC_ENTRY_SIZE + 4L * termCount;
+            if (docCount < 0 || termCount < 0 || dictionaryOffset > postingsOffset || postingsOffset > buffer.capacity()) {
+                throw new IOException("索引段文件损坏: " + file);
+            }
+            return new Segment(buffer, buffer.getLong(8), docCount, termCount, buffer.getLong(24), postingsOffset);
+        }
+        
+        /**
+         * 解除映射，之后不能再访问；Windows上解除映射后段文件才能删除
+         */
+        private void close() {
+            if (buffer == null || INVOKE_CLEANER == null) {
+                return;
+            }
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+                // 由GC回收时解除
+            }
+        }
+        
+        private long docId(int index) {
+            return buffer.getLong(HEADER_SIZE + index * DOC_ENTRY_SIZE);
+        }
+        
+        private long docVersion(int index) {
+            return buffer.getLong(HEADER_SIZE + index * DOC_ENTRY_SIZE + 8);
+        }
+        
+        private int docLength(int index) {
+            return buffer.getInt(HEADER_SIZE + index * DOC_ENTRY_SIZE + 16);
+        }
+        
+        private int findDoc(long docId) {
+            int low = 0;
+            int high = docCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long value = docId(mid);
+                if (value < docId) {
+                    low = mid + 1;
+                } else if (value > docId) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+        
+        private int entryOffset(int term) {
+            return buffer.getInt(termIndexOffset + term * 4);
+        }
+        
+        private byte[] termBytes(int term) {
+            int offset = entryOffset(term);
+            byte[] bytes = new byte[buffer.getShort(offset)];
+            buffer.get(offset + 2, bytes);
+            return bytes;
+        }
+        
+        private int findTerm(byte[] term) {
+            int low = 0;
+            int high = termCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int compare = Arrays.compareUnsigned(termBytes(mid), term);
+                if (compare < 0) {
+                    low = mid + 1;
+                } else if (compare > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+        
+        private int documentFrequency(int term) {
+            int offset = entryOffset(term);
+            return buffer.getInt(offset + 2 + buffer.getShort(offset));
+        }
+        
+        private PostingsReader postings(int term) {
+            int offset = entryOffset(term);
+            int afterTerm = offset + 2 + buffer.getShort(offset);
+            return new PostingsReader(buffer, postingsOffset + buffer.getInt(afterTerm + 4), buffer.getInt(afterTerm));
+        }
+    }
+    
+    /**
+     * 顺序读取段文件中一个词的倒排表
+     */
+    private static final class PostingsReader {
+        
+        private final ByteBuffer buffer;
+        
+        private int position;
+        
+        private int remaining;
+        
+        private int docIndex;
+        
+        private int freq;
+        
+        private PostingsReader(ByteBuffer buffer, int position, int count) {
+            this.buffer = buffer;
+            this.position = position;
+            this.remaining = count;
+        }
+        
+        private boolean next() {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            docIndex += readVarint();
+            freq = readVarint();
+            return true;
+        }
+        
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+    
+    /**
+     * 可增长的int数组
+     */
+    private static final class IntList {
+        
+        private int[] values = new int[16];
+        
+        private int size;
+        
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+    
+    /**
+     * 可增长的long数组
+     */
+    private static final class LongList {
+        
+        private long[] values = new long[16];
+        
+        private int size;
+        
+        private void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+        
+        private void clear() {
+            size = 0;
+        }
+        
+        /**
+         * 从小到大排序，已有序时（只有段文件中的倒排项）不排序
+         */
+        private void sort() {
+            for (int i = 1; i < size; i++) {
+                if (values[i - 1] > values[i]) {
+                    Arrays.sort(values, 0, size);
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * 可增长的byte数组，用于变长整数编码
+     */
+    private static final class ByteList {
+        
+        private byte[] values = new byte[256];
+        
+        private int size;
+        
+        private void addVarint(int value) {
+            if (size + 5 > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            while ((value & ~0x7F) != 0) {
+                values[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            values[size++] = (byte) value;
+        }
+        
+        private void clear() {
+            size = 0;
+        }
+    }
+    
+    /**
+     * 记录已写入字节数的输出流
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        
+        private final OutputStream out;
+        
+        private long count;
+        
+        private CountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.psychegame.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 已验证的JWT令牌主体
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Getter
+@AllArgsConstructor
+public class JwtPrincipal {
+    
+    /**
+     * 管理员角色
+     */
+    public static final String ROLE_ADMIN = "admin";
+    
+    /**
+     * 用户ID
+     */
+    private final Long userId;
+    
+    /**
+     * 用户名
+     */
+    private final String username;
+    
+    /**
+     * 角色：user/admin，签发时未携带角色的令牌为null
+     */
+    private final String role;
+    
+    /**
+     * 过期时间（毫秒时间戳）
+     */
+    private final long expiresAtMillis;
+    
+    /**
+     * 判断令牌是否已过期
+     *
+     * @return 是否过期
+     */
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= expiresAtMillis;
+    }
+    
+    /**
+     * 判断是否为管理员
+     *
+     * @return 是否为管理员
+     */
+    public boolean isAdmin() {
+        return ROLE_ADMIN.equals(role);
+    }
+}
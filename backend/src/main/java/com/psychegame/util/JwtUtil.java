@@ -1,16 +1,27 @@
 package com.psychegame.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.DecodingException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -31,6 +42,128 @@ public class JwtUtil {
     @Value("${jwt.refresh-expiration}")
     private long refreshExpiration;
     
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+    
+    /**
+     * 签名密钥，启动时解码一次
+     */
+    private SecretKey signKey;
+    
+    /**
+     * 令牌解析器，线程安全，可复用
+     */
+    private JwtParser jwtParser;
+    
+    /**
+     * 已验证令牌缓存：键为令牌的SHA-256摘要，条目在令牌过期时自动失效
+     */
+    private Cache<ByteBuffer, JwtPrincipal> verifiedTokens;
+    
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+    
+    @PostConstruct
+    public void init() {
+        signKey = Keys.hmacShaKeyFor(decodeSecret(secret));
+        jwtParser = Jwts.parser()
+                .verifyWith(signKey)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<ByteBuffer, JwtPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, JwtPrincipal value, long currentTime) {
+                        long remainingMillis = value.getExpiresAtMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, JwtPrincipal value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, JwtPrincipal value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+    
+    /**
+     * 解码签名密钥
+     * <p>
+     * 优先按Base64解码；配置的密钥不是合法Base64时使用原始字节。
+     * HS256要求密钥至少256位，长度不足时取其SHA-256摘要作为密钥。
+     *
+     * @param secret 配置的密钥
+     * @return 密钥字节
+     */
+    private static byte[] decodeSecret(String secret) {
+        byte[] keyBytes;
+        try {
+            keyBytes = Decoders.BASE64.decode(secret);
+        } catch (DecodingException e) {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        if (keyBytes.length < 32) {
+            MessageDigest messageDigest = SHA256.get();
+            messageDigest.reset();
+            keyBytes = messageDigest.digest(keyBytes);
+        }
+        return keyBytes;
+    }
+    
+    /**
+     * 验证令牌并返回令牌主体
+     * <p>
+     * 签名校验和声明解析只做一次，结果按令牌摘要缓存到令牌过期为止，
+     * 同一令牌的后续请求只需计算一次摘要。
+     *
+     * @param token JWT令牌
+     * @return 令牌主体
+     * @throws RuntimeException 令牌无效或已过期
+     */
+    public JwtPrincipal verifyToken(String token) {
+        ByteBuffer key = digest(token);
+        JwtPrincipal principal = verifiedTokens.getIfPresent(key);
+        if (principal != null && !principal.isExpired()) {
+            return principal;
+        }
+        
+        Claims claims = extractAllClaims(token);
+        Object userId = claims.get("userId");
+        if (userId == null || claims.getExpiration() == null) {
+            throw new RuntimeException("JWT令牌缺少必要声明");
+        }
+        principal = new JwtPrincipal(
+                Long.parseLong(userId.toString()),
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.getExpiration().getTime()
+        );
+        verifiedTokens.put(key, principal);
+        return principal;
+    }
+    
+    /**
+     * 计算令牌摘要，作为缓存键，避免在内存中长期保留原始令牌
+     *
+     * @param token JWT令牌
+     * @return 摘要
+     */
+    private ByteBuffer digest(String token) {
+        MessageDigest messageDigest = SHA256.get();
+        messageDigest.reset();
+        return ByteBuffer.wrap(messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+    
     /**
      * 从令牌中获取用户名
      *
@@ -83,9 +216,7 @@ public class JwtUtil {
      */
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSignKey())
-                    .build()
+            return jwtParser
                     .parseSignedClaims(token)
                     .getPayload();
         } catch (Exception e) {
@@ -143,7 +274,7 @@ public class JwtUtil {
     ) {
         return Jwts
                 .builder()
-                .setClaims(extraClaims)
+                .setClaims(extraClaims == null ? Map.of() : extraClaims)
                 .setSubject(username)
                 .setId(userId.toString())
                 .claim("userId", userId)
@@ -170,8 +301,7 @@ public class JwtUtil {
      *
      * @return 签名密钥
      */
-    private javax.crypto.SecretKey getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private SecretKey getSignKey() {
+        return signKey;
     }
 }
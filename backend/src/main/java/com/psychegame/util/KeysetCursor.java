@@ -0,0 +1,67 @@
+package com.psychegame.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 键集分页游标
+ * <p>
+ * 记录上一页最后一行的排序键（时间, ID），下一页从该位置之后继续查询，
+ * 查询代价与页码无关。对外以URL安全的Base64字符串传递。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetCursor {
+    
+    /**
+     * 上一页最后一行的时间
+     */
+    private final LocalDateTime time;
+    
+    /**
+     * 上一页最后一行的ID
+     */
+    private final Long id;
+    
+    /**
+     * 编码游标
+     *
+     * @param time 时间
+     * @param id ID
+     * @return 游标字符串
+     */
+    public static String encode(LocalDateTime time, Long id) {
+        String raw = time + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * 解码游标
+     *
+     * @param cursor 游标字符串，为空表示第一页
+     * @return 游标，第一页返回null
+     * @throws RuntimeException 游标格式错误
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new KeysetCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (Exception e) {
+            throw new RuntimeException("分页游标无效");
+        }
+    }
+}
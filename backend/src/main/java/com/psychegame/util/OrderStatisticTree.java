@@ -0,0 +1,214 @@
+package com.psychegame.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 顺序统计树（按子树大小增强的Treap）
+ * <p>
+ * 插入、删除、取名次、按名次取元素均为期望O(log n)，取连续区间为O(log n + k)。
+ * 非线程安全，由调用方加锁。
+ *
+ * @param <K> 元素类型，按比较器去重
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public class OrderStatisticTree<K> {
+    
+    private final Comparator<? super K> comparator;
+    
+    private Node<K> root;
+    
+    public OrderStatisticTree(Comparator<? super K> comparator) {
+        this.comparator = comparator;
+    }
+    
+    /**
+     * 元素个数
+     *
+     * @return 元素个数
+     */
+    public int size() {
+        return size(root);
+    }
+    
+    /**
+     * 插入元素
+     *
+     * @param key 元素
+     * @return 元素已存在时返回false
+     */
+    public boolean insert(K key) {
+        if (rank(key) >= 0) {
+            return false;
+        }
+        Node<K>[] parts = split(root, key, false);
+        root = merge(merge(parts[0], new Node<>(key)), parts[1]);
+        return true;
+    }
+    
+    /**
+     * 删除元素
+     *
+     * @param key 元素
+     * @return 元素不存在时返回false
+     */
+    public boolean remove(K key) {
+        Node<K>[] lower = split(root, key, false);
+        Node<K>[] upper = split(lower[1], key, true);
+        root = merge(lower[0], upper[1]);
+        return upper[0] != null;
+    }
+    
+    /**
+     * 取元素的名次
+     *
+     * @param key 元素
+     * @return 比该元素小的元素个数（从0开始），元素不存在时返回-1
+     */
+    public int rank(K key) {
+        int rank = 0;
+        Node<K> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(key, node.key);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * 按名次取元素
+     *
+     * @param index 名次（从0开始）
+     * @return 元素，越界时返回null
+     */
+    public K select(int index) {
+        if (index < 0 || index >= size()) {
+            return null;
+        }
+        Node<K> node = root;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.key;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 按名次取连续区间
+     *
+     * @param from 起始名次（从0开始，包含）
+     * @param count 最多取的个数
+     * @return 按顺序排列的元素
+     */
+    public List<K> range(int from, int count) {
+        int start = Math.max(0, from);
+        int end = (int) Math.min((long) from + count, size());
+        List<K> result = new ArrayList<>(Math.max(0, end - start));
+        collect(root, 0, start, end, result);
+        return result;
+    }
+    
+    /**
+     * 清空
+     */
+    public void clear() {
+        root = null;
+    }
+    
+    private void collect(Node<K> node, int offset, int from, int to, List<K> out) {
+        if (node == null || offset >= to || offset + node.size <= from) {
+            return;
+        }
+        collect(node.left, offset, from, to, out);
+        int index = offset + size(node.left);
+        if (index >= from && index < to) {
+            out.add(node.key);
+        }
+        collect(node.right, index + 1, from, to, out);
+    }
+    
+    /**
+     * 按key拆分为两棵树：左树为小于key（inclusive时为小于等于key）的元素，右树为其余元素
+     */
+    @SuppressWarnings("unchecked")
+    private Node<K>[] split(Node<K> node, K key, boolean inclusive) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        int cmp = comparator.compare(node.key, key);
+        if (cmp < 0 || (inclusive && cmp == 0)) {
+            Node<K>[] parts = split(node.right, key, inclusive);
+            node.right = parts[0];
+            update(node);
+            parts[0] = node;
+            return parts;
+        }
+        Node<K>[] parts = split(node.left, key, inclusive);
+        node.left = parts[1];
+        update(node);
+        parts[1] = node;
+        return parts;
+    }
+    
+    /**
+     * 合并两棵树，left中的元素均小于right中的元素
+     */
+    private Node<K> merge(Node<K> left, Node<K> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+    
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+    
+    private static void update(Node<?> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+    
+    private static final class Node<K> {
+        
+        private final K key;
+        
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        
+        private int size = 1;
+        
+        private Node<K> left;
+        
+        private Node<K> right;
+        
+        private Node(K key) {
+            this.key = key;
+        }
+    }
+}
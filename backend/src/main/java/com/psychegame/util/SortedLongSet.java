@@ -0,0 +1,93 @@
+package com.psychegame.util;
+
+import java.util.Arrays;
+
+/**
+ * 基于有序long数组的紧凑集合
+ * <p>
+ * 每个元素只占8字节，查找为二分查找，插入、删除需要移动数组元素，适合读多写少、元素数在数万以内的场景。
+ * 非线程安全，由调用方加锁。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public class SortedLongSet {
+    
+    private long[] values;
+    
+    private int size;
+    
+    /**
+     * 由无序、可能重复的元素创建集合
+     *
+     * @param initial 初始元素
+     */
+    public SortedLongSet(long[] initial) {
+        long[] sorted = initial.clone();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        this.values = sorted.length == count ? sorted : Arrays.copyOf(sorted, Math.max(count, 4));
+        this.size = count;
+    }
+    
+    /**
+     * 是否包含元素
+     *
+     * @param value 元素
+     * @return 是否包含
+     */
+    public boolean contains(long value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+    
+    /**
+     * 添加元素
+     *
+     * @param value 元素
+     * @return 集合是否变化
+     */
+    public boolean add(long value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            return false;
+        }
+        int insertAt = -index - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, size + (size >> 1)));
+        }
+        System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+        values[insertAt] = value;
+        size++;
+        return true;
+    }
+    
+    /**
+     * 删除元素
+     *
+     * @param value 元素
+     * @return 集合是否变化
+     */
+    public boolean remove(long value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        return true;
+    }
+    
+    /**
+     * 元素个数
+     *
+     * @return 元素个数
+     */
+    public int size() {
+        return size;
+    }
+}
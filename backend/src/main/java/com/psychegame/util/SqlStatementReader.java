@@ -0,0 +1,103 @@
+package com.psychegame.util;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * SQL脚本语句读取器
+ * <p>
+ * 从字符流中逐条读取以分号结尾的语句，不把整个脚本读入内存。识别单引号字符串（''转义）、
+ * 双引号标识符和行注释（--），其中的分号不作为语句结尾；语句前的注释被跳过。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public class SqlStatementReader {
+    
+    private final Reader reader;
+    
+    private final StringBuilder statement = new StringBuilder();
+    
+    /**
+     * 预读的一个字符，-2表示没有
+     */
+    private int peeked = -2;
+    
+    public SqlStatementReader(Reader reader) {
+        this.reader = reader;
+    }
+    
+    /**
+     * 读取下一条语句
+     *
+     * @return 不含结尾分号的语句，脚本结束时返回null
+     * @throws IOException 读取失败或脚本在字符串、标识符中间结束
+     */
+    public String next() throws IOException {
+        statement.setLength(0);
+        int c;
+        while ((c = read()) >= 0) {
+            if (c == ';') {
+                String sql = statement.toString().trim();
+                if (sql.isEmpty()) {
+                    continue;
+                }
+                return sql;
+            }
+            if (c == '\'' || c == '"') {
+                readQuoted(c);
+            } else if (c == '-' && peek() == '-') {
+                skipLine();
+                if (statement.length() > 0) {
+                    statement.append('\n');
+                }
+            } else if (statement.length() > 0 || !Character.isWhitespace(c)) {
+                statement.append((char) c);
+            }
+        }
+        if (statement.toString().isBlank()) {
+            return null;
+        }
+        throw new IOException("脚本不完整");
+    }
+    
+    private void readQuoted(int quote) throws IOException {
+        statement.append((char) quote);
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                throw new IOException("脚本不完整");
+            }
+            statement.append((char) c);
+            if (c == quote) {
+                if (peek() != quote) {
+                    return;
+                }
+                statement.append((char) read());
+            }
+        }
+    }
+    
+    private void skipLine() throws IOException {
+        int c;
+        while ((c = read()) >= 0 && c != '\n') {
+            // 跳过注释
+        }
+    }
+    
+    private int read() throws IOException {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        return reader.read();
+    }
+    
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = reader.read();
+        }
+        return peeked;
+    }
+}
@@ -0,0 +1,66 @@
+package com.psychegame.websocket;
+
+import com.psychegame.util.JwtPrincipal;
+import com.psychegame.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * WebSocket握手鉴权
+ * <p>
+ * 浏览器的WebSocket无法设置请求头，令牌优先从查询参数token读取，其次读取Authorization头。
+ * 验证通过后将用户ID、用户名放入会话属性，失败时返回401且不升级连接。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Component
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+    
+    public static final String USER_ID = "userId";
+    
+    public static final String USERNAME = "username";
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+        if (token == null) {
+            String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (authHeader != null && authHeader.startsWith("Bearer ")) {
+                token = authHeader.substring(7);
+            }
+        }
+        if (token == null || token.isEmpty()) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        
+        try {
+            JwtPrincipal principal = jwtUtil.verifyToken(token);
+            attributes.put(USER_ID, principal.getUserId());
+            attributes.put(USERNAME, principal.getUsername());
+            return true;
+        } catch (Exception e) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+    }
+    
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
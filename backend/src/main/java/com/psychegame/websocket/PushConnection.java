@@ -0,0 +1,243 @@
+package com.psychegame.websocket;
+
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.Session;
+import lombok.Getter;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 一个WebSocket连接及其待发送队列
+ * <p>
+ * 待发送队列按键合并：同一主题尚未发出的帧被新帧替换，只保留最新状态；队列满时丢弃最早的帧。
+ * 每个连接同一时刻最多一帧在发送中，使用容器的异步发送，发送线程只负责发起发送，不等待网络IO；
+ * 一帧发送完成后再调度发送下一帧。慢客户端只会积压自己的队列（超出容量丢弃最早的帧），
+ * 单帧在发送超时内未发完时断开该连接。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+public class PushConnection {
+    
+    /**
+     * Tomcat阻塞发送超时属性，用于不支持异步发送时
+     */
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+    
+    /**
+     * 推送结果：是否合并了旧帧、是否丢弃了帧、是否需要调度发送
+     */
+    static final int CONFLATED = 1;
+    
+    static final int DROPPED = 2;
+    
+    static final int SCHEDULE = 4;
+    
+    @Getter
+    private final WebSocketSession session;
+    
+    @Getter
+    private final Long userId;
+    
+    /**
+     * 已订阅的主题
+     */
+    @Getter
+    private final Set<String> topics = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * 待发送的帧，键为主题（通知使用不重复的键），按入队顺序发送
+     */
+    private final LinkedHashMap<String, WebSocketMessage<?>> pending = new LinkedHashMap<>();
+    
+    /**
+     * 是否已有发送任务在处理本连接
+     */
+    private final AtomicBoolean draining = new AtomicBoolean();
+    
+    /**
+     * 容器的异步发送端，无法取得时为null，改用阻塞发送
+     */
+    private final RemoteEndpoint.Async asyncRemote;
+    
+    public PushConnection(WebSocketSession session, Long userId, long sendTimeoutMillis) {
+        this.session = session;
+        this.userId = userId;
+        RemoteEndpoint.Async remote = null;
+        // 慢客户端发送超时后断开
+        if (session instanceof NativeWebSocketSession nativeSession) {
+            Session wsSession = nativeSession.getNativeSession(Session.class);
+            if (wsSession != null) {
+                wsSession.getUserProperties().put(BLOCKING_SEND_TIMEOUT, sendTimeoutMillis);
+                remote = wsSession.getAsyncRemote();
+                remote.setSendTimeout(sendTimeoutMillis);
+            }
+        }
+        this.asyncRemote = remote;
+    }
+    
+    /**
+     * 将帧放入待发送队列
+     *
+     * @param key 合并键
+     * @param message 帧
+     * @param capacity 队列容量
+     * @return CONFLATED、DROPPED、SCHEDULE的组合
+     */
+    int offer(String key, WebSocketMessage<?> message, int capacity) {
+        int result = 0;
+        synchronized (pending) {
+            if (pending.replace(key, message) != null) {
+                result |= CONFLATED;
+            } else {
+                if (pending.size() >= capacity) {
+                    Iterator<Map.Entry<String, WebSocketMessage<?>>> oldest = pending.entrySet().iterator();
+                    oldest.next();
+                    oldest.remove();
+                    result |= DROPPED;
+                }
+                pending.put(key, message);
+            }
+        }
+        if (draining.compareAndSet(false, true)) {
+            result |= SCHEDULE;
+        }
+        return result;
+    }
+    
+    /**
+     * 丢弃所有未发送的帧，只保留给定的帧，用于增量数据流丢帧后改发全量数据
+     *
+     * @param key 合并键
+     * @param message 帧
+     * @return 是否需要调度发送
+     */
+    boolean reset(String key, WebSocketMessage<?> message) {
+        synchronized (pending) {
+            pending.clear();
+            pending.put(key, message);
+        }
+        return draining.compareAndSet(false, true);
+    }
+    
+    /**
+     * 发送队列中的帧，由发送线程池调用
+     * <p>
+     * 支持异步发送时发起下一帧的发送后立即返回，发送完成后再次调度到发送线程池；
+     * 否则阻塞发送队列中的所有帧。
+     *
+     * @param executor 发送线程池
+     */
+    void drain(Executor executor) {
+        while (true) {
+            WebSocketMessage<?> message = poll();
+            if (message == null) {
+                draining.set(false);
+                // 释放标记后可能有新帧入队而未调度，重新抢占继续发送
+                if (isEmpty() || !draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            if (!session.isOpen()) {
+                clear();
+                continue;
+            }
+            if (asyncRemote != null) {
+                sendAsync(message, executor);
+                return;
+            }
+            try {
+                session.sendMessage(message);
+            } catch (IOException | IllegalStateException e) {
+                fail();
+            }
+        }
+    }
+    
+    /**
+     * 异步发送一帧，发送中保持发送标记，完成前不会发起下一帧
+     */
+    private void sendAsync(WebSocketMessage<?> message, Executor executor) {
+        SendHandler handler = result -> {
+            if (!result.isOK()) {
+                // 发送超时或连接异常，保持发送标记，不再发送
+                fail();
+                return;
+            }
+            try {
+                executor.execute(() -> drain(executor));
+            } catch (RejectedExecutionException e) {
+                // 线程池关闭中
+                clear();
+            }
+        };
+        try {
+            if (message instanceof TextMessage textMessage) {
+                asyncRemote.sendText(textMessage.getPayload(), handler);
+            } else if (message instanceof BinaryMessage binaryMessage) {
+                // 同一帧可能发给多个连接，各自使用独立的读取位置
+                asyncRemote.sendBinary(binaryMessage.getPayload().duplicate(), handler);
+            } else {
+                throw new IllegalArgumentException("不支持的消息类型: " + message.getClass().getName());
+            }
+        } catch (IllegalStateException e) {
+            fail();
+        }
+    }
+    
+    /**
+     * 发送失败，丢弃未发送的帧并断开连接
+     */
+    private void fail() {
+        clear();
+        close(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+    
+    void close(CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException ignored) {
+            // 连接已断开
+        }
+    }
+    
+    private WebSocketMessage<?> poll() {
+        synchronized (pending) {
+            Iterator<WebSocketMessage<?>> iterator = pending.values().iterator();
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            WebSocketMessage<?> message = iterator.next();
+            iterator.remove();
+            return message;
+        }
+    }
+    
+    private boolean isEmpty() {
+        synchronized (pending) {
+            return pending.isEmpty();
+        }
+    }
+    
+    private void clear() {
+        synchronized (pending) {
+            pending.clear();
+        }
+    }
+}
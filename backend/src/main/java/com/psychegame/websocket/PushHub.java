@@ -0,0 +1,387 @@
+package com.psychegame.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * WebSocket推送中心
+ * <p>
+ * 主题更新只登记数据来源，每个推送周期（tick）对有订阅者的脏主题计算一次数据、序列化一次，
+ * 再放入各订阅连接的待发送队列；同一周期内同一主题的多次更新合并为一帧。
+ * 用户通知按用户在同一周期内合并为一帧。实际发送由发送线程池以异步方式发起，推送周期线程不做网络IO，
+ * 发送线程也不等待慢客户端，见 {@link PushConnection}。
+ * 推送只覆盖连接到本实例的客户端。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class PushHub {
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${websocket.push.tick:100}")
+    private long tickMillis;
+    
+    @Value("${websocket.push.queue-capacity:32}")
+    private int queueCapacity;
+    
+    @Value("${websocket.push.max-topics:16}")
+    private int maxTopics;
+    
+    @Value("${websocket.push.send-threads:0}")
+    private int sendThreads;
+    
+    /**
+     * 会话ID -> 连接
+     */
+    private final Map<String, PushConnection> connections = new ConcurrentHashMap<>();
+    
+    /**
+     * 用户ID -> 该用户的连接
+     */
+    private final Map<Long, Set<PushConnection>> connectionsByUser = new ConcurrentHashMap<>();
+    
+    /**
+     * 主题 -> 订阅连接
+     */
+    private final Map<String, Set<PushConnection>> subscribers = new ConcurrentHashMap<>();
+    
+    /**
+     * 本周期内有更新的主题 -> 最新的数据来源
+     */
+    private final Map<String, Supplier<?>> dirtyTopics = new ConcurrentHashMap<>();
+    
+    /**
+     * 本周期内待推送的用户通知
+     */
+    private final Map<Long, Queue<Object>> pendingNotifications = new ConcurrentHashMap<>();
+    
+    private final AtomicLong frameSequence = new AtomicLong();
+    
+    private final ScheduledExecutorService tickExecutor =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("ws-push-tick-"));
+    
+    /**
+     * 发送线程池，每个连接同一时刻最多一个发送任务，队列长度不超过连接数；任务只发起异步发送，不等待完成
+     */
+    private ThreadPoolExecutor sendExecutor;
+    
+    private Timer tickTimer;
+    
+    private Counter framesCounter;
+    
+    private Counter conflatedCounter;
+    
+    private Counter droppedCounter;
+    
+    @PostConstruct
+    public void init() {
+        int threads = sendThreads > 0 ? sendThreads : Runtime.getRuntime().availableProcessors() * 2;
+        sendExecutor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("ws-send-")
+        );
+        Gauge.builder("websocket.push.send.queue", sendExecutor, e -> e.getQueue().size())
+                .description("等待发送的连接数")
+                .register(meterRegistry);
+        tickTimer = Timer.builder("websocket.push.tick")
+                .description("推送周期耗时")
+                .register(meterRegistry);
+        framesCounter = Counter.builder("websocket.push.frames")
+                .description("放入待发送队列的帧数")
+                .register(meterRegistry);
+        conflatedCounter = Counter.builder("websocket.push.conflated")
+                .description("被同主题新帧替换的未发送帧数")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("websocket.push.dropped")
+                .description("因待发送队列已满被丢弃的帧数")
+                .register(meterRegistry);
+        Gauge.builder("websocket.connections", connections, Map::size)
+                .description("当前WebSocket连接数")
+                .register(meterRegistry);
+        tickExecutor.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        tickExecutor.shutdownNow();
+        sendExecutor.shutdown();
+    }
+    
+    /**
+     * 登记连接
+     *
+     * @param connection 连接
+     */
+    public void register(PushConnection connection) {
+        connections.put(connection.getSession().getId(), connection);
+        // 在compute中追加，与注销时移除空集合互斥，不会追加到已移除的集合
+        connectionsByUser.compute(connection.getUserId(), (id, set) -> {
+            Set<PushConnection> userConnections = set != null ? set : ConcurrentHashMap.newKeySet();
+            userConnections.add(connection);
+            return userConnections;
+        });
+    }
+    
+    /**
+     * 注销连接并取消其所有订阅
+     *
+     * @param sessionId 会话ID
+     */
+    public void unregister(String sessionId) {
+        PushConnection connection = connections.remove(sessionId);
+        if (connection == null) {
+            return;
+        }
+        for (String topic : connection.getTopics()) {
+            removeSubscriber(topic, connection);
+        }
+        connectionsByUser.computeIfPresent(connection.getUserId(), (id, set) -> {
+            set.remove(connection);
+            return set.isEmpty() ? null : set;
+        });
+    }
+    
+    /**
+     * 订阅主题
+     *
+     * @param connection 连接
+     * @param topic 主题
+     */
+    public void subscribe(PushConnection connection, String topic) {
+        if (connection.getTopics().size() >= maxTopics && !connection.getTopics().contains(topic)) {
+            throw new RuntimeException("订阅的主题过多");
+        }
+        if (connection.getTopics().add(topic)) {
+            // 在compute中追加，与取消订阅时移除空集合互斥，不会追加到已移除的集合
+            subscribers.compute(topic, (t, set) -> {
+                Set<PushConnection> topicSubscribers = set != null ? set : ConcurrentHashMap.newKeySet();
+                topicSubscribers.add(connection);
+                return topicSubscribers;
+            });
+        }
+    }
+    
+    /**
+     * 取消订阅主题
+     *
+     * @param connection 连接
+     * @param topic 主题
+     */
+    public void unsubscribe(PushConnection connection, String topic) {
+        if (connection.getTopics().remove(topic)) {
+            removeSubscriber(topic, connection);
+        }
+    }
+    
+    /**
+     * 登记主题更新，下个推送周期计算数据并推送给订阅者；没有订阅者时忽略
+     *
+     * @param topic 主题
+     * @param payload 数据来源，每个周期最多调用一次
+     */
+    public void publish(String topic, Supplier<?> payload) {
+        if (subscribers.containsKey(topic)) {
+            dirtyTopics.put(topic, payload);
+        }
+    }
+    
+    /**
+     * 推送用户通知，用户不在线时忽略
+     *
+     * @param userId 用户ID
+     * @param notification 通知内容
+     */
+    public void notifyUser(Long userId, Object notification) {
+        if (connectionsByUser.containsKey(userId)) {
+            // 在compute中追加，与推送周期按键移除互斥，不会追加到已取走的队列
+            pendingNotifications.compute(userId, (id, queue) -> {
+                Queue<Object> notifications = queue != null ? queue : new ConcurrentLinkedQueue<>();
+                notifications.add(notification);
+                return notifications;
+            });
+        }
+    }
+    
+    /**
+     * 向单个连接发送一帧，不与其他帧合并
+     *
+     * @param connection 连接
+     * @param frame 帧内容
+     */
+    public void send(PushConnection connection, Object frame) {
+        TextMessage message = toMessage(frame);
+        if (message != null) {
+            offer(connection, "frame#" + frameSequence.incrementAndGet(), message);
+        }
+    }
+    
+    private void tick() {
+        long start = System.nanoTime();
+        try {
+            flushTopics();
+            flushNotifications();
+        } catch (Exception e) {
+            log.error("WebSocket推送失败", e);
+        } finally {
+            tickTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    private void flushTopics() {
+        for (String topic : dirtyTopics.keySet()) {
+            // 按键原子移除，移除后到达的更新留到下个周期
+            Supplier<?> payload = dirtyTopics.remove(topic);
+            Set<PushConnection> targets = subscribers.get(topic);
+            if (payload == null || targets == null || targets.isEmpty()) {
+                continue;
+            }
+            Map<String, Object> frame = new LinkedHashMap<>();
+            frame.put("type", "topic");
+            frame.put("topic", topic);
+            try {
+                frame.put("data", payload.get());
+            } catch (Exception e) {
+                log.warn("计算主题数据失败: topic={}", topic, e);
+                continue;
+            }
+            TextMessage message = toMessage(frame);
+            if (message == null) {
+                continue;
+            }
+            for (PushConnection connection : targets) {
+                offer(connection, topic, message);
+            }
+        }
+    }
+    
+    private void flushNotifications() {
+        for (Long userId : pendingNotifications.keySet()) {
+            Queue<Object> queue = pendingNotifications.remove(userId);
+            Set<PushConnection> targets = connectionsByUser.get(userId);
+            if (queue == null || targets == null || targets.isEmpty()) {
+                continue;
+            }
+            List<Object> notifications = new ArrayList<>(queue);
+            Map<String, Object> frame = new LinkedHashMap<>();
+            frame.put("type", "notification");
+            frame.put("data", notifications);
+            TextMessage message = toMessage(frame);
+            if (message == null) {
+                continue;
+            }
+            // 通知不能合并，每帧使用不重复的键
+            String key = "frame#" + frameSequence.incrementAndGet();
+            for (PushConnection connection : targets) {
+                offer(connection, key, message);
+            }
+        }
+    }
+    
+    private void offer(PushConnection connection, String key, TextMessage message) {
+        enqueue(connection, key, message, queueCapacity);
+    }
+    
+    /**
+     * 将帧放入连接的待发送队列并调度发送，连接不需要在推送中心登记
+     *
+     * @param connection 连接
+     * @param key 合并键，同键的未发送帧被替换
+     * @param message 帧
+     * @param capacity 队列容量
+     * @return 是否因队列已满丢弃了帧
+     */
+    public boolean enqueue(PushConnection connection, String key, WebSocketMessage<?> message, int capacity) {
+        int result = connection.offer(key, message, capacity);
+        framesCounter.increment();
+        if ((result & PushConnection.CONFLATED) != 0) {
+            conflatedCounter.increment();
+        }
+        if ((result & PushConnection.DROPPED) != 0) {
+            droppedCounter.increment();
+        }
+        if ((result & PushConnection.SCHEDULE) != 0) {
+            schedule(connection);
+        }
+        return (result & PushConnection.DROPPED) != 0;
+    }
+    
+    /**
+     * 丢弃连接所有未发送的帧，改为发送给定的帧
+     *
+     * @param connection 连接
+     * @param key 合并键
+     * @param message 帧
+     */
+    public void reset(PushConnection connection, String key, WebSocketMessage<?> message) {
+        framesCounter.increment();
+        if (connection.reset(key, message)) {
+            schedule(connection);
+        }
+    }
+    
+    private void schedule(PushConnection connection) {
+        try {
+            sendExecutor.execute(() -> connection.drain(sendExecutor));
+        } catch (RejectedExecutionException e) {
+            // 线程池关闭中
+            log.debug("WebSocket发送线程池已关闭");
+        }
+    }
+    
+    private TextMessage toMessage(Object frame) {
+        try {
+            return new TextMessage(objectMapper.writeValueAsString(frame));
+        } catch (JsonProcessingException e) {
+            log.error("序列化推送数据失败", e);
+            return null;
+        }
+    }
+    
+    private void removeSubscriber(String topic, PushConnection connection) {
+        subscribers.computeIfPresent(topic, (t, set) -> {
+            set.remove(connection);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
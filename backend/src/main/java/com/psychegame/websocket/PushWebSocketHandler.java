@@ -0,0 +1,132 @@
+package com.psychegame.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psychegame.enums.GameType;
+import com.psychegame.enums.LeaderboardWindow;
+import com.psychegame.service.support.PresenceTracker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 推送WebSocket处理器（/ws）
+ * <p>
+ * 客户端发送 {"op":"subscribe","topic":"leaderboard:2048:all"} 订阅主题、
+ * {"op":"unsubscribe","topic":...} 取消订阅；服务端推送 {"type":"topic","topic":...,"data":...}
+ * 和 {"type":"notification","data":[...]}。排行榜主题为"leaderboard:游戏编码:时间范围"，
+ * 推送前N名，首屏数据由HTTP接口获取。用户通知无需订阅。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class PushWebSocketHandler extends TextWebSocketHandler {
+    
+    /**
+     * 会话属性中保存连接对象的键
+     */
+    private static final String CONNECTION = "pushConnection";
+    
+    @Autowired
+    private PushHub pushHub;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private PresenceTracker presenceTracker;
+    
+    @Value("${websocket.push.send-timeout:5000}")
+    private long sendTimeoutMillis;
+    
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        PushConnection connection = new PushConnection(session,
+                (Long) session.getAttributes().get(JwtHandshakeInterceptor.USER_ID), sendTimeoutMillis);
+        session.getAttributes().put(CONNECTION, connection);
+        pushHub.register(connection);
+        presenceTracker.connect(connection.getUserId());
+    }
+    
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        PushConnection connection = (PushConnection) session.getAttributes().get(CONNECTION);
+        String topic = null;
+        try {
+            JsonNode request = objectMapper.readTree(message.getPayload());
+            String op = request.path("op").asText();
+            topic = normalizeTopic(request.path("topic").asText());
+            switch (op) {
+                case "subscribe" -> pushHub.subscribe(connection, topic);
+                case "unsubscribe" -> pushHub.unsubscribe(connection, topic);
+                default -> throw new RuntimeException("不支持的操作");
+            }
+            pushHub.send(connection, reply(op, topic, null));
+        } catch (RuntimeException e) {
+            pushHub.send(connection, reply("error", topic, e.getMessage()));
+        } catch (Exception e) {
+            pushHub.send(connection, reply("error", topic, "消息格式错误"));
+        }
+    }
+    
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("WebSocket传输错误: session={}, {}", session.getId(), exception.getMessage());
+    }
+    
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        pushHub.unregister(session.getId());
+        PushConnection connection = (PushConnection) session.getAttributes().get(CONNECTION);
+        if (connection != null) {
+            presenceTracker.disconnect(connection.getUserId());
+        }
+    }
+    
+    /**
+     * 校验主题并规范化，排行榜时间范围为空时为总榜
+     *
+     * @param topic 主题
+     * @return 规范化后的主题
+     */
+    private static String normalizeTopic(String topic) {
+        String[] parts = topic.split(":", -1);
+        if (parts.length < 2 || parts.length > 3 || !"leaderboard".equals(parts[0])) {
+            throw new RuntimeException("主题不存在");
+        }
+        GameType gameType = GameType.fromCode(parts[1]);
+        LeaderboardWindow window = LeaderboardWindow.fromCode(parts.length == 3 ? parts[2] : null);
+        return leaderboardTopic(gameType.getCode(), window.getCode());
+    }
+    
+    /**
+     * 排行榜主题名
+     *
+     * @param gameCode 游戏编码
+     * @param window 时间范围编码
+     * @return 主题
+     */
+    public static String leaderboardTopic(String gameCode, String window) {
+        return "leaderboard:" + gameCode + ":" + window;
+    }
+    
+    private static Map<String, Object> reply(String type, String topic, String message) {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", type);
+        frame.put("topic", topic);
+        if (message != null) {
+            frame.put("message", message);
+        }
+        return frame;
+    }
+}
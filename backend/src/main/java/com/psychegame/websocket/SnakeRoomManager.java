@@ -0,0 +1,332 @@
+package com.psychegame.websocket;
+
+import com.psychegame.game.SnakeRoom;
+import com.sun.management.ThreadMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 多人贪吃蛇房间管理
+ * <p>
+ * 房间按编号分配到固定数量的分片，每个分片一个线程，以固定频率依次推进本分片的所有房间。
+ * 房间状态只由所在分片线程访问，加入、离开通过分片的无锁命令队列提交，方向输入直接写入房间的输入数组。
+ * 每帧对房间编码一次增量帧，所有玩家共享同一份字节；某个玩家的待发送队列满而丢帧时，
+ * 丢弃其积压的增量帧改发一帧关键帧。
+ * <p>
+ * 记录每帧耗时和分片线程每帧分配的字节数，并按累计耗时估算单核在当前帧率下可承载的房间数。
+ * 项目没有测试和基准测试模块，也无法引入JMH，这些指标即作为基准数据：以目标房间数压测时读取
+ * game.snake.room.capacity（单核在当前帧率下的房间数）和 game.snake.tick.allocated（每帧分配的字节数）。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class SnakeRoomManager {
+    
+    @Autowired
+    private PushHub pushHub;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${game.snake.tick-rate:20}")
+    private int tickRate;
+    
+    @Value("${game.snake.shards:0}")
+    private int shardCount;
+    
+    @Value("${game.snake.max-rooms:1000}")
+    private int maxRooms;
+    
+    @Value("${game.snake.room.width:40}")
+    private int width;
+    
+    @Value("${game.snake.room.height:30}")
+    private int height;
+    
+    @Value("${game.snake.room.max-players:8}")
+    private int maxPlayers;
+    
+    @Value("${game.snake.room.food:4}")
+    private int foodCount;
+    
+    @Value("${game.snake.room.respawn-ticks:40}")
+    private int respawnTicks;
+    
+    @Value("${game.snake.queue-capacity:8}")
+    private int queueCapacity;
+    
+    /**
+     * 房间编号 -> 房间
+     */
+    private final Map<Long, RoomHandle> rooms = new ConcurrentHashMap<>();
+    
+    private final AtomicLong roomSequence = new AtomicLong();
+    
+    private final LongAdder roomTicks = new LongAdder();
+    
+    private final LongAdder roomTickNanos = new LongAdder();
+    
+    private Shard[] shards;
+    
+    private Timer tickTimer;
+    
+    private DistributionSummary allocatedSummary;
+    
+    private Counter resyncCounter;
+    
+    @PostConstruct
+    public void init() {
+        tickTimer = Timer.builder("game.snake.tick")
+                .description("分片推进一帧的耗时")
+                .register(meterRegistry);
+        allocatedSummary = DistributionSummary.builder("game.snake.tick.allocated")
+                .description("分片推进一帧分配的字节数")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        resyncCounter = Counter.builder("game.snake.resync")
+                .description("因丢帧改发关键帧的次数")
+                .register(meterRegistry);
+        Gauge.builder("game.snake.rooms", rooms, Map::size)
+                .description("房间数")
+                .register(meterRegistry);
+        Gauge.builder("game.snake.room.capacity", this, SnakeRoomManager::roomsPerCore)
+                .description("按平均每房间每帧耗时估算的单核可承载房间数")
+                .register(meterRegistry);
+        
+        // 未配置时使用CPU核数的一半，房间推进为纯计算任务
+        int count = shardCount > 0 ? shardCount : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        shards = new Shard[count];
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / tickRate;
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(i);
+            shards[i].executor.scheduleAtFixedRate(shards[i], periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        for (Shard shard : shards) {
+            shard.executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * 加入一个有空位的房间，没有时创建新房间
+     *
+     * @param connection 连接
+     * @return 座位
+     */
+    public SnakeSeat join(PushConnection connection) {
+        RoomHandle room = null;
+        for (RoomHandle candidate : rooms.values()) {
+            if (candidate.reserve()) {
+                room = candidate;
+                break;
+            }
+        }
+        if (room == null) {
+            if (rooms.size() >= maxRooms) {
+                throw new RuntimeException("房间已满，请稍后重试");
+            }
+            long id = roomSequence.incrementAndGet();
+            SnakeRoom snakeRoom = new SnakeRoom(width, height, maxPlayers, foodCount, respawnTicks,
+                    ThreadLocalRandom.current().nextLong());
+            room = new RoomHandle(id, snakeRoom, shards[(int) (id % shards.length)]);
+            room.reserve();
+            rooms.put(id, room);
+            RoomHandle created = room;
+            room.shard.commands.add(() -> created.shard.shardRooms.add(created));
+        }
+        
+        SnakeSeat seat = new SnakeSeat(connection, room);
+        RoomHandle target = room;
+        room.shard.commands.add(() -> {
+            int slot = target.room.join();
+            if (slot < 0) {
+                connection.close(CloseStatus.SERVICE_OVERLOAD);
+                return;
+            }
+            target.members[slot] = connection;
+            seat.setSlot(slot);
+            pushHub.enqueue(connection, "welcome", new BinaryMessage(target.room.welcomeFrame(slot, tickRate)), queueCapacity);
+            pushHub.enqueue(connection, "key", new BinaryMessage(target.room.keyFrame()), queueCapacity);
+        });
+        return seat;
+    }
+    
+    /**
+     * 离开房间
+     *
+     * @param seat 座位
+     */
+    public void leave(SnakeSeat seat) {
+        RoomHandle room = seat.getRoom();
+        room.shard.commands.add(() -> {
+            int slot = seat.getSlot();
+            if (slot >= 0) {
+                room.room.leave(slot);
+                room.members[slot] = null;
+            }
+            room.seats.decrementAndGet();
+        });
+    }
+    
+    /**
+     * 方向输入，下一帧生效
+     *
+     * @param seat 座位
+     * @param direction 方向：0上、1右、2下、3左
+     */
+    public void input(SnakeSeat seat, int direction) {
+        seat.getRoom().room.input(seat.getSlot(), direction);
+    }
+    
+    private double roomsPerCore() {
+        long nanos = roomTickNanos.sum();
+        return nanos == 0 ? 0 : (double) TimeUnit.SECONDS.toNanos(1) / tickRate * roomTicks.sum() / nanos;
+    }
+    
+    /**
+     * 房间及其玩家连接
+     */
+    static final class RoomHandle {
+        
+        private final long id;
+        
+        private final SnakeRoom room;
+        
+        private final Shard shard;
+        
+        /**
+         * 已预留的座位数，-1表示房间已关闭
+         */
+        private final AtomicInteger seats = new AtomicInteger();
+        
+        /**
+         * 座位号 -> 连接，只由分片线程访问
+         */
+        private final PushConnection[] members;
+        
+        RoomHandle(long id, SnakeRoom room, Shard shard) {
+            this.id = id;
+            this.room = room;
+            this.shard = shard;
+            this.members = new PushConnection[room.getMaxPlayers()];
+        }
+        
+        boolean reserve() {
+            while (true) {
+                int current = seats.get();
+                if (current < 0 || current >= members.length) {
+                    return false;
+                }
+                if (seats.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+    
+    /**
+     * 分片：单线程推进一组房间
+     */
+    private final class Shard implements Runnable {
+        
+        private final ScheduledExecutorService executor;
+        
+        private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+        
+        /**
+         * 本分片的房间，只由分片线程访问
+         */
+        private final List<RoomHandle> shardRooms = new ArrayList<>();
+        
+        private final ThreadMXBean threadBean;
+        
+        Shard(int index) {
+            executor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("snake-shard-" + index + "-"));
+            threadBean = ManagementFactory.getThreadMXBean() instanceof ThreadMXBean bean
+                    && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled() ? bean : null;
+        }
+        
+        @Override
+        public void run() {
+            try {
+                long allocatedBefore = threadBean != null ? threadBean.getCurrentThreadAllocatedBytes() : 0;
+                long start = System.nanoTime();
+                Runnable command;
+                while ((command = commands.poll()) != null) {
+                    command.run();
+                }
+                for (int i = shardRooms.size() - 1; i >= 0; i--) {
+                    RoomHandle room = shardRooms.get(i);
+                    // 没有玩家也没有预留座位时关闭房间
+                    if (room.room.getPlayers() == 0 && room.seats.compareAndSet(0, -1)) {
+                        shardRooms.remove(i);
+                        rooms.remove(room.id);
+                        continue;
+                    }
+                    long roomStart = System.nanoTime();
+                    tickRoom(room);
+                    roomTickNanos.add(System.nanoTime() - roomStart);
+                    roomTicks.increment();
+                }
+                tickTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (threadBean != null) {
+                    allocatedSummary.record(threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore);
+                }
+            } catch (Exception e) {
+                // 异常不能抛出，否则后续帧不再执行
+                log.error("贪吃蛇房间推进失败", e);
+            }
+        }
+        
+        private void tickRoom(RoomHandle room) {
+            room.room.tick();
+            byte[] delta = room.room.deltaFrame();
+            String deltaKey = "delta#" + room.room.getTick();
+            byte[] key = null;
+            for (PushConnection member : room.members) {
+                if (member == null) {
+                    continue;
+                }
+                if (pushHub.enqueue(member, deltaKey, new BinaryMessage(delta), queueCapacity)) {
+                    if (key == null) {
+                        key = room.room.keyFrame();
+                    }
+                    pushHub.reset(member, "key", new BinaryMessage(key));
+                    resyncCounter.increment();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.psychegame.websocket;
+
+import lombok.Getter;
+
+/**
+ * 玩家在多人贪吃蛇房间中的座位
+ * <p>
+ * 由连接线程创建，座位号由房间所在的分片线程在玩家加入后写入。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Getter
+public class SnakeSeat {
+    
+    private final PushConnection connection;
+    
+    private final SnakeRoomManager.RoomHandle room;
+    
+    /**
+     * 座位号，加入前为-1
+     */
+    private volatile int slot = -1;
+    
+    SnakeSeat(PushConnection connection, SnakeRoomManager.RoomHandle room) {
+        this.connection = connection;
+        this.room = room;
+    }
+    
+    void setSlot(int slot) {
+        this.slot = slot;
+    }
+}
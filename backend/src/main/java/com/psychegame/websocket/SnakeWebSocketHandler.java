@@ -0,0 +1,84 @@
+package com.psychegame.websocket;
+
+import com.psychegame.enums.GameType;
+import com.psychegame.service.support.PresenceTracker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 多人贪吃蛇WebSocket处理器（/ws/snake）
+ * <p>
+ * 连接建立后自动加入一个有空位的房间，服务端依次发送欢迎帧、关键帧，之后每帧发送增量帧，
+ * 帧格式见 {@link com.psychegame.game.SnakeRoom}。客户端发送两字节的二进制消息 [1, 方向] 改变方向，
+ * 方向0上、1右、2下、3左。
+ *
+ * @author Psyche Game Team
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class SnakeWebSocketHandler extends BinaryWebSocketHandler {
+    
+    /**
+     * 客户端消息类型：方向输入
+     */
+    private static final byte MESSAGE_INPUT = 1;
+    
+    /**
+     * 会话属性中保存座位的键
+     */
+    private static final String SEAT = "snakeSeat";
+    
+    @Autowired
+    private SnakeRoomManager snakeRoomManager;
+    
+    @Autowired
+    private PresenceTracker presenceTracker;
+    
+    @Value("${websocket.push.send-timeout:5000}")
+    private long sendTimeoutMillis;
+    
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        Long userId = (Long) session.getAttributes().get(JwtHandshakeInterceptor.USER_ID);
+        PushConnection connection = new PushConnection(session, userId, sendTimeoutMillis);
+        presenceTracker.connect(userId);
+        try {
+            session.getAttributes().put(SEAT, snakeRoomManager.join(connection));
+            presenceTracker.recordActive(GameType.SNAKE.getCode(), userId);
+        } catch (RuntimeException e) {
+            session.close(CloseStatus.SERVICE_OVERLOAD.withReason("房间已满"));
+        }
+    }
+    
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        SnakeSeat seat = (SnakeSeat) session.getAttributes().get(SEAT);
+        ByteBuffer payload = message.getPayload();
+        if (seat != null && payload.remaining() == 2 && payload.get() == MESSAGE_INPUT) {
+            snakeRoomManager.input(seat, payload.get());
+        }
+    }
+    
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("WebSocket传输错误: session={}, {}", session.getId(), exception.getMessage());
+    }
+    
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        SnakeSeat seat = (SnakeSeat) session.getAttributes().remove(SEAT);
+        if (seat != null) {
+            snakeRoomManager.leave(seat);
+        }
+        presenceTracker.disconnect((Long) session.getAttributes().get(JwtHandshakeInterceptor.USER_ID));
+    }
+}
@@ -0,0 +1,162 @@
+-- Psyche Game 本地环境（H2）表结构
+-- 本地环境启动时执行，所有语句需可重复执行
+
+-- 用户表
+CREATE TABLE IF NOT EXISTS user (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    password VARCHAR(100) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    nickname VARCHAR(50),
+    avatar VARCHAR(255),
+    role VARCHAR(20) NOT NULL DEFAULT 'user',
+    status VARCHAR(20) NOT NULL DEFAULT 'active',
+    last_login_time TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version INT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_user_username UNIQUE (username),
+    CONSTRAINT uk_user_email UNIQUE (email)
+);
+
+-- 乐观锁版本号（早期创建的表补充此列）
+ALTER TABLE user ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0;
+
+-- 用户列表分页索引
+CREATE INDEX IF NOT EXISTS idx_user_created_at_id ON user (created_at, id);
+
+-- 用户名、邮箱占用索引按修改时间同步其他节点的注册和修改
+CREATE INDEX IF NOT EXISTS idx_user_updated_at ON user (updated_at);
+
+-- 游戏成绩表，每局游戏一条记录
+CREATE TABLE IF NOT EXISTS game_score (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    game_code VARCHAR(20) NOT NULL,
+    score BIGINT NOT NULL,
+    duration INT,
+    played_at TIMESTAMP NOT NULL
+);
+
+-- 个人游戏记录分页索引（覆盖列表所需的列）
+CREATE INDEX IF NOT EXISTS idx_game_score_user_history ON game_score (user_id, game_code, played_at, id, score, duration);
+
+-- 成绩压缩按时间范围扫描
+CREATE INDEX IF NOT EXISTS idx_game_score_played_at ON game_score (played_at);
+
+-- 游戏成绩日汇总表，超过保留天数的成绩按用户、游戏、日期汇总后写入此表
+CREATE TABLE IF NOT EXISTS game_score_daily (
+    user_id BIGINT NOT NULL,
+    game_code VARCHAR(20) NOT NULL,
+    play_date DATE NOT NULL,
+    play_count INT NOT NULL,
+    best_score BIGINT NOT NULL,
+    score_sum BIGINT NOT NULL,
+    total_duration BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, game_code, play_date)
+);
+
+-- 游戏统计表，由成绩提交时的内存计数器定时累加
+CREATE TABLE IF NOT EXISTS game_stats (
+    game_code VARCHAR(20) PRIMARY KEY,
+    play_count BIGINT NOT NULL DEFAULT 0,
+    score_sum BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- 统计表为空时按已有成绩初始化
+INSERT INTO game_stats (game_code, play_count, score_sum, updated_at)
+SELECT game_code, COUNT(*), SUM(score), CURRENT_TIMESTAMP FROM game_score
+WHERE NOT EXISTS (SELECT 1 FROM game_stats)
+GROUP BY game_code;
+
+-- 论坛文章表，摘要在写入时截取，列表查询不读取正文
+CREATE TABLE IF NOT EXISTS forum_article (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    title VARCHAR(100) NOT NULL,
+    summary VARCHAR(200) NOT NULL,
+    content CLOB NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'published',
+    view_count BIGINT NOT NULL DEFAULT 0,
+    like_count BIGINT NOT NULL DEFAULT 0,
+    collect_count BIGINT NOT NULL DEFAULT 0,
+    comment_count BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- 收藏数（早期创建的表补充此列）
+ALTER TABLE forum_article ADD COLUMN IF NOT EXISTS collect_count BIGINT NOT NULL DEFAULT 0;
+
+-- 文章列表键集分页索引
+CREATE INDEX IF NOT EXISTS idx_forum_article_list ON forum_article (status, created_at, id);
+
+-- 作者文章列表键集分页索引
+CREATE INDEX IF NOT EXISTS idx_forum_article_user ON forum_article (user_id, created_at, id);
+
+-- 搜索索引按更新时间增量同步
+CREATE INDEX IF NOT EXISTS idx_forum_article_updated ON forum_article (updated_at);
+
+-- 论坛点赞、收藏记录，由计数器定时批量写入
+CREATE TABLE IF NOT EXISTS forum_reaction (
+    kind VARCHAR(20) NOT NULL,
+    target_type VARCHAR(20) NOT NULL,
+    target_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (kind, target_type, target_id, user_id)
+);
+
+-- 论坛评论表，path为从根评论到本评论的各级ID（8位36进制定长）拼接，按path排序即为楼中楼的先序遍历顺序
+CREATE TABLE IF NOT EXISTS forum_comment (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    article_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    parent_id BIGINT,
+    reply_to_user_id BIGINT,
+    path VARCHAR(128) NOT NULL,
+    content VARCHAR(2000) NOT NULL,
+    deleted BOOLEAN NOT NULL DEFAULT FALSE,
+    like_count BIGINT NOT NULL DEFAULT 0,
+    reply_count BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- 评论分页及子树查询为此索引上的一次范围扫描
+CREATE INDEX IF NOT EXISTS idx_forum_comment_path ON forum_comment (article_id, path);
+
+-- 评论搜索索引按更新时间增量同步
+CREATE INDEX IF NOT EXISTS idx_forum_comment_updated ON forum_comment (updated_at);
+
+-- 表行数，由内存计数器定时累加，服务状态页不执行 COUNT(*)
+CREATE TABLE IF NOT EXISTS table_row_count (
+    table_name VARCHAR(64) PRIMARY KEY,
+    row_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- 计数记录不存在时按已有数据初始化
+INSERT INTO table_row_count (table_name, row_count, updated_at)
+SELECT 'user', (SELECT COUNT(*) FROM user), CURRENT_TIMESTAMP FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM table_row_count WHERE table_name = 'user');
+INSERT INTO table_row_count (table_name, row_count, updated_at)
+SELECT 'forum_article', (SELECT COUNT(*) FROM forum_article), CURRENT_TIMESTAMP FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM table_row_count WHERE table_name = 'forum_article');
+INSERT INTO table_row_count (table_name, row_count, updated_at)
+SELECT 'forum_comment', (SELECT COUNT(*) FROM forum_comment), CURRENT_TIMESTAMP FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM table_row_count WHERE table_name = 'forum_comment');
+
+-- 从库心跳，各节点定时写入主库并从从库读回，用于计算复制延迟
+CREATE TABLE IF NOT EXISTS replica_heartbeat (
+    node_id VARCHAR(64) PRIMARY KEY,
+    beat_at BIGINT NOT NULL
+);
+
+-- 已使用的录像种子令牌，主键保证同一局在所有节点上只能提交一次
+CREATE TABLE IF NOT EXISTS replay_token_used (
+    signature VARCHAR(64) PRIMARY KEY,
+    expires_at BIGINT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_replay_token_expires ON replay_token_used (expires_at);
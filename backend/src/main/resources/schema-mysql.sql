@@ -0,0 +1,160 @@
+-- Psyche Game 在线环境（MySQL）表结构
+-- 在线环境不自动执行，由运维在发布前执行
+
+-- 用户表
+CREATE TABLE IF NOT EXISTS `user` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '用户ID',
+    `username` VARCHAR(50) NOT NULL COMMENT '用户名',
+    `password` VARCHAR(100) NOT NULL COMMENT '密码',
+    `email` VARCHAR(100) NOT NULL COMMENT '邮箱',
+    `nickname` VARCHAR(50) DEFAULT NULL COMMENT '昵称',
+    `avatar` VARCHAR(255) DEFAULT NULL COMMENT '头像',
+    `role` VARCHAR(20) NOT NULL DEFAULT 'user' COMMENT '角色：user/admin',
+    `status` VARCHAR(20) NOT NULL DEFAULT 'active' COMMENT '状态：active/inactive',
+    `last_login_time` DATETIME DEFAULT NULL COMMENT '最后登录时间',
+    `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `updated_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '更新时间',
+    `version` INT NOT NULL DEFAULT 0 COMMENT '乐观锁版本号',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_user_username` (`username`),
+    UNIQUE KEY `uk_user_email` (`email`),
+    KEY `idx_user_created_at_id` (`created_at`, `id`),
+    KEY `idx_user_updated_at` (`updated_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='用户表';
+
+-- 已有库升级：
+-- ALTER TABLE `user` ADD COLUMN `version` INT NOT NULL DEFAULT 0 COMMENT '乐观锁版本号';
+-- ALTER TABLE `user` ADD KEY `idx_user_updated_at` (`updated_at`);
+
+-- 游戏成绩表，每局游戏一条记录
+CREATE TABLE IF NOT EXISTS `game_score` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '记录ID',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `game_code` VARCHAR(20) NOT NULL COMMENT '游戏编码',
+    `score` BIGINT NOT NULL COMMENT '分数',
+    `duration` INT DEFAULT NULL COMMENT '游戏时长（秒）',
+    `played_at` DATETIME NOT NULL COMMENT '游戏结束时间',
+    PRIMARY KEY (`id`),
+    KEY `idx_game_score_user_history` (`user_id`, `game_code`, `played_at`, `id`, `score`, `duration`),
+    KEY `idx_game_score_played_at` (`played_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='游戏成绩表';
+
+-- 已有库升级：
+-- ALTER TABLE `game_score` ADD KEY `idx_game_score_user_history` (`user_id`, `game_code`, `played_at`, `id`, `score`, `duration`), ADD KEY `idx_game_score_played_at` (`played_at`);
+
+-- 游戏成绩日汇总表，超过保留天数的成绩按用户、游戏、日期汇总后写入此表
+CREATE TABLE IF NOT EXISTS `game_score_daily` (
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `game_code` VARCHAR(20) NOT NULL COMMENT '游戏编码',
+    `play_date` DATE NOT NULL COMMENT '日期',
+    `play_count` INT NOT NULL COMMENT '游戏次数',
+    `best_score` BIGINT NOT NULL COMMENT '最高分',
+    `score_sum` BIGINT NOT NULL COMMENT '分数总和',
+    `total_duration` BIGINT NOT NULL DEFAULT 0 COMMENT '总时长（秒）',
+    PRIMARY KEY (`user_id`, `game_code`, `play_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='游戏成绩日汇总表';
+
+-- 游戏统计表，由成绩提交时的内存计数器定时累加
+CREATE TABLE IF NOT EXISTS `game_stats` (
+    `game_code` VARCHAR(20) NOT NULL COMMENT '游戏编码',
+    `play_count` BIGINT NOT NULL DEFAULT 0 COMMENT '游戏次数',
+    `score_sum` BIGINT NOT NULL DEFAULT 0 COMMENT '分数总和',
+    `updated_at` DATETIME NOT NULL COMMENT '更新时间',
+    PRIMARY KEY (`game_code`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='游戏统计表';
+
+-- 统计表为空时按已有成绩初始化
+INSERT INTO `game_stats` (`game_code`, `play_count`, `score_sum`, `updated_at`)
+SELECT `game_code`, COUNT(*), SUM(`score`), NOW() FROM `game_score`
+WHERE NOT EXISTS (SELECT 1 FROM `game_stats`)
+GROUP BY `game_code`;
+
+-- 论坛文章表，摘要在写入时截取，列表查询不读取正文
+CREATE TABLE IF NOT EXISTS `forum_article` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '文章ID',
+    `user_id` BIGINT NOT NULL COMMENT '作者ID',
+    `title` VARCHAR(100) NOT NULL COMMENT '标题',
+    `summary` VARCHAR(200) NOT NULL COMMENT '摘要',
+    `content` MEDIUMTEXT NOT NULL COMMENT '正文',
+    `status` VARCHAR(20) NOT NULL DEFAULT 'published' COMMENT '状态：published/draft',
+    `view_count` BIGINT NOT NULL DEFAULT 0 COMMENT '浏览数',
+    `like_count` BIGINT NOT NULL DEFAULT 0 COMMENT '点赞数',
+    `collect_count` BIGINT NOT NULL DEFAULT 0 COMMENT '收藏数',
+    `comment_count` BIGINT NOT NULL DEFAULT 0 COMMENT '评论数',
+    `created_at` DATETIME(3) NOT NULL COMMENT '创建时间',
+    `updated_at` DATETIME(3) NOT NULL COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    KEY `idx_forum_article_list` (`status`, `created_at`, `id`),
+    KEY `idx_forum_article_user` (`user_id`, `created_at`, `id`),
+    KEY `idx_forum_article_updated` (`updated_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='论坛文章表';
+
+-- 已有库升级：
+-- ALTER TABLE `forum_article` ADD COLUMN `collect_count` BIGINT NOT NULL DEFAULT 0 COMMENT '收藏数' AFTER `like_count`;
+-- ALTER TABLE `forum_article` ADD KEY `idx_forum_article_updated` (`updated_at`);
+
+-- 论坛点赞、收藏记录，由计数器定时批量写入
+CREATE TABLE IF NOT EXISTS `forum_reaction` (
+    `kind` VARCHAR(20) NOT NULL COMMENT '类型：like/collect',
+    `target_type` VARCHAR(20) NOT NULL COMMENT '对象类型：article/comment',
+    `target_id` BIGINT NOT NULL COMMENT '对象ID',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `created_at` DATETIME NOT NULL COMMENT '创建时间',
+    PRIMARY KEY (`kind`, `target_type`, `target_id`, `user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='论坛点赞收藏表';
+
+-- 论坛评论表，path为从根评论到本评论的各级ID（8位36进制定长）拼接，按path排序即为楼中楼的先序遍历顺序
+CREATE TABLE IF NOT EXISTS `forum_comment` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '评论ID',
+    `article_id` BIGINT NOT NULL COMMENT '文章ID',
+    `user_id` BIGINT NOT NULL COMMENT '评论者ID',
+    `parent_id` BIGINT DEFAULT NULL COMMENT '上级评论ID，根评论为NULL',
+    `reply_to_user_id` BIGINT DEFAULT NULL COMMENT '被回复的用户ID',
+    `path` VARCHAR(128) CHARACTER SET ascii COLLATE ascii_bin NOT NULL COMMENT '物化路径',
+    `content` VARCHAR(2000) NOT NULL COMMENT '内容',
+    `deleted` TINYINT(1) NOT NULL DEFAULT 0 COMMENT '是否已删除',
+    `like_count` BIGINT NOT NULL DEFAULT 0 COMMENT '点赞数',
+    `reply_count` BIGINT NOT NULL DEFAULT 0 COMMENT '直接回复数',
+    `created_at` DATETIME(3) NOT NULL COMMENT '创建时间',
+    `updated_at` DATETIME(3) NOT NULL COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    KEY `idx_forum_comment_path` (`article_id`, `path`),
+    KEY `idx_forum_comment_updated` (`updated_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='论坛评论表';
+
+-- 已有库升级：
+-- ALTER TABLE `forum_comment` ADD KEY `idx_forum_comment_updated` (`updated_at`);
+
+-- 表行数，由内存计数器定时累加，服务状态页不执行 COUNT(*)
+CREATE TABLE IF NOT EXISTS `table_row_count` (
+    `table_name` VARCHAR(64) NOT NULL COMMENT '表名',
+    `row_count` BIGINT NOT NULL DEFAULT 0 COMMENT '行数',
+    `updated_at` DATETIME NOT NULL COMMENT '更新时间',
+    PRIMARY KEY (`table_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='表行数统计表';
+
+-- 计数记录不存在时按已有数据初始化
+INSERT INTO `table_row_count` (`table_name`, `row_count`, `updated_at`)
+SELECT 'user', (SELECT COUNT(*) FROM `user`), NOW() FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM `table_row_count` WHERE `table_name` = 'user');
+INSERT INTO `table_row_count` (`table_name`, `row_count`, `updated_at`)
+SELECT 'forum_article', (SELECT COUNT(*) FROM `forum_article`), NOW() FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM `table_row_count` WHERE `table_name` = 'forum_article');
+INSERT INTO `table_row_count` (`table_name`, `row_count`, `updated_at`)
+SELECT 'forum_comment', (SELECT COUNT(*) FROM `forum_comment`), NOW() FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM `table_row_count` WHERE `table_name` = 'forum_comment');
+
+-- 从库心跳，各节点定时写入主库并从从库读回，用于计算复制延迟
+CREATE TABLE IF NOT EXISTS `replica_heartbeat` (
+    `node_id` VARCHAR(64) NOT NULL COMMENT '节点ID',
+    `beat_at` BIGINT NOT NULL COMMENT '心跳时间（毫秒时间戳）',
+    PRIMARY KEY (`node_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='从库心跳表';
+
+-- 已使用的录像种子令牌，主键保证同一局在所有节点上只能提交一次
+CREATE TABLE IF NOT EXISTS `replay_token_used` (
+    `signature` VARCHAR(64) NOT NULL COMMENT '令牌签名',
+    `expires_at` BIGINT NOT NULL COMMENT '令牌过期时间（毫秒时间戳）',
+    PRIMARY KEY (`signature`),
+    KEY `idx_replay_token_expires` (`expires_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='已使用录像种子表';